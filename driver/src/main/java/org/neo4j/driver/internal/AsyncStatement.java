@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.summary.SummaryBuilder;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.async.ResponseListener;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.summary.ResultSummary;
+
+import static org.neo4j.driver.v1.Values.ofValue;
+
+/**
+ * Runs a statement without waiting for it, see {@link org.neo4j.driver.v1.StatementRunner#runAsync}. Rather than
+ * being buffered as in {@link InternalStatementResult}, records are pushed to a {@link RecordListener} from wherever
+ * the connection receives them, and the summary completes a future once the whole result has been received.
+ */
+class AsyncStatement
+{
+    private final Connection connection;
+    private final Statement statement;
+    private final RecordListener records;
+    private final Runnable onCompleted;
+    private final InternalResponseFuture<ResultSummary> summary;
+
+    private List<String> keys = null;
+    /** What the record listener threw, after which it is no longer told about records */
+    private RuntimeException listenerFailure;
+
+    /**
+     * @param onCompleted called once the statement has completed, before the future does, or null
+     * @param logger where failures of listeners of the future are reported
+     */
+    AsyncStatement( Connection connection, Statement statement, RecordListener records, Runnable onCompleted,
+            Logger logger )
+    {
+        this.connection = connection;
+        this.statement = statement;
+        this.records = records;
+        this.onCompleted = onCompleted;
+        this.summary = new InternalResponseFuture<>( logger );
+    }
+
+    /**
+     * Queue the statement and send it, along with whatever was queued before it.
+     * @return the pending summary of the result
+     */
+    ResponseFuture<ResultSummary> run()
+    {
+        final SummaryCollector collector = new SummaryCollector( statement );
+        connection.run( statement.text(), statement.parameters().asMap( ofValue() ), new KeysCollector() );
+        connection.pullAll( collector );
+        connection.syncAsync( new ResponseListener<Void>()
+        {
+            @Override
+            public void onSuccess( Void result )
+            {
+                completed();
+                if ( listenerFailure == null )
+                {
+                    summary.onSuccess( collector.build() );
+                }
+                else
+                {
+                    summary.onFailure( new ClientException(
+                            "The record listener failed: " + listenerFailure.getMessage(), listenerFailure ) );
+                }
+            }
+
+            @Override
+            public void onFailure( Neo4jException error )
+            {
+                completed();
+                summary.onFailure( error );
+            }
+        } );
+        return summary;
+    }
+
+    private void completed()
+    {
+        if ( onCompleted != null )
+        {
+            onCompleted.run();
+        }
+    }
+
+    private class KeysCollector extends StreamCollector.NoOperationStreamCollector
+    {
+        @Override
+        public void keys( String[] names )
+        {
+            keys = Arrays.asList( names );
+        }
+
+        @Override
+        public void done()
+        {
+            if ( keys == null )
+            {
+                keys = new ArrayList<>();
+            }
+        }
+    }
+
+    private class SummaryCollector extends SummaryBuilder
+    {
+        SummaryCollector( Statement statement )
+        {
+            super( statement );
+        }
+
+        @Override
+        public void record( Value[] fields )
+        {
+            if ( listenerFailure != null )
+            {
+                return;
+            }
+            try
+            {
+                records.onRecord( new InternalRecord( keys, fields ) );
+            }
+            catch ( RuntimeException e )
+            {
+                // The rest of the result still has to be received for the connection to be of use again
+                listenerFailure = e;
+            }
+        }
+    }
+}
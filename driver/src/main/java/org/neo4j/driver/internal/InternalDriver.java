@@ -28,18 +28,40 @@ import org.neo4j.driver.v1.Driver;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.metrics.Metrics;
+import org.neo4j.driver.v1.metrics.MetricsProvider;
 
-public class InternalDriver implements Driver
+public class InternalDriver implements Driver, MetricsProvider
 {
     private final ConnectionPool connections;
     private final URI url;
     private final Config config;
+    private final RecordBuffers buffers;
 
     public InternalDriver( URI url, AuthToken authToken, Config config )
     {
         this.url = url;
-        this.connections = new InternalConnectionPool( config, authToken );
+        this.connections = connectionPool( url, authToken, config );
         this.config = config;
+        this.buffers = RecordBuffers.of( config );
+    }
+
+    private static ConnectionPool connectionPool( URI url, AuthToken authToken, Config config )
+    {
+        InternalConnectionPool pool = new InternalConnectionPool( config, authToken );
+        if ( config.connectionPoolWarmUp() && config.minIdleConnectionPoolSize() > 0 )
+        {
+            try
+            {
+                pool.warmUp( url, config.minIdleConnectionPoolSize() );
+            }
+            catch ( RuntimeException e )
+            {
+                pool.close();
+                throw e;
+            }
+        }
+        return pool;
     }
 
     /**
@@ -50,7 +72,13 @@ public class InternalDriver implements Driver
     @Override
     public Session session()
     {
-        return new InternalSession( connections.acquire( url ), config.logging().getLog( "session" ) );
+        return new InternalSession( connections, url, config, buffers );
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return connections.metrics();
     }
 
     /**
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.async.ResponseListener;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+
+/**
+ * A future that is completed by being told the outcome as a {@link ResponseListener} itself. Only the first outcome
+ * it is told counts.
+ * <p>
+ * Listeners are told on the thread that completes the future, which is usually an I/O thread, so a listener that
+ * throws must not take that thread down: failures of listeners are logged and otherwise ignored.
+ */
+public class InternalResponseFuture<T> implements ResponseFuture<T>, ResponseListener<T>
+{
+    private final Logger logger;
+    private final CountDownLatch done = new CountDownLatch( 1 );
+    /** Listeners waiting for the outcome, null once it is known */
+    private List<ResponseListener<? super T>> listeners = new ArrayList<>( 1 );
+    private T result;
+    private Neo4jException error;
+
+    /**
+     * @param logger where failures of listeners are reported
+     */
+    public InternalResponseFuture( Logger logger )
+    {
+        this.logger = logger;
+    }
+
+    @Override
+    public void onSuccess( T result )
+    {
+        List<ResponseListener<? super T>> toTell;
+        synchronized ( this )
+        {
+            if ( listeners == null )
+            {
+                return;
+            }
+            this.result = result;
+            toTell = complete();
+        }
+        for ( ResponseListener<? super T> listener : toTell )
+        {
+            tellSuccess( listener );
+        }
+    }
+
+    @Override
+    public void onFailure( Neo4jException error )
+    {
+        List<ResponseListener<? super T>> toTell;
+        synchronized ( this )
+        {
+            if ( listeners == null )
+            {
+                return;
+            }
+            this.error = error;
+            toTell = complete();
+        }
+        for ( ResponseListener<? super T> listener : toTell )
+        {
+            tellFailure( listener );
+        }
+    }
+
+    @Override
+    public void addListener( ResponseListener<? super T> listener )
+    {
+        synchronized ( this )
+        {
+            if ( listeners != null )
+            {
+                listeners.add( listener );
+                return;
+            }
+        }
+        if ( error == null )
+        {
+            tellSuccess( listener );
+        }
+        else
+        {
+            tellFailure( listener );
+        }
+    }
+
+    @Override
+    public boolean cancel( boolean mayInterruptIfRunning )
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled()
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isDone()
+    {
+        return done.getCount() == 0;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException
+    {
+        done.await();
+        return outcome();
+    }
+
+    @Override
+    public T get( long timeout, TimeUnit unit ) throws InterruptedException, ExecutionException, TimeoutException
+    {
+        if ( !done.await( timeout, unit ) )
+        {
+            throw new TimeoutException( "No response within " + timeout + " " + unit.toString().toLowerCase() + "." );
+        }
+        return outcome();
+    }
+
+    private List<ResponseListener<? super T>> complete()
+    {
+        List<ResponseListener<? super T>> waiting = listeners;
+        listeners = null;
+        done.countDown();
+        return waiting;
+    }
+
+    private T outcome() throws ExecutionException
+    {
+        if ( error != null )
+        {
+            throw new ExecutionException( error );
+        }
+        return result;
+    }
+
+    private void tellSuccess( ResponseListener<? super T> listener )
+    {
+        try
+        {
+            listener.onSuccess( result );
+        }
+        catch ( RuntimeException e )
+        {
+            logger.error( "A listener of an asynchronous response failed.", e );
+        }
+    }
+
+    private void tellFailure( ResponseListener<? super T> listener )
+    {
+        try
+        {
+            listener.onFailure( error );
+        }
+        catch ( RuntimeException e )
+        {
+            logger.error( "A listener of an asynchronous response failed.", e );
+        }
+    }
+}
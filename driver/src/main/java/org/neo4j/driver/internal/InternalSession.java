@@ -18,10 +18,15 @@
  */
 package org.neo4j.driver.internal;
 
+import java.net.URI;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.internal.types.InternalTypeSystem;
 import org.neo4j.driver.v1.Record;
@@ -31,34 +36,96 @@ import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Transaction;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.summary.ResultSummary;
 import org.neo4j.driver.v1.types.TypeSystem;
 
 import static org.neo4j.driver.v1.Values.value;
 
+/**
+ * A session created with a {@link ConnectionPool} only borrows a connection from the pool when it first runs a
+ * statement or begins a transaction, and hands it back as soon as it no longer needs it: when the result of the last
+ * statement it ran has been received in full, or when its transaction is closed. A session created with a connection
+ * holds on to that connection until it is closed.
+ */
 public class InternalSession implements Session
 {
-    private final Connection connection;
+    private final ConnectionPool pool;
+    private final URI url;
+    private Connection connection;
 
     private final Logger logger;
 
-    /** Called when a transaction object is closed */
+    /**
+     * Called when a transaction object is closed, which has synced the connection, possibly on an I/O thread where
+     * waiting for a response would never end
+     */
     private final Runnable txCleanup = new Runnable()
     {
         @Override
         public void run()
         {
             currentTransaction = null;
+            handBackConnection();
         }
     };
 
     private InternalTransaction currentTransaction;
+    /** The last result run on the session, if it has not asked for its records or had them discarded yet */
+    private InternalStatementResult undecided;
+    /** The number of statements run directly on the session, used to tell whether a result is the last one */
+    private long statementsRun;
     private AtomicBoolean isOpen = new AtomicBoolean( true );
+    private final Config config;
+    private final StatementFlusher flusher;
+    private final RecordBuffers buffers;
 
     public InternalSession( Connection connection, Logger logger )
     {
+        this( null, null, connection, logger, Config.defaultConfig() );
+    }
+
+    public InternalSession( ConnectionPool pool, URI url, Logger logger )
+    {
+        this( pool, url, null, logger, Config.defaultConfig() );
+    }
+
+    /**
+     * @param config the config of the driver, for how statements are sent
+     */
+    public InternalSession( ConnectionPool pool, URI url, Config config )
+    {
+        this( pool, url, config, RecordBuffers.of( config ) );
+    }
+
+    /**
+     * @param config the config of the driver, for how statements are sent
+     * @param buffers the memory of the driver for records, shared by the results of all its sessions
+     */
+    public InternalSession( ConnectionPool pool, URI url, Config config, RecordBuffers buffers )
+    {
+        this( pool, url, null, config.logging().getLog( "session" ), config, buffers );
+    }
+
+    private InternalSession( ConnectionPool pool, URI url, Connection connection, Logger logger, Config config )
+    {
+        this( pool, url, connection, logger, config, RecordBuffers.UNLIMITED );
+    }
+
+    private InternalSession( ConnectionPool pool, URI url, Connection connection, Logger logger, Config config,
+            RecordBuffers buffers )
+    {
+        this.buffers = buffers;
+        this.pool = pool;
+        this.url = url;
         this.connection = connection;
         this.logger = logger;
+        this.config = config;
+        this.flusher = new StatementFlusher( config );
     }
 
     @Override
@@ -91,13 +158,138 @@ public class InternalSession implements Session
     public StatementResult run( Statement statement )
     {
         ensureConnectionIsValidBeforeRunningSession();
-        InternalStatementResult cursor = new InternalStatementResult( connection, statement );
+        requestStream( true );
+        final long statementNumber = ++statementsRun;
+        InternalStatementResult cursor = new InternalStatementResult( connection, statement, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Results are received in order, so once the last one is complete, so are all others
+                if ( statementNumber == statementsRun && currentTransaction == null )
+                {
+                    releaseConnection();
+                }
+            }
+        }, buffers )
+        {
+            @Override
+            boolean isLastOnConnection()
+            {
+                return statementNumber == statementsRun && currentTransaction == null;
+            }
+        };
         connection.run( statement.text(), statement.parameters().asMap( Values.ofValue() ), cursor.runResponseCollector() );
-        connection.pullAll( cursor.pullAllResponseCollector() );
-        connection.flush();
+        // Whether the records are pulled or discarded is decided once the result is used, see requestStream(...)
+        cursor.deferStream();
+        undecided = cursor;
+        flusher.statementQueued( connection );
         return cursor;
     }
 
+    @Override
+    public List<ResultSummary> runAll( Iterable<Statement> statements )
+    {
+        return runAll( statements.iterator() );
+    }
+
+    @Override
+    public List<ResultSummary> runAll( String statementTemplate, Iterator<? extends Map<String,Object>> parameters )
+    {
+        return runAll( StatementPipeline.statements( statementTemplate, parameters ) );
+    }
+
+    @Override
+    public ResponseFuture<ResultSummary> runAsync( Statement statement, RecordListener records )
+    {
+        ensureConnectionIsValidBeforeRunningSession();
+        requestStream( true );
+        final long statementNumber = ++statementsRun;
+        return new AsyncStatement( connection, statement, records, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if ( statementNumber == statementsRun && currentTransaction == null )
+                {
+                    handBackConnection();
+                }
+            }
+        }, logger ).run();
+    }
+
+    private List<ResultSummary> runAll( Iterator<Statement> statements )
+    {
+        ensureConnectionIsValidBeforeRunningSession();
+        requestStream( true );
+        // Results of earlier statements are received along the way, none of them hands the connection back anymore
+        ++statementsRun;
+        List<ResultSummary> summaries =
+                new StatementPipeline( connection, config.maxStatementsInFlight() ).runAll( statements );
+        releaseConnection();
+        return summaries;
+    }
+
+    /**
+     * Have the last result run on the session queue PULL_ALL or DISCARD_ALL, if it has not yet, which has to come
+     * right after its RUN, before anything else is queued on the connection.
+     * @param pull whether the records of the result may still be wanted
+     */
+    private void requestStream( boolean pull )
+    {
+        if ( undecided != null )
+        {
+            InternalStatementResult result = undecided;
+            undecided = null;
+            result.requestStream( pull );
+        }
+    }
+
+    private void acquireConnection()
+    {
+        if ( connection == null )
+        {
+            connection = pool.acquire( url );
+        }
+    }
+
+    /**
+     * Hand the connection back to the pool, if it was borrowed from one.
+     */
+    private void releaseConnection()
+    {
+        if ( pool == null || connection == null )
+        {
+            return;
+        }
+        Connection released = connection;
+        connection = null;
+        try
+        {
+            released.sync();
+        }
+        finally
+        {
+            released.close();
+        }
+    }
+
+    /**
+     * Hand the connection back to the pool, if it was borrowed from one, without syncing it first. For when the
+     * connection has just been synced; anything queued on it since, such as the acknowledgement of a failure, goes out
+     * with whatever its next user sends.
+     */
+    private void handBackConnection()
+    {
+        if ( pool == null || connection == null )
+        {
+            return;
+        }
+        Connection released = connection;
+        connection = null;
+        released.close();
+    }
+
     @Override
     public boolean isOpen()
     {
@@ -113,6 +305,12 @@ public class InternalSession implements Session
             throw new ClientException( "This session has already been closed." );
         }
 
+        if ( connection == null )
+        {
+            // never borrowed a connection, or already handed it back
+            return;
+        }
+
         if( !connection.isOpen() )
         {
             // the socket connection is already closed due to some error, cannot send more data
@@ -120,6 +318,15 @@ public class InternalSession implements Session
             return;
         }
 
+        // Results are received on close, so that they can still be read afterwards, unless they are to be cancelled
+        requestStream( !config.cancelResultsOnClose() );
+
+        if ( config.cancelResultsOnClose() )
+        {
+            cancelAndClose();
+            return;
+        }
+
         if ( currentTransaction != null )
         {
             try
@@ -131,6 +338,11 @@ public class InternalSession implements Session
                 // Best-effort
             }
         }
+        if ( connection == null )
+        {
+            // closing the transaction handed the connection back
+            return;
+        }
         try
         {
             connection.sync();
@@ -142,11 +354,130 @@ public class InternalSession implements Session
 
     }
 
+    /**
+     * Reset the connection, which stops the results still to be received and rolls back an open transaction, and
+     * hand it back. Records already on their way are skipped over by the connection, see
+     * {@link Config#cancelResultsOnClose()}.
+     */
+    private void cancelAndClose()
+    {
+        try
+        {
+            if ( currentTransaction != null )
+            {
+                // A RUN has to be followed by PULL_ALL or DISCARD_ALL even if it is reset
+                currentTransaction.requestStream( false );
+            }
+            connection.reset();
+            connection.sync();
+        }
+        finally
+        {
+            if ( currentTransaction != null )
+            {
+                // The reset rolled the transaction back, so closing it only hands the connection back
+                currentTransaction.markToClose();
+                currentTransaction.close();
+            }
+            if ( connection != null )
+            {
+                connection.close();
+            }
+        }
+    }
+
+    @Override
+    public ResponseFuture<Void> closeAsync()
+    {
+        if ( !isOpen.compareAndSet( true, false ) )
+        {
+            throw new ClientException( "This session has already been closed." );
+        }
+
+        final InternalResponseFuture<Void> closed = new InternalResponseFuture<>( logger );
+        if ( connection != null && !connection.isOpen() )
+        {
+            connection.close();
+            connection = null;
+        }
+        if ( currentTransaction == null )
+        {
+            if ( connection != null )
+            {
+                requestStream( true );
+            }
+            closeConnectionAsync( closed );
+            return closed;
+        }
+
+        ResponseListener<Void> closeConnection = new ResponseListener<Void>()
+        {
+            @Override
+            public void onSuccess( Void result )
+            {
+                closeConnectionAsync( closed );
+            }
+
+            @Override
+            public void onFailure( Neo4jException error )
+            {
+                // Best-effort, as in close()
+                closeConnectionAsync( closed );
+            }
+        };
+        try
+        {
+            currentTransaction.closeAsync().addListener( closeConnection );
+        }
+        catch ( RuntimeException e )
+        {
+            closeConnection.onFailure( null );
+        }
+        return closed;
+    }
+
+    private void closeConnectionAsync( final InternalResponseFuture<Void> closed )
+    {
+        if ( connection == null )
+        {
+            // never borrowed a connection, or already handed it back
+            closed.onSuccess( null );
+            return;
+        }
+        final Connection closing = connection;
+        connection = null;
+        try
+        {
+            closing.syncAsync( new ResponseListener<Void>()
+            {
+                @Override
+                public void onSuccess( Void result )
+                {
+                    closing.close();
+                    closed.onSuccess( null );
+                }
+
+                @Override
+                public void onFailure( Neo4jException error )
+                {
+                    closing.close();
+                    closed.onFailure( error );
+                }
+            } );
+        }
+        catch ( RuntimeException e )
+        {
+            closing.close();
+            throw e;
+        }
+    }
+
     @Override
     public Transaction beginTransaction()
     {
         ensureConnectionIsValidBeforeOpeningTransaction();
-        currentTransaction = new InternalTransaction( connection, txCleanup );
+        requestStream( true );
+        currentTransaction = new InternalTransaction( connection, txCleanup, config, buffers );
         connection.onError( new Runnable() {
             @Override
             public void run()
@@ -176,22 +507,26 @@ public class InternalSession implements Session
 
     private void ensureConnectionIsValidBeforeRunningSession()
     {
-        ensureNoUnrecoverableError();
+        ensureSessionIsOpen();
         ensureNoOpenTransactionBeforeRunningSession();
+        acquireConnection();
+        ensureNoUnrecoverableError();
         ensureConnectionIsOpen();
     }
 
     private void ensureConnectionIsValidBeforeOpeningTransaction()
     {
-        ensureNoUnrecoverableError();
+        ensureSessionIsOpen();
         ensureNoOpenTransactionBeforeOpeningTransaction();
+        acquireConnection();
+        ensureNoUnrecoverableError();
         ensureConnectionIsOpen();
     }
 
     @Override
     protected void finalize() throws Throwable
     {
-        if( isOpen.compareAndSet( true, false ) )
+        if( isOpen.compareAndSet( true, false ) && connection != null )
         {
             logger.error( "Neo4j Session object leaked, please ensure that your application calls the `close` " +
                           "method on Sessions before disposing of the objects.", null );
@@ -200,6 +535,15 @@ public class InternalSession implements Session
         super.finalize();
     }
 
+    private void ensureSessionIsOpen()
+    {
+        // Checked before a connection is borrowed, so a closed session does not take one from the pool
+        if ( !isOpen.get() )
+        {
+            throw new ClientException( "This session has already been closed." );
+        }
+    }
+
     private void ensureNoUnrecoverableError()
     {
         if( connection.hasUnrecoverableErrors() )
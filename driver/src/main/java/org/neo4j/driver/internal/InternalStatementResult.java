@@ -20,9 +20,7 @@ package org.neo4j.driver.internal;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
@@ -31,6 +29,7 @@ import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.Statement;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.Publisher;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.NoSuchRecordException;
 import org.neo4j.driver.v1.summary.Notification;
@@ -47,21 +46,50 @@ import static java.util.Collections.emptyList;
 public class InternalStatementResult implements StatementResult
 {
     private final Connection connection;
+    private final Runnable onCompleted;
     private final StreamCollector runResponseCollector;
     private final StreamCollector pullAllResponseCollector;
-    private final Queue<Record> recordBuffer = new LinkedList<>();
+    private final SummaryBuilder summaryBuilder;
+    private ResultPublisher publisher;
+    private final RecordBuffer recordBuffer;
 
     private List<String> keys = null;
     private ResultSummary summary = null;
 
     private long position = -1;
     private boolean done = false;
+    private boolean completed = false;
+    private boolean flushed = false;
+    /** Whether PULL_ALL or DISCARD_ALL has been queued after the RUN of this result, see {@link #deferStream()} */
+    private boolean streamRequested = true;
 
     public InternalStatementResult( Connection connection, Statement statement )
+    {
+        this( connection, statement, null );
+    }
+
+    /**
+     * @param onCompleted called once all of the result has been received, after which the result no longer uses the
+     * connection, or null
+     */
+    InternalStatementResult( Connection connection, Statement statement, Runnable onCompleted )
+    {
+        this( connection, statement, onCompleted, RecordBuffers.UNLIMITED );
+    }
+
+    /**
+     * @param onCompleted called once all of the result has been received, after which the result no longer uses the
+     * connection, or null
+     * @param buffers the memory of the driver for records, which records received and not read yet are kept in
+     */
+    InternalStatementResult( Connection connection, Statement statement, Runnable onCompleted, RecordBuffers buffers )
     {
         this.connection = connection;
+        this.recordBuffer = buffers.newBuffer();
+        this.onCompleted = onCompleted;
+        this.summaryBuilder = new SummaryBuilder( statement );
         this.runResponseCollector = newRunResponseCollector();
-        this.pullAllResponseCollector = newPullAllResponseCollector( statement );
+        this.pullAllResponseCollector = newPullAllResponseCollector();
     }
 
     private StreamCollector newRunResponseCollector()
@@ -85,9 +113,8 @@ public class InternalStatementResult implements StatementResult
         };
     }
 
-    private StreamCollector newPullAllResponseCollector( Statement statement )
+    private StreamCollector newPullAllResponseCollector()
     {
-        final SummaryBuilder summaryBuilder = new SummaryBuilder( statement );
         return new StreamCollector.NoOperationStreamCollector()
         {
             @Override
@@ -144,6 +171,39 @@ public class InternalStatementResult implements StatementResult
         return pullAllResponseCollector;
     }
 
+    /**
+     * Leave it to this result to queue PULL_ALL or DISCARD_ALL after its RUN, which it does once it is first used:
+     * a result that is only consumed for its summary has its records discarded by the server rather than sent. Until
+     * then, {@link #requestStream(boolean)} has to be called before anything else is queued on the connection.
+     */
+    void deferStream()
+    {
+        streamRequested = false;
+    }
+
+    /**
+     * Queue PULL_ALL or DISCARD_ALL for this result, unless one of them has been queued already.
+     * @param pull whether the records of the result are wanted
+     */
+    void requestStream( boolean pull )
+    {
+        if ( streamRequested )
+        {
+            return;
+        }
+        streamRequested = true;
+        if ( pull )
+        {
+            connection.pullAll( pullAllResponseCollector );
+        }
+        else
+        {
+            connection.discardAll( pullAllResponseCollector );
+        }
+        // The RUN may have gone out on its own, but this has not
+        flushed = false;
+    }
+
     @Override
     public List<String> keys()
     {
@@ -248,6 +308,7 @@ public class InternalStatementResult implements StatementResult
     @Override
     public ResultSummary consume()
     {
+        requestStream( false );
         if ( done )
         {
             recordBuffer.clear();
@@ -256,7 +317,7 @@ public class InternalStatementResult implements StatementResult
         {
             do
             {
-                connection.receiveOne();
+                receiveOne();
                 recordBuffer.clear();
             }
             while ( !done );
@@ -265,6 +326,58 @@ public class InternalStatementResult implements StatementResult
         return summary;
     }
 
+    @Override
+    public Publisher<Record> publisher()
+    {
+        if ( publisher == null )
+        {
+            publisher = new ResultPublisher( this );
+        }
+        return publisher;
+    }
+
+    /**
+     * Stop receiving this result. If nothing has been queued on the connection after it, the server is told to stop
+     * producing the rest with a RESET; otherwise a RESET would stop the statements after it too, so the rest is
+     * received and thrown away as by {@link #consume()}.
+     */
+    @Override
+    public ResultSummary cancel()
+    {
+        if ( !streamRequested )
+        {
+            // No records have been asked for yet, so the server can simply be told to discard them
+            requestStream( false );
+            return consume();
+        }
+        // Responses arrive in order, so once the keys are in, whatever was queued before this result is done with
+        while ( keys == null && !done )
+        {
+            receiveOne();
+        }
+        if ( done || !isLastOnConnection() )
+        {
+            return consume();
+        }
+        // The records still to come are skipped over by the connection, and the collector is then told it is done
+        connection.reset();
+        connection.sync();
+        recordBuffer.clear();
+        summary = summaryBuilder.build();
+        done = true;
+        complete();
+        return summary;
+    }
+
+    /**
+     * @return true if nothing has been queued on the connection after this result, and no transaction is open on it,
+     * false if that is not known
+     */
+    boolean isLastOnConnection()
+    {
+        return false;
+    }
+
     @Override
     public void remove()
     {
@@ -279,9 +392,34 @@ public class InternalStatementResult implements StatementResult
             {
                 return false;
             }
-            connection.receiveOne();
+            receiveOne();
         }
 
         return true;
     }
+
+    private void receiveOne()
+    {
+        requestStream( true );
+        if ( !flushed )
+        {
+            // The statement may still be queued, see StatementFlusher
+            connection.flush();
+            flushed = true;
+        }
+        connection.receiveOne();
+        if ( done )
+        {
+            complete();
+        }
+    }
+
+    private void complete()
+    {
+        if ( !completed && onCompleted != null )
+        {
+            completed = true;
+            onCompleted.run();
+        }
+    }
 }
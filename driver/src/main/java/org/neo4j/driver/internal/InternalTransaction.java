@@ -19,19 +19,27 @@
 package org.neo4j.driver.internal;
 
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.internal.types.InternalTypeSystem;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.Statement;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Transaction;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.summary.ResultSummary;
 import org.neo4j.driver.v1.types.TypeSystem;
 
 import static org.neo4j.driver.v1.Values.ofValue;
@@ -65,17 +73,44 @@ public class InternalTransaction implements Transaction
 
     private final Runnable cleanup;
     private final Connection conn;
+    private final int maxStatementsInFlight;
+    private final StatementFlusher flusher;
+    private final Logger logger;
+    private final RecordBuffers buffers;
 
     private State state = State.ACTIVE;
+    /** The last result run in the transaction, if it has not asked for its records or had them discarded yet */
+    private InternalStatementResult undecided;
 
     public InternalTransaction( Connection conn, Runnable cleanup )
+    {
+        this( conn, cleanup, Config.defaultConfig() );
+    }
+
+    /**
+     * @param config the config of the driver, for how statements are sent
+     */
+    public InternalTransaction( Connection conn, Runnable cleanup, Config config )
+    {
+        this( conn, cleanup, config, RecordBuffers.UNLIMITED );
+    }
+
+    /**
+     * @param config the config of the driver, for how statements are sent
+     * @param buffers the memory of the driver for records, which the results of the transaction keep theirs in
+     */
+    public InternalTransaction( Connection conn, Runnable cleanup, Config config, RecordBuffers buffers )
     {
         this.conn = conn;
+        this.buffers = buffers;
         this.cleanup = cleanup;
+        this.maxStatementsInFlight = config.maxStatementsInFlight();
+        this.flusher = new StatementFlusher( config );
+        this.logger = config.logging().getLog( "transaction" );
 
         // Note there is no sync here, so this will just value queued locally
         conn.run( "BEGIN", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
-        conn.discardAll();
+        conn.discardAll( StreamCollector.NO_OP );
     }
 
     @Override
@@ -105,15 +140,17 @@ public class InternalTransaction implements Transaction
             {
                 if ( state == State.MARKED_SUCCESS )
                 {
+                    requestStream( true );
                     conn.run( "COMMIT", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
-                    conn.discardAll();
+                    conn.discardAll( StreamCollector.NO_OP );
                     conn.sync();
                     state = State.SUCCEEDED;
                 }
                 else if ( state == State.MARKED_FAILED || state == State.ACTIVE )
                 {
+                    requestStream( true );
                     conn.run( "ROLLBACK", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
-                    conn.discardAll();
+                    conn.discardAll( StreamCollector.NO_OP );
                     conn.sync();
                     state = State.ROLLED_BACK;
                 }
@@ -125,6 +162,62 @@ public class InternalTransaction implements Transaction
         }
     }
 
+    @Override
+    public ResponseFuture<Void> closeAsync()
+    {
+        final InternalResponseFuture<Void> closed = new InternalResponseFuture<>( logger );
+        final boolean commit = state == State.MARKED_SUCCESS;
+        boolean rollback = state == State.MARKED_FAILED || state == State.ACTIVE;
+        if ( conn == null || !conn.isOpen() || !(commit || rollback) )
+        {
+            cleanup.run();
+            closed.onSuccess( null );
+            return closed;
+        }
+
+        try
+        {
+            requestStream( true );
+            conn.run( commit ? "COMMIT" : "ROLLBACK", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
+            conn.discardAll( StreamCollector.NO_OP );
+            conn.syncAsync( new ResponseListener<Void>()
+            {
+                @Override
+                public void onSuccess( Void result )
+                {
+                    state = commit ? State.SUCCEEDED : State.ROLLED_BACK;
+                    try
+                    {
+                        cleanup.run();
+                    }
+                    finally
+                    {
+                        closed.onSuccess( null );
+                    }
+                }
+
+                @Override
+                public void onFailure( Neo4jException error )
+                {
+                    try
+                    {
+                        cleanup.run();
+                    }
+                    finally
+                    {
+                        closed.onFailure( error );
+                    }
+                }
+            } );
+        }
+        catch ( RuntimeException e )
+        {
+            cleanup.run();
+            throw e;
+        }
+        return closed;
+    }
+
     @Override
     @SuppressWarnings( "unchecked" )
     public StatementResult run( String statementText, Value statementParameters )
@@ -159,12 +252,15 @@ public class InternalTransaction implements Transaction
 
         try
         {
-            InternalStatementResult cursor = new InternalStatementResult( conn, statement );
+            requestStream( true );
+            InternalStatementResult cursor = new InternalStatementResult( conn, statement, null, buffers );
             conn.run( statement.text(),
                     statement.parameters().asMap( ofValue() ),
                     cursor.runResponseCollector() );
-            conn.pullAll( cursor.pullAllResponseCollector() );
-            conn.flush();
+            // As on a session, whether the records are pulled or discarded is decided once the result is used
+            cursor.deferStream();
+            undecided = cursor;
+            flusher.statementQueued( conn );
             return cursor;
         }
         catch ( Neo4jException e )
@@ -176,6 +272,43 @@ public class InternalTransaction implements Transaction
         }
     }
 
+    @Override
+    public List<ResultSummary> runAll( Iterable<Statement> statements )
+    {
+        return runAll( statements.iterator() );
+    }
+
+    @Override
+    public List<ResultSummary> runAll( String statementTemplate, Iterator<? extends Map<String,Object>> parameters )
+    {
+        return runAll( StatementPipeline.statements( statementTemplate, parameters ) );
+    }
+
+    @Override
+    public ResponseFuture<ResultSummary> runAsync( Statement statement, RecordListener records )
+    {
+        ensureNotFailed();
+
+        try
+        {
+            requestStream( true );
+            return new AsyncStatement( conn, statement, records, null, logger ).run();
+        }
+        catch ( Neo4jException e )
+        {
+            // As in run(...), the messages could not be sent, so no more are sent in this transaction
+            state = State.FAILED;
+            throw e;
+        }
+    }
+
+    private List<ResultSummary> runAll( Iterator<Statement> statements )
+    {
+        ensureNotFailed();
+        requestStream( true );
+        return new StatementPipeline( conn, maxStatementsInFlight ).runAll( statements );
+    }
+
     @Override
     public boolean isOpen()
     {
@@ -200,6 +333,21 @@ public class InternalTransaction implements Transaction
         return InternalTypeSystem.TYPE_SYSTEM;
     }
 
+    /**
+     * Have the last result run in the transaction queue PULL_ALL or DISCARD_ALL, if it has not yet, which has to come
+     * right after its RUN, before anything else is queued on the connection.
+     * @param pull whether the records of the result may still be wanted
+     */
+    void requestStream( boolean pull )
+    {
+        if ( undecided != null )
+        {
+            InternalStatementResult result = undecided;
+            undecided = null;
+            result.requestStream( pull );
+        }
+    }
+
     public void markToClose()
     {
         state = State.FAILED;
@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.driver.internal.metrics.InternalMetrics;
+import org.neo4j.driver.internal.pool.InternalConnectionPool;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.v1.AccessMode;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.metrics.Metrics;
+
+/**
+ * Picks the database instance for a session: the reachable instance serving the requested access mode that has the
+ * fewest connections in use, taking turns between instances that are equally busy.
+ *
+ * Instances the pool currently refuses to connect to are skipped. If that is all of them, one is picked anyway, so
+ * that the pool can probe whether it has come back.
+ */
+class LoadBalancer
+{
+    private final InternalConnectionPool pool;
+    private final InternalMetrics metrics;
+    private final List<URI> writers;
+    private final List<URI> readers;
+    private final AtomicInteger turn = new AtomicInteger();
+
+    /**
+     * @param writers the instances serving writes
+     * @param readers the instances serving reads, or an empty list to read from the writers
+     */
+    LoadBalancer( InternalConnectionPool pool, InternalMetrics metrics, List<URI> writers, List<URI> readers )
+    {
+        this.pool = pool;
+        this.metrics = metrics;
+        this.writers = new ArrayList<>( writers );
+        this.readers = readers.isEmpty() ? this.writers : new ArrayList<>( readers );
+    }
+
+    /**
+     * @param mode the access mode of the session to hand the pool to
+     * @return a view of the shared pool for one session, whatever URI it is asked for, which acquires connections
+     * from the instance serving the access mode {@link #select(AccessMode) selected} when the session borrows its
+     * first connection. Sessions borrow connections lazily, so picking the instance when the session is created would
+     * go by how busy the instances were then. Later connections come from the same instance, so that a session reads
+     * its own writes even though it hands its connection back between results.
+     */
+    ConnectionPool connections( final AccessMode mode )
+    {
+        return new ConnectionPool()
+        {
+            private volatile URI selected;
+
+            @Override
+            public Connection acquire( URI sessionURI )
+            {
+                if ( selected == null )
+                {
+                    selected = select( mode );
+                }
+                return pool.acquire( selected );
+            }
+
+            @Override
+            public Metrics metrics()
+            {
+                return pool.metrics();
+            }
+
+            @Override
+            public void close()
+            {
+                // The shared pool is closed with the driver
+            }
+        };
+    }
+
+    URI select( AccessMode mode )
+    {
+        List<URI> members = mode == AccessMode.READ ? readers : writers;
+        if ( members.isEmpty() )
+        {
+            throw new ClientException( "No database instance to " + (mode == AccessMode.READ ? "read from" : "write to") +
+                                       " has been configured." );
+        }
+
+        int size = members.size();
+        int start = (turn.getAndIncrement() & Integer.MAX_VALUE) % size;
+        URI selected = null;
+        int fewestInUse = Integer.MAX_VALUE;
+        for ( int i = 0; i < size; i++ )
+        {
+            URI member = members.get( (start + i) % size );
+            if ( !pool.isReachable( member ) )
+            {
+                continue;
+            }
+            int inUse = metrics.connectionPool( member ).inUse();
+            if ( inUse < fewestInUse )
+            {
+                selected = member;
+                fewestInUse = inUse;
+            }
+        }
+        return selected != null ? selected : members.get( start );
+    }
+
+    List<URI> members()
+    {
+        List<URI> all = new ArrayList<>( writers );
+        for ( URI reader : readers )
+        {
+            if ( !all.contains( reader ) )
+            {
+                all.add( reader );
+            }
+        }
+        return all;
+    }
+}
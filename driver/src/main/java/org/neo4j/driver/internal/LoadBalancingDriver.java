@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.net.URI;
+import java.util.List;
+
+import org.neo4j.driver.internal.metrics.InternalMetrics;
+import org.neo4j.driver.internal.pool.InternalConnectionPool;
+import org.neo4j.driver.v1.AccessMode;
+import org.neo4j.driver.v1.AuthToken;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.RoutingDriver;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.metrics.Metrics;
+import org.neo4j.driver.v1.metrics.MetricsProvider;
+
+/**
+ * A driver over several database instances, which share one connection pool. When a session borrows its first
+ * connection, a {@link LoadBalancer} picks the instance all its connections come from.
+ */
+public class LoadBalancingDriver implements RoutingDriver, MetricsProvider
+{
+    private final InternalConnectionPool connections;
+    private final LoadBalancer loadBalancer;
+    private final Config config;
+    private final RecordBuffers buffers;
+
+    public LoadBalancingDriver( List<URI> writers, List<URI> readers, AuthToken authToken, Config config )
+    {
+        InternalMetrics metrics = new InternalMetrics( config );
+        this.connections = new InternalConnectionPool( metrics, config, authToken );
+        this.loadBalancer = new LoadBalancer( connections, metrics, writers, readers );
+        this.config = config;
+        this.buffers = RecordBuffers.of( config );
+        warmUp();
+    }
+
+    private void warmUp()
+    {
+        if ( config.connectionPoolWarmUp() && config.minIdleConnectionPoolSize() > 0 )
+        {
+            try
+            {
+                for ( URI member : loadBalancer.members() )
+                {
+                    connections.warmUp( member, config.minIdleConnectionPoolSize() );
+                }
+            }
+            catch ( RuntimeException e )
+            {
+                connections.close();
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public Session session()
+    {
+        return session( AccessMode.WRITE );
+    }
+
+    @Override
+    public Session session( AccessMode mode )
+    {
+        // No instance is picked yet, the pool of the session picks one once it borrows its first connection
+        return new InternalSession( loadBalancer.connections( mode ), null, config, buffers );
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return connections.metrics();
+    }
+
+    @Override
+    public void close() throws Neo4jException
+    {
+        try
+        {
+            connections.close();
+        }
+        catch( Exception e )
+        {
+            throw new ClientException( "Failed to close driver.", e );
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.Queue;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.exceptions.ClientException;
+
+/**
+ * The records a result has received and not handed out yet. Records are kept in memory for as long as the
+ * {@link RecordBuffers} of the driver has room for them; once it has not, further records go to a
+ * {@link RecordSpillFile} until all of those have been read back, so that records still come out in order.
+ */
+class RecordBuffer
+{
+    private final RecordBuffers memory;
+    private final Queue<Record> records = new LinkedList<>();
+    /** The memory reserved for the records in memory */
+    private long reserved;
+    private RecordSpillFile spill;
+    /** A record read back from the spill file by {@link #peek()} and not handed out yet */
+    private Record peeked;
+
+    RecordBuffer( RecordBuffers memory )
+    {
+        this.memory = memory;
+    }
+
+    void add( Record record )
+    {
+        if ( !memory.isLimited() )
+        {
+            records.add( record );
+            return;
+        }
+        // Once records are being spilled, they keep being spilled until the file has been read, to keep them in order
+        if ( spill == null )
+        {
+            long size = RecordBuffers.estimateSize( record );
+            if ( memory.reserve( size ) )
+            {
+                reserved += size;
+                records.add( record );
+                return;
+            }
+        }
+        try
+        {
+            if ( spill == null )
+            {
+                spill = new RecordSpillFile( record.keys() );
+            }
+            spill.write( record );
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to buffer records on disk: " + e.getMessage(), e );
+        }
+    }
+
+    Record poll()
+    {
+        Record record = peek();
+        if ( record == null )
+        {
+            return null;
+        }
+        if ( peeked != null )
+        {
+            peeked = null;
+            if ( spill.unread() == 0 )
+            {
+                closeSpill();
+            }
+        }
+        else
+        {
+            records.remove();
+            if ( memory.isLimited() )
+            {
+                long size = RecordBuffers.estimateSize( record );
+                reserved -= size;
+                memory.release( size );
+            }
+        }
+        return record;
+    }
+
+    Record peek()
+    {
+        Record record = records.peek();
+        if ( record != null || spill == null )
+        {
+            return record;
+        }
+        if ( peeked == null )
+        {
+            try
+            {
+                peeked = spill.read();
+            }
+            catch ( IOException e )
+            {
+                throw new ClientException( "Unable to read buffered records from disk: " + e.getMessage(), e );
+            }
+        }
+        return peeked;
+    }
+
+    boolean isEmpty()
+    {
+        return records.isEmpty() && spill == null;
+    }
+
+    void clear()
+    {
+        records.clear();
+        memory.release( reserved );
+        reserved = 0;
+        peeked = null;
+        closeSpill();
+    }
+
+    private void closeSpill()
+    {
+        if ( spill != null )
+        {
+            try
+            {
+                spill.close();
+            }
+            catch ( IOException e )
+            {
+                // the file is deleted on close, which is best-effort
+            }
+            spill = null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.internal.types.InternalTypeSystem;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Path;
+import org.neo4j.driver.v1.types.Relationship;
+import org.neo4j.driver.v1.types.TypeSystem;
+
+/**
+ * The memory the records held by results may take up, shared by all results of a driver, see
+ * {@link Config#recordBufferMemory()}. Each result buffers its records in a {@link RecordBuffer} of its own, which
+ * reserves memory here for the records it keeps in memory and writes the rest to disk.
+ * <p>
+ * Records are not measured but estimated, from the number and kind of their values and the length of their strings,
+ * which is cheap and close enough for a limit that is there to keep the heap from running out.
+ */
+public class RecordBuffers
+{
+    /** No limit, records are only ever kept in memory */
+    public static final RecordBuffers UNLIMITED = new RecordBuffers( 0 );
+
+    private static final TypeSystem TYPES = InternalTypeSystem.TYPE_SYSTEM;
+
+    private final long limit;
+    private final AtomicLong used = new AtomicLong();
+
+    /**
+     * @param limit how many bytes records may take up in memory, or zero for no limit
+     */
+    public RecordBuffers( long limit )
+    {
+        this.limit = limit;
+    }
+
+    public static RecordBuffers of( Config config )
+    {
+        return config.recordBufferMemory() > 0 ? new RecordBuffers( config.recordBufferMemory() ) : UNLIMITED;
+    }
+
+    RecordBuffer newBuffer()
+    {
+        return new RecordBuffer( this );
+    }
+
+    boolean isLimited()
+    {
+        return limit > 0;
+    }
+
+    /**
+     * @return true if the memory was reserved, false if that would go over the limit
+     */
+    boolean reserve( long bytes )
+    {
+        long current;
+        do
+        {
+            current = used.get();
+            if ( current + bytes > limit )
+            {
+                return false;
+            }
+        }
+        while ( !used.compareAndSet( current, current + bytes ) );
+        return true;
+    }
+
+    void release( long bytes )
+    {
+        used.addAndGet( -bytes );
+    }
+
+    /**
+     * @return the number of bytes reserved for records kept in memory
+     */
+    long used()
+    {
+        return used.get();
+    }
+
+    static long estimateSize( Record record )
+    {
+        long size = 48;
+        for ( Value value : record.values() )
+        {
+            size += 8 + estimateSize( value );
+        }
+        return size;
+    }
+
+    private static long estimateSize( Value value )
+    {
+        if ( value.hasType( TYPES.STRING() ) )
+        {
+            return 56 + 2L * value.asString().length();
+        }
+        // MAP covers nodes and relationships too, so those are looked at first
+        else if ( value.hasType( TYPES.NODE() ) )
+        {
+            Node node = value.asNode();
+            return 96 + estimateSize( node.values() );
+        }
+        else if ( value.hasType( TYPES.RELATIONSHIP() ) )
+        {
+            Relationship relationship = value.asRelationship();
+            return 112 + estimateSize( relationship.values() );
+        }
+        else if ( value.hasType( TYPES.PATH() ) )
+        {
+            Path path = value.asPath();
+            long size = 96;
+            for ( Node node : path.nodes() )
+            {
+                size += 104 + estimateSize( node.values() );
+            }
+            for ( Relationship relationship : path.relationships() )
+            {
+                size += 120 + estimateSize( relationship.values() );
+            }
+            return size;
+        }
+        else if ( value.hasType( TYPES.LIST() ) || value.hasType( TYPES.MAP() ) )
+        {
+            return 64 + estimateSize( value.values() );
+        }
+        return 24;
+    }
+
+    private static long estimateSize( Iterable<Value> values )
+    {
+        long size = 0;
+        for ( Value value : values )
+        {
+            size += 40 + estimateSize( value );
+        }
+        return size;
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.internal.messaging.MessageHandler;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.packstream.BufferedChannelOutput;
+import org.neo4j.driver.internal.packstream.ByteBufferPackInput;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Records written to a temporary file as PackStream RECORD messages, the form they came off the network in, and read
+ * back in the order they were written. A record is only decoded when it is read.
+ * <p>
+ * Records are encoded into memory first and written out in batches, so that every write ends on a record. Reading
+ * reads whole batches back with positional reads into one reusable buffer, as many as fit in it at once. The file is
+ * not mapped into memory, as mappings are only released by the garbage collector, and a mapped file cannot be deleted
+ * on some platforms.
+ */
+class RecordSpillFile implements AutoCloseable
+{
+    private static final int WRITE_SIZE = 256 * 1024;
+    private static final int READ_SIZE = WRITE_SIZE * 2;
+
+    private final FileChannel file;
+    private final List<String> keys;
+    private final BufferedChannelOutput output;
+    private final PackStreamMessageFormatV1.Writer writer;
+    private final RecordHandler handler = new RecordHandler();
+    /** Records that have been encoded but not written to the file yet */
+    private ByteBuffer pending = ByteBuffer.allocate( WRITE_SIZE * 2 );
+
+    /** Where the file ends, all of it ending on a record */
+    private long fileSize;
+    /** Where the batches written and not read yet end, each on a record */
+    private final Deque<Long> batchEnds = new ArrayDeque<>();
+    /** Where the batches not read yet start */
+    private long readPosition;
+    /** Batches read back from the file, and not decoded yet as far as it has remaining */
+    private ByteBuffer readBuffer;
+    private PackStreamMessageFormatV1.Reader reader;
+    private long unread;
+
+    /**
+     * @param keys the keys of the records, which are the same for all records of a result and so are not written
+     */
+    RecordSpillFile( List<String> keys ) throws IOException
+    {
+        Path path = Files.createTempFile( "neo4j-records-", ".tmp" );
+        this.file = FileChannel.open( path, READ, WRITE, DELETE_ON_CLOSE );
+        this.keys = keys;
+        this.output = new BufferedChannelOutput( new WritableByteChannel()
+        {
+            @Override
+            public int write( ByteBuffer src )
+            {
+                return append( src );
+            }
+
+            @Override
+            public boolean isOpen()
+            {
+                return true;
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        }, 8192 );
+        this.writer = new PackStreamMessageFormatV1.Writer( output, new PackStreamMessageFormatV1.NoOpRunnable() );
+        useReadBuffer( READ_SIZE );
+    }
+
+    void write( Record record ) throws IOException
+    {
+        writer.handleRecordMessage( record.values().toArray( new Value[record.size()] ) );
+        output.flush();
+        unread++;
+        if ( pending.position() >= WRITE_SIZE )
+        {
+            writePending();
+        }
+    }
+
+    /**
+     * @return the next record, or null if all records written have been read
+     */
+    Record read() throws IOException
+    {
+        if ( unread == 0 )
+        {
+            return null;
+        }
+        if ( !readBuffer.hasRemaining() )
+        {
+            readNextBatches();
+        }
+        reader.read( handler );
+        unread--;
+        return new InternalRecord( keys, handler.fields );
+    }
+
+    /**
+     * @return how many records have been written and not read yet
+     */
+    long unread()
+    {
+        return unread;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        file.close();
+    }
+
+    /**
+     * Read as many of the batches not read yet as fit in the read buffer, at least one, growing the buffer if that
+     * one does not fit.
+     */
+    private void readNextBatches() throws IOException
+    {
+        writePending();
+        long end = batchEnds.poll();
+        while ( !batchEnds.isEmpty() && batchEnds.peek() - readPosition <= readBuffer.capacity() )
+        {
+            end = batchEnds.poll();
+        }
+        int length = (int) (end - readPosition);
+        if ( length > readBuffer.capacity() )
+        {
+            useReadBuffer( length );
+        }
+        readBuffer.clear();
+        readBuffer.limit( length );
+        while ( readBuffer.hasRemaining() )
+        {
+            if ( file.read( readBuffer, readPosition + readBuffer.position() ) < 0 )
+            {
+                throw new EOFException( "Buffered records ended unexpectedly." );
+            }
+        }
+        readBuffer.flip();
+        readPosition = end;
+    }
+
+    private void useReadBuffer( int capacity )
+    {
+        readBuffer = ByteBuffer.allocate( capacity );
+        readBuffer.flip();
+        reader = new PackStreamMessageFormatV1.Reader( new ByteBufferPackInput( readBuffer ),
+                new PackStreamMessageFormatV1.NoOpRunnable() );
+    }
+
+    private int append( ByteBuffer src )
+    {
+        int length = src.remaining();
+        if ( pending.remaining() < length )
+        {
+            ByteBuffer grown = ByteBuffer.allocate( Math.max( pending.capacity() * 2, pending.position() + length ) );
+            pending.flip();
+            grown.put( pending );
+            pending = grown;
+        }
+        pending.put( src );
+        return length;
+    }
+
+    private void writePending() throws IOException
+    {
+        if ( pending.position() == 0 )
+        {
+            return;
+        }
+        pending.flip();
+        while ( pending.hasRemaining() )
+        {
+            fileSize += file.write( pending, fileSize );
+        }
+        pending.clear();
+        batchEnds.add( fileSize );
+    }
+
+    /**
+     * Takes the fields of RECORD messages, there are no other messages in the file.
+     */
+    private static class RecordHandler implements MessageHandler
+    {
+        private Value[] fields;
+
+        @Override
+        public void handleRecordMessage( Value[] fields )
+        {
+            this.fields = fields;
+        }
+
+        @Override
+        public void handleInitMessage( String clientNameAndVersion, Map<String,Value> authToken ) throws IOException
+        {
+            throw unexpected( "INIT" );
+        }
+
+        @Override
+        public void handleRunMessage( String statement, Map<String,Value> parameters ) throws IOException
+        {
+            throw unexpected( "RUN" );
+        }
+
+        @Override
+        public void handlePullAllMessage() throws IOException
+        {
+            throw unexpected( "PULL_ALL" );
+        }
+
+        @Override
+        public void handleDiscardAllMessage() throws IOException
+        {
+            throw unexpected( "DISCARD_ALL" );
+        }
+
+        @Override
+        public void handleResetMessage() throws IOException
+        {
+            throw unexpected( "RESET" );
+        }
+
+        @Override
+        public void handleAckFailureMessage() throws IOException
+        {
+            throw unexpected( "ACK_FAILURE" );
+        }
+
+        @Override
+        public void handleSuccessMessage( Map<String,Value> meta ) throws IOException
+        {
+            throw unexpected( "SUCCESS" );
+        }
+
+        @Override
+        public void handleFailureMessage( String code, String message ) throws IOException
+        {
+            throw unexpected( "FAILURE" );
+        }
+
+        @Override
+        public void handleIgnoredMessage() throws IOException
+        {
+            throw unexpected( "IGNORED" );
+        }
+
+        private static IOException unexpected( String message )
+        {
+            return new IOException( "Unexpected " + message + " message among buffered records." );
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.async.Publisher;
+import org.neo4j.driver.v1.async.Subscriber;
+import org.neo4j.driver.v1.async.Subscription;
+
+/**
+ * Publishes the records of a result as they are requested. Records are received on the thread that requests them,
+ * through the blocking iteration of {@link InternalStatementResult}, which only reads from the connection until it has
+ * one more record. So with no outstanding request nothing is read, and a server producing records faster than they are
+ * requested is held back by the network.
+ * <p>
+ * A subscriber requesting more from within {@link Subscriber#onNext(Object)} is served by the loop already running
+ * further up the stack, rather than recursively.
+ */
+class ResultPublisher implements Publisher<Record>, Subscription
+{
+    private static final Subscription NO_SUBSCRIPTION = new Subscription()
+    {
+        @Override
+        public void request( long n )
+        {
+        }
+
+        @Override
+        public void cancel()
+        {
+        }
+    };
+
+    private final InternalStatementResult result;
+    private Subscriber<? super Record> subscriber;
+    private long demand;
+    private boolean publishing;
+    /** Whether nothing more is sent to the subscriber, as it cancelled or was told the result is over */
+    private boolean finished;
+
+    ResultPublisher( InternalStatementResult result )
+    {
+        this.result = result;
+    }
+
+    @Override
+    public void subscribe( Subscriber<? super Record> subscriber )
+    {
+        if ( subscriber == null )
+        {
+            throw new NullPointerException( "Subscriber must not be null" );
+        }
+        if ( this.subscriber != null )
+        {
+            subscriber.onSubscribe( NO_SUBSCRIPTION );
+            subscriber.onError( new IllegalStateException( "A result can only be published to one subscriber." ) );
+            return;
+        }
+        this.subscriber = subscriber;
+        subscriber.onSubscribe( this );
+    }
+
+    @Override
+    public void request( long n )
+    {
+        if ( finished )
+        {
+            return;
+        }
+        if ( n <= 0 )
+        {
+            cancel();
+            subscriber.onError( new IllegalArgumentException(
+                    "Subscribers must request a positive number of records, not " + n + "." ) );
+            return;
+        }
+        demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        if ( !publishing )
+        {
+            publish();
+        }
+    }
+
+    @Override
+    public void cancel()
+    {
+        if ( finished )
+        {
+            return;
+        }
+        finished = true;
+        result.cancel();
+    }
+
+    private void publish()
+    {
+        publishing = true;
+        try
+        {
+            while ( demand > 0 && !finished )
+            {
+                boolean hasNext;
+                try
+                {
+                    hasNext = result.hasNext();
+                }
+                catch ( RuntimeException e )
+                {
+                    finished = true;
+                    subscriber.onError( e );
+                    return;
+                }
+                if ( !hasNext )
+                {
+                    finished = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                if ( demand != Long.MAX_VALUE )
+                {
+                    demand--;
+                }
+                subscriber.onNext( result.next() );
+            }
+        }
+        finally
+        {
+            publishing = false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Config;
+
+/**
+ * Decides when the statements a session or transaction queues on its connection are sent to the server, see
+ * {@link Config.ConfigBuilder#withDeferredFlush(int, long, java.util.concurrent.TimeUnit)}. Statements held back
+ * here are still sent before anything waits for a reply, as results flush the connection before receiving and
+ * syncing the connection flushes it too.
+ */
+class StatementFlusher
+{
+    private final int maxDeferred;
+    private final long maxDelayMillis;
+    private final Clock clock;
+
+    private int deferred;
+    private long firstDeferredAt;
+
+    StatementFlusher( Config config )
+    {
+        this( config.maxDeferredStatements(), config.maxFlushDelay(), Clock.SYSTEM );
+    }
+
+    StatementFlusher( int maxDeferred, long maxDelayMillis, Clock clock )
+    {
+        this.maxDeferred = maxDeferred;
+        this.maxDelayMillis = maxDelayMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Called after a statement has been queued on the connection. This is the only time the delay is checked, nothing
+     * flushes the connection from another thread once the delay has passed.
+     */
+    void statementQueued( Connection connection )
+    {
+        if ( maxDeferred <= 1 )
+        {
+            connection.flush();
+            return;
+        }
+
+        long now = clock.millis();
+        if ( deferred == 0 )
+        {
+            firstDeferredAt = now;
+        }
+        deferred++;
+        if ( deferred >= maxDeferred || (maxDelayMillis > 0 && now - firstDeferredAt >= maxDelayMillis) )
+        {
+            connection.flush();
+            deferred = 0;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.summary.SummaryBuilder;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.summary.ResultSummary;
+
+import static org.neo4j.driver.v1.Values.ofValue;
+import static org.neo4j.driver.v1.Values.value;
+
+/**
+ * Runs a batch of statements over one connection without waiting for each of them in turn. RUN and PULL_ALL of the
+ * statements are queued on the connection and sent in batches, and replies are read whenever a number of statements
+ * are in flight, so that neither the server nor the client waits on the network for long, and the replies the server
+ * has to hold back while we write stay bounded.
+ */
+class StatementPipeline
+{
+    private final Connection connection;
+    private final int maxInFlight;
+    private final List<ResultSummary> summaries = new ArrayList<>();
+    private int sent;
+    private int completed;
+
+    /**
+     * @param maxInFlight how many statements may be sent before the replies to earlier ones are read
+     */
+    StatementPipeline( Connection connection, int maxInFlight )
+    {
+        this.connection = connection;
+        this.maxInFlight = Math.max( maxInFlight, 1 );
+    }
+
+    /**
+     * @return the summaries of the statements, in the order the statements were run
+     * @throws Neo4jException the failure of the first statement that failed, statements after it are not run
+     */
+    List<ResultSummary> runAll( Iterator<Statement> statements )
+    {
+        while ( statements.hasNext() )
+        {
+            Statement statement = statements.next();
+            connection.run( statement.text(), statement.parameters().asMap( ofValue() ), StreamCollector.NO_OP );
+            connection.pullAll( new SummaryCollector( statement ) );
+            sent++;
+
+            if ( sent - completed >= maxInFlight )
+            {
+                // Drain down to half the window, so that sending resumes with a batch rather than one at a time
+                connection.flush();
+                while ( sent - completed > maxInFlight / 2 )
+                {
+                    connection.receiveOne();
+                }
+            }
+        }
+        connection.sync();
+        return summaries;
+    }
+
+    /**
+     * @return the statements of a template run with each of the given parameter maps
+     */
+    static Iterator<Statement> statements( final String statementTemplate,
+            final Iterator<? extends Map<String,Object>> parameters )
+    {
+        return new Iterator<Statement>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return parameters.hasNext();
+            }
+
+            @Override
+            public Statement next()
+            {
+                Map<String,Object> statementParameters = parameters.next();
+                return new Statement( statementTemplate,
+                        statementParameters == null ? Values.EmptyMap : value( statementParameters ) );
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Collects the summary of one statement, records are dropped as they arrive.
+     */
+    private class SummaryCollector extends SummaryBuilder
+    {
+        SummaryCollector( Statement statement )
+        {
+            super( statement );
+        }
+
+        @Override
+        public void doneSuccess()
+        {
+            summaries.add( build() );
+            completed++;
+        }
+
+        @Override
+        public void doneFailure( Neo4jException error )
+        {
+            completed++;
+        }
+
+        @Override
+        public void doneIgnored()
+        {
+            completed++;
+        }
+    }
+}
@@ -24,7 +24,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
 
 /**
  * This class ensures there can only ever be one thread using a connection at
@@ -72,12 +74,12 @@ public class ConcurrencyGuardingConnection implements Connection
     }
 
     @Override
-    public void discardAll()
+    public void discardAll( StreamCollector collector )
     {
         try
         {
             markAsInUse();
-            delegate.discardAll();
+            delegate.discardAll( collector );
         }
         finally
         {
@@ -141,6 +143,37 @@ public class ConcurrencyGuardingConnection implements Connection
         }
     }
 
+    @Override
+    public void syncAsync( final ResponseListener<Void> listener )
+    {
+        markAsInUse();
+        try
+        {
+            // The connection is in use until the responses are in, and free again by the time the listener is told
+            delegate.syncAsync( new ResponseListener<Void>()
+            {
+                @Override
+                public void onSuccess( Void result )
+                {
+                    markAsAvailable();
+                    listener.onSuccess( result );
+                }
+
+                @Override
+                public void onFailure( Neo4jException error )
+                {
+                    markAsAvailable();
+                    listener.onFailure( error );
+                }
+            } );
+        }
+        catch ( RuntimeException e )
+        {
+            markAsAvailable();
+            throw e;
+        }
+    }
+
     @Override
     public void flush()
     {
@@ -183,6 +216,12 @@ public class ConcurrencyGuardingConnection implements Connection
         }
     }
 
+    @Override
+    public int collectorsWaiting()
+    {
+        return delegate.collectorsWaiting();
+    }
+
     @Override
     public boolean isOpen()
     {
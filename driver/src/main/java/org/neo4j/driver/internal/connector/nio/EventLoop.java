@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Logger;
+
+/**
+ * A single I/O thread, driving any number of {@link NioChannel}s through one {@link Selector}. Work is handed to
+ * the loop through {@link #execute(Runnable)}; everything a channel does with its socket happens on the loop thread,
+ * as do the timers of {@link #schedule(Runnable, long)}.
+ */
+class EventLoop implements Runnable
+{
+    static final long TICK_MILLIS = 10;
+    private static final int WHEEL_SLOTS = 512;
+
+    private final Selector selector;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final TimerWheel timers;
+    private final Clock clock;
+    private final Logger logger;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    EventLoop( String name, Clock clock, Logger logger ) throws IOException
+    {
+        this.selector = Selector.open();
+        this.clock = clock;
+        this.logger = logger;
+        this.timers = new TimerWheel( TICK_MILLIS, WHEEL_SLOTS, clock.millis() );
+        this.thread = new Thread( this, name );
+        this.thread.setDaemon( true );
+    }
+
+    void start()
+    {
+        thread.start();
+    }
+
+    /**
+     * Run the given task on the loop thread, soon.
+     */
+    void execute( Runnable task )
+    {
+        tasks.add( task );
+        if ( !inLoop() )
+        {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Run the given task on the loop thread once the delay has passed. Must be called on the loop thread.
+     */
+    TimerWheel.Timer schedule( Runnable task, long delayMillis )
+    {
+        return timers.schedule( task, delayMillis, clock.millis() );
+    }
+
+    boolean inLoop()
+    {
+        return Thread.currentThread() == thread;
+    }
+
+    long now()
+    {
+        return clock.millis();
+    }
+
+    Selector selector()
+    {
+        return selector;
+    }
+
+    /**
+     * Stop the loop, closing the channels still registered with it.
+     */
+    void shutdown()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            while ( running )
+            {
+                selector.select( timers.millisToNextTick( clock.millis() ) );
+                processSelectedKeys();
+                runTasks();
+                timers.advance( clock.millis() );
+            }
+        }
+        catch ( Throwable e )
+        {
+            logger.error( "I/O thread " + thread.getName() + " stopped unexpectedly.", e );
+        }
+        finally
+        {
+            closeAll();
+        }
+    }
+
+    private void processSelectedKeys()
+    {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while ( keys.hasNext() )
+        {
+            SelectionKey key = keys.next();
+            keys.remove();
+            NioChannel channel = (NioChannel) key.attachment();
+            try
+            {
+                if ( key.isValid() && key.isReadable() )
+                {
+                    channel.onReadable();
+                }
+                if ( key.isValid() && key.isWritable() )
+                {
+                    channel.onWritable();
+                }
+            }
+            catch ( IOException | RuntimeException e )
+            {
+                channel.fail( e );
+            }
+        }
+    }
+
+    private void runTasks()
+    {
+        Runnable task;
+        while ( (task = tasks.poll()) != null )
+        {
+            try
+            {
+                task.run();
+            }
+            catch ( RuntimeException e )
+            {
+                logger.error( "Task on I/O thread " + thread.getName() + " failed.", e );
+            }
+        }
+    }
+
+    private void closeAll()
+    {
+        runTasks();
+        for ( SelectionKey key : selector.keys() )
+        {
+            ((NioChannel) key.attachment()).fail( new IOException( "The driver has been closed." ) );
+        }
+        try
+        {
+            selector.close();
+        }
+        catch ( IOException e )
+        {
+            // best effort
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.Logger;
+
+/**
+ * A fixed number of {@link EventLoop}s, among which connections are spread round-robin.
+ */
+class EventLoopGroup implements AutoCloseable
+{
+    private static final AtomicInteger GROUP_IDS = new AtomicInteger();
+
+    private final EventLoop[] loops;
+    private final AtomicInteger next = new AtomicInteger();
+
+    EventLoopGroup( int threads, Clock clock, Logger logger ) throws IOException
+    {
+        if ( threads < 1 )
+        {
+            throw new IllegalArgumentException( "An event loop group needs at least one thread, got " + threads );
+        }
+        int groupId = GROUP_IDS.incrementAndGet();
+        loops = new EventLoop[threads];
+        for ( int i = 0; i < threads; i++ )
+        {
+            loops[i] = new EventLoop( "neo4j-driver-io-" + groupId + "-" + i, clock, logger );
+        }
+        for ( EventLoop loop : loops )
+        {
+            loop.start();
+        }
+    }
+
+    EventLoop next()
+    {
+        return loops[(next.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    @Override
+    public void close()
+    {
+        for ( EventLoop loop : loops )
+        {
+            loop.shutdown();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.nio.ByteBuffer;
+
+import org.neo4j.driver.internal.util.ByteBufferPool;
+
+/**
+ * Reassembles the chunked messages of the Bolt protocol from whatever bytes a non-blocking read happened to return.
+ * Chunk headers and chunks may be split at any point across reads; each complete message is handed on as a buffer
+ * of its own, without the chunk headers.
+ * <p>
+ * Messages are assembled in buffers taken from a {@link ByteBufferPool}. Whoever a message is handed to owns its
+ * buffer, and should release it to the pool once the message has been decoded.
+ */
+class MessageFramer
+{
+    interface MessageListener
+    {
+        void onMessage( ByteBuffer message );
+    }
+
+    private final MessageListener listener;
+    private final ByteBufferPool buffers;
+    private final ByteBuffer header = ByteBuffer.allocate( 2 );
+    /** Bytes left of the chunk being read, or -1 while reading a chunk header */
+    private int chunkRemaining = -1;
+    /** The message being assembled, null until its first chunk arrives */
+    private ByteBuffer message;
+    /** The capacity to start the next message with, going by the size of the last one */
+    private int nextCapacity = ByteBufferPool.MIN_CAPACITY;
+
+    MessageFramer( MessageListener listener, ByteBufferPool buffers )
+    {
+        this.listener = listener;
+        this.buffers = buffers;
+    }
+
+    /**
+     * Consume all remaining bytes of the given buffer.
+     */
+    void feed( ByteBuffer in )
+    {
+        while ( in.hasRemaining() )
+        {
+            if ( chunkRemaining < 0 )
+            {
+                header.put( in.get() );
+                if ( header.hasRemaining() )
+                {
+                    continue;
+                }
+                int chunkSize = header.getShort( 0 ) & 0xFFFF;
+                header.clear();
+                if ( chunkSize == 0 )
+                {
+                    messageComplete();
+                }
+                else
+                {
+                    chunkRemaining = chunkSize;
+                }
+            }
+            else
+            {
+                int length = Math.min( chunkRemaining, in.remaining() );
+                ensureCapacity( length );
+                int limit = in.limit();
+                in.limit( in.position() + length );
+                message.put( in );
+                in.limit( limit );
+                chunkRemaining -= length;
+                if ( chunkRemaining == 0 )
+                {
+                    chunkRemaining = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Give the buffer of a message still being assembled back to the pool, once no more bytes will arrive.
+     */
+    void release()
+    {
+        buffers.release( message );
+        message = null;
+    }
+
+    private void messageComplete()
+    {
+        if ( message == null )
+        {
+            // An empty message carries nothing, there is nothing to hand on
+            return;
+        }
+        message.flip();
+        ByteBuffer complete = message;
+        // The message is handed to another thread, so the next one starts over with a buffer of its own
+        message = null;
+        nextCapacity = Math.max( ByteBufferPool.MIN_CAPACITY, Integer.highestOneBit( complete.limit() ) );
+        listener.onMessage( complete );
+    }
+
+    private void ensureCapacity( int length )
+    {
+        if ( message == null )
+        {
+            message = buffers.acquire( Math.max( nextCapacity, length ) );
+        }
+        else if ( message.remaining() < length )
+        {
+            int capacity = message.capacity();
+            while ( capacity - message.position() < length )
+            {
+                capacity *= 2;
+            }
+            ByteBuffer grown = buffers.acquire( capacity );
+            message.flip();
+            grown.put( message );
+            buffers.release( message );
+            message = grown;
+        }
+    }
+}
@@ -0,0 +1,467 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.driver.internal.connector.socket.ReadBufferSizer;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+import org.neo4j.driver.internal.util.ByteBufferPool;
+
+import static org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1.MSG_RECORD;
+
+/**
+ * The part of a connection that lives on an {@link EventLoop}: a non-blocking socket, the outbound bytes that have
+ * not been written to it yet, and the inbound messages that have been framed but not yet taken by the user thread.
+ * <p>
+ * Messages are only framed on the loop, decoding them is left to the thread that {@link #take(long) takes} them, so that
+ * the collectors of a connection keep being called from the one thread using the connection. Whoever takes or
+ * receives a message releases its buffer to the pool once it has been decoded. While a
+ * {@link MessageReceiver} has been given the channel, see {@link #receive(MessageReceiver, long)}, messages are handed
+ * to it on the loop instead.
+ */
+class NioChannel implements MessageFramer.MessageListener
+{
+    /**
+     * Takes messages on the loop thread as they arrive, rather than leaving them to be {@link #take(long) taken}.
+     */
+    interface MessageReceiver
+    {
+        /**
+         * @param message the next message the server sent
+         * @return true to carry on receiving, false to leave the messages that follow to be taken again
+         */
+        boolean onMessage( ByteBuffer message );
+
+        /**
+         * @param cause why the channel failed, or was closed, before the receiver had had enough
+         */
+        void onFailure( IOException cause );
+    }
+
+    private final SocketChannel channel;
+    private final EventLoop loop;
+    private final InternalConnectionPoolMetrics metrics;
+    private final ByteBufferPool buffers;
+    private final long readTimeout;
+
+    private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+    private final BlockingQueue<Object> inbound = new LinkedBlockingQueue<>();
+    /** Set by whichever of the user thread closing the channel and the loop failing it gets there first */
+    private final AtomicBoolean closed = new AtomicBoolean( false );
+
+    // Only touched on the loop thread
+    private final MessageFramer framer;
+    private final ReadBufferSizer readBufferSizer;
+    private ByteBuffer readBuffer;
+    /** The size asked for when taking the read buffer, which the pool may have rounded up */
+    private int readBufferSize;
+    private boolean socketClosed = false;
+    private MessageReceiver receiver;
+    private TimerWheel.Timer receiveTimer;
+    private SelectionKey key;
+    private int awaitedResponses = 0;
+    private long lastActivity;
+    private TimerWheel.Timer readTimer;
+    private final Runnable readTimeoutCheck = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            checkReadTimeout();
+        }
+    };
+
+    /**
+     * @param channel a connected channel, which is switched to non-blocking mode
+     * @param readTimeout how long to wait for the server to send something while a response is due, in milliseconds,
+     * 0 to wait forever
+     */
+    NioChannel( SocketChannel channel, EventLoop loop, InternalConnectionPoolMetrics metrics, ByteBufferPool buffers,
+            ReadBufferSizer readBufferSizer, long readTimeout )
+    {
+        this.channel = channel;
+        this.loop = loop;
+        this.metrics = metrics;
+        this.buffers = buffers;
+        this.readTimeout = readTimeout;
+        this.readBufferSizer = readBufferSizer;
+        this.readBufferSize = readBufferSizer.size();
+        this.readBuffer = buffers.acquire( readBufferSize );
+        this.framer = new MessageFramer( this, buffers );
+    }
+
+    /**
+     * Start driving this channel from its loop. Blocks until the loop has taken it on.
+     */
+    void register() throws IOException
+    {
+        channel.configureBlocking( false );
+        final CountDownLatch registered = new CountDownLatch( 1 );
+        final IOException[] failure = new IOException[1];
+        loop.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    key = channel.register( loop.selector(), SelectionKey.OP_READ, NioChannel.this );
+                    lastActivity = loop.now();
+                }
+                catch ( IOException | RuntimeException e )
+                {
+                    failure[0] = new IOException( "Unable to register connection with I/O thread: " + e, e );
+                }
+                finally
+                {
+                    registered.countDown();
+                }
+            }
+        } );
+        try
+        {
+            registered.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while registering connection with I/O thread." );
+        }
+        if ( failure[0] != null )
+        {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Hand bytes to the loop for writing. Once written, the buffer is released to the pool of this channel.
+     * @param bytes the serialized messages
+     * @param responses how many responses the server sends back for the messages, records not counted
+     */
+    void write( ByteBuffer bytes, final int responses ) throws IOException
+    {
+        if ( closed.get() )
+        {
+            throw new ClosedChannelException();
+        }
+        outbound.add( bytes );
+        loop.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                if ( closed.get() )
+                {
+                    return;
+                }
+                awaitedResponses += responses;
+                lastActivity = loop.now();
+                try
+                {
+                    writeOutbound();
+                }
+                catch ( IOException e )
+                {
+                    fail( e );
+                    return;
+                }
+                armReadTimer();
+            }
+        } );
+    }
+
+    /**
+     * Take the next message the server sent, waiting for it if need be.
+     * @param timeout how long to wait at most, in milliseconds, 0 to wait as long as it takes
+     * @return the message, or null if none arrived within the timeout
+     * @throws IOException if the connection failed, or was closed, before the message arrived
+     */
+    ByteBuffer take( long timeout ) throws IOException
+    {
+        Object next;
+        try
+        {
+            next = timeout > 0 ? inbound.poll( timeout, TimeUnit.MILLISECONDS ) : inbound.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a response from the server." );
+        }
+        if ( next instanceof IOException )
+        {
+            // Leave the failure for whoever asks next
+            inbound.add( next );
+            throw (IOException) next;
+        }
+        return (ByteBuffer) next;
+    }
+
+    /**
+     * Hand messages to the given receiver on the loop thread, starting with those that have arrived but have not been
+     * taken, until the receiver has had enough.
+     * @param timeout how long to give the receiver at most, in milliseconds, 0 for as long as it takes; once the time
+     * is up the channel fails
+     */
+    void receive( final MessageReceiver receiver, final long timeout )
+    {
+        loop.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                Object next;
+                while ( (next = inbound.poll()) != null )
+                {
+                    if ( next instanceof IOException )
+                    {
+                        // Leave the failure for whoever asks next
+                        inbound.add( next );
+                        receiver.onFailure( (IOException) next );
+                        return;
+                    }
+                    if ( !receiver.onMessage( (ByteBuffer) next ) )
+                    {
+                        return;
+                    }
+                }
+                if ( socketClosed )
+                {
+                    receiver.onFailure( new ClosedChannelException() );
+                    return;
+                }
+                startReceiving( receiver, timeout );
+            }
+        } );
+    }
+
+    boolean isOpen()
+    {
+        return !closed.get();
+    }
+
+    void close()
+    {
+        if ( !closed.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        inbound.add( new ClosedChannelException() );
+        loop.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                closeSocket();
+            }
+        } );
+    }
+
+    /**
+     * Give up on the channel, failing whoever waits for a message. Called on the loop thread.
+     */
+    void fail( Exception cause )
+    {
+        IOException failure = cause instanceof IOException ? (IOException) cause
+                                                           : new IOException( cause.getMessage(), cause );
+        if ( closed.compareAndSet( false, true ) )
+        {
+            inbound.add( failure );
+        }
+        failReceiver( failure );
+        closeSocket();
+    }
+
+    void onReadable() throws IOException
+    {
+        if ( readBufferSizer.size() != readBufferSize )
+        {
+            readBufferSize = readBufferSizer.size();
+            buffers.release( readBuffer );
+            readBuffer = buffers.acquire( readBufferSize );
+        }
+        readBuffer.clear();
+        int read = channel.read( readBuffer );
+        if ( read < 0 )
+        {
+            fail( new IOException( "Connection terminated by the server. This can happen due to network " +
+                                   "instabilities, or due to restarts of the database." ) );
+            return;
+        }
+        metrics.bytesReceived( read );
+        readBufferSizer.record( read );
+        lastActivity = loop.now();
+        readBuffer.flip();
+        framer.feed( readBuffer );
+    }
+
+    void onWritable() throws IOException
+    {
+        writeOutbound();
+    }
+
+    @Override
+    public void onMessage( ByteBuffer message )
+    {
+        // A message is a struct, its signature follows the struct marker. Anything but a record ends a response.
+        if ( message.limit() < 2 || message.get( 1 ) != MSG_RECORD )
+        {
+            awaitedResponses--;
+        }
+        if ( receiver == null )
+        {
+            inbound.add( message );
+        }
+        else if ( !receiver.onMessage( message ) )
+        {
+            stopReceiving();
+        }
+    }
+
+    private void startReceiving( final MessageReceiver receiver, long timeout )
+    {
+        this.receiver = receiver;
+        if ( timeout > 0 )
+        {
+            receiveTimer = loop.schedule( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    receiveTimer = null;
+                    if ( NioChannel.this.receiver == receiver )
+                    {
+                        fail( new SocketTimeoutException( "Statement timed out" ) );
+                    }
+                }
+            }, timeout );
+        }
+    }
+
+    private void stopReceiving()
+    {
+        receiver = null;
+        if ( receiveTimer != null )
+        {
+            receiveTimer.cancel();
+            receiveTimer = null;
+        }
+    }
+
+    private void failReceiver( IOException cause )
+    {
+        MessageReceiver failed = receiver;
+        if ( failed != null )
+        {
+            stopReceiving();
+            failed.onFailure( cause );
+        }
+    }
+
+    private void writeOutbound() throws IOException
+    {
+        ByteBuffer bytes;
+        while ( (bytes = outbound.peek()) != null )
+        {
+            metrics.bytesSent( channel.write( bytes ) );
+            if ( bytes.hasRemaining() )
+            {
+                // The socket buffer is full, carry on once there is room again
+                key.interestOps( SelectionKey.OP_READ | SelectionKey.OP_WRITE );
+                return;
+            }
+            buffers.release( outbound.poll() );
+        }
+        key.interestOps( SelectionKey.OP_READ );
+    }
+
+    private void armReadTimer()
+    {
+        if ( readTimeout > 0 && awaitedResponses > 0 && readTimer == null )
+        {
+            readTimer = loop.schedule( readTimeoutCheck, readTimeout );
+        }
+    }
+
+    private void checkReadTimeout()
+    {
+        readTimer = null;
+        if ( closed.get() || awaitedResponses <= 0 )
+        {
+            return;
+        }
+        long quiet = loop.now() - lastActivity;
+        if ( quiet >= readTimeout )
+        {
+            fail( new SocketTimeoutException( "Read timed out" ) );
+        }
+        else
+        {
+            readTimer = loop.schedule( readTimeoutCheck, readTimeout - quiet );
+        }
+    }
+
+    private void closeSocket()
+    {
+        if ( socketClosed )
+        {
+            return;
+        }
+        socketClosed = true;
+        failReceiver( new ClosedChannelException() );
+        if ( readTimer != null )
+        {
+            readTimer.cancel();
+            readTimer = null;
+        }
+        if ( key != null )
+        {
+            key.cancel();
+        }
+        try
+        {
+            channel.close();
+        }
+        catch ( IOException e )
+        {
+            // best effort
+        }
+        ByteBuffer unwritten;
+        while ( (unwritten = outbound.poll()) != null )
+        {
+            buffers.release( unwritten );
+        }
+        buffers.release( readBuffer );
+        framer.release();
+    }
+}
@@ -0,0 +1,436 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.driver.internal.connector.socket.ChunkedOutput;
+import org.neo4j.driver.internal.connector.socket.SocketResponseHandler;
+import org.neo4j.driver.internal.messaging.InitMessage;
+import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.PullAllMessage;
+import org.neo4j.driver.internal.messaging.RunMessage;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+import org.neo4j.driver.internal.packstream.ByteBufferPackInput;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+
+import static org.neo4j.driver.internal.messaging.AckFailureMessage.ACK_FAILURE;
+import static org.neo4j.driver.internal.messaging.DiscardAllMessage.DISCARD_ALL;
+import static org.neo4j.driver.internal.messaging.ResetMessage.RESET;
+
+/**
+ * A connection whose socket is driven by an {@link EventLoop}. To its user it behaves as a
+ * {@link org.neo4j.driver.internal.connector.socket.SocketConnection} does: messages are serialized on
+ * {@link #flush()}, and {@link #sync()} and {@link #receiveOne()} block until responses have arrived, which are then
+ * decoded and dispatched to the collectors on the calling thread.
+ * <p>
+ * {@link #syncAsync(ResponseListener)} is where it differs: responses are then decoded and dispatched on the I/O
+ * thread as they arrive, so that no thread waits for them.
+ */
+public class NioConnection implements Connection
+{
+    private static final Runnable NO_OP = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+        }
+    };
+
+    private final Queue<Message> pendingMessages = new LinkedList<>();
+    private final SocketResponseHandler responseHandler;
+    private final NioChannel channel;
+    private final Logger logger;
+    private final InternalConnectionPoolMetrics metrics;
+    private final long statementTimeout;
+    private final ByteBufferPool buffers;
+
+    private final OutboundBuffer outbound;
+    private final MessageFormat.Writer writer;
+
+    /** When the statement running now has to be done by, or 0 if there is no such deadline */
+    private long deadline = 0;
+    private boolean deadlineExpired = false;
+    /** Closed from the user thread, or from the loop when a listener of syncAsync gives up on the connection */
+    private final AtomicBoolean closed = new AtomicBoolean( false );
+
+    NioConnection( NioChannel channel, SocketResponseHandler responseHandler, Logger logger,
+            InternalConnectionPoolMetrics metrics, ByteBufferPool buffers, long statementTimeout )
+    {
+        this.buffers = buffers;
+        this.outbound = new OutboundBuffer( buffers );
+        this.channel = channel;
+        this.responseHandler = responseHandler;
+        this.logger = logger;
+        this.metrics = metrics;
+        this.statementTimeout = statementTimeout;
+        ChunkedOutput output = new ChunkedOutput( outbound );
+        this.writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook() );
+    }
+
+    @Override
+    public void init( String clientName, Map<String,Value> authToken )
+    {
+        queueMessage( new InitMessage( clientName, authToken ), StreamCollector.INIT );
+        sync();
+    }
+
+    @Override
+    public void run( String statement, Map<String,Value> parameters, StreamCollector collector )
+    {
+        if ( statementTimeout > 0 )
+        {
+            deadline = System.currentTimeMillis() + statementTimeout;
+        }
+        queueMessage( new RunMessage( statement, parameters ), collector );
+    }
+
+    @Override
+    public void discardAll( StreamCollector collector )
+    {
+        queueMessage( DISCARD_ALL, collector );
+    }
+
+    @Override
+    public void pullAll( StreamCollector collector )
+    {
+        queueMessage( PullAllMessage.PULL_ALL, collector );
+    }
+
+    @Override
+    public void reset()
+    {
+        // RESET discards whatever was queued before it, so failures of that work are no longer of interest
+        responseHandler.skipWaitingCollectors();
+        queueMessage( RESET, StreamCollector.RESET );
+    }
+
+    @Override
+    public void ackFailure()
+    {
+        queueMessage( ACK_FAILURE, StreamCollector.ACK_FAILURE );
+    }
+
+    @Override
+    public void sync()
+    {
+        boolean roundTrip = !pendingMessages.isEmpty() || responseHandler.collectorsWaiting() > 0;
+        long start = System.nanoTime();
+        flush();
+        while ( responseHandler.collectorsWaiting() > 0 )
+        {
+            receiveOne();
+        }
+        if ( roundTrip )
+        {
+            metrics.roundTripTime().record( System.nanoTime() - start );
+        }
+    }
+
+    @Override
+    public void syncAsync( final ResponseListener<Void> listener )
+    {
+        if ( pendingMessages.isEmpty() && responseHandler.collectorsWaiting() == 0 )
+        {
+            listener.onSuccess( null );
+            return;
+        }
+        final long start = System.nanoTime();
+        try
+        {
+            flush();
+        }
+        catch ( Neo4jException e )
+        {
+            listener.onFailure( e );
+            return;
+        }
+        channel.receive( new NioChannel.MessageReceiver()
+        {
+            @Override
+            public boolean onMessage( ByteBuffer message )
+            {
+                try
+                {
+                    dispatch( message );
+                }
+                catch ( Neo4jException e )
+                {
+                    listener.onFailure( e );
+                    return false;
+                }
+                catch ( IOException | RuntimeException e )
+                {
+                    listener.onFailure( new ClientException( "Unable to process response: " + e.getMessage(), e ) );
+                    return false;
+                }
+                if ( responseHandler.collectorsWaiting() > 0 )
+                {
+                    return true;
+                }
+                metrics.roundTripTime().record( System.nanoTime() - start );
+                listener.onSuccess( null );
+                return false;
+            }
+
+            @Override
+            public void onFailure( IOException cause )
+            {
+                if ( deadline != 0 && System.currentTimeMillis() >= deadline )
+                {
+                    // The statement overran, see receiveOne()
+                    deadlineExpired = true;
+                    close();
+                }
+                listener.onFailure( mapReceiveError( cause ) );
+            }
+        }, deadline == 0 ? 0 : Math.max( 1, deadline - System.currentTimeMillis() ) );
+    }
+
+    @Override
+    public void flush()
+    {
+        int messageCount = 0;
+        try
+        {
+            Message message;
+            while ( (message = pendingMessages.poll()) != null )
+            {
+                logger.debug( "C: %s", message );
+                writer.write( message );
+                messageCount++;
+            }
+            if ( messageCount > 0 )
+            {
+                writer.flush();
+                channel.write( outbound.drain(), messageCount );
+                metrics.messagesSent( messageCount );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to send messages to server: " + e.getMessage(), e );
+        }
+    }
+
+    @Override
+    public void receiveOne()
+    {
+        try
+        {
+            ByteBuffer message = channel.take( deadline == 0 ? 0 : Math.max( 1, deadline - System.currentTimeMillis() ) );
+            if ( message == null )
+            {
+                // The statement overran, the server may still be working on it, so the connection is of no more use
+                deadlineExpired = true;
+                close();
+                throw new SocketTimeoutException( "Statement timed out" );
+            }
+            dispatch( message );
+        }
+        catch ( IOException e )
+        {
+            throw mapReceiveError( e );
+        }
+    }
+
+    /**
+     * Decode a message and hand it to its collector, then give its buffer back to the pool.
+     */
+    private void dispatch( final ByteBuffer message ) throws IOException
+    {
+        try
+        {
+            // The message is whole already, so a record of an abandoned result is passed over by moving to its end
+            new PackStreamMessageFormatV1.Reader( new ByteBufferPackInput( message ), NO_OP, new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    message.position( message.limit() );
+                }
+            } ).read( responseHandler, responseHandler.skipsRecords() );
+        }
+        finally
+        {
+            // Decoding copies everything out of the message
+            buffers.release( message );
+        }
+        metrics.messageReceived();
+
+        // Stop immediately if bolt protocol error happened on the server
+        if ( responseHandler.protocolViolationErrorOccurred() )
+        {
+            close();
+            throw responseHandler.serverFailure();
+        }
+        if ( responseHandler.collectorsWaiting() == 0 )
+        {
+            deadline = 0;
+        }
+        assertNoServerFailure();
+    }
+
+    private void assertNoServerFailure()
+    {
+        if ( responseHandler.serverFailureOccurred() )
+        {
+            Neo4jException exception = responseHandler.serverFailure();
+            responseHandler.clearError();
+            throw exception;
+        }
+    }
+
+    private ClientException mapReceiveError( IOException e )
+    {
+        String message = e.getMessage();
+        if ( deadlineExpired )
+        {
+            return new ClientException( String.format(
+                    "The statement did not complete within the statement timeout (%dms).", statementTimeout ), e );
+        }
+        else if ( e instanceof SocketTimeoutException )
+        {
+            return new ClientException( "Server did not reply within the network timeout limit.", e );
+        }
+        else if ( message == null )
+        {
+            return new ClientException( "Unable to read response from server: " + e.getClass().getSimpleName(), e );
+        }
+        else
+        {
+            return new ClientException( "Unable to read response from server: " + message, e );
+        }
+    }
+
+    private void queueMessage( Message msg, StreamCollector collector )
+    {
+        pendingMessages.add( msg );
+        responseHandler.appendResultCollector( collector );
+    }
+
+    @Override
+    public void close()
+    {
+        if ( closed.compareAndSet( false, true ) )
+        {
+            logger.debug( "~~ [CLOSE]" );
+            metrics.connectionClosed();
+            channel.close();
+        }
+    }
+
+    @Override
+    public int collectorsWaiting()
+    {
+        return responseHandler.collectorsWaiting();
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void onError( Runnable runnable )
+    {
+        throw new UnsupportedOperationException( "Error subscribers are not supported on NioConnection." );
+    }
+
+    @Override
+    public boolean hasUnrecoverableErrors()
+    {
+        throw new UnsupportedOperationException( "Unrecoverable error detection is not supported on NioConnection." );
+    }
+
+    /**
+     * Collects what the chunked output writes, to hand it to the I/O thread in one piece. The bytes are collected
+     * in a pooled direct buffer, which the socket writes without copying it first, and which is handed over as it
+     * is; the I/O thread releases it once written.
+     */
+    private static class OutboundBuffer implements WritableByteChannel
+    {
+        private static final int INITIAL_CAPACITY = 8192;
+
+        private final ByteBufferPool buffers;
+        /** Null until something is written after the last drain */
+        private ByteBuffer buffer;
+
+        OutboundBuffer( ByteBufferPool buffers )
+        {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int write( ByteBuffer src )
+        {
+            int length = src.remaining();
+            if ( buffer == null )
+            {
+                buffer = buffers.acquire( Math.max( INITIAL_CAPACITY, length ) );
+            }
+            else if ( buffer.remaining() < length )
+            {
+                ByteBuffer grown = buffers.acquire( Math.max( buffer.capacity() * 2, buffer.position() + length ) );
+                buffer.flip();
+                grown.put( buffer );
+                buffers.release( buffer );
+                buffer = grown;
+            }
+            buffer.put( src );
+            return length;
+        }
+
+        ByteBuffer drain()
+        {
+            ByteBuffer bytes = buffer;
+            buffer = null;
+            bytes.flip();
+            return bytes;
+        }
+
+        @Override
+        public boolean isOpen()
+        {
+            return true;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
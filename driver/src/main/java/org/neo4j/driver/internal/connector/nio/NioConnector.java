@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.channels.SocketChannel;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import org.neo4j.driver.internal.Version;
+import org.neo4j.driver.internal.auth.InternalAuthToken;
+import org.neo4j.driver.internal.connector.ConcurrencyGuardingConnection;
+import org.neo4j.driver.internal.connector.socket.LoggingResponseHandler;
+import org.neo4j.driver.internal.connector.socket.SocketClient;
+import org.neo4j.driver.internal.connector.socket.SocketConnector;
+import org.neo4j.driver.internal.connector.socket.SocketResponseHandler;
+import org.neo4j.driver.internal.connector.socket.TimeoutSocketChannel;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+import org.neo4j.driver.internal.metrics.InternalMetrics;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.Connector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.v1.AuthToken;
+import org.neo4j.driver.v1.AuthTokens;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.exceptions.ClientException;
+
+import static java.lang.String.format;
+
+/**
+ * Connects to Bolt servers with connections that are driven by a shared group of I/O threads, see
+ * {@link EventLoop}. The handshake is done with blocking I/O before the connection is handed to its I/O thread.
+ * <p>
+ * Encrypted connections are left to the blocking {@link SocketConnector}, as TLS is only implemented on top of
+ * blocking channels.
+ */
+public class NioConnector implements Connector, AutoCloseable
+{
+    private final InternalMetrics metrics;
+    private final ByteBufferPool buffers;
+    private final SocketConnector blockingConnector;
+    private final EventLoopGroup eventLoops;
+
+    /**
+     * @param metrics the metrics of the driver, into which connections record what they do
+     * @param buffers the I/O buffers of the driver, which connections take their buffers from
+     * @param threads the number of I/O threads to drive connections from
+     * @param logger where the I/O threads report failures
+     */
+    public NioConnector( InternalMetrics metrics, ByteBufferPool buffers, int threads, Logger logger )
+    {
+        this.metrics = metrics;
+        this.buffers = buffers;
+        this.blockingConnector = new SocketConnector( metrics, buffers );
+        try
+        {
+            this.eventLoops = new EventLoopGroup( threads, Clock.SYSTEM, logger );
+        }
+        catch ( IOException e )
+        {
+            throw new ClientException( "Unable to start I/O threads: " + e.getMessage(), e );
+        }
+    }
+
+    @Override
+    public boolean supports( String scheme )
+    {
+        return scheme.equals( SocketConnector.SCHEME );
+    }
+
+    @Override
+    public Connection connect( URI sessionURI, Config config, AuthToken authToken ) throws ClientException
+    {
+        if ( config.encryptionLevel() != Config.EncryptionLevel.NONE )
+        {
+            return blockingConnector.connect( sessionURI, config, authToken );
+        }
+
+        String host = sessionURI.getHost();
+        int port = sessionURI.getPort() == -1 ? SocketConnector.DEFAULT_PORT : sessionURI.getPort();
+        Logger logger = config.logging().getLog( String.valueOf( System.currentTimeMillis() ) );
+        InternalConnectionPoolMetrics poolMetrics = metrics.connectionPool( sessionURI );
+
+        Connection conn = new ConcurrencyGuardingConnection( open( host, port, config, logger, poolMetrics ) );
+        try
+        {
+            conn.init( "bolt-java-driver/" + Version.driverVersion(), tokenAsMap( authToken ) );
+        }
+        catch ( RuntimeException e )
+        {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+    private NioConnection open( String host, int port, Config config, Logger logger,
+            InternalConnectionPoolMetrics poolMetrics )
+    {
+        SocketChannel channel = null;
+        try
+        {
+            logger.debug( "~~ [CONNECT] %s:%d.", host, port );
+            long start = System.nanoTime();
+            channel = SocketClient.openChannel( host, port, config );
+            long connected = System.nanoTime();
+            poolMetrics.connectionCreated();
+            poolMetrics.connectionTime().record( connected - start );
+
+            // The handshake is still blocking, bound it by the connection timeout, as part of connecting
+            TimeoutSocketChannel handshake = new TimeoutSocketChannel( channel,
+                    (int) Math.min( config.socketReadTimeout(), Integer.MAX_VALUE ) );
+            if ( config.connectionTimeout() > 0 )
+            {
+                handshake.startDeadline( config.connectionTimeout() );
+            }
+            try
+            {
+                SocketClient.negotiateVersion( handshake, host, port, logger );
+            }
+            finally
+            {
+                handshake.detach();
+            }
+            poolMetrics.handshakeTime().record( System.nanoTime() - connected );
+
+            NioChannel nioChannel = new NioChannel( channel, eventLoops.next(), poolMetrics, buffers,
+                    SocketClient.readBufferSizer( config ), config.socketReadTimeout() );
+            nioChannel.register();
+            SocketResponseHandler handler =
+                    logger.isDebugEnabled() ? new LoggingResponseHandler( logger ) : new SocketResponseHandler();
+            return new NioConnection( nioChannel, handler, logger, poolMetrics, buffers,
+                    config.statementTimeout() );
+        }
+        catch ( ConnectException e )
+        {
+            throw new ClientException( format(
+                    "Unable to connect to '%s' on port %s, ensure the database is running and that there is a " +
+                    "working network connection to it.", host, port ) );
+        }
+        catch ( SocketTimeoutException e )
+        {
+            closeQuietly( channel, poolMetrics );
+            throw new ClientException( format(
+                    "Unable to connect to '%s' on port %s within the connection timeout (%dms), ensure the " +
+                    "database is running and that there is a working network connection to it.",
+                    host, port, config.connectionTimeout() ), e );
+        }
+        catch ( IOException e )
+        {
+            closeQuietly( channel, poolMetrics );
+            throw new ClientException( "Unable to process request: " + e.getMessage(), e );
+        }
+        catch ( RuntimeException e )
+        {
+            closeQuietly( channel, poolMetrics );
+            throw e;
+        }
+    }
+
+    private static void closeQuietly( SocketChannel channel, InternalConnectionPoolMetrics poolMetrics )
+    {
+        if ( channel != null )
+        {
+            poolMetrics.connectionClosed();
+            try
+            {
+                channel.close();
+            }
+            catch ( IOException e )
+            {
+                // best effort
+            }
+        }
+    }
+
+    @Override
+    public Collection<String> supportedSchemes()
+    {
+        return Collections.singletonList( SocketConnector.SCHEME );
+    }
+
+    /**
+     * Stop the I/O threads, closing all connections still open.
+     */
+    @Override
+    public void close()
+    {
+        eventLoops.close();
+    }
+
+    private Map<String,Value> tokenAsMap( AuthToken token )
+    {
+        if( token instanceof InternalAuthToken )
+        {
+            return ((InternalAuthToken) token).toMap();
+        }
+        else
+        {
+            throw new ClientException( "Unknown authentication token, `" + token + "`. Please use one of the supported " +
+                                       "tokens from `" + AuthTokens.class.getSimpleName() + "`." );
+        }
+    }
+}
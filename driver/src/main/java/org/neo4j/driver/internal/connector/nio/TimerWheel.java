@@ -0,0 +1,141 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A hashed timer wheel: timers are put in the slot of the tick they expire in, so scheduling and cancelling are
+ * constant time, and each tick only looks at the timers of one slot. Timers are only as precise as a tick.
+ * <p>
+ * Not thread safe, a wheel belongs to the {@link EventLoop} that advances it.
+ */
+class TimerWheel
+{
+    private final long tickMillis;
+    private final List<List<Timer>> slots;
+    private final long startMillis;
+    private long currentTick = 0;
+    private int scheduled = 0;
+
+    TimerWheel( long tickMillis, int slotCount, long nowMillis )
+    {
+        this.tickMillis = tickMillis;
+        this.startMillis = nowMillis;
+        this.slots = new ArrayList<>( slotCount );
+        for ( int i = 0; i < slotCount; i++ )
+        {
+            slots.add( new ArrayList<Timer>() );
+        }
+    }
+
+    /**
+     * @param task what to run once the delay has passed
+     * @param delayMillis how long from now to run the task
+     * @param nowMillis the current time
+     * @return the timer, which can be cancelled until it has run
+     */
+    Timer schedule( Runnable task, long delayMillis, long nowMillis )
+    {
+        // Round up, a timer never fires early
+        long tick = (nowMillis + Math.max( delayMillis, 0 ) - startMillis + tickMillis - 1) / tickMillis;
+        tick = Math.max( tick, currentTick + 1 );
+        Timer timer = new Timer( task, tick );
+        slots.get( (int) (tick % slots.size()) ).add( timer );
+        scheduled++;
+        return timer;
+    }
+
+    /**
+     * Run all timers that have expired by now.
+     */
+    void advance( long nowMillis )
+    {
+        long targetTick = (nowMillis - startMillis) / tickMillis;
+        while ( currentTick < targetTick && scheduled > 0 )
+        {
+            currentTick++;
+            Iterator<Timer> timers = slots.get( (int) (currentTick % slots.size()) ).iterator();
+            List<Timer> expired = null;
+            while ( timers.hasNext() )
+            {
+                Timer timer = timers.next();
+                if ( timer.cancelled || timer.tick <= currentTick )
+                {
+                    timers.remove();
+                    scheduled--;
+                    if ( !timer.cancelled )
+                    {
+                        if ( expired == null )
+                        {
+                            expired = new ArrayList<>();
+                        }
+                        expired.add( timer );
+                    }
+                }
+            }
+            if ( expired != null )
+            {
+                // Run outside of the iteration, tasks commonly schedule new timers
+                for ( Timer timer : expired )
+                {
+                    timer.task.run();
+                }
+            }
+        }
+        currentTick = Math.max( currentTick, targetTick );
+    }
+
+    /**
+     * @return how long until the next tick, in milliseconds, or 0 if there is nothing scheduled
+     */
+    long millisToNextTick( long nowMillis )
+    {
+        if ( scheduled == 0 )
+        {
+            return 0;
+        }
+        return Math.max( 1, startMillis + (currentTick + 1) * tickMillis - nowMillis );
+    }
+
+    boolean isEmpty()
+    {
+        return scheduled == 0;
+    }
+
+    static class Timer
+    {
+        private final Runnable task;
+        private final long tick;
+        private boolean cancelled = false;
+
+        private Timer( Runnable task, long tick )
+        {
+            this.task = task;
+            this.tick = tick;
+        }
+
+        void cancel()
+        {
+            cancelled = true;
+        }
+    }
+}
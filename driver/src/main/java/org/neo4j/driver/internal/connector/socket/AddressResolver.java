@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.neo4j.driver.internal.util.Clock;
+
+/**
+ * Resolves host names to all of their addresses, and remembers the answer for a while so that opening a connection
+ * does not wait for a name lookup every time.
+ * <p>
+ * The addresses are ordered for connecting in turn: starting with the family of the first address, IPv6 and IPv4
+ * addresses alternate, so that a family that cannot be reached only delays every other attempt.
+ */
+public class AddressResolver
+{
+    public static final long DEFAULT_TTL_MILLIS = 30_000;
+
+    private final ConcurrentHashMap<String,Resolved> cache = new ConcurrentHashMap<>();
+    private final Clock clock;
+    private final long ttlMillis;
+
+    public AddressResolver()
+    {
+        this( Clock.SYSTEM, DEFAULT_TTL_MILLIS );
+    }
+
+    /**
+     * @param clock the clock to expire answers by
+     * @param ttlMillis how long an answer is used before the name is looked up again
+     */
+    public AddressResolver( Clock clock, long ttlMillis )
+    {
+        this.clock = clock;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * @return the addresses of the host, in the order to try them
+     * @throws UnknownHostException if the host has no addresses
+     */
+    public InetAddress[] resolve( String host ) throws UnknownHostException
+    {
+        long now = clock.millis();
+        Resolved resolved = cache.get( host );
+        if ( resolved == null || resolved.expiresAt <= now )
+        {
+            resolved = new Resolved( interleave( lookup( host ) ), now + ttlMillis );
+            cache.put( host, resolved );
+        }
+        return resolved.addresses.clone();
+    }
+
+    /**
+     * Drop the remembered addresses of a host, so that the next connection looks it up again. Used when none of the
+     * addresses could be connected to, as the host may have moved.
+     */
+    public void forget( String host )
+    {
+        cache.remove( host );
+    }
+
+    protected InetAddress[] lookup( String host ) throws UnknownHostException
+    {
+        return InetAddress.getAllByName( host );
+    }
+
+    static InetAddress[] interleave( InetAddress[] addresses )
+    {
+        if ( addresses.length < 3 )
+        {
+            return addresses;
+        }
+        boolean firstIsV6 = addresses[0] instanceof Inet6Address;
+        InetAddress[] same = new InetAddress[addresses.length];
+        InetAddress[] other = new InetAddress[addresses.length];
+        int sameCount = 0;
+        int otherCount = 0;
+        for ( InetAddress address : addresses )
+        {
+            if ( (address instanceof Inet6Address) == firstIsV6 )
+            {
+                same[sameCount++] = address;
+            }
+            else
+            {
+                other[otherCount++] = address;
+            }
+        }
+
+        InetAddress[] ordered = new InetAddress[addresses.length];
+        int i = 0;
+        for ( int j = 0; j < Math.max( sameCount, otherCount ); j++ )
+        {
+            if ( j < sameCount )
+            {
+                ordered[i++] = same[j];
+            }
+            if ( j < otherCount )
+            {
+                ordered[i++] = other[j];
+            }
+        }
+        return ordered;
+    }
+
+    private static class Resolved
+    {
+        private final InetAddress[] addresses;
+        private final long expiresAt;
+
+        private Resolved( InetAddress[] addresses, long expiresAt )
+        {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -25,6 +25,9 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ReadableByteChannel;
 
 import org.neo4j.driver.internal.packstream.PackInput;
+import org.neo4j.driver.internal.packstream.StringDecodingPackInput;
+import org.neo4j.driver.internal.packstream.Utf8;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.internal.util.BytePrinter;
 import org.neo4j.driver.v1.exceptions.ClientException;
 
@@ -32,9 +35,11 @@ import static java.lang.Math.min;
 
 /**
  * BufferingChunkedInput reads data in chunks but maintains a buffer so that every time it goes to the
- * underlying channel it reads up to {@value #STACK_OVERFLOW_SUGGESTED_BUFFER_SIZE} bytes.
+ * underlying channel it reads up to a buffer full of bytes. The buffer is {@value #STACK_OVERFLOW_SUGGESTED_BUFFER_SIZE}
+ * bytes by default; buffers from a {@link ByteBufferPool} can instead be sized by a {@link ReadBufferSizer}, which
+ * grows them while large results stream in.
  */
-public class BufferingChunkedInput implements PackInput
+public class BufferingChunkedInput implements StringDecodingPackInput
 {
     // http://stackoverflow.com/questions/2613734/maximum-packet-size-for-a-tcp-connection
     private static final int STACK_OVERFLOW_SUGGESTED_BUFFER_SIZE = 1400;
@@ -42,7 +47,7 @@ public class BufferingChunkedInput implements PackInput
     /**
      * Main buffer, everytime we read from the underlying channel we try to fill up the entire buffer.
      */
-    private final ByteBuffer buffer;
+    private ByteBuffer buffer;
 
     /**
      * Scratch buffer used for obtaining results from the main buffer.
@@ -54,6 +59,22 @@ public class BufferingChunkedInput implements PackInput
      */
     private final ReadableByteChannel channel;
 
+    /**
+     * The pool the main buffer came from, or null if it is a heap buffer of its own.
+     */
+    private final ByteBufferPool pool;
+    private boolean released = false;
+
+    /**
+     * Decides the size of the buffer from read to read, or null if the buffer keeps its size.
+     */
+    private final ReadBufferSizer sizer;
+
+    /**
+     * The size asked for when taking the buffer, which the pool may have rounded up.
+     */
+    private int bufferSize;
+
     /**
      * State of the internal state machine used for reading from the channel.
      */
@@ -80,14 +101,61 @@ public class BufferingChunkedInput implements PackInput
      */
     public BufferingChunkedInput( ReadableByteChannel channel, int bufferCapacity )
     {
-        assert bufferCapacity >= 1;
-        this.buffer = ByteBuffer.allocate( bufferCapacity ).order( ByteOrder.BIG_ENDIAN );
+        this( channel, ByteBuffer.allocate( bufferCapacity ), null, null );
+    }
+
+    /**
+     * Creates a BufferingChunkedInput that reads into a direct buffer from the given pool, so that reads from
+     * the channel need no intermediate copy. Give the buffer back with {@link #release()}.
+     * @param channel The channel to read from
+     * @param bufferCapacity The least capacity of the buffer.
+     * @param pool The pool to take the buffer from.
+     */
+    public BufferingChunkedInput( ReadableByteChannel channel, int bufferCapacity, ByteBufferPool pool )
+    {
+        this( channel, pool.acquire( bufferCapacity ), pool, null );
+    }
+
+    /**
+     * Creates a BufferingChunkedInput that reads into direct buffers from the given pool, swapping the buffer for
+     * one of another size whenever the sizer asks for it. Give the buffer back with {@link #release()}.
+     * @param channel The channel to read from
+     * @param sizer Decides how large the buffer is.
+     * @param pool The pool to take buffers from.
+     */
+    public BufferingChunkedInput( ReadableByteChannel channel, ReadBufferSizer sizer, ByteBufferPool pool )
+    {
+        this( channel, pool.acquire( sizer.size() ), pool, sizer );
+        this.bufferSize = sizer.size();
+    }
+
+    private BufferingChunkedInput( ReadableByteChannel channel, ByteBuffer buffer, ByteBufferPool pool,
+            ReadBufferSizer sizer )
+    {
+        assert buffer.capacity() >= 1;
+        this.buffer = buffer.order( ByteOrder.BIG_ENDIAN );
         this.buffer.limit( 0 );
         this.scratchBuffer = ByteBuffer.allocate( 8 ).order( ByteOrder.BIG_ENDIAN );
         this.channel = channel;
+        this.pool = pool;
+        this.sizer = sizer;
+        this.bufferSize = buffer.capacity();
         this.state = State.AWAITING_CHUNK;
     }
 
+    /**
+     * Return the buffer to the pool it came from. The input must not be used afterwards.
+     */
+    public void release()
+    {
+        if ( pool != null && !released )
+        {
+            // Released only once, or the pool would hand the buffer out twice
+            released = true;
+            pool.release( buffer );
+        }
+    }
+
     /*
      * Use only in tests
      */
@@ -96,6 +164,14 @@ public class BufferingChunkedInput implements PackInput
         return remainingChunkSize;
     }
 
+    /*
+     * Use only in tests
+     */
+    int bufferCapacity()
+    {
+        return buffer.capacity();
+    }
+
 
     @Override
     public boolean hasMoreData() throws IOException
@@ -106,6 +182,11 @@ public class BufferingChunkedInput implements PackInput
     @Override
     public byte readByte() throws IOException
     {
+        if ( availableInChunk( 1 ) )
+        {
+            remainingChunkSize -= 1;
+            return buffer.get();
+        }
         fillScratchBuffer( 1 );
         return scratchBuffer.get();
     }
@@ -113,6 +194,11 @@ public class BufferingChunkedInput implements PackInput
     @Override
     public short readShort() throws IOException
     {
+        if ( availableInChunk( 2 ) )
+        {
+            remainingChunkSize -= 2;
+            return buffer.getShort();
+        }
         fillScratchBuffer( 2 );
         return scratchBuffer.getShort();
     }
@@ -120,6 +206,11 @@ public class BufferingChunkedInput implements PackInput
     @Override
     public int readInt() throws IOException
     {
+        if ( availableInChunk( 4 ) )
+        {
+            remainingChunkSize -= 4;
+            return buffer.getInt();
+        }
         fillScratchBuffer( 4 );
         return scratchBuffer.getInt();
     }
@@ -127,6 +218,11 @@ public class BufferingChunkedInput implements PackInput
     @Override
     public long readLong() throws IOException
     {
+        if ( availableInChunk( 8 ) )
+        {
+            remainingChunkSize -= 8;
+            return buffer.getLong();
+        }
         fillScratchBuffer( 8 );
         return scratchBuffer.getLong();
     }
@@ -134,6 +230,11 @@ public class BufferingChunkedInput implements PackInput
     @Override
     public double readDouble() throws IOException
     {
+        if ( availableInChunk( 8 ) )
+        {
+            remainingChunkSize -= 8;
+            return buffer.getDouble();
+        }
         fillScratchBuffer( 8 );
         return scratchBuffer.getDouble();
     }
@@ -153,6 +254,32 @@ public class BufferingChunkedInput implements PackInput
         return buffer.get( buffer.position() );
     }
 
+    @Override
+    public String readUtf8( int length ) throws IOException
+    {
+        if ( length == 0 )
+        {
+            return "";
+        }
+        // Gets to the chunk the string starts in, as reading its first byte would, but consumes none of it
+        assertOneByteInBuffer();
+        if ( availableInChunk( length ) )
+        {
+            remainingChunkSize -= length;
+            return Utf8.decode( buffer, length );
+        }
+        return null;
+    }
+
+    /**
+     * @return true if the given number of bytes can be read straight from the buffer, as they are all there and
+     * belong to the chunk being read
+     */
+    private boolean availableInChunk( int bytes )
+    {
+        return state == State.IN_CHUNK && remainingChunkSize >= bytes && buffer.remaining() >= bytes;
+    }
+
     static int getUnsignedByteFromBuffer( ByteBuffer buffer )
     {
         return buffer.get() & 0xFF;
@@ -200,6 +327,51 @@ public class BufferingChunkedInput implements PackInput
         return this.onMessageComplete;
     }
 
+    private Runnable onMessageSkipped = new Runnable()
+    {
+        @Override
+        public void run()
+        {
+            try
+            {
+                // Chunk by chunk, only looking at chunk headers, up to and including the '00 00' message ending
+                while ( true )
+                {
+                    if ( state == State.IN_CHUNK && remainingChunkSize > 0 )
+                    {
+                        if ( !buffer.hasRemaining() )
+                        {
+                            fillBuffer();
+                        }
+                        int skip = min( buffer.remaining(), remainingChunkSize );
+                        buffer.position( buffer.position() + skip );
+                        remainingChunkSize -= skip;
+                    }
+                    else
+                    {
+                        readChunkSize();
+                        if ( remainingChunkSize == 0 )
+                        {
+                            return;
+                        }
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new ClientException( "Error while skipping over message.", e );
+            }
+        }
+    };
+
+    /**
+     * @return a hook that passes over the rest of the message being read, including its end, without decoding it
+     */
+    public Runnable messageSkipHook()
+    {
+        return this.onMessageSkipped;
+    }
+
     /**
      * Fills the scratch buffet with data from the main buffer. If there is not
      * enough data in the buffer more data will be read from the channel.
@@ -260,7 +432,7 @@ public class BufferingChunkedInput implements PackInput
                     remainingChunkSize -= bytesToRead;
                     if ( !buffer.hasRemaining() )
                     {
-                        readNextPacket( channel, buffer );
+                        fillBuffer();
                     }
                 }
                 else
@@ -311,7 +483,7 @@ public class BufferingChunkedInput implements PackInput
                 else if ( buffer.remaining() == 0 )
                 {
                     //no data in buffer, fill it up an try again
-                    readNextPacket( channel, buffer );
+                    fillBuffer();
                 }
                 else
                 {
@@ -341,7 +513,7 @@ public class BufferingChunkedInput implements PackInput
                     //buffer empty, block until you get at least at least one byte
                     while ( buffer.remaining() == 0 )
                     {
-                        readNextPacket( channel, buffer );
+                        fillBuffer();
                     }
                 }
                 else if ( buffer.remaining() >= 2 )
@@ -385,13 +557,38 @@ public class BufferingChunkedInput implements PackInput
                 else
                 {
                     //Buffer is empty, fill it up and try again
-                    readNextPacket( channel, buffer );
+                    fillBuffer();
                 }
                 break;
             }
         }
     }
 
+    /**
+     * Read data from the underlying channel into the buffer, which has been used up. This is the point at which the
+     * buffer can be swapped for one of another size, as it holds nothing that has yet to be read.
+     * @throws IOException
+     */
+    private void fillBuffer() throws IOException
+    {
+        if ( sizer != null )
+        {
+            if ( sizer.size() != bufferSize )
+            {
+                bufferSize = sizer.size();
+                pool.release( buffer );
+                buffer = pool.acquire( sizer.size() );
+                buffer.limit( 0 );
+            }
+            readNextPacket( channel, buffer );
+            sizer.record( buffer.remaining() );
+        }
+        else
+        {
+            readNextPacket( channel, buffer );
+        }
+    }
+
     /**
      * Read data from the underlying channel into the buffer.
      * @param channel The channel to read from.
@@ -447,6 +644,14 @@ public class BufferingChunkedInput implements PackInput
      */
     private static void copyBytes( ByteBuffer from, ByteBuffer to, int bytesToRead )
     {
+        if ( to.hasArray() )
+        {
+            // Straight into the array, without a temporary view of the buffer
+            from.get( to.array(), to.arrayOffset() + to.position(), bytesToRead );
+            to.position( to.position() + bytesToRead );
+            return;
+        }
+
         //Use a temporary buffer and move over in one go
         ByteBuffer temporaryBuffer = from.duplicate();
         temporaryBuffer.limit( temporaryBuffer.position() + bytesToRead );
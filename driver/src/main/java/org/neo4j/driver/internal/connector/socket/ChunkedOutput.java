@@ -23,6 +23,7 @@ import java.nio.ByteBuffer;
 import java.nio.channels.WritableByteChannel;
 
 import org.neo4j.driver.internal.packstream.PackOutput;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.exceptions.ClientException;
 
 import static java.lang.Math.max;
@@ -32,8 +33,13 @@ public class ChunkedOutput implements PackOutput
     public static final short MESSAGE_BOUNDARY = 0;
     public static final int CHUNK_HEADER_SIZE = 2;
 
-    private final ByteBuffer buffer;
+    /** The largest the buffer grows to, as a chunk can hold no more than 65535 bytes */
+    private static final int MAX_BUFFER_SIZE = ByteBufferPool.MAX_CAPACITY;
+
+    private ByteBuffer buffer;
     private final WritableByteChannel channel;
+    /** Where the buffer comes from and goes back to, or null if it is a heap buffer of fixed size */
+    private final ByteBufferPool pool;
 
     /** The chunk header */
     private int currentChunkHeaderOffset;
@@ -51,6 +57,32 @@ public class ChunkedOutput implements PackOutput
         buffer = ByteBuffer.allocate(  max( 16, bufferSize ) );
         chunkOpen = false;
         channel = ch;
+        pool = null;
+    }
+
+    /**
+     * Write through a direct buffer from the given pool. The buffer starts out at the given size and grows, up to
+     * {@value #MAX_BUFFER_SIZE} bytes, whenever what is written between two flushes does not fit, so that large
+     * messages go out in fewer, larger writes. Give the buffer back with {@link #release()}.
+     */
+    public ChunkedOutput( int bufferSize, WritableByteChannel ch, ByteBufferPool pool )
+    {
+        this.pool = pool;
+        buffer = pool.acquire( max( 16, bufferSize ) );
+        chunkOpen = false;
+        channel = ch;
+    }
+
+    /**
+     * Return the buffer to the pool it came from. The output must not be used afterwards.
+     */
+    public void release()
+    {
+        if ( pool != null && buffer != null )
+        {
+            pool.release( buffer );
+            buffer = null;
+        }
     }
 
     @Override
@@ -137,7 +169,14 @@ public class ChunkedOutput implements PackOutput
         int toWriteSize = chunkOpen ? size : size + CHUNK_HEADER_SIZE;
         if ( buffer.remaining() < toWriteSize )
         {
-            flush();
+            if ( pool != null && buffer.capacity() < MAX_BUFFER_SIZE )
+            {
+                grow();
+            }
+            else
+            {
+                flush();
+            }
         }
 
         if ( !chunkOpen )
@@ -150,6 +189,16 @@ public class ChunkedOutput implements PackOutput
         return this;
     }
 
+    private void grow()
+    {
+        // Positions are kept as they are, so an open chunk stays open
+        ByteBuffer grown = pool.acquire( buffer.capacity() * 2 );
+        buffer.flip();
+        grown.put( buffer );
+        pool.release( buffer );
+        buffer = grown;
+    }
+
     private Runnable onMessageComplete = new Runnable()
     {
         @Override
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+
+/**
+ * A wrapper to a {@link ByteChannel} that counts the bytes sent and received over the channel.
+ */
+public class CountingByteChannel implements ByteChannel
+{
+    private final ByteChannel delegate;
+    private final InternalConnectionPoolMetrics metrics;
+
+    public CountingByteChannel( ByteChannel delegate, InternalConnectionPoolMetrics metrics )
+    {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int write( ByteBuffer buf ) throws IOException
+    {
+        int length = delegate.write( buf );
+        if ( length > 0 )
+        {
+            metrics.bytesSent( length );
+        }
+        return length;
+    }
+
+    @Override
+    public int read( ByteBuffer buf ) throws IOException
+    {
+        int length = delegate.read( buf );
+        if ( length > 0 )
+        {
+            metrics.bytesReceived( length );
+        }
+        return length;
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return delegate.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        delegate.close();
+    }
+}
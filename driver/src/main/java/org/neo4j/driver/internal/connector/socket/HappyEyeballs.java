@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.neo4j.driver.v1.Config;
+
+/**
+ * Connects to the first of several addresses of a host that accepts, in the manner of "happy eyeballs" (RFC 8305):
+ * the attempts start one after the other, a little apart, and run side by side. The first connection to be
+ * established wins and the other attempts are abandoned. An attempt that fails starts the next one right away, and
+ * an address that does not answer at all only costs the delay between attempts, rather than the whole connection
+ * timeout.
+ */
+class HappyEyeballs
+{
+    /** How long an attempt has to itself before the next one starts, as recommended by RFC 8305 */
+    static final long ATTEMPT_DELAY_MILLIS = 250;
+
+    private HappyEyeballs()
+    {
+    }
+
+    /**
+     * @param timeoutMillis how long connecting may take in total, or {@code 0} to wait as long as the OS does
+     * @return a blocking channel connected to one of the addresses, with the socket options of the config
+     * @throws SocketTimeoutException if no address accepted within the timeout
+     * @throws IOException the failure of the last attempt, if all of them failed
+     */
+    static SocketChannel connect( InetAddress[] addresses, int port, Config config, int timeoutMillis,
+            long attemptDelayMillis ) throws IOException
+    {
+        if ( addresses.length == 1 )
+        {
+            SocketChannel channel = SocketChannel.open();
+            try
+            {
+                SocketClient.configure( channel, config );
+                // Only the socket adaptor can connect with a timeout, the channel itself waits as long as the OS does
+                channel.socket().connect( new InetSocketAddress( addresses[0], port ), timeoutMillis );
+            }
+            catch ( IOException e )
+            {
+                channel.close();
+                throw e;
+            }
+            return channel;
+        }
+
+        SocketChannel connected = race( addresses, port, config, timeoutMillis, attemptDelayMillis );
+        try
+        {
+            connected.configureBlocking( true );
+        }
+        catch ( IOException e )
+        {
+            connected.close();
+            throw e;
+        }
+        return connected;
+    }
+
+    private static SocketChannel race( InetAddress[] addresses, int port, Config config, int timeoutMillis,
+            long attemptDelayMillis ) throws IOException
+    {
+        long now = System.currentTimeMillis();
+        long deadline = timeoutMillis == 0 ? Long.MAX_VALUE : now + timeoutMillis;
+        List<SocketChannel> attempts = new ArrayList<>( addresses.length );
+        SocketChannel winner = null;
+        IOException failure = null;
+        int next = 0;
+        long nextAttemptAt = now;
+
+        // The selector is closed before returning, which deregisters the winner so that it may block again
+        try ( Selector selector = Selector.open() )
+        {
+            while ( winner == null )
+            {
+                if ( next < addresses.length && (now >= nextAttemptAt || attempts.isEmpty()) )
+                {
+                    SocketChannel channel = SocketChannel.open();
+                    try
+                    {
+                        SocketClient.configure( channel, config );
+                        channel.configureBlocking( false );
+                        if ( channel.connect( new InetSocketAddress( addresses[next], port ) ) )
+                        {
+                            winner = channel;
+                        }
+                        else
+                        {
+                            channel.register( selector, SelectionKey.OP_CONNECT );
+                        }
+                        attempts.add( channel );
+                    }
+                    catch ( IOException e )
+                    {
+                        failure = e;
+                        channel.close();
+                    }
+                    next++;
+                    nextAttemptAt = now + attemptDelayMillis;
+                    continue;
+                }
+                if ( attempts.isEmpty() )
+                {
+                    throw failure != null ? failure : new ConnectException( "No address to connect to" );
+                }
+                if ( now >= deadline )
+                {
+                    throw new SocketTimeoutException( "connect timed out" );
+                }
+
+                long wakeUpAt = next < addresses.length ? Math.min( nextAttemptAt, deadline ) : deadline;
+                selector.select( Math.max( 1, wakeUpAt - now ) );
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while ( winner == null && keys.hasNext() )
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    SocketChannel channel = (SocketChannel) key.channel();
+                    try
+                    {
+                        if ( channel.finishConnect() )
+                        {
+                            key.cancel();
+                            winner = channel;
+                        }
+                    }
+                    catch ( IOException e )
+                    {
+                        failure = e;
+                        attempts.remove( channel );
+                        channel.close();
+                        // Do not wait out the delay for an address that is known not to work
+                        nextAttemptAt = now;
+                    }
+                }
+                now = System.currentTimeMillis();
+            }
+        }
+        finally
+        {
+            for ( SocketChannel attempt : attempts )
+            {
+                if ( attempt != winner )
+                {
+                    attempt.close();
+                }
+            }
+        }
+        return winner;
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+/**
+ * Decides how large a read buffer should be, from how much the recent reads returned. A read that fills the buffer
+ * means the server has more to send than fits, so the buffer doubles right away, and streaming a large result soon
+ * takes few, large reads. When read after read only fills a small part of the buffer, it halves again, so that
+ * connections that go back to small request-response exchanges do not hold on to large buffers.
+ */
+public class ReadBufferSizer
+{
+    public static final int DEFAULT_MIN_SIZE = 1024;
+    public static final int DEFAULT_INITIAL_SIZE = 2048;
+    public static final int DEFAULT_MAX_SIZE = 64 * 1024;
+
+    /** How many reads in a row have to use less than a quarter of the buffer before it shrinks */
+    static final int SHRINK_AFTER_READS = 8;
+
+    private final int min;
+    private final int max;
+    private int size;
+    private int smallReads = 0;
+
+    /**
+     * @param size the size to start out with
+     * @param min the size never to shrink below
+     * @param max the size never to grow beyond
+     */
+    public ReadBufferSizer( int size, int min, int max )
+    {
+        this.min = min;
+        this.max = max;
+        this.size = Math.min( Math.max( size, min ), max );
+    }
+
+    /**
+     * @return a sizer that adapts between {@value #DEFAULT_MIN_SIZE} and {@value #DEFAULT_MAX_SIZE} bytes
+     */
+    public static ReadBufferSizer adaptive()
+    {
+        return new ReadBufferSizer( DEFAULT_INITIAL_SIZE, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE );
+    }
+
+    /**
+     * @return a sizer that keeps to the given size
+     */
+    public static ReadBufferSizer fixed( int size )
+    {
+        return new ReadBufferSizer( size, size, size );
+    }
+
+    /**
+     * @return how large the buffer for the next read should be
+     */
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * @param bytesRead how much the last read into a buffer of {@link #size()} bytes returned
+     */
+    public void record( int bytesRead )
+    {
+        if ( bytesRead >= size )
+        {
+            smallReads = 0;
+            size = Math.min( size * 2, max );
+        }
+        else if ( bytesRead <= size / 4 )
+        {
+            if ( ++smallReads >= SHRINK_AFTER_READS )
+            {
+                smallReads = 0;
+                size = Math.max( size / 2, min );
+            }
+        }
+        else
+        {
+            smallReads = 0;
+        }
+    }
+}
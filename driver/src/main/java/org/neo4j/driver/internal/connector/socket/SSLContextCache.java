@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.SSLContext;
+
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
+
+/**
+ * The SSL contexts of a driver. Building a context loads the trusted certificates, so each one is built once and
+ * shared by all connections that trust the same way. Sharing the context also shares its client session cache, so
+ * that connecting again to a server the driver has talked to before resumes the earlier TLS session with an
+ * abbreviated handshake, rather than running the full handshake with its key exchange and certificate checks.
+ * <p>
+ * Trust on first use remembers a certificate per server, so with that strategy there is a context per server.
+ */
+public class SSLContextCache
+{
+    private final ConcurrentHashMap<String,SSLContext> contexts = new ConcurrentHashMap<>();
+
+    public SSLContext get( String host, int port, Config.TrustStrategy trustStrategy, Logger logger )
+            throws GeneralSecurityException, IOException
+    {
+        String key = keyOf( host, port, trustStrategy );
+        SSLContext context = contexts.get( key );
+        if ( context == null )
+        {
+            context = new SSLContextFactory( host, port, trustStrategy, logger ).create();
+            SSLContext existing = contexts.putIfAbsent( key, context );
+            if ( existing != null )
+            {
+                // Another connection built one at the same time, use that so that sessions are shared
+                context = existing;
+            }
+        }
+        return context;
+    }
+
+    private static String keyOf( String host, int port, Config.TrustStrategy trustStrategy )
+    {
+        String key = trustStrategy.strategy().name() + " " + trustStrategy.certFile();
+        if ( trustStrategy.strategy() == Config.TrustStrategy.Strategy.TRUST_ON_FIRST_USE )
+        {
+            key += " " + host + ":" + port;
+        }
+        return key;
+    }
+}
@@ -20,7 +20,8 @@ package org.neo4j.driver.internal.connector.socket;
 
 import java.io.IOException;
 import java.net.ConnectException;
-import java.net.InetSocketAddress;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
 import java.nio.channels.ByteChannel;
@@ -30,6 +31,8 @@ import java.util.Queue;
 
 import org.neo4j.driver.internal.messaging.Message;
 import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.exceptions.ClientException;
@@ -47,9 +50,15 @@ public class SocketClient
     private static final int NO_VERSION = 0;
     private static final int[] SUPPORTED_VERSIONS = new int[]{VERSION1, NO_VERSION, NO_VERSION, NO_VERSION};
 
+    /** Name lookups are shared by all drivers, just like the name service cache of the JVM */
+    private static final AddressResolver ADDRESSES = new AddressResolver();
+
     private final String host;
     private final int port;
     private final Logger logger;
+    private final InternalConnectionPoolMetrics metrics;
+    private final ByteBufferPool buffers;
+    private final SSLContextCache sslContexts;
     protected final Config config;
 
     private SocketProtocol protocol;
@@ -57,25 +66,76 @@ public class SocketClient
     private MessageFormat.Writer writer;
 
     private ByteChannel channel;
+    private TimeoutSocketChannel socketChannel;
+
+    /** Whether the reply of the server to our version proposal is still to be read */
+    private boolean versionPending;
+    private long handshakeStart;
 
     public SocketClient( String host, int port, Config config, Logger logger )
+    {
+        this( host, port, config, logger, new InternalConnectionPoolMetrics( host + ":" + port ) );
+    }
+
+    public SocketClient( String host, int port, Config config, Logger logger, InternalConnectionPoolMetrics metrics )
+    {
+        this( host, port, config, logger, metrics, new ByteBufferPool(), new SSLContextCache() );
+    }
+
+    public SocketClient( String host, int port, Config config, Logger logger, InternalConnectionPoolMetrics metrics,
+            ByteBufferPool buffers, SSLContextCache sslContexts )
     {
         this.host = host;
         this.port = port;
         this.config = config;
         this.logger = logger;
+        this.metrics = metrics;
+        this.buffers = buffers;
+        this.sslContexts = sslContexts;
         this.channel = null;
     }
 
+    /**
+     * Connect and agree on a protocol version with the server before returning.
+     */
     public void start()
+    {
+        start( true );
+    }
+
+    /**
+     * Connect and propose protocol versions, without waiting for the server to choose one. Messages may be sent
+     * right away, so that they travel right behind the proposal. The choice of the server is read ahead of the first
+     * response, and receiving fails if it is not a version this client speaks.
+     */
+    public void startPipelined()
+    {
+        start( false );
+    }
+
+    private void start( boolean awaitVersion )
     {
         try
         {
             logger.debug( "~~ [CONNECT] %s:%d.", host, port );
-            channel = ChannelFactory.create( host, port, config, logger );
-            protocol = negotiateProtocol();
+            long start = System.nanoTime();
+            socketChannel = ChannelFactory.connect( host, port, config );
+            channel = ChannelFactory.create( socketChannel, host, port, config, logger, metrics, sslContexts,
+                    buffers );
+            handshakeStart = System.nanoTime();
+            metrics.connectionCreated();
+            metrics.connectionTime().record( handshakeStart - start );
+
+            proposeVersions( channel, logger );
+            versionPending = true;
+            // Version 1 is the only one we propose, so it is the only one the server may agree to
+            protocol = new SocketProtocolV1( channel, buffers, readBufferSizer( config ) );
             reader = protocol.reader();
             writer = protocol.writer();
+            if ( awaitVersion )
+            {
+                awaitVersion();
+            }
         }
         catch ( ConnectException e )
         {
@@ -83,6 +143,18 @@ public class SocketClient
                     "Unable to connect to '%s' on port %s, ensure the database is running and that there is a " +
                     "working network connection to it.", host, port ) );
         }
+        catch ( SocketTimeoutException e )
+        {
+            if ( socketChannel == null )
+            {
+                throw new ClientException( format(
+                        "Unable to connect to '%s' on port %s within the connection timeout (%dms), ensure the " +
+                        "database is running and that there is a working network connection to it.",
+                        host, port, config.connectionTimeout() ), e );
+            }
+            throw new ClientException( format( "The database took longer than network timeout (%dms) to reply.",
+                    config.socketReadTimeout() ), e );
+        }
         catch ( IOException e )
         {
             throw new ClientException( "Unable to process request: " + e.getMessage(), e );
@@ -113,6 +185,7 @@ public class SocketClient
         if ( messageCount > 0 )
         {
             writer.flush();
+            metrics.messagesSent( messageCount );
         }
     }
 
@@ -127,7 +200,13 @@ public class SocketClient
 
     public void receiveOne( SocketResponseHandler handler ) throws IOException
     {
-        reader.read( handler );
+        if ( versionPending )
+        {
+            awaitVersion();
+        }
+        // Records of abandoned results are passed over chunk by chunk, without being decoded
+        reader.read( handler, handler.skipsRecords() );
+        metrics.messageReceived();
 
         // Stop immediately if bolt protocol error happened on the server
         if ( handler.protocolViolationErrorOccurred() )
@@ -137,6 +216,34 @@ public class SocketClient
         }
     }
 
+    /**
+     * Bound the total time that receiving responses from now on may take, on top of the read timeout.
+     * @param timeout how long receiving may take, in milliseconds
+     */
+    public void startDeadline( long timeout )
+    {
+        if ( socketChannel != null )
+        {
+            socketChannel.startDeadline( timeout );
+        }
+    }
+
+    public void clearDeadline()
+    {
+        if ( socketChannel != null )
+        {
+            socketChannel.clearDeadline();
+        }
+    }
+
+    /**
+     * @return true if receiving failed because a deadline set with {@link #startDeadline(long)} had passed
+     */
+    public boolean deadlineExpired()
+    {
+        return socketChannel != null && socketChannel.deadlineExpired();
+    }
+
     public void stop()
     {
         try
@@ -144,8 +251,13 @@ public class SocketClient
             if ( channel != null )
             {
                 logger.debug( "~~ [CLOSE]" );
+                metrics.connectionClosed();
                 channel.close();
                 channel = null;
+                if ( protocol != null )
+                {
+                    protocol.release();
+                }
             }
         }
         catch ( IOException e )
@@ -166,7 +278,43 @@ public class SocketClient
         return channel != null && channel.isOpen();
     }
 
-    private SocketProtocol negotiateProtocol() throws IOException
+    private void awaitVersion() throws IOException
+    {
+        versionPending = false;
+        try
+        {
+            readVersion( channel, host, port, logger );
+        }
+        catch ( ClientException e )
+        {
+            // Anything sent behind the proposal is not understood by the server, do not wait for it to hang up
+            stop();
+            throw e;
+        }
+        metrics.handshakeTime().record( System.nanoTime() - handshakeStart );
+    }
+
+    /**
+     * @return a sizer keeping to the read buffer size of the config, or one adapting to the traffic if it has none
+     */
+    public static ReadBufferSizer readBufferSizer( Config config )
+    {
+        return config.readBufferSize() > 0 ? ReadBufferSizer.fixed( config.readBufferSize() )
+                                           : ReadBufferSizer.adaptive();
+    }
+
+    /**
+     * Agree on a protocol version with the server at the other end of a freshly connected, blocking channel.
+     * @return the version the server chose, currently always {@code 1}
+     * @throws ClientException if the server is not a Bolt server or supports none of our versions
+     */
+    public static int negotiateVersion( ByteChannel channel, String host, int port, Logger logger ) throws IOException
+    {
+        proposeVersions( channel, logger );
+        return readVersion( channel, host, port, logger );
+    }
+
+    private static void proposeVersions( ByteChannel channel, Logger logger ) throws IOException
     {
         logger.debug( "~~ [HANDSHAKE] [0x6060B017, 1, 0, 0, 0]." );
         //Propose protocol versions
@@ -180,10 +328,12 @@ public class SocketClient
 
         //Do a blocking write
         blockingWrite(channel, buf);
+    }
 
+    private static int readVersion( ByteChannel channel, String host, int port, Logger logger ) throws IOException
+    {
         // Read (blocking) back the servers choice
-        buf.clear();
-        buf.limit( 4 );
+        ByteBuffer buf = ByteBuffer.allocate( 4 ).order( BIG_ENDIAN );
         try
         {
             blockingRead( channel, buf );
@@ -208,7 +358,7 @@ public class SocketClient
         {
         case VERSION1:
             logger.debug( "~~ [HANDSHAKE] 1" );
-            return new SocketProtocolV1( channel );
+            return VERSION1;
         case NO_VERSION:
             throw new ClientException( "The server does not support any of the protocol versions supported by " +
                                        "this driver. Ensure that you are using driver and server versions that " +
@@ -223,6 +373,46 @@ public class SocketClient
         }
     }
 
+    /**
+     * Open a blocking channel to the given host, with the socket options and connection timeout of the config. When
+     * the host has several addresses, they are tried side by side, see {@link HappyEyeballs}.
+     */
+    public static SocketChannel openChannel( String host, int port, Config config ) throws IOException
+    {
+        InetAddress[] addresses = ADDRESSES.resolve( host );
+        try
+        {
+            return HappyEyeballs.connect( addresses, port, config, millis( config.connectionTimeout() ),
+                    HappyEyeballs.ATTEMPT_DELAY_MILLIS );
+        }
+        catch ( IOException e )
+        {
+            ADDRESSES.forget( host );
+            throw e;
+        }
+    }
+
+    static void configure( SocketChannel soChannel, Config config ) throws IOException
+    {
+        soChannel.setOption( StandardSocketOptions.SO_REUSEADDR, true );
+        soChannel.setOption( StandardSocketOptions.SO_KEEPALIVE, true );
+        soChannel.setOption( StandardSocketOptions.TCP_NODELAY, config.tcpNoDelay() );
+        if ( config.socketSendBufferSize() > 0 )
+        {
+            soChannel.setOption( StandardSocketOptions.SO_SNDBUF, config.socketSendBufferSize() );
+        }
+        if ( config.socketReceiveBufferSize() > 0 )
+        {
+            // Set before connecting, so that it applies to the TCP window negotiated with the server
+            soChannel.setOption( StandardSocketOptions.SO_RCVBUF, config.socketReceiveBufferSize() );
+        }
+    }
+
+    static int millis( long timeout )
+    {
+        return (int) Math.min( Math.max( timeout, 0 ), Integer.MAX_VALUE );
+    }
+
     @Override
     public String toString()
     {
@@ -232,21 +422,24 @@ public class SocketClient
 
     private static class ChannelFactory
     {
-        public static ByteChannel create( String host, int port, Config config, Logger logger )
-                throws IOException, GeneralSecurityException
+        public static TimeoutSocketChannel connect( String host, int port, Config config ) throws IOException
         {
-            SocketChannel soChannel = SocketChannel.open();
-            soChannel.setOption( StandardSocketOptions.SO_REUSEADDR, true );
-            soChannel.setOption( StandardSocketOptions.SO_KEEPALIVE, true );
-            soChannel.connect( new InetSocketAddress( host, port ) );
+            return new TimeoutSocketChannel( openChannel( host, port, config ), millis( config.socketReadTimeout() ) );
+        }
 
+        public static ByteChannel create( TimeoutSocketChannel soChannel, String host, int port, Config config,
+                Logger logger, InternalConnectionPoolMetrics metrics, SSLContextCache sslContexts,
+                ByteBufferPool buffers )
+                throws IOException, GeneralSecurityException
+        {
             ByteChannel channel;
 
             switch ( config.encryptionLevel() )
             {
             case REQUIRED:
             {
-                channel = new TLSSocketChannel( host, port, soChannel, logger, config.trustStrategy() );
+                channel = new TLSSocketChannel( host, port, soChannel, logger,
+                        sslContexts.get( host, port, config.trustStrategy(), logger ), buffers );
                 break;
             }
             case NONE:
@@ -258,6 +451,8 @@ public class SocketClient
                 throw new ClientException( "Unknown TLS Level: " + config.encryptionLevel() );
             }
 
+            channel = new CountingByteChannel( channel, metrics );
+
             if ( logger.isTraceEnabled() )
             {
                 channel = new LoggingByteChannel( channel, logger );
@@ -28,11 +28,14 @@ import org.neo4j.driver.internal.messaging.InitMessage;
 import org.neo4j.driver.internal.messaging.Message;
 import org.neo4j.driver.internal.messaging.PullAllMessage;
 import org.neo4j.driver.internal.messaging.RunMessage;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
 
@@ -46,8 +49,21 @@ public class SocketConnection implements Connection
     private final SocketResponseHandler responseHandler;
 
     private final SocketClient socket;
+    private final InternalConnectionPoolMetrics metrics;
+    private final long statementTimeout;
 
     public SocketConnection( String host, int port, Config config )
+    {
+        this( host, port, config, new InternalConnectionPoolMetrics( host + ":" + port ) );
+    }
+
+    public SocketConnection( String host, int port, Config config, InternalConnectionPoolMetrics metrics )
+    {
+        this( host, port, config, metrics, new ByteBufferPool(), new SSLContextCache() );
+    }
+
+    public SocketConnection( String host, int port, Config config, InternalConnectionPoolMetrics metrics,
+            ByteBufferPool buffers, SSLContextCache sslContexts )
     {
         Logger logger = config.logging().getLog( String.valueOf( System.currentTimeMillis() ) );
 
@@ -60,13 +76,17 @@ public class SocketConnection implements Connection
             this.responseHandler = new SocketResponseHandler();
         }
 
-        this.socket = new SocketClient( host, port, config, logger );
-        socket.start();
+        this.metrics = metrics;
+        this.statementTimeout = config.statementTimeout();
+        this.socket = new SocketClient( host, port, config, logger, metrics, buffers, sslContexts );
+        // INIT follows the version proposal without waiting for the server to agree, see init(...)
+        socket.startPipelined();
     }
 
     @Override
     public void init( String clientName, Map<String,Value> authToken )
     {
+        // The server replies to the version proposal and to INIT in one go, so this is the only round trip of setup
         queueMessage( new InitMessage( clientName, authToken ), StreamCollector.INIT );
         sync();
     }
@@ -74,13 +94,17 @@ public class SocketConnection implements Connection
     @Override
     public void run( String statement, Map<String,Value> parameters, StreamCollector collector )
     {
+        if ( statementTimeout > 0 )
+        {
+            socket.startDeadline( statementTimeout );
+        }
         queueMessage( new RunMessage( statement, parameters ), collector );
     }
 
     @Override
-    public void discardAll()
+    public void discardAll( StreamCollector collector )
     {
-        queueMessage( DISCARD_ALL, StreamCollector.NO_OP );
+        queueMessage( DISCARD_ALL, collector );
     }
 
     @Override
@@ -92,6 +116,8 @@ public class SocketConnection implements Connection
     @Override
     public void reset()
     {
+        // RESET discards whatever was queued before it, so failures of that work are no longer of interest
+        responseHandler.skipWaitingCollectors();
         queueMessage( RESET, StreamCollector.RESET );
     }
 
@@ -104,8 +130,30 @@ public class SocketConnection implements Connection
     @Override
     public void sync()
     {
+        boolean roundTrip = !pendingMessages.isEmpty() || responseHandler.collectorsWaiting() > 0;
+        long start = System.nanoTime();
         flush();
         receiveAll();
+        if ( roundTrip )
+        {
+            metrics.roundTripTime().record( System.nanoTime() - start );
+        }
+    }
+
+    @Override
+    public void syncAsync( ResponseListener<Void> listener )
+    {
+        // Responses are only ever read by blocking on the socket, so this is a sync that reports instead of throwing
+        try
+        {
+            sync();
+        }
+        catch ( Neo4jException e )
+        {
+            listener.onFailure( e );
+            return;
+        }
+        listener.onSuccess( null );
     }
 
     @Override
@@ -127,6 +175,7 @@ public class SocketConnection implements Connection
         try
         {
             socket.receiveAll( responseHandler );
+            socket.clearDeadline();
             assertNoServerFailure();
         }
         catch ( IOException e )
@@ -141,6 +190,10 @@ public class SocketConnection implements Connection
         try
         {
             socket.receiveOne( responseHandler );
+            if ( responseHandler.collectorsWaiting() == 0 )
+            {
+                socket.clearDeadline();
+            }
             assertNoServerFailure();
         }
         catch ( IOException e )
@@ -162,7 +215,12 @@ public class SocketConnection implements Connection
     private ClientException mapRecieveError( IOException e )
     {
         String message = e.getMessage();
-        if ( message == null )
+        if ( socket.deadlineExpired() )
+        {
+            return new ClientException( String.format(
+                    "The statement did not complete within the statement timeout (%dms).", statementTimeout ), e );
+        }
+        else if ( message == null )
         {
             return new ClientException( "Unable to read response from server: " + e.getClass().getSimpleName(), e );
         }
@@ -188,6 +246,12 @@ public class SocketConnection implements Connection
         socket.stop();
     }
 
+    @Override
+    public int collectorsWaiting()
+    {
+        return responseHandler.collectorsWaiting();
+    }
+
     @Override
     public boolean isOpen()
     {
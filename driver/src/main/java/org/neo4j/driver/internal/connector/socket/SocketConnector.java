@@ -26,8 +26,10 @@ import java.util.Map;
 import org.neo4j.driver.internal.Version;
 import org.neo4j.driver.internal.auth.InternalAuthToken;
 import org.neo4j.driver.internal.connector.ConcurrencyGuardingConnection;
+import org.neo4j.driver.internal.metrics.InternalMetrics;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.Connector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.Config;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.AuthToken;
@@ -39,6 +41,33 @@ public class SocketConnector implements Connector
     public static final String SCHEME = "bolt";
     public static final int DEFAULT_PORT = 7687;
 
+    private final InternalMetrics metrics;
+    private final ByteBufferPool buffers;
+    private final SSLContextCache sslContexts = new SSLContextCache();
+
+    public SocketConnector()
+    {
+        this( new InternalMetrics() );
+    }
+
+    /**
+     * @param metrics the metrics of the driver, into which connections record what they do
+     */
+    public SocketConnector( InternalMetrics metrics )
+    {
+        this( metrics, new ByteBufferPool() );
+    }
+
+    /**
+     * @param metrics the metrics of the driver, into which connections record what they do
+     * @param buffers the I/O buffers of the driver, which connections take their buffers from
+     */
+    public SocketConnector( InternalMetrics metrics, ByteBufferPool buffers )
+    {
+        this.metrics = metrics;
+        this.buffers = buffers;
+    }
+
     @Override
     public boolean supports( String scheme )
     {
@@ -49,12 +78,21 @@ public class SocketConnector implements Connector
     public Connection connect( URI sessionURI, Config config, AuthToken authToken ) throws ClientException
     {
         int port = sessionURI.getPort() == -1 ? DEFAULT_PORT : sessionURI.getPort();
-        Connection conn = new SocketConnection( sessionURI.getHost(), port, config );
+        Connection conn = new SocketConnection( sessionURI.getHost(), port, config,
+                metrics.connectionPool( sessionURI ), buffers, sslContexts );
 
         // Because SocketConnection is not thread safe, wrap it in this guard
         // to ensure concurrent access leads causes application errors
         conn = new ConcurrencyGuardingConnection( conn );
-        conn.init( "bolt-java-driver/" + Version.driverVersion(), tokenAsMap( authToken ) );
+        try
+        {
+            conn.init( "bolt-java-driver/" + Version.driverVersion(), tokenAsMap( authToken ) );
+        }
+        catch ( RuntimeException e )
+        {
+            conn.close();
+            throw e;
+        }
         return conn;
     }
 
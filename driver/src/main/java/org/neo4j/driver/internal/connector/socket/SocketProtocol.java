@@ -28,4 +28,9 @@ public interface SocketProtocol
     Writer writer();
 
     int version();
+
+    /**
+     * Give back the buffers of the protocol, once the connection is closed.
+     */
+    void release();
 }
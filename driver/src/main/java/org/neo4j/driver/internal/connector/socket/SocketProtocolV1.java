@@ -25,22 +25,34 @@ import org.neo4j.driver.internal.messaging.MessageFormat;
 import org.neo4j.driver.internal.messaging.MessageFormat.Reader;
 import org.neo4j.driver.internal.messaging.MessageFormat.Writer;
 import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 
 public class SocketProtocolV1 implements SocketProtocol
 {
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
     private final MessageFormat messageFormat;
     private final Reader reader;
     private final Writer writer;
+    private final ChunkedOutput output;
+    private final BufferingChunkedInput input;
 
     public SocketProtocolV1( ByteChannel channel ) throws IOException
+    {
+        this( channel, new ByteBufferPool(), ReadBufferSizer.adaptive() );
+    }
+
+    public SocketProtocolV1( ByteChannel channel, ByteBufferPool buffers, ReadBufferSizer readBufferSizer )
+            throws IOException
     {
         messageFormat = new PackStreamMessageFormatV1();
 
-        ChunkedOutput output = new ChunkedOutput( channel );
-        BufferingChunkedInput input = new BufferingChunkedInput( channel );
+        output = new ChunkedOutput( OUTPUT_BUFFER_SIZE, channel, buffers );
+        input = new BufferingChunkedInput( channel, readBufferSizer, buffers );
 
         this.writer = new PackStreamMessageFormatV1.Writer( output, output.messageBoundaryHook() );
-        this.reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook() );
+        this.reader = new PackStreamMessageFormatV1.Reader( input, input.messageBoundaryHook(),
+                input.messageSkipHook() );
     }
 
     @Override
@@ -60,4 +72,11 @@ public class SocketProtocolV1 implements SocketProtocol
     {
         return messageFormat.version();
     }
+
+    @Override
+    public void release()
+    {
+        output.release();
+        input.release();
+    }
 }
@@ -44,6 +44,9 @@ public class SocketResponseHandler implements MessageHandler
     /** If a failure occurs, the error gets stored here */
     private Neo4jException error;
 
+    /** Number of collectors at the head of the queue whose responses are read but no longer handed to them */
+    private int skipped = 0;
+
     public int collectorsWaiting()
     {
         return collectors.size();
@@ -52,6 +55,10 @@ public class SocketResponseHandler implements MessageHandler
     @Override
     public void handleRecordMessage( Value[] fields )
     {
+        if ( skipped > 0 )
+        {
+            return;
+        }
         StreamCollector collector = collectors.element();
         collector.record( fields );
     }
@@ -60,6 +67,10 @@ public class SocketResponseHandler implements MessageHandler
     public void handleFailureMessage( String code, String message )
     {
         StreamCollector collector = collectors.remove();
+        if ( skip( collector ) )
+        {
+            return;
+        }
         String[] parts = code.split( "\\." );
         String classification = parts[1];
         switch ( classification )
@@ -84,6 +95,10 @@ public class SocketResponseHandler implements MessageHandler
     public void handleSuccessMessage( Map<String,Value> meta )
     {
         StreamCollector collector = collectors.remove();
+        if ( skip( collector ) )
+        {
+            return;
+        }
         collectFields( collector, meta.get( "fields" ) );
         collectType( collector, meta.get( "type" ) );
         collectStatistics( collector, meta.get( "stats" ) );
@@ -176,6 +191,10 @@ public class SocketResponseHandler implements MessageHandler
     public void handleIgnoredMessage()
     {
         StreamCollector collector = collectors.remove();
+        if ( skip( collector ) )
+        {
+            return;
+        }
         if (collector != null)
         {
             collector.doneIgnored();
@@ -218,6 +237,39 @@ public class SocketResponseHandler implements MessageHandler
 
     }
 
+    /**
+     * Stop handing responses to the collectors that are currently waiting. Their responses, including failures, are
+     * still read off the wire, but are dropped, and each collector is only told that it is {@link StreamCollector#done()
+     * done} once its response has arrived. This is used when the work they were waiting for is abandoned, e.g. by a
+     * RESET.
+     */
+    public void skipWaitingCollectors()
+    {
+        skipped = collectors.size();
+    }
+
+    /**
+     * @return true if the records coming in now are for a collector that is skipped, so they need not be decoded
+     */
+    public boolean skipsRecords()
+    {
+        return skipped > 0;
+    }
+
+    private boolean skip( StreamCollector collector )
+    {
+        if ( skipped > 0 )
+        {
+            skipped--;
+            if ( collector != null )
+            {
+                collector.done();
+            }
+            return true;
+        }
+        return false;
+    }
+
     public void appendResultCollector( StreamCollector collector )
     {
         assert collector != null;
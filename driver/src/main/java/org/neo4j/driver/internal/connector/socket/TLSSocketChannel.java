@@ -28,16 +28,24 @@ import javax.net.ssl.SSLEngineResult;
 import javax.net.ssl.SSLEngineResult.HandshakeStatus;
 import javax.net.ssl.SSLEngineResult.Status;
 
-import org.neo4j.driver.internal.util.BytePrinter;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.Config.TrustStrategy;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.exceptions.ClientException;
 
 import static javax.net.ssl.SSLEngineResult.HandshakeStatus.FINISHED;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NEED_TASK;
+import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NEED_WRAP;
 import static javax.net.ssl.SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING;
 
 /**
  * A blocking TLS socket channel.
+ * <p>
+ * The network and application buffers are direct buffers taken from a {@link ByteBufferPool} when the channel is
+ * opened and given back when it is closed, so reading and writing does not allocate. Reads decrypt straight into the
+ * buffer of the caller when it has room for a whole record, and only go through the application input buffer when it
+ * does not. Writes encrypt as many records as fit into the network output buffer and send them to the socket in one
+ * go.
  *
  * When debugging, we could enable JSSE system debugging by setting system property:
  * {@code -Djavax.net.debug=all} to value more information about handshake messages and other operations underway.
@@ -51,17 +59,17 @@ public class TLSSocketChannel implements ByteChannel
 {
     private final ByteChannel channel;      // The real channel the data is sent to and read from
     private final Logger logger;
+    private final ByteBufferPool buffers;
 
     private SSLEngine sslEngine;
 
-    /** The buffer for network data */
+    /** The buffers for network data, both are always ready to be filled */
     private ByteBuffer cipherOut;
     private ByteBuffer cipherIn;
-    /** The buffer for application data */
+    /** The buffer for application data that did not fit into the buffer of the reader, always ready to be drained */
     private ByteBuffer plainIn;
-    private ByteBuffer plainOut;
 
-    private static final ByteBuffer DUMMY_BUFFER = ByteBuffer.allocate( 0 );
+    private static final ByteBuffer EMPTY_BUFFER = ByteBuffer.allocate( 0 );
 
     public TLSSocketChannel( String host, int port, ByteChannel channel, Logger logger,
                              TrustStrategy trustStrategy )
@@ -72,27 +80,53 @@ public class TLSSocketChannel implements ByteChannel
 
     }
 
+    /**
+     * Connect with an engine of a context that is shared with other connections, see {@link SSLContextCache}. The
+     * engine is created for the given host and port, which lets it resume an earlier session with the same server.
+     */
+    public TLSSocketChannel( String host, int port, ByteChannel channel, Logger logger, SSLContext sslContext )
+            throws GeneralSecurityException, IOException
+    {
+        this( host, port, channel, logger, sslContext, new ByteBufferPool() );
+    }
+
+    /**
+     * @param buffers the I/O buffers of the driver, which the channel takes its buffers from while it is open
+     */
+    public TLSSocketChannel( String host, int port, ByteChannel channel, Logger logger, SSLContext sslContext,
+            ByteBufferPool buffers ) throws GeneralSecurityException, IOException
+    {
+        this( channel, logger, createSSLEngine( host, port, sslContext ), buffers );
+    }
+
     public TLSSocketChannel( ByteChannel channel, Logger logger, SSLEngine sslEngine ) throws GeneralSecurityException, IOException
     {
-        this(channel, logger, sslEngine,
-             ByteBuffer.allocate( sslEngine.getSession().getApplicationBufferSize() ),
-             ByteBuffer.allocate( sslEngine.getSession().getPacketBufferSize() ),
-             ByteBuffer.allocate( sslEngine.getSession().getApplicationBufferSize() ),
-             ByteBuffer.allocate( sslEngine.getSession().getPacketBufferSize() ) );
+        this( channel, logger, sslEngine, new ByteBufferPool() );
     }
 
-    TLSSocketChannel( ByteChannel channel, Logger logger, SSLEngine sslEngine,
-                      ByteBuffer plainIn, ByteBuffer cipherIn, ByteBuffer plainOut, ByteBuffer cipherOut )
+    public TLSSocketChannel( ByteChannel channel, Logger logger, SSLEngine sslEngine, ByteBufferPool buffers )
             throws GeneralSecurityException, IOException
     {
         this.logger = logger;
         this.channel = channel;
         this.sslEngine = sslEngine;
-        this.plainIn = plainIn;
-        this.cipherIn = cipherIn;
-        this.plainOut = plainOut;
-        this.cipherOut = cipherOut;
-        runHandshake();
+        this.buffers = buffers;
+
+        int packetSize = sslEngine.getSession().getPacketBufferSize();
+        this.cipherIn = buffers.acquire( packetSize );
+        // Room for several records, so that a large message goes out in few writes to the socket
+        this.cipherOut = buffers.acquire( Math.max( packetSize, ByteBufferPool.MAX_CAPACITY ) );
+        this.plainIn = buffers.acquire( sslEngine.getSession().getApplicationBufferSize() );
+        this.plainIn.flip();
+        try
+        {
+            runHandshake();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            releaseBuffers();
+            throw e;
+        }
     }
 
     /**
@@ -107,6 +141,7 @@ public class TLSSocketChannel implements ByteChannel
      * <tr><td>unwrap()</td>        <td>ChangeCipherSpec</td>                <td>NEED_UNWRAP</td></tr>
      * <tr><td>unwrap()</td>        <td>Finished</td>                        <td>FINISHED</td></tr>
      * </table>
+     * Consecutive wrapped messages are sent together, right before the client waits for the reply of the server.
      *
      * @throws IOException
      */
@@ -124,14 +159,16 @@ public class TLSSocketChannel implements ByteChannel
                 break;
             case NEED_UNWRAP:
                 // Unwrap the ssl packet to value ssl handshake information
-                handshakeStatus = unwrap( DUMMY_BUFFER );
+                flushCipherOut();
+                handshakeStatus = unwrapHandshake();
                 break;
             case NEED_WRAP:
                 // Wrap the app packet into an ssl packet to add ssl handshake information
-                handshakeStatus = wrap( plainOut );
+                handshakeStatus = wrap( EMPTY_BUFFER );
                 break;
             }
         }
+        flushCipherOut();
     }
 
     private HandshakeStatus runDelegatedTasks()
@@ -145,121 +182,102 @@ public class TLSSocketChannel implements ByteChannel
     }
 
     /**
-     * This method is mainly responsible for reading encrypted bytes from underlying socket channel and deciphering
-     * them.
-     *
-     * These deciphered data would be saved into {@code buffer} if it is specified (not null) and if its size is
-     * greater than the size of deciphered data.
-     * Otherwise, the deciphered bytes or the bytes that could not fit into {@code buffer} would be left in {@code
-     * plainIn} buffer.
-     *
-     * If the byes in {@code plaintIn} will not be used outside this method, we should always clear {@code
-     * plainIn} after each call to avoid wasting memory on it.
-     * <p>
-     * When working with this method, we should always put this method in a loop as there is no guarantee
-     * that deciphering would be carried out successfully in each call. The possible reasons that deciphering fails
-     * in a call could be requiring more bytes to decipher, too small buffers to hold all data, etc.
-     *
-     * To verify if deciphering is done successfully, we could check if any bytes has been read into {@code buffer},
-     * as the deciphered bytes will only be saved into {@code buffer} when deciphering is carried out successfully.
+     * Unwrap one handshake message, reading from the underlying channel only when no complete record is buffered.
+     * Any application data that comes along is kept in {@code plainIn} for the next read.
      *
-     * @param buffer to read data into.
      * @return The status of the current handshake.
      * @throws IOException
      */
-    private HandshakeStatus unwrap( ByteBuffer buffer ) throws IOException
+    private HandshakeStatus unwrapHandshake() throws IOException
     {
-        HandshakeStatus handshakeStatus = sslEngine.getHandshakeStatus();
+        SSLEngineResult result = unwrap( plainIn, true );
+        switch ( result.getStatus() )
+        {
+        case OK:
+            return result.getHandshakeStatus();
+        case BUFFER_UNDERFLOW:
+            readCipherIn();
+            return sslEngine.getHandshakeStatus();
+        case BUFFER_OVERFLOW:
+            enlargePlainIn();
+            return sslEngine.getHandshakeStatus();
+        case CLOSED:
+            throw new ClientException( "SSL Connection terminated during the handshake." );
+        default:
+            throw new ClientException( "Got unexpected status " + result.getStatus() + ", " + result );
+        }
+    }
 
-        /**
-         * This is the only place to read from the underlying channel
-         */
+    /**
+     * Decipher the buffered network data into the given buffer.
+     *
+     * @param buffer to decipher into, either the buffer of the reader or {@code plainIn}
+     * @param intoPlainIn whether the buffer is {@code plainIn}, which is ready to be drained rather than filled
+     * @return the result of the engine
+     */
+    private SSLEngineResult unwrap( ByteBuffer buffer, boolean intoPlainIn ) throws IOException
+    {
+        cipherIn.flip();
+        if ( intoPlainIn )
+        {
+            buffer.compact();
+        }
+        try
+        {
+            return sslEngine.unwrap( cipherIn, buffer );
+        }
+        finally
+        {
+            if ( intoPlainIn )
+            {
+                buffer.flip();
+            }
+            cipherIn.compact();
+        }
+    }
+
+    /**
+     * This is the only place to read from the underlying channel. Called when the engine needs more bytes to
+     * decipher the next record, which is when {@code cipherIn} may also need to grow to hold a whole record.
+     */
+    private void readCipherIn() throws IOException
+    {
+        int packetSize = sslEngine.getSession().getPacketBufferSize();
+        if ( cipherIn.capacity() < packetSize )
+        {
+            int curNetSize = cipherIn.capacity();
+            cipherIn.flip();
+            cipherIn = replace( cipherIn, packetSize );
+            logger.debug( "Enlarged network input buffer from %s to %s. " +
+                          "This operation should be a rare operation.", curNetSize, cipherIn.capacity() );
+        }
         if ( channel.read( cipherIn ) < 0 )
         {
             throw new ClientException( "SSL Connection terminated while receiving data. " +
                     "This can happen due to network instabilities, or due to restarts of the database." );
         }
-        cipherIn.flip();
+    }
 
-        Status status;
-        do
+    private void enlargePlainIn()
+    {
+        int curAppSize = plainIn.capacity();
+        int appSize = sslEngine.getSession().getApplicationBufferSize();
+        int newAppSize = appSize + plainIn.remaining();
+        if ( newAppSize > appSize * 2 )
         {
-            SSLEngineResult unwrapResult = sslEngine.unwrap( cipherIn, plainIn );
-            status = unwrapResult.getStatus();
-            // Possible status here:
-            // OK - good
-            // BUFFER_OVERFLOW - we need to enlarge* plainIn
-            // BUFFER_UNDERFLOW - we need to enlarge* cipherIn and read more bytes from channel
-
-            /* In normal situations, enlarging buffers should happen very very rarely, as usually,
-             the initial size for application buffer and network buffer is greater than 1024 * 10,
-             and by using ChunkedInput and ChunkedOutput, the chunks are limited to 8192.
-             So we should not value any enlarging buffer request in most cases. */
-            switch ( status )
-            {
-            case OK:
-                plainIn.flip();
-                bufferCopy( plainIn, buffer );
-                plainIn.compact();
-                handshakeStatus = runDelegatedTasks();
-                break;
-            case BUFFER_OVERFLOW:
-                plainIn.flip();
-                // Could attempt to drain the plainIn buffer of any already obtained
-                // data, but we'll just increase it to the size needed.
-                int curAppSize = plainIn.capacity();
-                int appSize = sslEngine.getSession().getApplicationBufferSize();
-                int newAppSize = appSize + plainIn.remaining();
-                if ( newAppSize > appSize * 2 )
-                {
-                    throw new ClientException(
-                            String.format( "Failed ro enlarge application input buffer from %s to %s, as the maximum " +
-                                           "buffer size allowed is %s. The content in the buffer is: %s\n",
-                                    curAppSize, newAppSize, appSize * 2, BytePrinter.hex( plainIn ) ) );
-                }
-                ByteBuffer newPlainIn = ByteBuffer.allocate( newAppSize );
-                newPlainIn.put( plainIn );
-                plainIn = newPlainIn;
-                logger.debug( "Enlarged application input buffer from %s to %s. " +
-                              "This operation should be a rare operation.", curAppSize, newAppSize );
-                // retry the operation.
-                break;
-            case BUFFER_UNDERFLOW:
-                int curNetSize = cipherIn.capacity();
-                int netSize = sslEngine.getSession().getPacketBufferSize();
-                // Resize buffer if needed.
-                if ( netSize > curNetSize )
-                {
-                    ByteBuffer newCipherIn = ByteBuffer.allocate( netSize );
-                    newCipherIn.put( cipherIn );
-                    cipherIn = newCipherIn;
-                    logger.debug( "Enlarged network input buffer from %s to %s. " +
-                                  "This operation should be a rare operation.", curNetSize, netSize );
-                }
-                else
-                {
-                    // Otherwise, make room for reading more data from channel
-                    cipherIn.compact();
-                }
-                return handshakeStatus; // old status
-            case CLOSED:
-                // RFC 2246 #7.2.1 requires us to stop accepting input.
-                sslEngine.closeInbound();
-                break;
-            default:
-                throw new ClientException( "Got unexpected status " + status + ", " + unwrapResult );
-            }
+            throw new ClientException(
+                    String.format( "Failed ro enlarge application input buffer from %s to %s, as the maximum " +
+                                   "buffer size allowed is %s.", curAppSize, newAppSize, appSize * 2 ) );
         }
-        while ( cipherIn.hasRemaining() ); /* Remember we are doing blocking reading.
-        We expect we should first handle all the data we've got and then decide what to do next. */
-
-        cipherIn.compact();
-        return handshakeStatus;
+        plainIn = replace( plainIn, newAppSize );
+        plainIn.flip();
+        logger.debug( "Enlarged application input buffer from %s to %s. " +
+                      "This operation should be a rare operation.", curAppSize, plainIn.capacity() );
     }
 
     /**
-     * Encrypt the bytes given in {@code buffer} and write them out to the channel, when using this method, put it in
-     * a loop
+     * Encrypt the bytes given in {@code buffer} into {@code cipherOut}. The records are sent to the channel once
+     * {@code cipherOut} has no room for another record, or when {@link #flushCipherOut()} is called.
      *
      * @param buffer contains the bytes to send to channel
      * @return The status of the current handshake
@@ -267,56 +285,50 @@ public class TLSSocketChannel implements ByteChannel
      */
     private HandshakeStatus wrap( ByteBuffer buffer ) throws IOException
     {
-        HandshakeStatus handshakeStatus = sslEngine.getHandshakeStatus();
-        Status status = sslEngine.wrap( buffer, cipherOut ).getStatus();
+        int packetSize = sslEngine.getSession().getPacketBufferSize();
+        if ( cipherOut.remaining() < packetSize )
+        {
+            flushCipherOut();
+        }
+        SSLEngineResult result = sslEngine.wrap( buffer, cipherOut );
         // Possible status here:
         // Ok - good
         // BUFFER_OVERFLOW - we need to enlarge cipherOut to hold all ciphered data (should happen very rare)
         // BUFFER_UNDERFLOW - we need to enlarge buffer (shouldn't happen)
-        switch ( status )
+        switch ( result.getStatus() )
         {
         case OK:
-            handshakeStatus = runDelegatedTasks();
-            cipherOut.flip();
-            while ( cipherOut.hasRemaining() )
-            {
-                channel.write( cipherOut );
-            }
-            cipherOut.clear();
-            break;
+            return result.getHandshakeStatus() == NEED_TASK ? runDelegatedTasks() : result.getHandshakeStatus();
         case BUFFER_OVERFLOW:
-            // Enlarge the buffer and return the old status
-            int curNetSize = cipherOut.capacity();
-            int netSize = sslEngine.getSession().getPacketBufferSize();
-            if ( netSize > curNetSize )
+            if ( cipherOut.position() > 0 )
             {
-                // enlarge the peer application data buffer
-                cipherOut = ByteBuffer.allocate( netSize );
-                logger.debug( "Enlarged network output buffer from %s to %s. " +
-                              "This operation should be a rare operation.", curNetSize, netSize );
+                flushCipherOut();
             }
             else
             {
-                // flush as much data as possible
-                cipherOut.flip();
-                int written = channel.write( cipherOut );
-                if (written == 0)
-                {
-                    throw new ClientException(
-                            String.format(
-                                    "Failed to enlarge network buffer from %s to %s. This is either because the " +
-                                    "new size is however less than the old size, or because the application " +
-                                    "buffer size %s is so big that the application data still cannot fit into the " +
-                                    "new network buffer.", curNetSize, netSize, buffer.capacity() ) );
-                }
-                cipherOut.compact();
-                logger.debug( "Network output buffer couldn't be enlarged, flushing data to the channel instead." );
+                // Not even a single record fits, the session wants larger packets than it did at first
+                int curNetSize = cipherOut.capacity();
+                buffers.release( cipherOut );
+                cipherOut = buffers.acquire( Math.max( packetSize, curNetSize * 2 ) );
+                logger.debug( "Enlarged network output buffer from %s to %s. " +
+                              "This operation should be a rare operation.", curNetSize, cipherOut.capacity() );
             }
-            break;
+            return sslEngine.getHandshakeStatus();
+        case CLOSED:
+            throw new ClientException( "SSL Connection terminated while sending data." );
         default:
-            throw new ClientException( "Got unexpected status " + status );
+            throw new ClientException( "Got unexpected status " + result.getStatus() );
+        }
+    }
+
+    private void flushCipherOut() throws IOException
+    {
+        cipherOut.flip();
+        while ( cipherOut.hasRemaining() )
+        {
+            channel.write( cipherOut );
         }
-        return handshakeStatus;
+        cipherOut.clear();
     }
 
     /**
@@ -340,17 +352,29 @@ public class TLSSocketChannel implements ByteChannel
     {
         int maxTransfer = Math.min( to.remaining(), from.remaining() );
 
-        //use a temp buffer and move all data in one go
-        ByteBuffer temporaryBuffer = from.duplicate();
-        temporaryBuffer.limit( temporaryBuffer.position() + maxTransfer );
-        to.put( temporaryBuffer );
-
-        //move postion so it appears as if we read the buffer
-        from.position( from.position() + maxTransfer );
+        // Narrow the source rather than copying through a duplicate of it
+        int limit = from.limit();
+        from.limit( from.position() + maxTransfer );
+        to.put( from );
+        from.limit( limit );
 
         return maxTransfer;
     }
 
+    /**
+     * Move the remaining content of a buffer into a pooled buffer of at least the given capacity, and give the old
+     * buffer back to the pool.
+     *
+     * @return the new buffer, ready to be filled
+     */
+    private ByteBuffer replace( ByteBuffer buffer, int capacity )
+    {
+        ByteBuffer replacement = buffers.acquire( Math.max( capacity, buffer.remaining() ) );
+        replacement.put( buffer );
+        buffers.release( buffer );
+        return replacement;
+    }
+
     /**
      * Create SSLEngine with the SSLContext just created.
      * @param host the host to connect to
@@ -368,25 +392,80 @@ public class TLSSocketChannel implements ByteChannel
     public int read( ByteBuffer dst ) throws IOException
     {
         /**
-         * First try to read from plainBuffer.
-         * If not enough bytes left in plainBuffer,
-         * read encrypted data from underlying channel and put the deciphered data in the plain buffer.
+         * First drain what is left in plainIn from an earlier read.
+         * Otherwise decipher the buffered network data, straight into dst for as long as it has room for whole
+         * records, and into plainIn when it does not. Only read more from the underlying channel when nothing could
+         * be deciphered from what is buffered.
          * Return how many deciphered data that have been put dst.
          */
-        int toRead = dst.remaining();
-        plainIn.flip();
         if ( plainIn.hasRemaining() )
         {
-            bufferCopy( plainIn, dst );
-            plainIn.compact();
+            return bufferCopy( plainIn, dst );
         }
-        else
+
+        int read = 0;
+        while ( read == 0 && dst.hasRemaining() )
         {
-            plainIn.clear();            // Clear plainIn
-            unwrap( dst );              // Read more data from the underline channel and save the data read into dst
+            boolean intoDst = true;
+            Status status = Status.OK;
+            while ( status == Status.OK && dst.hasRemaining() && !plainIn.hasRemaining() )
+            {
+                ByteBuffer target = intoDst ? dst : plainIn;
+                SSLEngineResult result = unwrap( target, !intoDst );
+                status = result.getStatus();
+                switch ( status )
+                {
+                case OK:
+                    read += intoDst ? result.bytesProduced() : bufferCopy( plainIn, dst );
+                    handleHandshake( result.getHandshakeStatus() );
+                    break;
+                case BUFFER_OVERFLOW:
+                    if ( intoDst )
+                    {
+                        // The next record does not fit into dst, decipher it into plainIn and copy what fits
+                        intoDst = false;
+                        status = Status.OK;
+                    }
+                    else
+                    {
+                        enlargePlainIn();
+                        status = Status.OK;
+                    }
+                    break;
+                case BUFFER_UNDERFLOW:
+                    // Not a whole record buffered
+                    break;
+                case CLOSED:
+                    // RFC 2246 #7.2.1 requires us to stop accepting input.
+                    sslEngine.closeInbound();
+                    return read == 0 ? -1 : read;
+                default:
+                    throw new ClientException( "Got unexpected status " + status + ", " + result );
+                }
+            }
+            if ( read == 0 && status == Status.BUFFER_UNDERFLOW )
+            {
+                readCipherIn();
+            }
         }
+        return read;
+    }
 
-        return toRead - dst.remaining();
+    /**
+     * Finish whatever the engine needs to do after deciphering a record, such as when the server renegotiates or
+     * updates the keys of the session.
+     */
+    private void handleHandshake( HandshakeStatus handshakeStatus ) throws IOException
+    {
+        if ( handshakeStatus == NEED_TASK )
+        {
+            handshakeStatus = runDelegatedTasks();
+        }
+        while ( handshakeStatus == NEED_WRAP )
+        {
+            handshakeStatus = wrap( EMPTY_BUFFER );
+        }
+        flushCipherOut();
     }
 
     @Override
@@ -401,6 +480,7 @@ public class TLSSocketChannel implements ByteChannel
         {
             wrap( src );
         }
+        flushCipherOut();
         return toWrite;
     }
 
@@ -413,16 +493,20 @@ public class TLSSocketChannel implements ByteChannel
     @Override
     public void close() throws IOException
     {
+        if ( cipherOut == null )
+        {
+            // Already closed
+            return;
+        }
         try
         {
-            plainOut.clear();
             // Indicate that application is done with engine
             sslEngine.closeOutbound();
 
             while ( !sslEngine.isOutboundDone() )
             {
                 // Get close message
-                SSLEngineResult res = sslEngine.wrap( plainOut, cipherOut );
+                SSLEngineResult res = sslEngine.wrap( EMPTY_BUFFER, cipherOut );
 
                 // Check res statuses
 
@@ -448,6 +532,21 @@ public class TLSSocketChannel implements ByteChannel
             // Treat this as ok - the connection is closed, even if the TLS session did not exit cleanly.
             logger.warn( "TLS socket could not be closed cleanly: '" + e.getMessage() + "'", e );
         }
+        finally
+        {
+            releaseBuffers();
+        }
+    }
+
+    private void releaseBuffers()
+    {
+        if ( cipherIn != null )
+        {
+            buffers.release( cipherIn );
+            buffers.release( cipherOut );
+            buffers.release( plainIn );
+            cipherIn = cipherOut = plainIn = null;
+        }
     }
 
     @Override
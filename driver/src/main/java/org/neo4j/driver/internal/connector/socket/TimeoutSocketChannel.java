@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link SocketChannel} whose reads can time out, and which otherwise behaves like a blocking channel.
+ * <p>
+ * Reads on a blocking channel ignore {@link Socket#setSoTimeout(int) SO_TIMEOUT}. So while no timeout applies, this
+ * reads straight from the blocking channel. The first time a timeout applies, the channel is switched to non-blocking
+ * mode for good and registered with a selector of its own: reads then wait on the selector for at most the timeout
+ * and read straight into the given buffer, and writes wait on the selector until everything has been written. Only
+ * where the channel cannot be used with a selector does this fall back to reading through the input stream of the
+ * socket, which honours the timeout.
+ * <p>
+ * On top of the read timeout, a deadline can bound the total time spent reading, e.g. all the reads needed to
+ * receive the results of a statement.
+ */
+public class TimeoutSocketChannel implements ByteChannel
+{
+    private static final int COPY_SIZE = 8192;
+
+    private final SocketChannel channel;
+    private final Socket socket;
+    private final int readTimeout;
+
+    /** Set once the channel is non-blocking, null while it is still blocking */
+    private Selector selector;
+    private SelectionKey key;
+    /** Whether the channel cannot be used with a selector, so that timed reads go through the stream of the socket */
+    private boolean streamFallback;
+    private InputStream in;
+    private byte[] copy;
+
+    /** When reading must be done by, as a {@link System#nanoTime()}, only meaningful while {@link #hasDeadline} */
+    private long deadline;
+    private boolean hasDeadline;
+    private boolean deadlineExpired;
+
+    /**
+     * @param channel a blocking channel
+     * @param readTimeout how long a single read may block, in milliseconds, zero to block for as long as it takes
+     */
+    public TimeoutSocketChannel( SocketChannel channel, int readTimeout )
+    {
+        this.channel = channel;
+        this.socket = channel.socket();
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Bound the total time the reads from now on may take.
+     * @param timeout how long reads may take altogether, in milliseconds
+     */
+    public void startDeadline( long timeout )
+    {
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout );
+        hasDeadline = true;
+        deadlineExpired = false;
+    }
+
+    public void clearDeadline()
+    {
+        hasDeadline = false;
+    }
+
+    /**
+     * @return true if the last read failed because the deadline had passed
+     */
+    public boolean deadlineExpired()
+    {
+        return deadlineExpired;
+    }
+
+    @Override
+    public int read( ByteBuffer buf ) throws IOException
+    {
+        int timeout = readTimeout;
+        boolean boundByDeadline = false;
+        if ( hasDeadline )
+        {
+            long remaining = TimeUnit.NANOSECONDS.toMillis( deadline - System.nanoTime() );
+            if ( remaining <= 0 )
+            {
+                deadlineExpired = true;
+                throw new SocketTimeoutException( "Deadline passed" );
+            }
+            if ( timeout == 0 || remaining < timeout )
+            {
+                timeout = (int) Math.min( remaining, Integer.MAX_VALUE );
+                boundByDeadline = true;
+            }
+        }
+        if ( timeout == 0 && selector == null )
+        {
+            return channel.read( buf );
+        }
+        if ( selector == null && !streamFallback )
+        {
+            useSelector();
+        }
+        if ( streamFallback )
+        {
+            return streamRead( buf, timeout, boundByDeadline );
+        }
+        return selectRead( buf, timeout, boundByDeadline );
+    }
+
+    private void useSelector()
+    {
+        Selector opened = null;
+        try
+        {
+            opened = channel.provider().openSelector();
+            channel.configureBlocking( false );
+            key = channel.register( opened, SelectionKey.OP_READ );
+            selector = opened;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            streamFallback = true;
+            try
+            {
+                if ( opened != null )
+                {
+                    opened.close();
+                }
+                channel.configureBlocking( true );
+            }
+            catch ( IOException | RuntimeException ignored )
+            {
+                // best effort, the stream will fail the read if the channel could not be made blocking again
+            }
+        }
+    }
+
+    private int selectRead( ByteBuffer buf, int timeout, boolean boundByDeadline ) throws IOException
+    {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos( timeout );
+        while ( true )
+        {
+            int read = channel.read( buf );
+            if ( read != 0 || !buf.hasRemaining() )
+            {
+                return read;
+            }
+            long wait = 0;
+            if ( timeout > 0 )
+            {
+                wait = TimeUnit.NANOSECONDS.toMillis( until - System.nanoTime() );
+                if ( wait <= 0 )
+                {
+                    deadlineExpired = boundByDeadline;
+                    throw new SocketTimeoutException( "Read timed out" );
+                }
+            }
+            await( SelectionKey.OP_READ, wait );
+        }
+    }
+
+    private int streamRead( ByteBuffer buf, int timeout, boolean boundByDeadline ) throws IOException
+    {
+        socket.setSoTimeout( timeout );
+        if ( in == null )
+        {
+            in = socket.getInputStream();
+        }
+        try
+        {
+            if ( buf.hasArray() )
+            {
+                int read = in.read( buf.array(), buf.arrayOffset() + buf.position(), buf.remaining() );
+                if ( read > 0 )
+                {
+                    buf.position( buf.position() + read );
+                }
+                return read;
+            }
+            if ( copy == null )
+            {
+                copy = new byte[COPY_SIZE];
+            }
+            int read = in.read( copy, 0, Math.min( copy.length, buf.remaining() ) );
+            if ( read > 0 )
+            {
+                buf.put( copy, 0, read );
+            }
+            return read;
+        }
+        catch ( SocketTimeoutException e )
+        {
+            deadlineExpired = boundByDeadline;
+            throw e;
+        }
+    }
+
+    /**
+     * Wait until the channel is ready for the given operation.
+     * @param ops the operation to wait for
+     * @param timeout how long to wait at most, in milliseconds, zero to wait for as long as it takes
+     */
+    private void await( int ops, long timeout ) throws IOException
+    {
+        try
+        {
+            key.interestOps( ops );
+            selector.select( timeout );
+            selector.selectedKeys().clear();
+        }
+        catch ( ClosedSelectorException e )
+        {
+            // Closed while waiting
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public int write( ByteBuffer buf ) throws IOException
+    {
+        if ( selector == null )
+        {
+            return channel.write( buf );
+        }
+        // Write everything, as the blocking channel did
+        int written = 0;
+        while ( buf.hasRemaining() )
+        {
+            int wrote = channel.write( buf );
+            if ( wrote == 0 )
+            {
+                await( SelectionKey.OP_WRITE, 0 );
+            }
+            written += wrote;
+        }
+        return written;
+    }
+
+    /**
+     * Stop using the selector of this channel, if it has one, leaving the socket open and possibly non-blocking, e.g.
+     * to hand it over to an event loop once the reads that had to time out are done. This must not be used
+     * afterwards.
+     */
+    public void detach() throws IOException
+    {
+        if ( selector != null )
+        {
+            key.cancel();
+            selector.close();
+            selector = null;
+        }
+    }
+
+    @Override
+    public boolean isOpen()
+    {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            channel.close();
+        }
+        finally
+        {
+            if ( selector != null )
+            {
+                selector.close();
+            }
+        }
+    }
+}
@@ -153,8 +153,9 @@ public class TrustOnFirstUseTrustManager implements X509TrustManager
 
     /*
      * Trust the cert if it is seen first time for this server or it is the same with the one registered.
+     * Synchronized, as connections to the same server share the trust manager and only one of them may register it.
      */
-    public void checkServerTrusted( X509Certificate[] chain, String authType )
+    public synchronized void checkServerTrusted( X509Certificate[] chain, String authType )
             throws CertificateException
     {
         X509Certificate certificate = chain[0];
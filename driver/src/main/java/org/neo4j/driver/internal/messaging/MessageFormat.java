@@ -42,6 +42,12 @@ public interface MessageFormat
 
         void read( MessageHandler handler ) throws IOException;
 
+        /**
+         * Parse a single message into the given handler, or, if it is a RECORD message and records are to be
+         * skipped, pass it over without handing it to the handler, and without decoding it where possible.
+         */
+        void read( MessageHandler handler, boolean skipRecords ) throws IOException;
+
     }
 
     Writer newWriter( WritableByteChannel ch );
@@ -89,7 +89,7 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     public MessageFormat.Reader newReader( ReadableByteChannel ch )
     {
         BufferingChunkedInput input = new BufferingChunkedInput( ch );
-        return new Reader( input, input.messageBoundaryHook() );
+        return new Reader( input, input.messageBoundaryHook(), input.messageSkipHook() );
     }
 
     @Override
@@ -383,11 +383,22 @@ public class PackStreamMessageFormatV1 implements MessageFormat
     {
         private final PackStream.Unpacker unpacker;
         private final Runnable onMessageComplete;
+        private final Runnable skipMessage;
 
         public Reader( PackInput input, Runnable onMessageComplete )
+        {
+            this( input, onMessageComplete, null );
+        }
+
+        /**
+         * @param skipMessage passes over the rest of the message being read, including its end, without decoding it,
+         * or null if the input cannot do that, in which case skipped messages are decoded and dropped
+         */
+        public Reader( PackInput input, Runnable onMessageComplete, Runnable skipMessage )
         {
             unpacker = new PackStream.Unpacker( input );
             this.onMessageComplete = onMessageComplete;
+            this.skipMessage = skipMessage;
         }
 
         @Override
@@ -401,6 +412,12 @@ public class PackStreamMessageFormatV1 implements MessageFormat
          */
         @Override
         public void read( MessageHandler handler ) throws IOException
+        {
+            read( handler, false );
+        }
+
+        @Override
+        public void read( MessageHandler handler, boolean skipRecords ) throws IOException
         {
             unpacker.unpackStructHeader();
             int type = unpacker.unpackStructSignature();
@@ -416,7 +433,14 @@ public class PackStreamMessageFormatV1 implements MessageFormat
                 unpackPullAllMessage( handler );
                 break;
             case MSG_RECORD:
-                unpackRecordMessage(handler);
+                if ( skipRecords )
+                {
+                    skipRecordMessage();
+                }
+                else
+                {
+                    unpackRecordMessage( handler );
+                }
                 break;
             case MSG_SUCCESS:
                 unpackSuccessMessage( handler );
@@ -492,6 +516,21 @@ public class PackStreamMessageFormatV1 implements MessageFormat
             onMessageComplete.run();
         }
 
+        private void skipRecordMessage() throws IOException
+        {
+            if ( skipMessage != null )
+            {
+                skipMessage.run();
+                return;
+            }
+            int fieldCount = (int) unpacker.unpackListHeader();
+            for ( int i = 0; i < fieldCount; i++ )
+            {
+                unpackValue();
+            }
+            onMessageComplete.run();
+        }
+
         private void unpackRecordMessage(MessageHandler output) throws IOException
         {
             int fieldCount = (int) unpacker.unpackListHeader();
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+
+/**
+ * Records what happens in the connection pool to one address, and on the connections in it. Connections that are
+ * neither in use nor closed are counted as idle, which includes those being tested by the pool maintenance.
+ */
+public class InternalConnectionPoolMetrics implements ConnectionPoolMetrics
+{
+    private final String address;
+
+    private final AtomicInteger inUse = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong acquisitionTimeouts = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private final InternalHistogram acquisitionTime = new InternalHistogram();
+    private final InternalHistogram connectionTime = new InternalHistogram();
+    private final InternalHistogram handshakeTime = new InternalHistogram();
+    private final InternalHistogram roundTripTime = new InternalHistogram();
+
+    public InternalConnectionPoolMetrics( String address )
+    {
+        this.address = address;
+    }
+
+    public void connectionCreated()
+    {
+        created.incrementAndGet();
+    }
+
+    public void connectionClosed()
+    {
+        closed.incrementAndGet();
+    }
+
+    /**
+     * @param nanos how long acquiring the connection took
+     */
+    public void connectionAcquired( long nanos )
+    {
+        inUse.incrementAndGet();
+        acquisitionTime.record( nanos );
+    }
+
+    public void connectionReleased()
+    {
+        inUse.decrementAndGet();
+    }
+
+    public void acquisitionTimedOut()
+    {
+        acquisitionTimeouts.incrementAndGet();
+    }
+
+    public void messagesSent( int count )
+    {
+        messagesSent.addAndGet( count );
+    }
+
+    public void messageReceived()
+    {
+        messagesReceived.incrementAndGet();
+    }
+
+    public void bytesSent( int count )
+    {
+        bytesSent.addAndGet( count );
+    }
+
+    public void bytesReceived( int count )
+    {
+        bytesReceived.addAndGet( count );
+    }
+
+    @Override
+    public String address()
+    {
+        return address;
+    }
+
+    @Override
+    public int inUse()
+    {
+        return inUse.get();
+    }
+
+    @Override
+    public int idle()
+    {
+        long open = created.get() - closed.get();
+        return (int) Math.max( 0, open - inUse.get() );
+    }
+
+    @Override
+    public long created()
+    {
+        return created.get();
+    }
+
+    @Override
+    public long closed()
+    {
+        return closed.get();
+    }
+
+    @Override
+    public long acquisitionTimeouts()
+    {
+        return acquisitionTimeouts.get();
+    }
+
+    @Override
+    public long messagesSent()
+    {
+        return messagesSent.get();
+    }
+
+    @Override
+    public long messagesReceived()
+    {
+        return messagesReceived.get();
+    }
+
+    @Override
+    public long bytesSent()
+    {
+        return bytesSent.get();
+    }
+
+    @Override
+    public long bytesReceived()
+    {
+        return bytesReceived.get();
+    }
+
+    @Override
+    public InternalHistogram acquisitionTime()
+    {
+        return acquisitionTime;
+    }
+
+    @Override
+    public InternalHistogram connectionTime()
+    {
+        return connectionTime;
+    }
+
+    @Override
+    public InternalHistogram handshakeTime()
+    {
+        return handshakeTime;
+    }
+
+    @Override
+    public InternalHistogram roundTripTime()
+    {
+        return roundTripTime;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectionPoolMetrics{address=" + address + ", inUse=" + inUse() + ", idle=" + idle() +
+               ", created=" + created() + ", closed=" + closed() + ", acquisitionTimeouts=" + acquisitionTimeouts() +
+               ", acquisitionTime=" + acquisitionTime + ", roundTripTime=" + roundTripTime + "}";
+    }
+}
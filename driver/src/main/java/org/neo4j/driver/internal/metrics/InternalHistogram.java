@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.driver.v1.metrics.Histogram;
+
+/**
+ * A lock free histogram of non-negative values, cheap enough to record into on every request.
+ * <p>
+ * Values below {@link #SUB_BUCKETS} get a bucket each. Larger values are grouped by their highest set bit, and each
+ * such power of two range is split into {@link #SUB_BUCKETS} equally wide buckets, so that a bucket is never wider
+ * than an eighth of the values in it. This keeps the histogram at a fixed, small size however large the values get.
+ */
+public class InternalHistogram implements Histogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong min = new AtomicLong( Long.MAX_VALUE );
+    private final AtomicLong max = new AtomicLong( Long.MIN_VALUE );
+
+    /**
+     * @param value the value to record, negative values are recorded as zero
+     */
+    public void record( long value )
+    {
+        if ( value < 0 )
+        {
+            value = 0;
+        }
+        buckets.incrementAndGet( bucketOf( value ) );
+        total.addAndGet( value );
+        count.incrementAndGet();
+
+        long current;
+        while ( value < (current = min.get()) && !min.compareAndSet( current, value ) )
+        {
+            // retry
+        }
+        while ( value > (current = max.get()) && !max.compareAndSet( current, value ) )
+        {
+            // retry
+        }
+    }
+
+    @Override
+    public long count()
+    {
+        return count.get();
+    }
+
+    @Override
+    public long min()
+    {
+        long value = min.get();
+        return value == Long.MAX_VALUE ? 0 : value;
+    }
+
+    @Override
+    public long max()
+    {
+        long value = max.get();
+        return value == Long.MIN_VALUE ? 0 : value;
+    }
+
+    @Override
+    public double mean()
+    {
+        long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n;
+    }
+
+    @Override
+    public long valueAtPercentile( double percentile )
+    {
+        long[] counts = new long[BUCKETS];
+        long n = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts[i] = buckets.get( i );
+            n += counts[i];
+        }
+        if ( n == 0 )
+        {
+            return 0;
+        }
+
+        double fraction = Math.min( Math.max( percentile, 0 ), 100 ) / 100;
+        long rank = Math.max( 1, (long) Math.ceil( fraction * n ) );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank )
+            {
+                // Report the highest value the bucket can hold, but never beyond what has actually been recorded
+                return Math.max( Math.min( highestValueIn( i ), max() ), min() );
+            }
+        }
+        return max();
+    }
+
+    static int bucketOf( long value )
+    {
+        if ( value < SUB_BUCKETS )
+        {
+            return (int) value;
+        }
+        int highestBit = Long.SIZE - 1 - Long.numberOfLeadingZeros( value );
+        int shift = highestBit - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestValueIn( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS )
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << shift;
+    }
+
+    static long highestValueIn( int bucket )
+    {
+        if ( bucket < SUB_BUCKETS )
+        {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return lowestValueIn( bucket ) + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "Histogram{count=%d, min=%d, mean=%.1f, p99=%d, max=%d}",
+                count(), min(), mean(), valueAtPercentile( 99 ), max() );
+    }
+}
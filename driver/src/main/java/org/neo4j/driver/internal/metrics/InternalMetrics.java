@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+import org.neo4j.driver.v1.metrics.Metrics;
+
+/**
+ * The metrics of one driver, with the metrics of each connection pool created on first use. When enabled in the
+ * {@link Config#jmxMetrics() config}, each connection pool is also registered as an MBean, until this is closed.
+ */
+public class InternalMetrics implements Metrics, AutoCloseable
+{
+    private static final String JMX_DOMAIN = "org.neo4j.driver";
+    private static final AtomicInteger driverIds = new AtomicInteger();
+
+    private final ConcurrentHashMap<URI,InternalConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<URI,ObjectName> registered = new ConcurrentHashMap<>();
+    private final int driverId = driverIds.incrementAndGet();
+    private final boolean jmx;
+    private final Logger logger;
+
+    /**
+     * Metrics that are not exported over JMX.
+     */
+    public InternalMetrics()
+    {
+        this( false, null );
+    }
+
+    public InternalMetrics( Config config )
+    {
+        this( config.jmxMetrics(), config.logging().getLog( "metrics" ) );
+    }
+
+    private InternalMetrics( boolean jmx, Logger logger )
+    {
+        this.jmx = jmx;
+        this.logger = logger;
+    }
+
+    /**
+     * @param address the address of the database instance the pool connects to
+     * @return the metrics of the connection pool to the given address, created if this is the first time it is asked
+     * for
+     */
+    public InternalConnectionPoolMetrics connectionPool( URI address )
+    {
+        InternalConnectionPoolMetrics metrics = pools.get( address );
+        if ( metrics == null )
+        {
+            metrics = new InternalConnectionPoolMetrics( address.toString() );
+            InternalConnectionPoolMetrics existing = pools.putIfAbsent( address, metrics );
+            if ( existing != null )
+            {
+                return existing;
+            }
+            if ( jmx )
+            {
+                register( address, metrics );
+            }
+        }
+        return metrics;
+    }
+
+    @Override
+    public Map<String,ConnectionPoolMetrics> connectionPoolMetrics()
+    {
+        Map<String,ConnectionPoolMetrics> snapshot = new TreeMap<>();
+        for ( InternalConnectionPoolMetrics metrics : pools.values() )
+        {
+            snapshot.put( metrics.address(), metrics );
+        }
+        return Collections.unmodifiableMap( snapshot );
+    }
+
+    private void register( URI address, InternalConnectionPoolMetrics metrics )
+    {
+        try
+        {
+            ObjectName name = new ObjectName( JMX_DOMAIN + ":type=ConnectionPool,driver=" + driverId +
+                                              ",address=" + ObjectName.quote( address.toString() ) );
+            platformServer().registerMBean(
+                    new StandardMBean( new JmxConnectionPoolMetrics( metrics ), ConnectionPoolMetricsMXBean.class,
+                            true ), name );
+            registered.put( address, name );
+        }
+        catch ( JMException e )
+        {
+            logger.warn( "Unable to export metrics of the connection pool to '%s' over JMX: %s", address, e );
+        }
+    }
+
+    /**
+     * Unregister all MBeans registered by these metrics. The metrics themselves stay readable.
+     */
+    @Override
+    public void close()
+    {
+        for ( ObjectName name : registered.values() )
+        {
+            try
+            {
+                platformServer().unregisterMBean( name );
+            }
+            catch ( JMException e )
+            {
+                logger.warn( "Unable to unregister connection pool metrics '%s': %s", name, e );
+            }
+        }
+        registered.clear();
+    }
+
+    private static MBeanServer platformServer()
+    {
+        return ManagementFactory.getPlatformMBeanServer();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
+
+class JmxConnectionPoolMetrics implements ConnectionPoolMetricsMXBean
+{
+    private final ConnectionPoolMetrics metrics;
+
+    JmxConnectionPoolMetrics( ConnectionPoolMetrics metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getAddress()
+    {
+        return metrics.address();
+    }
+
+    @Override
+    public int getInUse()
+    {
+        return metrics.inUse();
+    }
+
+    @Override
+    public int getIdle()
+    {
+        return metrics.idle();
+    }
+
+    @Override
+    public long getCreated()
+    {
+        return metrics.created();
+    }
+
+    @Override
+    public long getClosed()
+    {
+        return metrics.closed();
+    }
+
+    @Override
+    public long getAcquisitionTimeouts()
+    {
+        return metrics.acquisitionTimeouts();
+    }
+
+    @Override
+    public long getMessagesSent()
+    {
+        return metrics.messagesSent();
+    }
+
+    @Override
+    public long getMessagesReceived()
+    {
+        return metrics.messagesReceived();
+    }
+
+    @Override
+    public long getBytesSent()
+    {
+        return metrics.bytesSent();
+    }
+
+    @Override
+    public long getBytesReceived()
+    {
+        return metrics.bytesReceived();
+    }
+
+    @Override
+    public double getAcquisitionTimeMean()
+    {
+        return micros( metrics.acquisitionTime().mean() );
+    }
+
+    @Override
+    public long getAcquisitionTime99thPercentile()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( metrics.acquisitionTime().valueAtPercentile( 99 ) );
+    }
+
+    @Override
+    public double getConnectionTimeMean()
+    {
+        return micros( metrics.connectionTime().mean() );
+    }
+
+    @Override
+    public double getHandshakeTimeMean()
+    {
+        return micros( metrics.handshakeTime().mean() );
+    }
+
+    @Override
+    public double getRoundTripTimeMean()
+    {
+        return micros( metrics.roundTripTime().mean() );
+    }
+
+    @Override
+    public long getRoundTripTime99thPercentile()
+    {
+        return TimeUnit.NANOSECONDS.toMicros( metrics.roundTripTime().valueAtPercentile( 99 ) );
+    }
+
+    private static double micros( double nanos )
+    {
+        return nanos / 1000;
+    }
+}
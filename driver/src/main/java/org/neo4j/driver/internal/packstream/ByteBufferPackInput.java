@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link PackInput} over bytes that are all in one buffer already, such as a message that has been received in full.
+ */
+public class ByteBufferPackInput implements StringDecodingPackInput
+{
+    private final ByteBuffer buffer;
+
+    public ByteBufferPackInput( ByteBuffer buffer )
+    {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public boolean hasMoreData() throws IOException
+    {
+        return buffer.hasRemaining();
+    }
+
+    @Override
+    public byte readByte() throws IOException
+    {
+        ensure( 1 );
+        return buffer.get();
+    }
+
+    @Override
+    public short readShort() throws IOException
+    {
+        ensure( 2 );
+        return buffer.getShort();
+    }
+
+    @Override
+    public int readInt() throws IOException
+    {
+        ensure( 4 );
+        return buffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException
+    {
+        ensure( 8 );
+        return buffer.getLong();
+    }
+
+    @Override
+    public double readDouble() throws IOException
+    {
+        ensure( 8 );
+        return buffer.getDouble();
+    }
+
+    @Override
+    public PackInput readBytes( byte[] into, int offset, int toRead ) throws IOException
+    {
+        ensure( toRead );
+        buffer.get( into, offset, toRead );
+        return this;
+    }
+
+    @Override
+    public byte peekByte() throws IOException
+    {
+        ensure( 1 );
+        return buffer.get( buffer.position() );
+    }
+
+    @Override
+    public String readUtf8( int length ) throws IOException
+    {
+        ensure( length );
+        return Utf8.decode( buffer, length );
+    }
+
+    private void ensure( int bytes ) throws IOException
+    {
+        if ( buffer.remaining() < bytes )
+        {
+            throw new IOException( "Message ended unexpectedly, expected " + bytes + " more bytes but only " +
+                                   buffer.remaining() + " were left.", new BufferUnderflowException() );
+        }
+    }
+}
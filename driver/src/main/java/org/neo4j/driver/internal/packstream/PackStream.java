@@ -520,7 +520,20 @@ public class PackStream
                 return EMPTY_STRING;
             }
 
-            return new String(unpackUtf8(markerByte), UTF_8);
+            int size = unpackUtf8Size( markerByte );
+            if ( size == 0 )
+            {
+                return EMPTY_STRING;
+            }
+            if ( in instanceof StringDecodingPackInput )
+            {
+                String string = ((StringDecodingPackInput) in).readUtf8( size );
+                if ( string != null )
+                {
+                    return string;
+                }
+            }
+            return Utf8.decode( unpackBytes( size ), 0, size );
         }
 
         public byte[] unpackBytes() throws IOException
@@ -564,22 +577,22 @@ public class PackStream
             return null;
         }
 
-        private byte[] unpackUtf8(byte markerByte) throws IOException
+        private int unpackUtf8Size( byte markerByte ) throws IOException
         {
             final byte markerHighNibble = (byte) (markerByte & 0xF0);
             final byte markerLowNibble = (byte) (markerByte & 0x0F);
 
-            if ( markerHighNibble == TINY_STRING ) { return unpackBytes( markerLowNibble ); }
+            if ( markerHighNibble == TINY_STRING ) { return markerLowNibble; }
             switch(markerByte)
             {
-                case STRING_8: return unpackBytes( unpackUINT8() );
-                case STRING_16: return unpackBytes( unpackUINT16() );
+                case STRING_8: return unpackUINT8();
+                case STRING_16: return unpackUINT16();
                 case STRING_32:
                 {
                     long size = unpackUINT32();
                     if ( size <= Integer.MAX_VALUE )
                     {
-                        return unpackBytes( (int) size );
+                        return (int) size;
                     }
                     else
                     {
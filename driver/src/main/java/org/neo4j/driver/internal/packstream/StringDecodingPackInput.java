@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import java.io.IOException;
+
+/**
+ * A {@link PackInput} that can decode strings straight out of the buffer it reads from, rather than copying their
+ * bytes out first. {@link PackStream} uses this whenever its input supports it.
+ */
+public interface StringDecodingPackInput extends PackInput
+{
+    /**
+     * Consume a UTF-8 encoded string, if its bytes are available in one piece in the buffer of this input.
+     * <p>
+     * When null is returned, none of the bytes of the string have been consumed, and they are read next as with any
+     * other method of this input. The input may have moved on internally to get to them though, e.g. by reading the
+     * header of the chunk the string starts in, or by filling its buffer, just as reading their first byte would.
+     * @param length the length of the string in bytes
+     * @return the string, or null if its bytes are not available in one piece
+     */
+    String readUtf8( int length ) throws IOException;
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decoding of UTF-8 strings from buffers. Most strings sent by the database are pure ASCII, which reads the same in
+ * ISO-8859-1, whose decoding the JDK does by widening each byte, without going through a
+ * {@link java.nio.charset.CharsetDecoder}.
+ */
+public final class Utf8
+{
+    private Utf8() {}
+
+    public static String decode( byte[] bytes, int offset, int length )
+    {
+        for ( int i = offset; i < offset + length; i++ )
+        {
+            if ( bytes[i] < 0 )
+            {
+                return new String( bytes, offset, length, StandardCharsets.UTF_8 );
+            }
+        }
+        return new String( bytes, offset, length, StandardCharsets.ISO_8859_1 );
+    }
+
+    /**
+     * Decode the given number of bytes from the position of the buffer on, and move the position past them.
+     */
+    public static String decode( ByteBuffer buffer, int length )
+    {
+        String string;
+        if ( buffer.hasArray() )
+        {
+            string = decode( buffer.array(), buffer.arrayOffset() + buffer.position(), length );
+        }
+        else
+        {
+            string = decodeDirect( buffer, buffer.position(), length );
+        }
+        buffer.position( buffer.position() + length );
+        return string;
+    }
+
+    private static String decodeDirect( ByteBuffer buffer, int offset, int length )
+    {
+        byte[] bytes = new byte[length];
+        ByteBuffer source = buffer.duplicate();
+        source.position( offset );
+        source.get( bytes );
+        return decode( bytes, 0, length );
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import java.util.Queue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.util.Clock;
+
+/**
+ * The connections to a single database URL. Idle connections are kept in a bounded {@link IdleConnectionStack},
+ * while the total number of connections, idle and in use, is bounded by a fair semaphore. Each connection handed out
+ * by the pool holds one permit until it is released, so callers waiting for a connection when the pool is exhausted
+ * are served in the order they started waiting. The one exception is a thread taking back the connection it released
+ * last, which takes a permit without queueing if one is free, so a thread using one session at a time does not go
+ * through the queue of the semaphore on every acquire.
+ *
+ * A connection is always offered back to the idle queue (or disposed) before its permit is returned, which makes
+ * sure the caller that gets the permit next can see it.
+ */
+class BlockingPooledConnectionQueue
+{
+    private final IdleConnectionStack idle;
+    private final Semaphore permits;
+    private final int maxSize;
+    private final CircuitBreaker circuitBreaker;
+
+    BlockingPooledConnectionQueue( int maxIdleSize, int maxSize )
+    {
+        this( maxIdleSize, maxSize, new CircuitBreaker( 0, 0, 0, Clock.SYSTEM ) );
+    }
+
+    BlockingPooledConnectionQueue( int maxIdleSize, int maxSize, CircuitBreaker circuitBreaker )
+    {
+        this.idle = new IdleConnectionStack( maxIdleSize );
+        this.circuitBreaker = circuitBreaker;
+        this.maxSize = maxSize > 0 ? maxSize : Integer.MAX_VALUE;
+        this.permits = new Semaphore( this.maxSize, true );
+    }
+
+    /**
+     * Reserve room for one more connection in use, waiting up to the given timeout for another one to be released.
+     * @param timeout how long to wait, in milliseconds
+     * @return true if room was reserved, false if the timeout expired first
+     * @throws InterruptedException if interrupted while waiting
+     */
+    boolean reserve( long timeout ) throws InterruptedException
+    {
+        // The untimed tryAcquire barges even on a fair semaphore
+        if ( idle.holdsConnectionReleasedByCurrentThread() && permits.tryAcquire() )
+        {
+            return true;
+        }
+        return permits.tryAcquire( timeout, TimeUnit.MILLISECONDS );
+    }
+
+    /**
+     * Give back room reserved with {@link #reserve(long)}, after the connection it was reserved for has been returned
+     * to the idle queue or disposed.
+     */
+    void unreserve()
+    {
+        permits.release();
+    }
+
+    /**
+     * @return an idle connection, or null if there is none
+     */
+    PooledConnection poll()
+    {
+        return idle.poll();
+    }
+
+    /**
+     * @return the circuit breaker guarding new connections to the URL
+     */
+    CircuitBreaker circuitBreaker()
+    {
+        return circuitBreaker;
+    }
+
+    Queue<PooledConnection> idle()
+    {
+        return idle;
+    }
+
+    int maxSize()
+    {
+        return maxSize;
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import org.neo4j.driver.internal.util.Clock;
+
+/**
+ * Tracks failures to connect to a single address, so that the pool can stop trying to connect while the address is
+ * unreachable, rather than have every caller wait for the connect to time out.
+ *
+ * The circuit looks like:
+ *
+ *                    failure threshold reached                  backoff expired
+ *          Closed ----------------------------> Open -----------------------------> Half open
+ *            ^                                   ^                                      |
+ *            |                                   |     probe failed, backoff doubled     |
+ *            |                                   ----------------------------------------|
+ *            |                          probe succeeded                                  |
+ *            ---------------------------------------------------------------------------
+ *
+ * While the circuit is open, no connection is attempted. Once the backoff expires, a single caller is let through to
+ * probe the address, while all others keep failing fast until the probe has either succeeded or failed.
+ *
+ * Every change of state starts a new generation of the circuit. Each attempt is tagged with the generation it started
+ * under, and its outcome is ignored once the circuit has moved on, so that attempts still in flight when the circuit
+ * opened cannot reopen it, or double its backoff, after the probe has been let through.
+ */
+class CircuitBreaker
+{
+    enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /** Returned instead of a generation when the caller should fail fast */
+    static final long REJECTED = -1;
+    /** Returned by {@link #retryIn()} while a probe is in progress */
+    static final long PROBING = -1;
+
+    private final int failureThreshold;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int failures = 0;
+    private long backoff;
+    private long openUntil;
+    private long generation = 0;
+
+    /**
+     * @param failureThreshold the number of connect failures in a row that opens the circuit, zero or less to never
+     * open it
+     * @param initialBackoff how long the circuit stays open the first time, in milliseconds
+     * @param maxBackoff the longest the circuit stays open, in milliseconds
+     * @param clock the clock to measure the backoff with
+     */
+    CircuitBreaker( int failureThreshold, long initialBackoff, long maxBackoff, Clock clock )
+    {
+        this.failureThreshold = failureThreshold;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = Math.max( initialBackoff, maxBackoff );
+        this.clock = clock;
+        this.backoff = initialBackoff;
+    }
+
+    /**
+     * @return the generation the caller's attempt to connect starts under, to report its outcome with, or
+     * {@link #REJECTED} if it should fail fast instead
+     */
+    synchronized long startAttempt()
+    {
+        switch ( state )
+        {
+        case CLOSED:
+            return generation;
+        case OPEN:
+            if ( clock.millis() >= openUntil )
+            {
+                // The caller becomes the probe
+                moveTo( State.HALF_OPEN );
+                return generation;
+            }
+            return REJECTED;
+        default:
+            return REJECTED;
+        }
+    }
+
+    /**
+     * @param attempt the generation the successful attempt started under
+     */
+    synchronized void onSuccess( long attempt )
+    {
+        if ( attempt != generation )
+        {
+            return;
+        }
+        failures = 0;
+        backoff = initialBackoff;
+        if ( state != State.CLOSED )
+        {
+            moveTo( State.CLOSED );
+        }
+    }
+
+    /**
+     * @param attempt the generation the failed attempt started under
+     */
+    synchronized void onFailure( long attempt )
+    {
+        if ( attempt != generation )
+        {
+            return;
+        }
+        if ( state == State.HALF_OPEN )
+        {
+            backoff = Math.min( backoff * 2, maxBackoff );
+            open();
+        }
+        else if ( state == State.CLOSED && failureThreshold > 0 && ++failures >= failureThreshold )
+        {
+            open();
+        }
+    }
+
+    private void open()
+    {
+        moveTo( State.OPEN );
+        openUntil = clock.millis() + backoff;
+    }
+
+    private void moveTo( State next )
+    {
+        state = next;
+        generation++;
+    }
+
+    /**
+     * @return true while callers are made to fail fast, i.e. while the circuit is open and the backoff has not expired
+     * yet, or while a probe is in progress
+     */
+    synchronized boolean rejectsConnections()
+    {
+        return state == State.HALF_OPEN || (state == State.OPEN && clock.millis() < openUntil);
+    }
+
+    synchronized State state()
+    {
+        return state;
+    }
+
+    /**
+     * @return how long until the next probe is let through, in milliseconds, {@link #PROBING} if a probe is in
+     * progress, or zero if connecting is allowed
+     */
+    synchronized long retryIn()
+    {
+        switch ( state )
+        {
+        case OPEN:
+            return Math.max( 0, openUntil - clock.millis() );
+        case HALF_OPEN:
+            return PROBING;
+        default:
+            return 0;
+        }
+    }
+}
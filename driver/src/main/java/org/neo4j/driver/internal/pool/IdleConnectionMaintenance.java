@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.Value;
+
+/**
+ * Background upkeep of idle pooled connections, run periodically on a thread owned by the driver so that none of it
+ * happens on the threads opening and closing sessions.
+ *
+ * Each run looks at every connection that is idle when the run starts:
+ * <ul>
+ * <li>connections idle for longer than {@link Config#idleConnectionTimeout()} are closed, as long as that leaves
+ * at least {@link Config#minIdleConnectionPoolSize()} idle connections,</li>
+ * <li>connections idle for longer than {@link Config#idleTimeBeforeConnectionTest()} are pinged, and closed if
+ * the ping fails,</li>
+ * <li>connections with replies still due, such as to the RESET sent when they were released, read them, and are
+ * closed if that fails,</li>
+ * <li>all other connections are put back as they are.</li>
+ * </ul>
+ * A connection being looked at takes up room in the pool like a connection in use would, and connections are
+ * skipped when there is no room, since a busy pool is going to reuse its idle connections soon anyway.
+ */
+class IdleConnectionMaintenance implements Runnable
+{
+    private static final Map<String,Value> NO_PARAMETERS = new HashMap<>();
+
+    private final Collection<BlockingPooledConnectionQueue> pools;
+    private final AtomicBoolean driverStopped;
+    private final Logger logger;
+    private final int minIdle;
+    private final long idleTimeout;
+    private final long idleTimeBeforeConnectionTest;
+
+    IdleConnectionMaintenance( Collection<BlockingPooledConnectionQueue> pools, AtomicBoolean driverStopped,
+            Config config )
+    {
+        this.pools = pools;
+        this.driverStopped = driverStopped;
+        this.logger = config.logging().getLog( "pool" );
+        this.minIdle = config.minIdleConnectionPoolSize();
+        this.idleTimeout = config.idleConnectionTimeout();
+        this.idleTimeBeforeConnectionTest = config.idleTimeBeforeConnectionTest();
+    }
+
+    @Override
+    public void run()
+    {
+        for ( BlockingPooledConnectionQueue connections : pools )
+        {
+            if ( driverStopped.get() )
+            {
+                return;
+            }
+            try
+            {
+                maintain( connections );
+            }
+            catch ( Throwable e )
+            {
+                logger.error( "Failed to maintain idle connections.", e );
+            }
+        }
+    }
+
+    private void maintain( BlockingPooledConnectionQueue connections ) throws InterruptedException
+    {
+        // Take the connections out of the pool before putting any back, as the idle stack hands out the most
+        // recently returned connection first
+        Queue<PooledConnection> idle = connections.idle();
+        List<PooledConnection> visiting = new ArrayList<>( idle.size() );
+        for ( int i = idle.size(); i > 0 && connections.reserve( 0 ); i-- )
+        {
+            PooledConnection conn = idle.poll();
+            if ( conn == null )
+            {
+                connections.unreserve();
+                break;
+            }
+            visiting.add( conn );
+        }
+
+        // Visit the connections that have been idle the longest first, so they are the ones closed
+        Collections.reverse( visiting );
+        int closable = idle.size() + visiting.size() - minIdle;
+        for ( PooledConnection conn : visiting )
+        {
+            try
+            {
+                if ( driverStopped.get() )
+                {
+                    conn.dispose();
+                }
+                else if ( closable > 0 && conn.idleTime() > idleTimeout )
+                {
+                    closable--;
+                    conn.dispose();
+                }
+                else if ( conn.idleTime() > idleTimeBeforeConnectionTest && !ping( conn ) )
+                {
+                    closable--;
+                    conn.dispose();
+                }
+                else if ( !conn.isClean() && !receiveOutstanding( conn ) )
+                {
+                    closable--;
+                    conn.dispose();
+                }
+                else
+                {
+                    putBack( idle, conn );
+                }
+            }
+            finally
+            {
+                connections.unreserve();
+            }
+        }
+    }
+
+    private void putBack( Queue<PooledConnection> idle, PooledConnection conn )
+    {
+        if ( !idle.offer( conn ) )
+        {
+            conn.dispose();
+        }
+        else if ( driverStopped.get() )
+        {
+            // Same race with closing the driver as when releasing a connection, see PooledConnectionReleaseConsumer
+            PooledConnection other = idle.poll();
+            if ( other != null )
+            {
+                other.dispose();
+            }
+        }
+    }
+
+    /**
+     * Read the replies still due on a connection, such as the one to the RESET sent when it was released dirty.
+     */
+    private boolean receiveOutstanding( PooledConnection conn )
+    {
+        try
+        {
+            conn.sync();
+            return true;
+        }
+        catch ( Throwable e )
+        {
+            return false;
+        }
+    }
+
+    private boolean ping( PooledConnection conn )
+    {
+        try
+        {
+            conn.run( "RETURN 1 // JavaDriver poll to test connection", NO_PARAMETERS, StreamCollector.NO_OP );
+            conn.pullAll( StreamCollector.NO_OP );
+            conn.sync();
+            conn.updateUsageTimestamp();
+            return true;
+        }
+        catch ( Throwable e )
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A bounded, lock-free holder of idle connections, built for many threads acquiring and releasing connections to
+ * the same server at once.
+ *
+ * Released connections are pushed on a shared stack, so the most recently used connection is handed out first,
+ * and are also remembered by the releasing thread. A thread acquiring a connection first tries to claim the one it
+ * released last, and otherwise pops connections off the shared stack until it manages to claim one.
+ *
+ * A connection is on the stack at most once. Claiming a connection through the thread-local slot leaves it on the
+ * stack, and threads popping such a connection simply drop it, since it will be pushed again when it is released.
+ * Taking back and releasing the connection a thread released last therefore only flips the idle flag of the
+ * connection: the count of connections on the stack, which bounds it to its capacity, is only updated when a
+ * connection is pushed or popped, and the number of idle connections is only counted when {@link #size()} is asked.
+ * A connection in use that is still on the stack counts towards the capacity, until it is dropped from the stack
+ * to make room for a connection being released.
+ */
+class IdleConnectionStack extends AbstractQueue<PooledConnection>
+{
+    private final ConcurrentLinkedDeque<PooledConnection> stack = new ConcurrentLinkedDeque<>();
+    private final ThreadLocal<AtomicReference<PooledConnection>> lastReleased =
+            new ThreadLocal<AtomicReference<PooledConnection>>()
+            {
+                @Override
+                protected AtomicReference<PooledConnection> initialValue()
+                {
+                    return new AtomicReference<>();
+                }
+            };
+    private final AtomicInteger stacked = new AtomicInteger();
+    private final int capacity;
+
+    IdleConnectionStack( int capacity )
+    {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean offer( PooledConnection connection )
+    {
+        connection.markIdle();
+        if ( connection.markStacked() )
+        {
+            if ( !reserveSlot() && !(unstackConnectionsInUse() && reserveSlot()) )
+            {
+                connection.markUnstacked();
+                // Unless another thread has claimed it through its thread-local slot in the meantime
+                return !connection.claim();
+            }
+            stack.push( connection );
+        }
+        connection.releasedTo( lastReleased.get() );
+        return true;
+    }
+
+    @Override
+    public PooledConnection poll()
+    {
+        PooledConnection connection = lastReleased.get().get();
+        if ( connection != null && connection.claim() )
+        {
+            return connection;
+        }
+        while ( (connection = stack.poll()) != null )
+        {
+            connection.markUnstacked();
+            stacked.decrementAndGet();
+            if ( connection.claim() )
+            {
+                // So the thread that released it does not keep it reachable once it is disposed
+                connection.forgetReleasedTo();
+                return connection;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether the connection the current thread released last is still idle, so the next {@link #poll()}
+     * on this thread is likely to hand it out without touching the shared stack
+     */
+    boolean holdsConnectionReleasedByCurrentThread()
+    {
+        PooledConnection connection = lastReleased.get().get();
+        return connection != null && connection.isIdle();
+    }
+
+    @Override
+    public PooledConnection peek()
+    {
+        Iterator<PooledConnection> idle = iterator();
+        return idle.hasNext() ? idle.next() : null;
+    }
+
+    /**
+     * @return the number of idle connections, counted as the stack is walked
+     */
+    @Override
+    public int size()
+    {
+        int size = 0;
+        for ( Iterator<PooledConnection> idle = iterator(); idle.hasNext(); idle.next() )
+        {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * @return the connections that are idle as they are being iterated, most recently released first
+     */
+    @Override
+    public Iterator<PooledConnection> iterator()
+    {
+        final Iterator<PooledConnection> stacked = stack.iterator();
+        return new Iterator<PooledConnection>()
+        {
+            private PooledConnection next;
+
+            @Override
+            public boolean hasNext()
+            {
+                while ( next == null && stacked.hasNext() )
+                {
+                    PooledConnection candidate = stacked.next();
+                    if ( candidate.isIdle() )
+                    {
+                        next = candidate;
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public PooledConnection next()
+            {
+                if ( !hasNext() )
+                {
+                    throw new NoSuchElementException();
+                }
+                PooledConnection result = next;
+                next = null;
+                return result;
+            }
+
+            @Override
+            public void remove()
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private boolean reserveSlot()
+    {
+        while ( true )
+        {
+            int current = stacked.get();
+            if ( current >= capacity )
+            {
+                return false;
+            }
+            if ( stacked.compareAndSet( current, current + 1 ) )
+            {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Drop the connections that are in use from the stack, as they were taken back through a thread-local slot and
+     * still take up room on it.
+     * @return true if any room was made
+     */
+    private boolean unstackConnectionsInUse()
+    {
+        boolean unstacked = false;
+        for ( PooledConnection connection : stack )
+        {
+            if ( !connection.isIdle() && stack.removeFirstOccurrence( connection ) )
+            {
+                connection.markUnstacked();
+                if ( connection.isIdle() && connection.markStacked() )
+                {
+                    // Released meanwhile, by a thread that saw it still on the stack, so it keeps its place
+                    stack.push( connection );
+                }
+                else
+                {
+                    stacked.decrementAndGet();
+                    unstacked = true;
+                }
+            }
+        }
+        return unstacked;
+    }
+}
@@ -19,25 +19,45 @@
 package org.neo4j.driver.internal.pool;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Queue;
 import java.util.ServiceLoader;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.neo4j.driver.internal.connector.nio.NioConnector;
 import org.neo4j.driver.internal.connector.socket.SocketConnector;
+import org.neo4j.driver.internal.metrics.InternalConnectionPoolMetrics;
+import org.neo4j.driver.internal.metrics.InternalMetrics;
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.ConnectionPool;
 import org.neo4j.driver.internal.spi.Connector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumer;
 import org.neo4j.driver.v1.AuthToken;
 import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.ConnectionAcquisitionTimeoutException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.metrics.Metrics;
 
 import static java.lang.String.format;
 
@@ -52,6 +72,13 @@ import static java.lang.String.format;
  *
  * The driver is thread safe. Each thread could try to get a session from the pool and then return it to the pool
  * at the same time.
+ *
+ * The number of connections per URL, idle and in use, is bounded by {@link Config#maxConnectionPoolSize()}. When all
+ * of them are in use, acquiring threads wait in line for one to be released, for at most
+ * {@link Config#connectionAcquisitionTimeout()}.
+ *
+ * Idle connections are tested, and closed when broken or idle for too long, by {@link IdleConnectionMaintenance} on
+ * a background thread owned by the pool.
  */
 public class InternalConnectionPool implements ConnectionPool
 {
@@ -63,26 +90,42 @@ public class InternalConnectionPool implements ConnectionPool
     /**
      * Pools, organized by URL.
      */
-    private final ConcurrentHashMap<URI,BlockingQueue<PooledConnection>> pools = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<URI,BlockingPooledConnectionQueue> pools = new ConcurrentHashMap<>();
 
     private final AuthToken authToken;
     private final Clock clock;
     private final Config config;
+    private final InternalMetrics metrics;
 
     /** Shutdown flag */
     private final AtomicBoolean stopped = new AtomicBoolean( false );
 
+    /** Runs {@link IdleConnectionMaintenance}, or null if background maintenance is disabled */
+    private final ScheduledExecutorService maintenance;
+
     public InternalConnectionPool( Config config, AuthToken authToken )
     {
-        this( loadConnectors(), Clock.SYSTEM, config, authToken);
+        this( new InternalMetrics( config ), config, authToken );
+    }
+
+    public InternalConnectionPool( InternalMetrics metrics, Config config, AuthToken authToken )
+    {
+        this( loadConnectors( metrics, config ), metrics, Clock.SYSTEM, config, authToken );
     }
 
     public InternalConnectionPool( Collection<Connector> conns, Clock clock, Config config,
             AuthToken authToken )
+    {
+        this( conns, new InternalMetrics( config ), clock, config, authToken );
+    }
+
+    public InternalConnectionPool( Collection<Connector> conns, InternalMetrics metrics, Clock clock, Config config,
+            AuthToken authToken )
     {
         this.authToken = authToken;
         this.config = config;
         this.clock = clock;
+        this.metrics = metrics;
         for ( Connector connector : conns )
         {
             for ( String s : connector.supportedSchemes() )
@@ -90,6 +133,21 @@ public class InternalConnectionPool implements ConnectionPool
                 this.connectors.put( s, connector );
             }
         }
+        this.maintenance = startMaintenance();
+    }
+
+    private ScheduledExecutorService startMaintenance()
+    {
+        long interval = config.connectionMaintenanceInterval();
+        if ( interval <= 0 )
+        {
+            return null;
+        }
+        ScheduledExecutorService executor =
+                Executors.newSingleThreadScheduledExecutor( daemonThreads( "neo4j-driver-connection-maintenance" ) );
+        executor.scheduleWithFixedDelay( new IdleConnectionMaintenance( pools.values(), stopped, config ),
+                interval, interval, TimeUnit.MILLISECONDS );
+        return executor;
     }
 
     @Override
@@ -99,30 +157,230 @@ public class InternalConnectionPool implements ConnectionPool
         {
             throw new IllegalStateException( "Pool has been closed, cannot acquire new values." );
         }
-        BlockingQueue<PooledConnection> connections = pool( sessionURI );
-        PooledConnection conn = connections.poll();
-        if ( conn == null )
+        long start = System.nanoTime();
+        InternalConnectionPoolMetrics poolMetrics = metrics.connectionPool( sessionURI );
+        BlockingPooledConnectionQueue connections = pool( sessionURI );
+        reserve( connections, sessionURI, poolMetrics );
+        try
+        {
+            PooledConnection conn = connections.poll();
+            if ( conn == null )
+            {
+                Connector connector = connectors.get( sessionURI.getScheme() );
+                if ( connector == null )
+                {
+                    throw new ClientException(
+                            format( "Unsupported URI scheme: '%s' in url: '%s'. Supported transports are: '%s'.",
+                                    sessionURI.getScheme(), sessionURI, connectorSchemes() ) );
+                }
+                conn = new PooledConnection( connect( connector, connections.circuitBreaker(), sessionURI ),
+                        releaseConsumer( connections, poolMetrics ), clock );
+            }
+            conn.updateUsageTimestamp();
+            poolMetrics.connectionAcquired( System.nanoTime() - start );
+            return conn;
+        }
+        catch ( RuntimeException e )
+        {
+            connections.unreserve();
+            throw e;
+        }
+    }
+
+    private Connection connect( Connector connector, CircuitBreaker circuitBreaker, URI sessionURI )
+    {
+        long attempt = circuitBreaker.startAttempt();
+        if ( attempt == CircuitBreaker.REJECTED )
+        {
+            long retryIn = circuitBreaker.retryIn();
+            throw new ServiceUnavailableException( format(
+                    "Unable to connect to '%s', as recent attempts to connect to it have failed. %s",
+                    sessionURI, retryIn == CircuitBreaker.PROBING ? "A trial connection to it is in progress."
+                                                                  : format( "Retrying in %d ms.", retryIn ) ) );
+        }
+        boolean reachable = false;
+        try
+        {
+            Connection connection = connector.connect( sessionURI, config, authToken );
+            reachable = true;
+            return connection;
+        }
+        catch ( RuntimeException e )
+        {
+            // The database replied, it is only the connection that was refused, e.g. for bad credentials
+            reachable = !isConnectivityFailure( e );
+            throw e;
+        }
+        finally
         {
-            Connector connector = connectors.get( sessionURI.getScheme() );
-            if ( connector == null )
+            // Anything else that ends the attempt, errors included, is a failure, so a probe always ends
+            if ( reachable )
             {
-                throw new ClientException(
-                        format( "Unsupported URI scheme: '%s' in url: '%s'. Supported transports are: '%s'.",
-                                sessionURI.getScheme(), sessionURI, connectorSchemes() ) );
+                circuitBreaker.onSuccess( attempt );
+            }
+            else
+            {
+                circuitBreaker.onFailure( attempt );
+            }
+        }
+    }
+
+    private static boolean isConnectivityFailure( RuntimeException e )
+    {
+        // Errors reported by the database carry a status code, errors raised by the driver itself do not
+        return !(e instanceof Neo4jException) || "N/A".equals( ((Neo4jException) e).neo4jErrorCode() );
+    }
+
+    private void reserve( BlockingPooledConnectionQueue connections, URI sessionURI,
+            InternalConnectionPoolMetrics poolMetrics )
+    {
+        long timeout = config.connectionAcquisitionTimeout();
+        try
+        {
+            if ( !connections.reserve( timeout ) )
+            {
+                poolMetrics.acquisitionTimedOut();
+                throw new ConnectionAcquisitionTimeoutException( format(
+                        "Unable to acquire a connection to '%s' within %d ms, all %d connections are in use. " +
+                        "Ensure that sessions are closed when they are no longer needed, or configure a larger " +
+                        "connection pool.", sessionURI, timeout, connections.maxSize() ) );
             }
-            conn = new PooledConnection(connector.connect( sessionURI, config, authToken ), new
-                    PooledConnectionReleaseConsumer( connections, stopped, config ), clock);
         }
-        conn.updateUsageTimestamp();
-        return conn;
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new ClientException( "Interrupted while waiting for a connection to '" + sessionURI + "'.", e );
+        }
+    }
+
+    /**
+     * Returns the connection to the idle queue, or disposes of it, and only then gives back the room it took up in
+     * the pool.
+     */
+    private Consumer<PooledConnection> releaseConsumer( final BlockingPooledConnectionQueue connections,
+            final InternalConnectionPoolMetrics poolMetrics )
+    {
+        final PooledConnectionReleaseConsumer release =
+                new PooledConnectionReleaseConsumer( connections.idle(), stopped );
+        return new Consumer<PooledConnection>()
+        {
+            @Override
+            public void accept( PooledConnection connection )
+            {
+                try
+                {
+                    release.accept( connection );
+                }
+                finally
+                {
+                    poolMetrics.connectionReleased();
+                    connections.unreserve();
+                }
+            }
+        };
     }
 
-    private BlockingQueue<PooledConnection> pool( URI sessionURI )
+    /**
+     * Open the given number of connections to the given URL in parallel, and leave them idle in the pool. Fails if
+     * any of the connections cannot be established. No more connections are opened than the pool keeps idle.
+     * @param sessionURI the URL to connect to
+     * @param count the number of connections to open, at most {@link Config#maxIdleConnectionPoolSize()}
+     */
+    public void warmUp( final URI sessionURI, int count )
     {
-        BlockingQueue<PooledConnection> pool = pools.get( sessionURI );
+        count = Math.min( count, config.maxIdleConnectionPoolSize() );
+        if ( count <= 0 )
+        {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( count, daemonThreads( "neo4j-driver-warm-up" ) );
+        List<Future<Connection>> connecting = new ArrayList<>( count );
+        try
+        {
+            for ( int i = 0; i < count; i++ )
+            {
+                connecting.add( executor.submit( new Callable<Connection>()
+                {
+                    @Override
+                    public Connection call() throws Exception
+                    {
+                        return acquire( sessionURI );
+                    }
+                } ) );
+            }
+
+            // Hold on to every connection until all are established, so that none of them is reused by another
+            RuntimeException error = null;
+            List<Connection> established = new ArrayList<>( count );
+            for ( Future<Connection> connection : connecting )
+            {
+                try
+                {
+                    established.add( connection.get() );
+                }
+                catch ( ExecutionException e )
+                {
+                    if ( error == null )
+                    {
+                        error = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                                : new ClientException( "Unable to warm up connection pool.", e.getCause() );
+                    }
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                    error = new ClientException( "Interrupted while warming up connection pool.", e );
+                    break;
+                }
+            }
+            for ( Connection connection : established )
+            {
+                connection.close();
+            }
+            if ( error != null )
+            {
+                throw error;
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreads( final String name )
+    {
+        return new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, name );
+                thread.setDaemon( true );
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * @param sessionURI the URL of a database instance
+     * @return false while connecting to the instance has failed too often to be tried, see {@link CircuitBreaker}
+     */
+    public boolean isReachable( URI sessionURI )
+    {
+        BlockingPooledConnectionQueue pool = pools.get( sessionURI );
+        return pool == null || !pool.circuitBreaker().rejectsConnections();
+    }
+
+    private BlockingPooledConnectionQueue pool( URI sessionURI )
+    {
+        BlockingPooledConnectionQueue pool = pools.get( sessionURI );
         if ( pool == null )
         {
-            pool = new LinkedBlockingQueue<>(config.maxIdleConnectionPoolSize());
+            CircuitBreaker circuitBreaker = new CircuitBreaker( config.circuitBreakerFailureThreshold(),
+                    config.circuitBreakerInitialBackoff(), config.circuitBreakerMaxBackoff(), clock );
+            pool = new BlockingPooledConnectionQueue(
+                    config.maxIdleConnectionPoolSize(), config.maxConnectionPoolSize(), circuitBreaker );
             if ( pools.putIfAbsent( sessionURI, pool ) != null )
             {
                 // We lost a race to create the pool, dispose of the one we created, and recurse
@@ -132,23 +390,58 @@ public class InternalConnectionPool implements ConnectionPool
         return pool;
     }
 
-    private static Collection<Connector> loadConnectors()
+    private static Collection<Connector> loadConnectors( InternalMetrics metrics, Config config )
     {
         List<Connector> connectors = new LinkedList<>();
 
-        // Hard code socket connector
-        Connector conn = new SocketConnector();
-        connectors.add( conn );
+        // Hard code socket connector, recording into the metrics of this driver.
+        // Its connections share one pool of I/O buffers.
+        ByteBufferPool buffers = new ByteBufferPool();
+        Connector builtIn = new SocketConnector( metrics, buffers );
+        connectors.add( builtIn );
 
-        // Load custom loadConnectors via JSL
+        // Load custom loadConnectors via JSL, each overriding the ones before it for the schemes it supports.
+        // Where the built-in connector itself is registered, it keeps its place but records into our metrics.
         ServiceLoader<Connector> load = ServiceLoader.load( Connector.class );
         for ( Connector connector : load )
         {
-            connectors.add( connector );
+            connectors.add( connector.getClass() == SocketConnector.class ? builtIn : connector );
+        }
+
+        // Only start I/O threads if the built-in connector still serves its scheme once every connector is loaded
+        if ( config.eventLoopThreads() > 0 && lastSupporting( connectors, SocketConnector.SCHEME ) == builtIn )
+        {
+            Logger log = config.logging().getLog( "io" );
+            if ( config.encryptionLevel() != Config.EncryptionLevel.NONE )
+            {
+                log.warn( "Event loop threads only drive unencrypted connections, encrypted connections will use " +
+                          "blocking I/O. Set the encryption level to NONE to use the event loop threads." );
+            }
+            Connector nio = new NioConnector( metrics, buffers, config.eventLoopThreads(), log );
+            Collections.replaceAll( connectors, builtIn, nio );
         }
         return connectors;
     }
 
+    private static Connector lastSupporting( List<Connector> connectors, String scheme )
+    {
+        Connector last = null;
+        for ( Connector connector : connectors )
+        {
+            if ( connector.supportedSchemes().contains( scheme ) )
+            {
+                last = connector;
+            }
+        }
+        return last;
+    }
+
+    @Override
+    public Metrics metrics()
+    {
+        return metrics;
+    }
+
     @Override
     public void close() throws Neo4jException
     {
@@ -158,8 +451,14 @@ public class InternalConnectionPool implements ConnectionPool
             return;
         }
 
-        for ( BlockingQueue<PooledConnection> pool : pools.values() )
+        if ( maintenance != null )
+        {
+            maintenance.shutdownNow();
+        }
+
+        for ( BlockingPooledConnectionQueue connections : pools.values() )
         {
+            Queue<PooledConnection> pool = connections.idle();
             while ( !pool.isEmpty() )
             {
                 PooledConnection conn = pool.poll();
@@ -172,6 +471,28 @@ public class InternalConnectionPool implements ConnectionPool
         }
 
         pools.clear();
+        closeConnectors();
+        metrics.close();
+    }
+
+    private void closeConnectors()
+    {
+        // A connector is registered once for each of its schemes, close it only once
+        Set<Connector> closed = Collections.newSetFromMap( new IdentityHashMap<Connector,Boolean>() );
+        for ( Connector connector : connectors.values() )
+        {
+            if ( connector instanceof AutoCloseable && closed.add( connector ) )
+            {
+                try
+                {
+                    ((AutoCloseable) connector).close();
+                }
+                catch ( Exception e )
+                {
+                    // best effort, the driver is going away
+                }
+            }
+        }
     }
 
     private String connectorSchemes()
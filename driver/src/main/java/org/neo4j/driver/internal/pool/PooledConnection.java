@@ -19,12 +19,15 @@
 package org.neo4j.driver.internal.pool;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.internal.util.Consumer;
 import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.exceptions.Neo4jException;
 
@@ -49,6 +52,9 @@ import static java.lang.String.format;
  *                    ---- Available <-----                     |
  *                              |           pool.close          |
  *                              ---------------------------------
+ *
+ * The move from Available to Claimed is an atomic {@link #claim()}, as a connection can be found by more than one
+ * acquiring thread at once, see {@link IdleConnectionStack}.
  */
 public class PooledConnection implements Connection
 {
@@ -56,10 +62,30 @@ public class PooledConnection implements Connection
     private final Connection delegate;
     private final Consumer<PooledConnection> release;
 
-    private boolean unrecoverableErrorsOccurred = false;
-    private Runnable onError = null;
+    // Volatile, as the listeners of syncAsync run on I/O threads, while the pool may look at the connection from
+    // whichever thread releases it
+    private volatile boolean unrecoverableErrorsOccurred = false;
+    /**
+     * Whether a failure reported to a listener of syncAsync still has to be acknowledged. The listener runs on an I/O
+     * thread, which must not queue anything on the delegate, so the thread using the connection acknowledges the
+     * failure before it next sends anything.
+     */
+    private volatile boolean failureToAcknowledge = false;
+
+    /** Whether a transaction has been begun and not yet committed or rolled back */
+    private volatile boolean inTransaction = false;
+
+    /** Whether the connection is Available, i.e. idle in the pool and free to be claimed */
+    private final AtomicBoolean idle = new AtomicBoolean( false );
+    /** Whether the connection is on the shared stack of its {@link IdleConnectionStack} */
+    private final AtomicBoolean stacked = new AtomicBoolean( false );
+    /** The thread-local slot of the thread that released the connection last, see {@link IdleConnectionStack} */
+    private volatile AtomicReference<PooledConnection> releasedTo;
+
+    private volatile Runnable onError = null;
     private final Clock clock;
-    private long lastUsed;
+    /** When the connection was last acquired, released or tested; read by the maintenance thread */
+    private volatile long lastUsed;
 
     public PooledConnection( Connection delegate, Consumer<PooledConnection> release, Clock clock )
     {
@@ -91,6 +117,8 @@ public class PooledConnection implements Connection
     public void run( String statement, Map<String,Value> parameters,
             StreamCollector collector )
     {
+        acknowledgeReportedFailure();
+        trackTransaction( statement );
         try
         {
             delegate.run( statement, parameters, collector );
@@ -102,11 +130,12 @@ public class PooledConnection implements Connection
     }
 
     @Override
-    public void discardAll()
+    public void discardAll( StreamCollector collector )
     {
+        acknowledgeReportedFailure();
         try
         {
-            delegate.discardAll();
+            delegate.discardAll( collector );
         }
         catch( RuntimeException e )
         {
@@ -117,6 +146,7 @@ public class PooledConnection implements Connection
     @Override
     public void pullAll( StreamCollector collector )
     {
+        acknowledgeReportedFailure();
         try
         {
             delegate.pullAll( collector );
@@ -130,6 +160,9 @@ public class PooledConnection implements Connection
     @Override
     public void reset()
     {
+        // RESET acknowledges any failure as well
+        failureToAcknowledge = false;
+        inTransaction = false;
         try
         {
             delegate.reset();
@@ -143,6 +176,7 @@ public class PooledConnection implements Connection
     @Override
     public void ackFailure()
     {
+        failureToAcknowledge = false;
         try
         {
             delegate.ackFailure();
@@ -156,6 +190,7 @@ public class PooledConnection implements Connection
     @Override
     public void sync()
     {
+        acknowledgeReportedFailure();
         try
         {
             delegate.sync();
@@ -166,9 +201,39 @@ public class PooledConnection implements Connection
         }
     }
 
+    @Override
+    public void syncAsync( final ResponseListener<Void> listener )
+    {
+        acknowledgeReportedFailure();
+        try
+        {
+            delegate.syncAsync( new ResponseListener<Void>()
+            {
+                @Override
+                public void onSuccess( Void result )
+                {
+                    listener.onSuccess( result );
+                }
+
+                @Override
+                public void onFailure( Neo4jException error )
+                {
+                    // On the I/O thread, leave acknowledging the failure to the thread using the connection
+                    RuntimeException failure = recordFailure( error, false );
+                    listener.onFailure( failure instanceof Neo4jException ? (Neo4jException) failure : error );
+                }
+            } );
+        }
+        catch ( RuntimeException e )
+        {
+            onDelegateException( e );
+        }
+    }
+
     @Override
     public void flush()
     {
+        acknowledgeReportedFailure();
         try
         {
             delegate.flush();
@@ -199,6 +264,8 @@ public class PooledConnection implements Connection
      */
     public void close()
     {
+        // The error handler belongs to the session that borrowed the connection, the next one installs its own
+        onError( null );
         release.accept( this );
         // put the full logic of deciding whether to dispose the connection or to put it back to
         // the pool into the release object
@@ -210,13 +277,105 @@ public class PooledConnection implements Connection
         return delegate.isOpen();
     }
 
+    @Override
+    public int collectorsWaiting()
+    {
+        return delegate.collectorsWaiting();
+    }
+
     public boolean hasUnrecoverableErrors()
     {
         return unrecoverableErrorsOccurred;
     }
 
+    /**
+     * A connection is clean when it can be handed to another session as it is: no response to anything queued on
+     * it is still outstanding, no failure is waiting to be acknowledged and no transaction is open. Reading or
+     * flushing does not make a connection dirty; only what is still waiting for an answer does. Anything else needs
+     * a RESET first.
+     * @return true if the connection does not need to be reset before it is reused
+     */
+    public boolean isClean()
+    {
+        return !inTransaction && !failureToAcknowledge && delegate.collectorsWaiting() == 0;
+    }
+
+    private void trackTransaction( String statement )
+    {
+        switch ( statement )
+        {
+        case "BEGIN":
+            inTransaction = true;
+            break;
+        case "COMMIT":
+        case "ROLLBACK":
+            inTransaction = false;
+            break;
+        default:
+            break;
+        }
+    }
+
+    void markIdle()
+    {
+        idle.set( true );
+    }
+
+    boolean isIdle()
+    {
+        return idle.get();
+    }
+
+    /**
+     * Take an idle connection out of the pool.
+     * @return true if this thread claimed the connection, false if it was not idle or another thread claimed it first
+     */
+    boolean claim()
+    {
+        return idle.compareAndSet( true, false );
+    }
+
+    boolean markStacked()
+    {
+        return stacked.compareAndSet( false, true );
+    }
+
+    void markUnstacked()
+    {
+        stacked.set( false );
+    }
+
+    /**
+     * Remember the connection in the slot of the releasing thread, and leave the slot of the thread that released
+     * it before, so only one thread keeps it reachable.
+     */
+    void releasedTo( AtomicReference<PooledConnection> slot )
+    {
+        AtomicReference<PooledConnection> previous = releasedTo;
+        if ( previous != slot )
+        {
+            if ( previous != null )
+            {
+                previous.compareAndSet( this, null );
+            }
+            releasedTo = slot;
+        }
+        slot.set( this );
+    }
+
+    void forgetReleasedTo()
+    {
+        AtomicReference<PooledConnection> slot = releasedTo;
+        if ( slot != null )
+        {
+            releasedTo = null;
+            slot.compareAndSet( this, null );
+        }
+    }
+
     public void dispose()
     {
+        forgetReleasedTo();
         delegate.close();
     }
 
@@ -227,6 +386,17 @@ public class PooledConnection implements Connection
      * @param e the exception the delegate threw
      */
     private void onDelegateException( RuntimeException e )
+    {
+        throw recordFailure( e, true );
+    }
+
+    /**
+     * @param e the exception the delegate threw or reported
+     * @param acknowledge whether to acknowledge a recoverable failure right away, false on an I/O thread, where the
+     * failure is left to be acknowledged by the thread using the connection, see {@link #failureToAcknowledge}
+     * @return the exception to pass on
+     */
+    private RuntimeException recordFailure( RuntimeException e, boolean acknowledge )
     {
         if ( isUnrecoverableErrorsOccurred( e ) )
         {
@@ -241,15 +411,32 @@ public class PooledConnection implements Connection
                         "directly to a 3.1+ core edge cluster." ), e );
             }
         }
-        else
+        else if ( acknowledge )
         {
             ackFailure();
         }
-        if( onError != null )
+        else
+        {
+            failureToAcknowledge = true;
+        }
+        Runnable handler = onError;
+        if( handler != null )
+        {
+            handler.run();
+        }
+        return e;
+    }
+
+    /**
+     * Acknowledge a failure reported on an I/O thread, before sending anything else. Called by the thread using the
+     * connection.
+     */
+    private void acknowledgeReportedFailure()
+    {
+        if ( failureToAcknowledge )
         {
-            onError.run();
+            ackFailure();
         }
-        throw e;
     }
 
     @Override
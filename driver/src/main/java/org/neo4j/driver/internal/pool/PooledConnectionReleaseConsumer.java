@@ -18,33 +18,25 @@
  */
 package org.neo4j.driver.internal.pool;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.Queue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.internal.util.Consumer;
-import org.neo4j.driver.v1.Config;
-import org.neo4j.driver.v1.Value;
 
 /**
  * The responsibility of the PooledConnectionReleaseConsumer is to release valid connections
- * back to the connections queue.
+ * back to the connections queue. Testing the liveness of idle connections is left to
+ * {@link IdleConnectionMaintenance}, so that it does not happen on the thread closing the session.
  */
 class PooledConnectionReleaseConsumer implements Consumer<PooledConnection>
 {
-    private final BlockingQueue<PooledConnection> connections;
-    private final long minIdleBeforeConnectionTest;
-    private static final Map<String,Value> NO_PARAMETERS = new HashMap<>();
+    private final Queue<PooledConnection> connections;
     private final AtomicBoolean driverStopped;
 
-    PooledConnectionReleaseConsumer( BlockingQueue<PooledConnection> connections, AtomicBoolean driverStopped,
-            Config config )
+    PooledConnectionReleaseConsumer( Queue<PooledConnection> connections, AtomicBoolean driverStopped )
     {
         this.connections = connections;
         this.driverStopped = driverStopped;
-        this.minIdleBeforeConnectionTest = config.idleTimeBeforeConnectionTest();
     }
 
     @Override
@@ -57,6 +49,8 @@ class PooledConnectionReleaseConsumer implements Consumer<PooledConnection>
         }
         else if ( validConnection( pooledConnection ) )
         {
+            // The connection is idle from now on, however long it was in use
+            pooledConnection.updateUsageTimestamp();
             boolean released = connections.offer( pooledConnection );
             if( !released )
             {
@@ -90,37 +84,24 @@ class PooledConnectionReleaseConsumer implements Consumer<PooledConnection>
         // once the pooledConn has marked to have unrecoverable errors, there is no way to remove the error
         // and we should close the conn without bothering to reset the conn at all
         return !pooledConnection.hasUnrecoverableErrors() &&
-               reset(pooledConnection) &&
-               (pooledConnection.idleTime() <= minIdleBeforeConnectionTest || ping( pooledConnection ));
+               ( pooledConnection.isClean() || reset( pooledConnection ) );
     }
 
     /**
      *  In case this session has an open result or transaction or something,
-     *  make sure it's reset to a nice state before we reuse it.
+     *  make sure it's reset to a nice state before we reuse it. The reset is sent right away, so the server lets go of
+     *  the transaction or result without waiting for the connection to be used again, but its reply is left to be
+     *  read by the next user of the connection, or by {@link IdleConnectionMaintenance}, so releasing does not wait
+     *  for a round trip.
      * @param conn the PooledConnection
-     * @return true if the connection is reset successfully without any error, otherwise false.
+     * @return true if the reset is sent without any error, otherwise false.
      */
     private boolean reset( PooledConnection conn )
     {
         try
         {
             conn.reset();
-            conn.sync();
-            return true;
-        }
-        catch ( Throwable e )
-        {
-            return false;
-        }
-    }
-
-    private boolean ping( PooledConnection conn )
-    {
-        try
-        {
-            conn.run( "RETURN 1 // JavaDriver poll to test connection", NO_PARAMETERS, StreamCollector.NO_OP );
-            conn.pullAll( StreamCollector.NO_OP );
-            conn.sync();
+            conn.flush();
             return true;
         }
         catch ( Throwable e )
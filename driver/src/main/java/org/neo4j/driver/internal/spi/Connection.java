@@ -21,6 +21,7 @@ package org.neo4j.driver.internal.spi;
 import java.util.Map;
 
 import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
 
 /**
  * A connection is an abstraction provided by an underlying transport implementation,
@@ -43,10 +44,11 @@ public interface Connection extends AutoCloseable
     void run( String statement, Map<String,Value> parameters, StreamCollector collector );
 
     /**
-     * Queue a discard all action, consuming any items left in the current stream.This will
-     * close the stream once its completed, allowing another {@link #run(String, java.util.Map, StreamCollector) run}
+     * Queue a discard all action, consuming any items left in the current stream without sending them. The collector
+     * is handed the summary of the stream, but no records. This will close the stream once its completed, allowing
+     * another {@link #run(String, java.util.Map, StreamCollector) run}
      */
-    void discardAll();
+    void discardAll( StreamCollector collector );
 
     /**
      * Queue a pull-all action, output will be handed to the collector once the pull starts. This will
@@ -56,7 +58,9 @@ public interface Connection extends AutoCloseable
 
     /**
      * Queue a reset action, throw {@link org.neo4j.driver.v1.exceptions.ClientException} if an ignored message is received. This will
-     * close the stream once its completed, allowing another {@link #run(String, java.util.Map, StreamCollector) run}
+     * close the stream once its completed, allowing another {@link #run(String, java.util.Map, StreamCollector) run}.
+     * Responses to actions queued before the reset, including failures, are discarded rather than handed to their
+     * collectors.
      */
     void reset();
 
@@ -72,6 +76,18 @@ public interface Connection extends AutoCloseable
      */
     void sync();
 
+    /**
+     * Carry out all outstanding actions as {@link #sync()} does, but without waiting for the responses. These are
+     * handed to their collectors as they arrive, possibly on another thread, after which the listener is told of the
+     * first failure among them, if any, as {@link #sync()} would have thrown it. Nothing else may be done with the
+     * connection until the listener has been told.
+     * <p>
+     * Connections that cannot receive without blocking carry out a {@link #sync()} and tell the listener before
+     * returning.
+     * @param listener told once all outstanding responses have been received
+     */
+    void syncAsync( ResponseListener<Void> listener );
+
     /**
      * Send all pending messages to the server and return the number of messages sent.
      */
@@ -82,6 +98,13 @@ public interface Connection extends AutoCloseable
      */
     void receiveOne();
 
+    /**
+     * The number of collectors still waiting for responses to messages queued on this connection,
+     * whether those messages have been sent yet or not.
+     * @return zero when nothing is outstanding on this connection
+     */
+    int collectorsWaiting();
+
     @Override
     void close();
 
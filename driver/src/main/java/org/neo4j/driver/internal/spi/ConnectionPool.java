@@ -21,6 +21,8 @@ package org.neo4j.driver.internal.spi;
 
 import java.net.URI;
 
+import org.neo4j.driver.v1.metrics.Metrics;
+
 public interface ConnectionPool extends AutoCloseable
 {
     /**
@@ -28,4 +30,9 @@ public interface ConnectionPool extends AutoCloseable
      * is created with an applicable {@link Connector}.
      */
     Connection acquire( URI sessionURI );
+
+    /**
+     * @return the metrics of the connections in this pool
+     */
+    Metrics metrics();
 }
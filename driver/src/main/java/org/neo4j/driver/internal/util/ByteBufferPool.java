@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of direct byte buffers, shared by all connections of a driver. Channels read into and write from direct
+ * buffers without the JDK copying through a temporary direct buffer of its own, but direct buffers are costly to
+ * allocate and are only freed by the garbage collector, so they are recycled here rather than allocated per
+ * connection.
+ * <p>
+ * Buffers come in size classes, powers of two from {@value #MIN_CAPACITY} to {@value #MAX_CAPACITY} bytes. Requests
+ * for more than the largest class get a heap buffer that is not pooled. Each class keeps up to
+ * {@value #RETAINED_BYTES_PER_CLASS} bytes worth of released buffers, further buffers are left to the garbage
+ * collector.
+ */
+public class ByteBufferPool
+{
+    public static final int MIN_CAPACITY = 1024;
+    public static final int MAX_CAPACITY = 64 * 1024;
+    private static final int RETAINED_BYTES_PER_CLASS = 1024 * 1024;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros( MIN_CAPACITY );
+    private static final int CLASSES = Integer.numberOfTrailingZeros( MAX_CAPACITY ) - MIN_SHIFT + 1;
+
+    private final Queue<ByteBuffer>[] free;
+    private final AtomicInteger[] freeCount;
+
+    @SuppressWarnings( "unchecked" )
+    public ByteBufferPool()
+    {
+        free = new Queue[CLASSES];
+        freeCount = new AtomicInteger[CLASSES];
+        for ( int i = 0; i < CLASSES; i++ )
+        {
+            free[i] = new ConcurrentLinkedQueue<>();
+            freeCount[i] = new AtomicInteger();
+        }
+    }
+
+    /**
+     * @param capacity the least capacity needed
+     * @return a cleared, big-endian buffer of at least the given capacity, the capacity of its size class
+     */
+    public ByteBuffer acquire( int capacity )
+    {
+        if ( capacity > MAX_CAPACITY )
+        {
+            return ByteBuffer.allocate( capacity ).order( ByteOrder.BIG_ENDIAN );
+        }
+        int sizeClass = sizeClassOf( capacity );
+        ByteBuffer buffer = free[sizeClass].poll();
+        if ( buffer == null )
+        {
+            buffer = ByteBuffer.allocateDirect( MIN_CAPACITY << sizeClass );
+        }
+        else
+        {
+            freeCount[sizeClass].decrementAndGet();
+            buffer.clear();
+        }
+        return buffer.order( ByteOrder.BIG_ENDIAN );
+    }
+
+    /**
+     * Give a buffer back for reuse. The buffer must not be used afterwards. Buffers that did not come from
+     * {@link #acquire(int)} are ignored.
+     */
+    public void release( ByteBuffer buffer )
+    {
+        if ( buffer == null || !buffer.isDirect() || Integer.bitCount( buffer.capacity() ) != 1 ||
+             buffer.capacity() < MIN_CAPACITY || buffer.capacity() > MAX_CAPACITY )
+        {
+            return;
+        }
+        int sizeClass = sizeClassOf( buffer.capacity() );
+        if ( freeCount[sizeClass].incrementAndGet() * buffer.capacity() <= RETAINED_BYTES_PER_CLASS )
+        {
+            free[sizeClass].offer( buffer );
+        }
+        else
+        {
+            freeCount[sizeClass].decrementAndGet();
+        }
+    }
+
+    /**
+     * @return how many released buffers of the given capacity are waiting to be reused
+     */
+    public int available( int capacity )
+    {
+        return capacity > MAX_CAPACITY ? 0 : freeCount[sizeClassOf( capacity )].get();
+    }
+
+    private static int sizeClassOf( int capacity )
+    {
+        if ( capacity <= MIN_CAPACITY )
+        {
+            return 0;
+        }
+        // Round up to the next power of two
+        return 32 - Integer.numberOfLeadingZeros( capacity - 1 ) - MIN_SHIFT;
+    }
+}
@@ -19,9 +19,12 @@
 package org.neo4j.driver.v1;
 
 import java.io.File;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import org.neo4j.driver.internal.logging.JULogging;
+import org.neo4j.driver.v1.metrics.MetricsProvider;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Immutable;
 
 import static java.lang.System.getProperty;
@@ -52,9 +55,78 @@ public class Config
 
     private final int maxIdleConnectionPoolSize;
 
-    /** Connections that have been idle longer than this threshold will have a ping test performed on them. */
+    /** The number of idle connections per database url that are never closed for being idle too long */
+    private final int minIdleConnectionPoolSize;
+
+    /** Whether to open the min number of idle connections when the driver is created */
+    private final boolean connectionPoolWarmUp;
+
+    /** Idle connections beyond the minimum are closed once they have been idle longer than this */
+    private final long idleConnectionTimeout;
+
+    /** How often idle connections are tested and reaped in the background */
+    private final long connectionMaintenanceInterval;
+
+    /** How long to wait for a connection to become available when the connection pool is exhausted */
+    private final long connectionAcquisitionTimeout;
+
+    /** Idle connections that have been unused longer than this threshold will have a ping test performed on them. */
     private final long idleTimeBeforeConnectionTest;
 
+    /** The number of failures to connect in a row after which the driver stops trying to connect for a while */
+    private final int circuitBreakerFailureThreshold;
+
+    /** How long the driver first stops trying to connect for */
+    private final long circuitBreakerInitialBackoff;
+
+    /** The longest the driver stops trying to connect for */
+    private final long circuitBreakerMaxBackoff;
+
+    /** How long to wait for a network connection to be established */
+    private final long connectionTimeout;
+
+    /** How long a read from the network may block */
+    private final long socketReadTimeout;
+
+    /** How long receiving the results of a statement may take */
+    private final long statementTimeout;
+
+    /** Whether Nagle's algorithm is disabled on the network connections */
+    private final boolean tcpNoDelay;
+
+    /** The size of the socket send buffer, or zero for the OS default */
+    private final int socketSendBufferSize;
+
+    /** The size of the socket receive buffer, or zero for the OS default */
+    private final int socketReceiveBufferSize;
+
+    /** The size of the buffer responses are read into, or zero to adapt it to the traffic */
+    private final int readBufferSize;
+
+    /** Whether connection pool metrics are exported as JMX MBeans */
+    private final boolean jmxMetrics;
+
+    /** How many I/O threads drive the network connections, or zero for blocking I/O on the calling thread */
+    private final int eventLoopThreads;
+
+    /** How many statements of a batch may await their replies */
+    private final int maxStatementsInFlight;
+
+    /** How many statements may be queued before they are sent, or zero or one to send each one right away */
+    private final int maxDeferredStatements;
+
+    /**
+     * How long, in milliseconds, queued statements may wait before they are sent, or zero for no limit. Only checked
+     * when the next statement is queued.
+     */
+    private final long maxFlushDelay;
+
+    /** How many bytes records that results hold on to may take up in memory in all, or zero for no limit */
+    private final long recordBufferMemory;
+
+    /** Whether closing a session stops the results it has not received yet, rather than receiving them */
+    private final boolean cancelResultsOnClose;
+
     /** Level of encryption we need to adhere to */
     private final EncryptionLevel encryptionLevel;
 
@@ -67,7 +139,29 @@ public class Config
 
         this.connectionPoolSize = builder.connectionPoolSize;
         this.maxIdleConnectionPoolSize = builder.maxIdleConnectionPoolSize;
+        this.connectionAcquisitionTimeout = builder.connectionAcquisitionTimeout;
+        this.minIdleConnectionPoolSize = builder.minIdleConnectionPoolSize;
+        this.connectionPoolWarmUp = builder.connectionPoolWarmUp;
+        this.idleConnectionTimeout = builder.idleConnectionTimeout;
+        this.connectionMaintenanceInterval = builder.connectionMaintenanceInterval;
         this.idleTimeBeforeConnectionTest = builder.idleTimeBeforeConnectionTest;
+        this.circuitBreakerFailureThreshold = builder.circuitBreakerFailureThreshold;
+        this.circuitBreakerInitialBackoff = builder.circuitBreakerInitialBackoff;
+        this.circuitBreakerMaxBackoff = builder.circuitBreakerMaxBackoff;
+        this.connectionTimeout = builder.connectionTimeout;
+        this.socketReadTimeout = builder.socketReadTimeout;
+        this.statementTimeout = builder.statementTimeout;
+        this.tcpNoDelay = builder.tcpNoDelay;
+        this.socketSendBufferSize = builder.socketSendBufferSize;
+        this.socketReceiveBufferSize = builder.socketReceiveBufferSize;
+        this.readBufferSize = builder.readBufferSize;
+        this.jmxMetrics = builder.jmxMetrics;
+        this.eventLoopThreads = builder.eventLoopThreads;
+        this.maxStatementsInFlight = builder.maxStatementsInFlight;
+        this.maxDeferredStatements = builder.maxDeferredStatements;
+        this.maxFlushDelay = builder.maxFlushDelay;
+        this.recordBufferMemory = builder.recordBufferMemory;
+        this.cancelResultsOnClose = builder.cancelResultsOnClose;
 
         this.encryptionLevel = builder.encruptionLevel;
         this.trustStrategy = builder.trustStrategy;
@@ -102,8 +196,67 @@ public class Config
     }
 
     /**
-     * Pooled connections that have been unused for longer than this timeout will be tested before they are
-     * used again, to ensure they are still live.
+     * Number of idle connections per URL that the driver keeps open, however long they have been idle.
+     * @return the min number of idle connections
+     */
+    public int minIdleConnectionPoolSize()
+    {
+        return minIdleConnectionPoolSize;
+    }
+
+    /**
+     * Whether the driver opens {@link #minIdleConnectionPoolSize()} connections when it is created, so that the first
+     * sessions do not pay for establishing them.
+     * @return true if the connection pool is warmed up when the driver is created
+     */
+    public boolean connectionPoolWarmUp()
+    {
+        return connectionPoolWarmUp;
+    }
+
+    /**
+     * Idle pooled connections beyond the {@link #minIdleConnectionPoolSize() minimum} are closed once they have been
+     * unused for longer than this timeout.
+     * @return idle timeout in milliseconds
+     */
+    public long idleConnectionTimeout()
+    {
+        return idleConnectionTimeout;
+    }
+
+    /**
+     * How often the driver tests idle pooled connections and closes those that are broken or have been idle for too
+     * long. This happens on a background thread owned by the driver. A value of zero or less disables it.
+     * @return maintenance interval in milliseconds
+     */
+    public long connectionMaintenanceInterval()
+    {
+        return connectionMaintenanceInterval;
+    }
+
+    /**
+     * Max number of connections, both idle and in use, per URL for this driver. A value of zero or less means
+     * the number of connections is not limited.
+     * @return the max number of connections
+     */
+    public int maxConnectionPoolSize()
+    {
+        return connectionPoolSize;
+    }
+
+    /**
+     * How long to wait for a connection to be released back to the pool when all connections to a URL are in use,
+     * before giving up with a {@link org.neo4j.driver.v1.exceptions.ConnectionAcquisitionTimeoutException}.
+     * @return acquisition timeout in milliseconds
+     */
+    public long connectionAcquisitionTimeout()
+    {
+        return connectionAcquisitionTimeout;
+    }
+
+    /**
+     * Idle pooled connections that have been unused for longer than this timeout will be tested by the background
+     * connection maintenance, to ensure they are still live when they are used again.
      * @return idle time in milliseconds
      */
     public long idleTimeBeforeConnectionTest()
@@ -111,6 +264,165 @@ public class Config
         return idleTimeBeforeConnectionTest;
     }
 
+    /**
+     * The number of failures to connect to a URL in a row after which the driver stops trying to connect to it, and
+     * fails to acquire sessions right away with a {@link org.neo4j.driver.v1.exceptions.ServiceUnavailableException}.
+     * After a {@link #circuitBreakerInitialBackoff() backoff}, a single connection attempt probes whether the
+     * database is back, doubling the backoff each time it is not. A value of zero or less means the driver always
+     * tries to connect.
+     * @return the number of failures in a row
+     */
+    public int circuitBreakerFailureThreshold()
+    {
+        return circuitBreakerFailureThreshold;
+    }
+
+    /**
+     * How long the driver stops trying to connect to a URL once {@link #circuitBreakerFailureThreshold()} connection
+     * attempts in a row have failed.
+     * @return the initial backoff in milliseconds
+     */
+    public long circuitBreakerInitialBackoff()
+    {
+        return circuitBreakerInitialBackoff;
+    }
+
+    /**
+     * The longest the driver stops trying to connect to a URL, however many probes have failed.
+     * @return the max backoff in milliseconds
+     */
+    public long circuitBreakerMaxBackoff()
+    {
+        return circuitBreakerMaxBackoff;
+    }
+
+    /**
+     * How long to wait for a network connection to a database to be established. A value of zero means waiting for
+     * as long as the operating system allows.
+     * @return connection timeout in milliseconds
+     */
+    public long connectionTimeout()
+    {
+        return connectionTimeout;
+    }
+
+    /**
+     * How long a single read from the network may block before the connection is considered broken. A value of
+     * zero means no timeout.
+     * @return read timeout in milliseconds
+     */
+    public long socketReadTimeout()
+    {
+        return socketReadTimeout;
+    }
+
+    /**
+     * How long receiving the results of a statement may take altogether, from when the statement is run. A value of
+     * zero means no timeout.
+     * @return statement timeout in milliseconds
+     */
+    public long statementTimeout()
+    {
+        return statementTimeout;
+    }
+
+    /**
+     * @return true if Nagle's algorithm is disabled on network connections, so that messages are sent right away
+     */
+    public boolean tcpNoDelay()
+    {
+        return tcpNoDelay;
+    }
+
+    /**
+     * @return the size of the send buffer of network connections in bytes, or zero for the operating system default
+     */
+    public int socketSendBufferSize()
+    {
+        return socketSendBufferSize;
+    }
+
+    /**
+     * @return the size of the receive buffer of network connections in bytes, or zero for the operating system
+     * default
+     */
+    public int socketReceiveBufferSize()
+    {
+        return socketReceiveBufferSize;
+    }
+
+    /**
+     * @return the size of the buffer responses are read into, in bytes, or zero if the size adapts to the traffic
+     */
+    public int readBufferSize()
+    {
+        return readBufferSize;
+    }
+
+    /**
+     * @return the number of I/O threads driving the network connections, or zero if each connection does blocking
+     * I/O on the thread using it
+     */
+    public int eventLoopThreads()
+    {
+        return eventLoopThreads;
+    }
+
+    /**
+     * @return how many statements run with {@link StatementRunner#runAll(Iterable)} may be sent before their
+     * replies are read
+     */
+    public int maxStatementsInFlight()
+    {
+        return maxStatementsInFlight;
+    }
+
+    /**
+     * @return how many statements may be queued before they are sent, where zero or one means each statement is
+     * sent as soon as it is run
+     */
+    public int maxDeferredStatements()
+    {
+        return maxDeferredStatements;
+    }
+
+    /**
+     * @return how long queued statements may wait before they are sent, in milliseconds, or zero for no limit; only
+     * checked when the next statement is queued, see {@link ConfigBuilder#withDeferredFlush(int, long, TimeUnit)}
+     */
+    public long maxFlushDelay()
+    {
+        return maxFlushDelay;
+    }
+
+    /**
+     * @return roughly how many bytes the records held by results of the driver may take up in memory, before further
+     * records are written to disk, or zero for no limit
+     */
+    public long recordBufferMemory()
+    {
+        return recordBufferMemory;
+    }
+
+    /**
+     * @return true if closing a session resets its connection, stopping results that have not been received yet and
+     * rolling back an open transaction, false if it receives them first
+     */
+    public boolean cancelResultsOnClose()
+    {
+        return cancelResultsOnClose;
+    }
+
+    /**
+     * Whether the {@link MetricsProvider#metrics() metrics} of each connection pool are registered as MBeans with the platform
+     * MBean server, under the {@code org.neo4j.driver} domain.
+     * @return true if metrics are exported over JMX
+     */
+    public boolean jmxMetrics()
+    {
+        return jmxMetrics;
+    }
+
     /**
      * @return the level of encryption required for all connections.
      */
@@ -152,7 +464,29 @@ public class Config
         private Logging logging = new JULogging( Level.INFO );
         private int connectionPoolSize = 50;
         private int maxIdleConnectionPoolSize = 10;
+        private long connectionAcquisitionTimeout = TimeUnit.SECONDS.toMillis( 60 );
+        private int minIdleConnectionPoolSize = 0;
+        private boolean connectionPoolWarmUp = false;
+        private long idleConnectionTimeout = TimeUnit.MINUTES.toMillis( 10 );
+        private long connectionMaintenanceInterval = TimeUnit.SECONDS.toMillis( 10 );
         private long idleTimeBeforeConnectionTest = 200;
+        private int circuitBreakerFailureThreshold = 3;
+        private long circuitBreakerInitialBackoff = TimeUnit.SECONDS.toMillis( 1 );
+        private long circuitBreakerMaxBackoff = TimeUnit.SECONDS.toMillis( 60 );
+        private long connectionTimeout = TimeUnit.SECONDS.toMillis( 5 );
+        private long socketReadTimeout = 0;
+        private long statementTimeout = 0;
+        private boolean tcpNoDelay = true;
+        private int socketSendBufferSize = 0;
+        private int socketReceiveBufferSize = 0;
+        private int readBufferSize = 0;
+        private boolean jmxMetrics = false;
+        private int eventLoopThreads = 0;
+        private int maxStatementsInFlight = 100;
+        private int maxDeferredStatements = 0;
+        private long maxFlushDelay = 0;
+        private long recordBufferMemory = 0;
+        private boolean cancelResultsOnClose = false;
         private EncryptionLevel encruptionLevel = EncryptionLevel.REQUIRED;
         private TrustStrategy trustStrategy = trustOnFirstUse(
                 new File( getProperty( "user.home" ), ".neo4j" + File.separator + "known_hosts" ) );
@@ -189,6 +523,41 @@ public class Config
             return this;
         }
 
+        /**
+         * The max number of connections, idle and in use, to keep open at once to each database URL. This bounds
+         * the number of concurrent sessions the driver can have with a single Neo4j instance.
+         *
+         * If the driver is asked to provide more sessions than this, callers wait, in the order they arrived, for
+         * another session to be closed. See {@link #withConnectionAcquisitionTimeout(long)} for how long they wait.
+         *
+         * A value of zero or less means the number of connections is not limited.
+         *
+         * @param size the max number of connections to keep open
+         * @return this builder
+         */
+        public ConfigBuilder withMaxConnectionPoolSize( int size )
+        {
+            this.connectionPoolSize = size;
+            return this;
+        }
+
+        /**
+         * How long to wait for a connection when the pool has reached its
+         * {@link #withMaxConnectionPoolSize(int) max size} and all connections are in use. When the timeout
+         * expires, acquiring a session fails with a
+         * {@link org.neo4j.driver.v1.exceptions.ConnectionAcquisitionTimeoutException}.
+         *
+         * A timeout of zero means failing immediately when the pool is exhausted.
+         *
+         * @param timeout acquisition timeout in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionAcquisitionTimeout( long timeout )
+        {
+            this.connectionAcquisitionTimeout = timeout;
+            return this;
+        }
+
         /**
          * The max number of idle sessions to keep open at once. Configure this
          * higher if you want more concurrent sessions, or lower if you want
@@ -204,11 +573,73 @@ public class Config
         }
 
         /**
-         * Pooled sessions that have been unused for longer than this timeout
-         * will be tested before they are used again, to ensure they are still live.
+         * The number of idle sessions to keep open however long they have been idle. Idle sessions beyond this
+         * number are closed once they have been idle for longer than the
+         * {@link #withIdleConnectionTimeout(long) idle connection timeout}.
          *
-         * If this option is set too low, an additional network call will be
-         * incurred when acquiring a session, which causes a performance hit.
+         * @param size the min number of idle sessions to keep open
+         * @return this builder
+         */
+        public ConfigBuilder withMinIdleSessions( int size )
+        {
+            this.minIdleConnectionPoolSize = size;
+            return this;
+        }
+
+        /**
+         * Open the {@link #withMinIdleSessions(int) min number of idle sessions} when the driver is created,
+         * rather than when they are first needed. The connections are established in parallel, and creating the
+         * driver fails if any of them cannot be established.
+         *
+         * This moves the cost of connecting, including the TLS and protocol handshakes and authentication, out of
+         * the first requests served after an application starts.
+         *
+         * Note that no more than the {@link #withMaxIdleSessions(int) max number of idle sessions} are kept open.
+         *
+         * @param warmUp whether to warm up the connection pool when the driver is created
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionPoolWarmUp( boolean warmUp )
+        {
+            this.connectionPoolWarmUp = warmUp;
+            return this;
+        }
+
+        /**
+         * Pooled sessions beyond the {@link #withMinIdleSessions(int) minimum} that have been idle for longer
+         * than this timeout are closed in the background, shrinking the pool after a burst of load.
+         *
+         * @param timeout idle timeout in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withIdleConnectionTimeout( long timeout )
+        {
+            this.idleConnectionTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * How often the driver tests idle pooled sessions and closes those that are broken or have been idle for
+         * too long. This work happens on a background thread owned by the driver, so that it does not add
+         * network round trips to opening and closing sessions.
+         *
+         * A value of zero or less disables this background maintenance.
+         *
+         * @param interval maintenance interval in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionMaintenanceInterval( long interval )
+        {
+            this.connectionMaintenanceInterval = interval;
+            return this;
+        }
+
+        /**
+         * Pooled sessions that have been idle for longer than this timeout
+         * will be tested in the background, to ensure they are still live.
+         *
+         * If this option is set too low, idle sessions are tested more often
+         * than necessary, which puts extra load on the network and the database.
          *
          * If this is set high, you may receive sessions that are no longer live,
          * which will lead to exceptions in your application. Assuming the
@@ -229,6 +660,259 @@ public class Config
             return this;
         }
 
+        /**
+         * Stop trying to connect to a database once this many attempts in a row have failed. Acquiring a session
+         * then fails right away with a {@link org.neo4j.driver.v1.exceptions.ServiceUnavailableException}, instead
+         * of every caller waiting for its own connection attempt to time out while the database is unreachable.
+         *
+         * After the {@link #withCircuitBreakerBackoff(long, long) backoff}, a single session acquisition is let
+         * through to probe the database. If it connects, the driver goes back to connecting as usual, otherwise
+         * it waits twice as long before probing again.
+         *
+         * A value of zero or less means the driver always tries to connect.
+         *
+         * @param threshold the number of failures in a row
+         * @return this builder
+         */
+        public ConfigBuilder withCircuitBreakerFailureThreshold( int threshold )
+        {
+            this.circuitBreakerFailureThreshold = threshold;
+            return this;
+        }
+
+        /**
+         * How long to stop trying to connect to a database after
+         * {@link #withCircuitBreakerFailureThreshold(int) too many failures}. The backoff doubles every time
+         * probing the database fails, up to the max backoff.
+         *
+         * @param initialBackoff the first backoff in milliseconds
+         * @param maxBackoff the longest backoff in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withCircuitBreakerBackoff( long initialBackoff, long maxBackoff )
+        {
+            this.circuitBreakerInitialBackoff = initialBackoff;
+            this.circuitBreakerMaxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * How long to wait for a network connection to a database to be established, before acquiring the session
+         * fails. Without it, an unreachable database holds up the caller for as long as the operating system keeps
+         * trying to connect, which can be minutes.
+         *
+         * A timeout of zero means waiting for as long as the operating system allows.
+         *
+         * @param timeout connection timeout in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withConnectionTimeout( long timeout )
+        {
+            this.connectionTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * How long a single read from the network may block. If the database does not send anything for this
+         * long, the connection is considered broken and closed, and the statement waiting for it fails. This
+         * guards against a hung database or a network partition stalling callers forever.
+         *
+         * Note that this also bounds how long the database may take to produce the first result of a statement,
+         * see {@link #withStatementTimeout(long)} to bound statements as a whole instead.
+         *
+         * A timeout of zero means no timeout.
+         *
+         * @param timeout read timeout in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withSocketReadTimeout( long timeout )
+        {
+            this.socketReadTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * How long receiving the results of each statement may take altogether, from when the statement is run
+         * until its last result is received. When it takes longer, the connection is closed and the statement
+         * fails, as there is no way to tell the database to stop sending the rest of the results.
+         *
+         * A timeout of zero means no timeout.
+         *
+         * @param timeout statement timeout in milliseconds
+         * @return this builder
+         */
+        public ConfigBuilder withStatementTimeout( long timeout )
+        {
+            this.statementTimeout = timeout;
+            return this;
+        }
+
+        /**
+         * Whether to disable Nagle's algorithm on network connections. The driver writes whole messages at once,
+         * so holding back small writes only delays them, which is why this is enabled by default.
+         *
+         * @param noDelay true to send small writes right away
+         * @return this builder
+         */
+        public ConfigBuilder withTcpNoDelay( boolean noDelay )
+        {
+            this.tcpNoDelay = noDelay;
+            return this;
+        }
+
+        /**
+         * The sizes of the send and receive buffers of network connections. Larger buffers help streaming large
+         * results over links with high latency. A size of zero leaves it to the operating system.
+         *
+         * @param sendBufferSize send buffer size in bytes
+         * @param receiveBufferSize receive buffer size in bytes
+         * @return this builder
+         */
+        public ConfigBuilder withSocketBufferSizes( int sendBufferSize, int receiveBufferSize )
+        {
+            this.socketSendBufferSize = sendBufferSize;
+            this.socketReceiveBufferSize = receiveBufferSize;
+            return this;
+        }
+
+        /**
+         * The size of the buffer that each connection reads responses into. By default the buffer adapts to the
+         * traffic: it grows, up to 64KB, while large results stream in, and shrinks again when only small responses
+         * follow. A fixed size suits applications that know their traffic, e.g. bulk exports that always stream large
+         * results.
+         *
+         * A size of zero, the default, lets the buffer adapt.
+         *
+         * @param size read buffer size in bytes
+         * @return this builder
+         */
+        public ConfigBuilder withReadBufferSize( int size )
+        {
+            this.readBufferSize = Math.max( size, 0 );
+            return this;
+        }
+
+        /**
+         * Export the {@link MetricsProvider#metrics() metrics} of each connection pool as MBeans, so that they can be
+         * watched with JMX tools alongside the metrics of the application. The MBeans are unregistered when the
+         * driver is closed.
+         *
+         * @param enabled whether to export metrics over JMX
+         * @return this builder
+         */
+        public ConfigBuilder withJmxMetrics( boolean enabled )
+        {
+            this.jmxMetrics = enabled;
+            return this;
+        }
+
+        /**
+         * Drive all network connections from a small number of I/O threads with non-blocking I/O, instead of each
+         * connection blocking the thread that uses it while it waits for the network. Sessions behave the same
+         * either way; with many connections open, fewer threads sit waiting on sockets.
+         *
+         * The I/O threads only drive unencrypted connections. Encrypted connections keep using blocking I/O, and as
+         * {@link EncryptionLevel#REQUIRED} is the default, the I/O threads only take effect together with
+         * {@link #withEncryptionLevel(EncryptionLevel) withEncryptionLevel( EncryptionLevel.NONE )}. The driver logs a
+         * warning when it is created with I/O threads and encryption.
+         *
+         * A value of zero, the default, disables the I/O threads.
+         *
+         * @param threads the number of I/O threads
+         * @return this builder
+         */
+        @Experimental
+        public ConfigBuilder withEventLoopThreads( int threads )
+        {
+            this.eventLoopThreads = Math.max( threads, 0 );
+            return this;
+        }
+
+        /**
+         * Limit how many of the statements run with {@link StatementRunner#runAll(Iterable)} may be sent before
+         * their replies are read. Sending more at a time saves waiting on the network, but the server holds the
+         * replies of all of them until the driver reads them, so statements that return many records call for a
+         * smaller limit.
+         *
+         * The default is 100 statements.
+         *
+         * @param statements the number of statements that may await their replies, at least 1
+         * @return this builder
+         */
+        @Experimental
+        public ConfigBuilder withMaxStatementsInFlight( int statements )
+        {
+            this.maxStatementsInFlight = Math.max( statements, 1 );
+            return this;
+        }
+
+        /**
+         * Hold back statements run in sessions and transactions, so that several of them go out to the server in
+         * one network write. By default each statement is sent as soon as it is run. With deferred sending, queued
+         * statements are sent when a result is first looked at, when a transaction is closed, or once the given
+         * number of statements are queued or the first of them has waited for the given delay.
+         *
+         * The delay is only checked when the next statement is queued. There is no timer that sends statements on
+         * its own, as a session's connection is only ever used from the thread running the session. So statements
+         * queued last, with nothing run after them, wait until a result is looked at, the transaction is closed or
+         * the session is closed, however long that takes.
+         *
+         * Statements still run in order, and their results are the same, it is only when they reach the server
+         * that changes. This suits transactions that run many small statements without looking at their results.
+         *
+         * @param maxStatements how many statements may be queued, where zero or one sends each one right away
+         * @param maxDelay how long queued statements may wait, checked when the next statement is queued, where zero
+         * means no limit
+         * @param unit the unit of the delay
+         * @return this builder
+         */
+        @Experimental
+        public ConfigBuilder withDeferredFlush( int maxStatements, long maxDelay, TimeUnit unit )
+        {
+            this.maxDeferredStatements = Math.max( maxStatements, 0 );
+            this.maxFlushDelay = unit.toMillis( Math.max( maxDelay, 0 ) );
+            return this;
+        }
+
+        /**
+         * Limit how much memory the records that results hold on to may take up, across all sessions of the driver.
+         * A result holds on to records it has received before the application asked for them, which happens when
+         * another statement is run or the session syncs before the result has been consumed. By default there is no
+         * limit, so a large result left unconsumed may take up any amount of memory.
+         *
+         * Once the limit is reached, further records are written to a temporary file in their compact binary form,
+         * and only read back when the application gets to them. The size of a record in memory is estimated, so the
+         * limit is approximate.
+         *
+         * @param bytes the memory records may take up, where zero means no limit
+         * @return this builder
+         */
+        @Experimental
+        public ConfigBuilder withRecordBufferMemory( long bytes )
+        {
+            this.recordBufferMemory = Math.max( bytes, 0 );
+            return this;
+        }
+
+        /**
+         * Have {@link Session#close()} stop the results of the session that have not been received yet, instead of
+         * receiving and throwing away all of their records. The connection is reset, which tells the server to stop
+         * producing records, and the records already on their way are skipped over without being decoded. This
+         * makes closing a session that has only looked at the start of a large result cheap.
+         *
+         * A transaction still open when the session is closed is rolled back by the reset. Results that were not
+         * received in full end early, with the records received up to then.
+         *
+         * @param cancel whether closing a session stops the results it has not received yet
+         * @return this builder
+         */
+        @Experimental
+        public ConfigBuilder withResultsCancelledOnClose( boolean cancel )
+        {
+            this.cancelResultsOnClose = cancel;
+            return this;
+        }
+
         /**
          * Configure the {@link EncryptionLevel} to use, use this to control wether the driver uses TLS encryption or not.
          * @param level the TLS level to use
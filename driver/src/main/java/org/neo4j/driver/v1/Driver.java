@@ -72,7 +72,9 @@ import org.neo4j.driver.v1.exceptions.Neo4jException;
 public interface Driver extends AutoCloseable
 {
     /**
-     * Establish a session
+     * Establish a session. The session borrows a connection from the pool of the driver only once it runs its first
+     * statement or begins a transaction, and returns it as soon as the results it is waiting for have been
+     * received, so an idle session does not hold up a connection.
      * @return a session that could be used to run {@link Session#run(String) a statement} or
      * {@link Session#beginTransaction() a transaction }.
      */
@@ -19,8 +19,11 @@
 package org.neo4j.driver.v1;
 
 import java.net.URI;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.driver.internal.InternalDriver;
+import org.neo4j.driver.internal.LoadBalancingDriver;
 
 /**
  * Creates {@link Driver drivers}, optionally letting you {@link #driver(URI, Config)} to configure them.
@@ -127,4 +130,40 @@ public class GraphDatabase
 
         return new InternalDriver( url, tokenToUse, configToUse );
     }
+
+    /**
+     * Return a driver that spreads sessions over several equivalent Neo4j instances. Each time a session borrows a
+     * connection, it uses the instance with the fewest connections in use at that moment, skipping instances the
+     * driver currently fails to connect to.
+     *
+     * @param urls the URLs to the Neo4j instances
+     * @param authToken authentication to use, see {@link AuthTokens}
+     * @param config user defined configuration
+     * @return a new driver to the database instances specified by the URLs
+     */
+    public static RoutingDriver driver( List<URI> urls, AuthToken authToken, Config config )
+    {
+        return driver( urls, Collections.<URI>emptyList(), authToken, config );
+    }
+
+    /**
+     * Return a driver that spreads sessions over several Neo4j instances, with separate instances serving
+     * {@link AccessMode#WRITE writes} and {@link AccessMode#READ reads}, e.g. a master and its read replicas. Each
+     * time a session borrows a connection, it uses the instance with the fewest connections in use at that moment,
+     * among those serving its access mode, skipping instances the driver currently fails to connect to.
+     *
+     * @param writers the URLs to the Neo4j instances serving writes
+     * @param readers the URLs to the Neo4j instances serving reads, or an empty list to read from the writers
+     * @param authToken authentication to use, see {@link AuthTokens}
+     * @param config user defined configuration
+     * @return a new driver to the database instances specified by the URLs
+     */
+    public static RoutingDriver driver( List<URI> writers, List<URI> readers, AuthToken authToken,
+            Config config )
+    {
+        AuthToken tokenToUse = authToken != null ? authToken: AuthTokens.none();
+        Config configToUse = config != null ? config: Config.defaultConfig();
+
+        return new LoadBalancingDriver( writers, readers, tokenToUse, configToUse );
+    }
 }
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * A driver over several Neo4j instances, which picks the instance each session runs its statements against from
+ * those serving the {@link AccessMode access mode} of the session. Created by
+ * {@link GraphDatabase#driver(java.util.List, java.util.List, AuthToken, Config)}.
+ * @since 1.0
+ */
+@Experimental
+public interface RoutingDriver extends Driver
+{
+    /**
+     * Establish a session that may write, same as {@link #session(AccessMode) session(AccessMode.WRITE)}.
+     * @return a session that could be used to run {@link Session#run(String) a statement} or
+     * {@link Session#beginTransaction() a transaction }.
+     */
+    @Override
+    Session session();
+
+    /**
+     * Establish a session for the given kind of work. The instance is picked when the session borrows its first
+     * connection, among the reachable instances serving the access mode, as the one with the fewest connections in
+     * use at that moment. The session runs all its statements against that instance, so it reads its own writes.
+     * @param mode whether the session only reads or may also write
+     * @return a session that could be used to run {@link Session#run(String) a statement} or
+     * {@link Session#beginTransaction() a transaction }.
+     */
+    Session session( AccessMode mode );
+}
@@ -18,6 +18,8 @@
  */
 package org.neo4j.driver.v1;
 
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Resource;
 
 /**
@@ -66,4 +68,13 @@ public interface Session extends Resource, StatementRunner
      */
     @Override
     void close();
+
+    /**
+     * Signal that you are done using this session, without waiting for outstanding statements to complete. The
+     * returned future completes once they have, with the same guarantees {@link #close()} gives when it returns.
+     *
+     * @return the pending outcome of closing the session
+     */
+    @Experimental
+    ResponseFuture<Void> closeAsync();
 }
@@ -21,8 +21,10 @@ package org.neo4j.driver.v1;
 import java.util.Iterator;
 import java.util.List;
 
+import org.neo4j.driver.v1.async.Publisher;
 import org.neo4j.driver.v1.exceptions.NoSuchRecordException;
 import org.neo4j.driver.v1.summary.ResultSummary;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Function;
 import org.neo4j.driver.v1.util.Resource;
 
@@ -143,4 +145,49 @@ public interface StatementResult extends Iterator<Record>
      * @return a summary for the whole query result
      */
     ResultSummary consume();
+
+    /**
+     * Stop this result, throwing away the records that have not been retrieved yet. Where nothing else depends on
+     * the connection, that is for the last result run on a session outside of a transaction, the server is told to
+     * stop producing records, and those already on their way are skipped over without being decoded. Otherwise the
+     * rest of the result is received and thrown away as by {@link #consume()}.
+     *
+     * This is how to look at only the start of a result that may be large, e.g. the first ten records:
+     * <pre>
+     * {@code
+     * StatementResult result = session.run( "MATCH (n) RETURN n" );
+     * for ( int i = 0; i < 10 && result.hasNext(); i++ )
+     * {
+     *     System.out.println( result.next() );
+     * }
+     * result.cancel();
+     * }
+     * </pre>
+     *
+     * Calling this method exhausts the result.
+     *
+     * @return a summary of the result, which lacks the statistics, plans and notifications of a result stopped early
+     */
+    @Experimental
+    ResultSummary cancel();
+
+    /**
+     * Hand the rest of this result to a subscriber, as fast as it requests records rather than as fast as the server
+     * sends them. Records are received on the thread that requests them, and nothing more is read from the connection
+     * while the subscriber has no outstanding request. Cancelling the subscription stops the server from producing
+     * the rest of the result, where that can be done without affecting other statements.
+     *
+     * A result has one subscriber at most, and it should not be iterated over as well.
+     *
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * session.run( "MATCH (n) RETURN n" ).publisher().subscribe( subscriber );
+     * }
+     * </pre>
+     *
+     * @return a publisher of the records of this result that have not been retrieved yet
+     */
+    @Experimental
+    Publisher<Record> publisher();
 }
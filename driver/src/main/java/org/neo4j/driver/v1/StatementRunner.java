@@ -18,9 +18,14 @@
  */
 package org.neo4j.driver.v1;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
 import org.neo4j.driver.v1.util.Experimental;
+import org.neo4j.driver.v1.summary.ResultSummary;
 import org.neo4j.driver.v1.types.TypeSystem;
 
 /**
@@ -162,6 +167,75 @@ public interface StatementRunner
      */
     StatementResult run( Statement statement );
 
+    /**
+     * Run many statements and wait for all of them to complete. The statements are sent ahead of their replies, so
+     * that running them costs about as many network round trips as running one of them would, rather than one
+     * each. Replies are read while further statements are sent, with at most
+     * {@link Config#maxStatementsInFlight()} statements awaiting their replies at any time.
+     *
+     * Records the statements return are discarded, this is meant for statements run for their side effects, such
+     * as loading large amounts of data in small statements.
+     *
+     * If a statement fails, its failure is thrown once it is received and the statements after it are not run.
+     *
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * List<Statement> statements = new ArrayList<>();
+     * statements.add( new Statement( "CREATE (n {name: {name}})", Values.parameters( "name", "Bob" ) ) );
+     * statements.add( new Statement( "CREATE (n {name: {name}})", Values.parameters( "name", "Alice" ) ) );
+     * List<ResultSummary> summaries = session.runAll( statements );
+     * }
+     * </pre>
+     *
+     * @param statements the statements to run, in order
+     * @return the summaries of the statements, in the same order
+     */
+    @Experimental
+    List<ResultSummary> runAll( Iterable<Statement> statements );
+
+    /**
+     * Run a statement once for each of the given parameter maps, see {@link #runAll(Iterable)}. The maps are taken
+     * from the iterator as the statements are sent, so they may be produced while the statements run.
+     *
+     * @param statementTemplate template of a Neo4j statement
+     * @param parameters the parameters of each run of the statement
+     * @return the summaries of the runs of the statement, in order
+     */
+    @Experimental
+    List<ResultSummary> runAll( String statementTemplate, Iterator<? extends Map<String,Object>> parameters );
+
+    /**
+     * Run a statement without waiting for it. Records are pushed to the given listener as they arrive, and the
+     * returned future completes with the summary of the result once the last record has been received, or with the
+     * failure of the statement.
+     *
+     * Where the connection to the server supports it, nothing blocks while the statement runs: records and the
+     * outcome are handed over on a driver I/O thread. Otherwise the statement is run before this method returns.
+     *
+     * The statement runner is busy until the future completes; wait for it, or continue from a listener of it,
+     * before using this statement runner again.
+     *
+     * <h2>Example</h2>
+     * <pre>
+     * {@code
+     * session.runAsync( new Statement( "MATCH (n) RETURN n.name" ), new RecordListener()
+     * {
+     *     public void onRecord( Record record )
+     *     {
+     *         names.add( record.get( "n.name" ).asString() );
+     *     }
+     * } ).addListener( done );
+     * }
+     * </pre>
+     *
+     * @param statement a Neo4j statement
+     * @param records the listener to push the records of the result to
+     * @return the pending summary of the result
+     */
+    @Experimental
+    ResponseFuture<ResultSummary> runAsync( Statement statement, RecordListener records );
+
     /**
      * @return type system used by this statement runner for classifying values
      */
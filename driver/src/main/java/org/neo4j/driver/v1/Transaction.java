@@ -18,6 +18,8 @@
  */
 package org.neo4j.driver.v1;
 
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.util.Experimental;
 import org.neo4j.driver.v1.util.Resource;
 
 /**
@@ -82,4 +84,15 @@ public interface Transaction extends Resource, StatementRunner
      */
     @Override
     void close();
+
+    /**
+     * Complete the transaction as {@link #close()} does, committing it if {@link #success()} has been called, but
+     * without waiting for the server to confirm. The returned future completes once all outstanding statements in
+     * the transaction have completed and the transaction has been committed or rolled back, or fails with the reason
+     * the commit failed.
+     *
+     * @return the pending outcome of the transaction
+     */
+    @Experimental
+    ResponseFuture<Void> closeAsync();
 }
@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * A source of elements that are only produced as fast as its {@link Subscriber} asks for them.
+ * <p>
+ * This interface, {@link Subscriber} and {@link Subscription} follow the contract of the Reactive Streams interfaces
+ * of the same names, so that they can be adapted to any Reactive Streams implementation by delegating method for
+ * method, without the driver depending on one.
+ *
+ * @param <T> the type of the elements
+ * @since 1.0
+ */
+@Experimental
+public interface Publisher<T>
+{
+    /**
+     * Start producing elements for the given subscriber, as it requests them.
+     *
+     * @param subscriber the subscriber to produce elements for
+     */
+    void subscribe( Subscriber<? super T> subscriber );
+}
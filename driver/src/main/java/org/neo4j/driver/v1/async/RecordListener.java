@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Takes the records of a statement run asynchronously, as they arrive from the server.
+ * <p>
+ * Like a {@link ResponseListener}, a record listener may be called on a driver I/O thread and must not block.
+ *
+ * @since 1.0
+ */
+@Experimental
+public interface RecordListener
+{
+    /**
+     * A listener that drops all records, for statements that are run for their side effects.
+     */
+    RecordListener IGNORE = new RecordListener()
+    {
+        @Override
+        public void onRecord( Record record )
+        {
+        }
+    };
+
+    /**
+     * @param record the next record of the result
+     */
+    void onRecord( Record record );
+}
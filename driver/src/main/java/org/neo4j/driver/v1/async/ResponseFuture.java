@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import java.util.concurrent.Future;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * The pending outcome of something the driver does asynchronously. Rather than having a thread wait for it with
+ * {@link #get()}, a {@link ResponseListener} can be added to be told once it is known.
+ * <p>
+ * Failures are {@link org.neo4j.driver.v1.exceptions.Neo4jException}s; {@link #get()} throws them wrapped in an
+ * {@link java.util.concurrent.ExecutionException}. Work handed to the server cannot be taken back, so these futures
+ * cannot be cancelled.
+ *
+ * @param <T> the type of the outcome
+ * @since 1.0
+ */
+@Experimental
+public interface ResponseFuture<T> extends Future<T>
+{
+    /**
+     * Have the given listener told about the outcome. If the outcome is known already, the listener is told right
+     * away on the calling thread, otherwise it is told on the thread that completes this future. Listeners are told
+     * in the order they were added.
+     *
+     * @param listener the listener to tell
+     */
+    void addListener( ResponseListener<? super T> listener );
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Told about the outcome of something the driver does asynchronously, see {@link ResponseFuture}.
+ * <p>
+ * Listeners may be called on a driver I/O thread, so they should return quickly and must not block, in particular not
+ * by waiting for other responses of the driver.
+ *
+ * @param <T> the type of the outcome
+ * @since 1.0
+ */
+@Experimental
+public interface ResponseListener<T>
+{
+    /**
+     * @param result the outcome, null for work that has none
+     */
+    void onSuccess( T result );
+
+    /**
+     * @param error why the work failed
+     */
+    void onFailure( Neo4jException error );
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Takes the elements of a {@link Publisher}, see there.
+ *
+ * @param <T> the type of the elements
+ * @since 1.0
+ */
+@Experimental
+public interface Subscriber<T>
+{
+    /**
+     * Called once, before anything else, with the subscription to request elements from.
+     *
+     * @param subscription the subscription
+     */
+    void onSubscribe( Subscription subscription );
+
+    /**
+     * @param element the next element, only ever called for elements that were requested
+     */
+    void onNext( T element );
+
+    /**
+     * Called at most once, if producing the elements failed. Nothing is called after it.
+     *
+     * @param error why producing the elements failed
+     */
+    void onError( Throwable error );
+
+    /**
+     * Called at most once, after the last element. Nothing is called after it.
+     */
+    void onComplete();
+}
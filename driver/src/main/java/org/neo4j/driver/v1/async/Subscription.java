@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.async;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * The link between a {@link Publisher} and its {@link Subscriber}, through which the subscriber asks for elements.
+ *
+ * @since 1.0
+ */
+@Experimental
+public interface Subscription
+{
+    /**
+     * Ask for more elements. Requests add up; {@link Long#MAX_VALUE} asks for all elements there are.
+     *
+     * @param n how many more elements to produce, must be positive
+     */
+    void request( long n );
+
+    /**
+     * Ask for no more elements. Elements may still be produced for a while, if they were on the way.
+     */
+    void cancel();
+}
@@ -0,0 +1,34 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.exceptions;
+
+/**
+ * A <em>ConnectionAcquisitionTimeoutException</em> indicates that the driver could not get a connection from its pool
+ * within the configured {@link org.neo4j.driver.v1.Config#connectionAcquisitionTimeout() acquisition timeout},
+ * because all connections to the database were in use. Closing sessions sooner, or configuring a larger pool,
+ * will avoid this.
+ * @since 1.0
+ */
+public class ConnectionAcquisitionTimeoutException extends ClientException
+{
+    public ConnectionAcquisitionTimeoutException( String message )
+    {
+        super( message );
+    }
+}
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.exceptions;
+
+/**
+ * A <em>ServiceUnavailableException</em> indicates that the driver is not trying to connect to a database, because
+ * recent attempts to connect to it have failed. The driver tries again, with increasing backoff, once the
+ * database may have recovered, see {@link org.neo4j.driver.v1.Config#circuitBreakerFailureThreshold()}.
+ * @since 1.0
+ */
+public class ServiceUnavailableException extends ClientException
+{
+    public ServiceUnavailableException( String message )
+    {
+        super( message );
+    }
+}
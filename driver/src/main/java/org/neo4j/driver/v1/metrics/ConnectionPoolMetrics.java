@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Measurements of a connection pool, and of the connections in it, to a single database instance.
+ * <p>
+ * Counters only ever increase over the lifetime of the driver, gauges reflect the current state of the pool and
+ * histograms record durations in nanoseconds.
+ * @since 1.0
+ */
+@Experimental
+public interface ConnectionPoolMetrics
+{
+    /**
+     * @return the URL of the database instance connections in this pool are made to
+     */
+    String address();
+
+    /**
+     * @return the number of connections currently handed out to sessions
+     */
+    int inUse();
+
+    /**
+     * @return the number of connections currently idle in the pool
+     */
+    int idle();
+
+    /**
+     * @return the number of connections that have been established
+     */
+    long created();
+
+    /**
+     * @return the number of connections that have been closed
+     */
+    long closed();
+
+    /**
+     * @return the number of times acquiring a connection failed because the pool stayed exhausted for longer than the
+     * {@link org.neo4j.driver.v1.Config#connectionAcquisitionTimeout() acquisition timeout}
+     */
+    long acquisitionTimeouts();
+
+    /**
+     * @return the number of messages sent to the database
+     */
+    long messagesSent();
+
+    /**
+     * @return the number of messages received from the database
+     */
+    long messagesReceived();
+
+    /**
+     * @return the number of bytes sent to the database
+     */
+    long bytesSent();
+
+    /**
+     * @return the number of bytes received from the database
+     */
+    long bytesReceived();
+
+    /**
+     * @return how long it took to get a connection from the pool, including waiting for one and establishing it
+     */
+    Histogram acquisitionTime();
+
+    /**
+     * @return how long it took to open a network connection, including the TLS handshake if encryption is used
+     */
+    Histogram connectionTime();
+
+    /**
+     * @return how long the Bolt protocol version handshake took
+     */
+    Histogram handshakeTime();
+
+    /**
+     * @return how long it took to send queued messages and receive all replies to them
+     */
+    Histogram roundTripTime();
+}
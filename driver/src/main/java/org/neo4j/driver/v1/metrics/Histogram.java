@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * A distribution of recorded values, such as durations. Values are kept in buckets with a relative precision of
+ * about 12%, so percentiles are approximate, while the count, min, max and mean are exact.
+ * @since 1.0
+ */
+@Experimental
+public interface Histogram
+{
+    /**
+     * @return the number of values recorded
+     */
+    long count();
+
+    /**
+     * @return the smallest value recorded, or zero if none has been
+     */
+    long min();
+
+    /**
+     * @return the largest value recorded, or zero if none has been
+     */
+    long max();
+
+    /**
+     * @return the mean of the values recorded, or zero if none has been
+     */
+    double mean();
+
+    /**
+     * @param percentile a percentile between 0 and 100
+     * @return an approximation of the value below which the given percentage of recorded values fall
+     */
+    long valueAtPercentile( double percentile );
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import java.util.Map;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Measurements of what a {@link org.neo4j.driver.v1.Driver driver} is doing, for monitoring it under load.
+ * Metrics are always recorded, and are cheap enough to do so in production. They are read through
+ * {@link MetricsProvider#metrics()}.
+ * @since 1.0
+ */
+@Experimental
+public interface Metrics
+{
+    /**
+     * The metrics of each connection pool of the driver, keyed by the URL of the database instance it connects to.
+     * @return a snapshot of the connection pools known to the driver, whose metrics keep being updated
+     */
+    Map<String,ConnectionPoolMetrics> connectionPoolMetrics();
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.v1.metrics;
+
+import org.neo4j.driver.v1.util.Experimental;
+
+/**
+ * Implemented by the {@link org.neo4j.driver.v1.Driver drivers} created by {@link org.neo4j.driver.v1.GraphDatabase},
+ * which can be cast to it to read their metrics. Kept apart from the driver interface, so that other implementations
+ * of it do not have to provide metrics.
+ * @since 1.0
+ */
+@Experimental
+public interface MetricsProvider
+{
+    /**
+     * Measurements of the connection pools of this driver, such as how many connections are in use and how long
+     * acquiring them takes.
+     * @return the metrics of this driver
+     */
+    Metrics metrics();
+}
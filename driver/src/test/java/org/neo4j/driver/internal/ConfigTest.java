@@ -89,6 +89,20 @@ public class ConfigTest
         assertThat( config.idleTimeBeforeConnectionTest(), equalTo( 1337L ) );
     }
 
+    @Test
+    public void shouldConfigureMaxConnectionPoolSizeAndAcquisitionTimeout() throws Throwable
+    {
+        // when
+        Config config = Config.build()
+                .withMaxConnectionPoolSize( 42 )
+                .withConnectionAcquisitionTimeout( 1337 )
+                .toConfig();
+
+        // then
+        assertThat( config.maxConnectionPoolSize(), equalTo( 42 ) );
+        assertThat( config.connectionAcquisitionTimeout(), equalTo( 1337L ) );
+    }
+
     public static void deleteDefaultKnownCertFileIfExists()
     {
         if( DEFAULT_KNOWN_HOSTS.exists() )
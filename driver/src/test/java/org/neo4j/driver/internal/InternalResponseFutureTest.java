@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.neo4j.driver.internal.logging.DevNullLogger;
+import org.neo4j.driver.v1.async.ResponseListener;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InternalResponseFutureTest
+{
+    private final InternalResponseFuture<String> future = new InternalResponseFuture<>( new DevNullLogger() );
+
+    @Test
+    public void shouldTellListenersAddedBeforeAndAfterCompletion() throws Throwable
+    {
+        // Given
+        RecordingListener before = new RecordingListener();
+        RecordingListener after = new RecordingListener();
+        future.addListener( before );
+
+        // When
+        future.onSuccess( "done" );
+        future.addListener( after );
+
+        // Then
+        assertTrue( future.isDone() );
+        assertThat( future.get(), equalTo( "done" ) );
+        assertThat( before.outcomes, equalTo( (List<Object>) singleton( "done" ) ) );
+        assertThat( after.outcomes, equalTo( (List<Object>) singleton( "done" ) ) );
+    }
+
+    @Test
+    public void shouldOnlyCountFirstOutcome() throws Throwable
+    {
+        // Given
+        ClientException error = new ClientException( "failed" );
+        RecordingListener listener = new RecordingListener();
+        future.addListener( listener );
+
+        // When
+        future.onFailure( error );
+        future.onSuccess( "too late" );
+
+        // Then
+        assertThat( listener.outcomes, equalTo( (List<Object>) singleton( error ) ) );
+        try
+        {
+            future.get();
+            fail( "Should have failed" );
+        }
+        catch ( ExecutionException e )
+        {
+            assertThat( e.getCause(), sameInstance( (Throwable) error ) );
+        }
+    }
+
+    @Test
+    public void shouldKeepTellingListenersWhenOneThrows() throws Throwable
+    {
+        // Given
+        RecordingListener listener = new RecordingListener();
+        future.addListener( new RecordingListener()
+        {
+            @Override
+            public void onSuccess( String result )
+            {
+                throw new IllegalStateException( "broken listener" );
+            }
+        } );
+        future.addListener( listener );
+
+        // When
+        future.onSuccess( "done" );
+
+        // Then
+        assertThat( listener.outcomes, equalTo( (List<Object>) singleton( "done" ) ) );
+    }
+
+    @Test
+    public void shouldTimeOutWaitingForOutcome() throws Throwable
+    {
+        try
+        {
+            future.get( 10, TimeUnit.MILLISECONDS );
+            fail( "Should have timed out" );
+        }
+        catch ( TimeoutException e )
+        {
+            assertFalse( future.isDone() );
+        }
+    }
+
+    private static List<Object> singleton( Object outcome )
+    {
+        List<Object> outcomes = new ArrayList<>();
+        outcomes.add( outcome );
+        return outcomes;
+    }
+
+    private static class RecordingListener implements ResponseListener<String>
+    {
+        private final List<Object> outcomes = new ArrayList<>();
+
+        @Override
+        public void onSuccess( String result )
+        {
+            outcomes.add( result );
+        }
+
+        @Override
+        public void onFailure( Neo4jException error )
+        {
+            outcomes.add( error );
+        }
+    }
+}
@@ -21,18 +21,54 @@ package org.neo4j.driver.internal;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.net.URI;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.driver.internal.logging.DevNullLogger;
+import org.neo4j.driver.internal.pool.PooledConnection;
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumers;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.Logger;
 import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.Values;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.summary.ResultSummary;
 
 import static junit.framework.Assert.fail;
 import static junit.framework.TestCase.assertNotNull;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -165,4 +201,425 @@ public class InternalSessionTest
            assertThat( e.getMessage(), equalTo("This session has already been closed." ));
         }
     }
+
+    @Test
+    public void shouldNotAcquireConnectionUntilFirstStatement() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+
+        // When
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        session.close();
+
+        // Then
+        verify( pool, never() ).acquire( uri );
+    }
+
+    @Test
+    public void shouldNotAcquireConnectionToRunStatementOnClosedSession() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        session.close();
+
+        // When
+        try
+        {
+            session.run( "RETURN 1" );
+            fail( "Should not be able to run a statement on a closed session" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            assertThat( e.getMessage(), equalTo( "This session has already been closed." ) );
+        }
+        verify( pool, never() ).acquire( uri );
+    }
+
+    @Test
+    public void shouldNotAcquireConnectionToBeginTransactionOnClosedSession() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        session.close();
+
+        // Expect
+        exception.expect( ClientException.class );
+        exception.expectMessage( "This session has already been closed." );
+
+        // When
+        try
+        {
+            session.beginTransaction();
+        }
+        finally
+        {
+            verify( pool, never() ).acquire( uri );
+        }
+    }
+
+    @Test
+    public void shouldReleaseConnectionOnceResultIsConsumed() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        completeResultsOnReceive( connection );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        StatementResult result = session.run( "RETURN 1" );
+
+        // When
+        result.consume();
+
+        // Then
+        verify( pool ).acquire( uri );
+        verify( connection ).close();
+
+        // When
+        session.run( "RETURN 1" );
+
+        // Then
+        verify( pool, times( 2 ) ).acquire( uri );
+    }
+
+    @Test
+    public void shouldKeepConnectionUntilLastResultIsConsumed() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        completeResultsOnReceive( connection );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        StatementResult first = session.run( "RETURN 1" );
+        session.run( "RETURN 2" );
+
+        // When
+        first.consume();
+
+        // Then
+        verify( connection, never() ).close();
+        verify( pool ).acquire( uri );
+    }
+
+    @Test
+    public void shouldReleaseConnectionWhenTransactionIsClosed() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+
+        // When
+        session.beginTransaction().close();
+
+        // Then
+        verify( connection ).close();
+
+        // When
+        session.close();
+
+        // Then
+        verify( connection, times( 1 ) ).close();
+    }
+
+    @Test
+    public void shouldNotLeaveErrorHandlerOfTransactionOnPooledConnection() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        PooledConnection connection = spy( new PooledConnection( openConnection(),
+                Consumers.<PooledConnection>noOp(), Clock.SYSTEM ) );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession first = new InternalSession( pool, uri, new DevNullLogger() );
+        first.beginTransaction().close();
+        first.close();
+
+        // When
+        InternalSession second = new InternalSession( pool, uri, new DevNullLogger() );
+        second.run( "RETURN 1" );
+        second.close();
+
+        // Then
+        InOrder inOrder = inOrder( connection );
+        inOrder.verify( connection ).onError( isA( Runnable.class ) );
+        inOrder.verify( connection ).onError( (Runnable) isNull() );
+        inOrder.verify( connection ).run( eq( "RETURN 1" ), anyMapOf( String.class, Value.class ),
+                any( StreamCollector.class ) );
+        verify( connection, times( 1 ) ).onError( isA( Runnable.class ) );
+    }
+
+    @Test
+    public void shouldReleaseConnectionOnceAsyncResultCompletes() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        completeResultsOnSyncAsync( connection );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+
+        // When
+        ResponseFuture<ResultSummary> summary = session.runAsync( new Statement( "RETURN 1" ), RecordListener.IGNORE );
+
+        // Then
+        assertTrue( summary.isDone() );
+        assertThat( summary.get().statement().text(), equalTo( "RETURN 1" ) );
+        verify( connection, never() ).sync();
+        verify( connection ).close();
+
+        // When
+        session.closeAsync().get();
+
+        // Then
+        verify( connection, times( 1 ) ).close();
+    }
+
+    @Test
+    public void shouldDiscardRecordsOfResultConsumedOnlyForItsSummary() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        completeResultsOnReceive( connection );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        StatementResult result = session.run( "CREATE (n)" );
+
+        // When
+        result.consume();
+
+        // Then
+        verify( connection ).discardAll( any( StreamCollector.class ) );
+        verify( connection, never() ).pullAll( any( StreamCollector.class ) );
+    }
+
+    @Test
+    public void shouldPullRecordsOfUnusedResultWhenAnotherStatementIsRun() throws Throwable
+    {
+        // Given
+        when( mock.isOpen() ).thenReturn( true );
+        sess.run( "RETURN 1" );
+        verify( mock, never() ).pullAll( any( StreamCollector.class ) );
+
+        // When
+        sess.run( "RETURN 2" );
+
+        // Then the first result may still be read, the second is yet to be used
+        InOrder inOrder = inOrder( mock );
+        inOrder.verify( mock ).run( eq( "RETURN 1" ), anyMapOf( String.class, Value.class ),
+                any( StreamCollector.class ) );
+        inOrder.verify( mock ).pullAll( any( StreamCollector.class ) );
+        inOrder.verify( mock ).run( eq( "RETURN 2" ), anyMapOf( String.class, Value.class ),
+                any( StreamCollector.class ) );
+        verify( mock, times( 1 ) ).pullAll( any( StreamCollector.class ) );
+    }
+
+    @Test
+    public void shouldReceiveRecordsOfUnusedResultOnCloseSoTheyCanStillBeRead() throws Throwable
+    {
+        // Given
+        when( mock.isOpen() ).thenReturn( true );
+        sess.run( "RETURN 1" );
+
+        // When
+        sess.close();
+
+        // Then
+        InOrder inOrder = inOrder( mock );
+        inOrder.verify( mock ).pullAll( any( StreamCollector.class ) );
+        inOrder.verify( mock ).sync();
+    }
+
+    @Test
+    public void shouldResetToCancelLastResultOfSession() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        completeRunsRightAway( connection );
+        streamRecordOnReceive( connection );
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri, new DevNullLogger() );
+        StatementResult result = session.run( "UNWIND range(1, 1000000) AS n RETURN n" );
+        result.next();
+
+        // When
+        result.cancel();
+
+        // Then
+        InOrder inOrder = inOrder( connection );
+        inOrder.verify( connection ).reset();
+        inOrder.verify( connection, atLeastOnce() ).sync();
+        inOrder.verify( connection ).close();
+        assertFalse( result.hasNext() );
+    }
+
+    @Test
+    public void shouldResetInsteadOfReceivingResultsOnCloseWhenConfigured() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri,
+                Config.build().withResultsCancelledOnClose( true ).toConfig() );
+        session.run( "UNWIND range(1, 1000000) AS n RETURN n" );
+
+        // When
+        session.close();
+
+        // Then
+        InOrder inOrder = inOrder( connection );
+        inOrder.verify( connection ).discardAll( any( StreamCollector.class ) );
+        inOrder.verify( connection ).reset();
+        inOrder.verify( connection ).sync();
+        inOrder.verify( connection ).close();
+    }
+
+    @Test
+    public void shouldLeaveRollbackToResetOnCloseWhenConfigured() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://localhost" );
+        Connection connection = openConnection();
+        ConnectionPool pool = mock( ConnectionPool.class );
+        when( pool.acquire( uri ) ).thenReturn( connection );
+        InternalSession session = new InternalSession( pool, uri,
+                Config.build().withResultsCancelledOnClose( true ).toConfig() );
+        Transaction tx = session.beginTransaction();
+        tx.run( "UNWIND range(1, 1000000) AS n RETURN n" );
+
+        // When
+        session.close();
+
+        // Then
+        verify( connection ).reset();
+        verify( connection, never() ).run( eq( "ROLLBACK" ), anyMapOf( String.class, Value.class ),
+                any( StreamCollector.class ) );
+        verify( connection, times( 1 ) ).close();
+        assertFalse( tx.isOpen() );
+    }
+
+    private static Connection openConnection()
+    {
+        Connection connection = mock( Connection.class );
+        when( connection.isOpen() ).thenReturn( true );
+        return connection;
+    }
+
+    /** Make the connection complete all results pulled on it, and report success, when synced asynchronously */
+    private static void completeResultsOnSyncAsync( Connection connection )
+    {
+        final Queue<StreamCollector> pulled = new LinkedList<>();
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                pulled.add( (StreamCollector) invocation.getArguments()[0] );
+                return null;
+            }
+        } ).when( connection ).pullAll( any( StreamCollector.class ) );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                while ( !pulled.isEmpty() )
+                {
+                    pulled.remove().doneSuccess();
+                }
+                ((ResponseListener<Void>) invocation.getArguments()[0]).onSuccess( null );
+                return null;
+            }
+        } ).when( connection ).syncAsync( any( ResponseListener.class ) );
+    }
+
+    /** Make the connection hand a record to the last result pulled on it every time something is received */
+    private static void streamRecordOnReceive( Connection connection )
+    {
+        final AtomicReference<StreamCollector> pulled = new AtomicReference<>();
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                pulled.set( (StreamCollector) invocation.getArguments()[0] );
+                return null;
+            }
+        } ).when( connection ).pullAll( any( StreamCollector.class ) );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                pulled.get().record( new Value[]{Values.value( 1 )} );
+                return null;
+            }
+        } ).when( connection ).receiveOne();
+    }
+
+    /** Make the connection report the keys of every statement as soon as it is run */
+    private static void completeRunsRightAway( Connection connection )
+    {
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                ((StreamCollector) invocation.getArguments()[2]).doneSuccess();
+                return null;
+            }
+        } ).when( connection ).run( anyString(), anyMapOf( String.class, Value.class ), any( StreamCollector.class ) );
+    }
+
+    /** Make the connection complete one result pulled or discarded on it, in order, every time something is received */
+    private static void completeResultsOnReceive( Connection connection )
+    {
+        final Queue<StreamCollector> pulled = new LinkedList<>();
+        Answer<Void> pull = new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                pulled.add( (StreamCollector) invocation.getArguments()[0] );
+                return null;
+            }
+        };
+        doAnswer( pull ).when( connection ).pullAll( any( StreamCollector.class ) );
+        doAnswer( pull ).when( connection ).discardAll( any( StreamCollector.class ) );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                pulled.remove().done();
+                return null;
+            }
+        } ).when( connection ).receiveOne();
+    }
 }
@@ -20,15 +20,24 @@ package org.neo4j.driver.internal;
 
 import org.junit.Test;
 import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.util.Collections;
 
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Value;
 
+import static org.mockito.AdditionalMatchers.not;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -50,10 +59,10 @@ public class InternalTransactionTest
         // Then
         InOrder order = inOrder( conn );
         order.verify( conn ).run( "BEGIN", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).isOpen();
         order.verify( conn ).run( "ROLLBACK", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP );
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).sync();
         verify( cleanup ).run();
         verifyNoMoreInteractions( conn, cleanup );
@@ -76,10 +85,10 @@ public class InternalTransactionTest
         // Then
         InOrder order = inOrder( conn );
         order.verify( conn ).run( "BEGIN", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP);
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).isOpen();
         order.verify( conn ).run( "ROLLBACK", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP);
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).sync();
         verify( cleanup ).run();
         verifyNoMoreInteractions( conn, cleanup );
@@ -102,12 +111,41 @@ public class InternalTransactionTest
 
         InOrder order = inOrder( conn );
         order.verify( conn ).run( "BEGIN", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP);
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).isOpen();
         order.verify( conn ).run( "COMMIT", Collections.<String, Value>emptyMap(), StreamCollector.NO_OP);
-        order.verify( conn ).discardAll();
+        order.verify( conn ).discardAll( StreamCollector.NO_OP );
         order.verify( conn ).sync();
         verify( cleanup ).run();
         verifyNoMoreInteractions( conn, cleanup );
     }
+
+    @Test
+    public void shouldDiscardRecordsOfResultConsumedOnlyForItsSummary() throws Throwable
+    {
+        // Given
+        Connection conn = mock( Connection.class );
+        when( conn.isOpen() ).thenReturn( true );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                ((StreamCollector) invocation.getArguments()[0]).done();
+                return null;
+            }
+        } ).when( conn ).discardAll( any( StreamCollector.class ) );
+        InternalTransaction tx = new InternalTransaction( conn, mock( Runnable.class ) );
+        StatementResult result = tx.run( "CREATE (n)" );
+
+        // When
+        result.consume();
+
+        // Then
+        InOrder order = inOrder( conn );
+        order.verify( conn ).run( eq( "CREATE (n)" ), anyMapOf( String.class, Value.class ),
+                any( StreamCollector.class ) );
+        order.verify( conn ).discardAll( not( eq( StreamCollector.NO_OP ) ) );
+        verify( conn, never() ).pullAll( any( StreamCollector.class ) );
+    }
 }
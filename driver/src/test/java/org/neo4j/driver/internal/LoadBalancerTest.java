@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.neo4j.driver.internal.metrics.InternalMetrics;
+import org.neo4j.driver.internal.pool.InternalConnectionPool;
+import org.neo4j.driver.internal.spi.ConnectionPool;
+import org.neo4j.driver.v1.AccessMode;
+import org.neo4j.driver.v1.exceptions.ClientException;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LoadBalancerTest
+{
+    private final URI first = URI.create( "bolt://first" );
+    private final URI second = URI.create( "bolt://second" );
+    private final URI third = URI.create( "bolt://third" );
+
+    private final InternalConnectionPool pool = mock( InternalConnectionPool.class );
+    private final InternalMetrics metrics = new InternalMetrics();
+
+    {
+        when( pool.isReachable( any( URI.class ) ) ).thenReturn( true );
+    }
+
+    @Test
+    public void shouldPickMemberWithFewestConnectionsInUse() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first, second, third ),
+                Collections.<URI>emptyList() );
+        inUse( first, 3 );
+        inUse( second, 1 );
+        inUse( third, 2 );
+
+        // When
+        URI selected = balancer.select( AccessMode.WRITE );
+
+        // Then
+        assertThat( selected, equalTo( second ) );
+    }
+
+    @Test
+    public void shouldTakeTurnsBetweenEquallyBusyMembers() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first, second, third ),
+                Collections.<URI>emptyList() );
+
+        // When
+        Set<URI> selected = new HashSet<>();
+        for ( int i = 0; i < 3; i++ )
+        {
+            selected.add( balancer.select( AccessMode.WRITE ) );
+        }
+
+        // Then
+        assertThat( selected, equalTo( (Set<URI>) new HashSet<>( asList( first, second, third ) ) ) );
+    }
+
+    @Test
+    public void shouldSkipUnreachableMembers() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first, second ),
+                Collections.<URI>emptyList() );
+        when( pool.isReachable( first ) ).thenReturn( false );
+        inUse( second, 5 );
+
+        // Then
+        for ( int i = 0; i < 4; i++ )
+        {
+            assertThat( balancer.select( AccessMode.WRITE ), equalTo( second ) );
+        }
+    }
+
+    @Test
+    public void shouldStillPickMemberWhenNoneIsReachable() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first, second ),
+                Collections.<URI>emptyList() );
+        when( pool.isReachable( any( URI.class ) ) ).thenReturn( false );
+
+        // Then
+        assertThat( asList( first, second ).contains( balancer.select( AccessMode.WRITE ) ), equalTo( true ) );
+    }
+
+    @Test
+    public void shouldUseSeparateReadersAndWriters() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first ), asList( second, third ) );
+
+        // Then
+        for ( int i = 0; i < 4; i++ )
+        {
+            assertThat( balancer.select( AccessMode.WRITE ), equalTo( first ) );
+            assertThat( asList( second, third ).contains( balancer.select( AccessMode.READ ) ),
+                    equalTo( true ) );
+        }
+    }
+
+    @Test
+    public void shouldPickMemberWhenFirstConnectionIsAcquiredAndKeepItForTheSession() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, asList( first, second ),
+                Collections.<URI>emptyList() );
+        ConnectionPool connections = balancer.connections( AccessMode.WRITE );
+        inUse( first, 1 );
+
+        // When
+        connections.acquire( null );
+
+        // Then
+        verify( pool ).acquire( second );
+
+        // When
+        inUse( second, 2 );
+        connections.acquire( null );
+
+        // Then the session stays on the instance it wrote to
+        verify( pool, times( 2 ) ).acquire( second );
+        verify( pool, never() ).acquire( first );
+
+        // When
+        balancer.connections( AccessMode.WRITE ).acquire( null );
+
+        // Then another session goes by how busy the instances are now
+        verify( pool ).acquire( first );
+    }
+
+    @Test
+    public void shouldFailWithoutWriters() throws Throwable
+    {
+        // Given
+        LoadBalancer balancer = new LoadBalancer( pool, metrics, Collections.<URI>emptyList(), asList( second ) );
+
+        // When
+        try
+        {
+            balancer.select( AccessMode.WRITE );
+            fail( "Should have failed to pick an instance to write to" );
+        }
+        // Then
+        catch ( ClientException e )
+        {
+            assertThat( e.getMessage(), equalTo( "No database instance to write to has been configured." ) );
+        }
+    }
+
+    private void inUse( URI member, int count )
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            metrics.connectionPool( member ).connectionAcquired( 0 );
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.neo4j.driver.v1.Values.value;
+
+public class RecordBufferTest
+{
+    private static final List<String> KEYS = Arrays.asList( "n", "text" );
+
+    @Test
+    public void shouldReserveMemoryForRecordsUntilTheyArePolled() throws Throwable
+    {
+        // Given
+        RecordBuffers memory = new RecordBuffers( 1024 * 1024 );
+        RecordBuffer buffer = memory.newBuffer();
+
+        // When
+        buffer.add( record( 1 ) );
+        buffer.add( record( 2 ) );
+
+        // Then
+        assertThat( memory.used(), equalTo( 2 * RecordBuffers.estimateSize( record( 1 ) ) ) );
+
+        // When
+        buffer.poll();
+        buffer.poll();
+
+        // Then
+        assertThat( memory.used(), equalTo( 0L ) );
+        assertTrue( buffer.isEmpty() );
+    }
+
+    @Test
+    public void shouldSpillRecordsToDiskAndKeepThemInOrder() throws Throwable
+    {
+        // Given room for three records
+        RecordBuffers memory = new RecordBuffers( 3 * RecordBuffers.estimateSize( record( 0 ) ) );
+        RecordBuffer buffer = memory.newBuffer();
+
+        // When
+        for ( int i = 0; i < 10; i++ )
+        {
+            buffer.add( record( i ) );
+        }
+        // polling frees memory, but records keep going to disk until those there have been read
+        assertThat( buffer.poll().get( "n" ).asInt(), equalTo( 0 ) );
+        buffer.add( record( 10 ) );
+
+        // Then
+        List<Integer> read = new ArrayList<>();
+        while ( !buffer.isEmpty() )
+        {
+            read.add( buffer.poll().get( "n" ).asInt() );
+        }
+        assertThat( read, equalTo( Arrays.asList( 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 ) ) );
+        assertThat( buffer.poll(), nullValue() );
+        assertThat( memory.used(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldReadBackSpilledValuesAsTheyWere() throws Throwable
+    {
+        // Given no room for any records
+        RecordBuffer buffer = new RecordBuffers( 1 ).newBuffer();
+        Map<String,Value> properties = new HashMap<>();
+        properties.put( "name", value( "Alice" ) );
+        Value node = value( new InternalNode( 42, Collections.singletonList( "Person" ), properties ) );
+        Value list = value( Arrays.asList( 1L, 2.5, true, "x" ) );
+        Record record = new InternalRecord( KEYS, new Value[]{node, list} );
+
+        // When
+        buffer.add( record );
+
+        // Then
+        assertThat( buffer.peek(), equalTo( record ) );
+        assertThat( buffer.poll(), equalTo( record ) );
+        assertTrue( buffer.isEmpty() );
+    }
+
+    @Test
+    public void shouldReleaseMemoryAndDiskOnClear() throws Throwable
+    {
+        // Given
+        RecordBuffers memory = new RecordBuffers( 2 * RecordBuffers.estimateSize( record( 0 ) ) );
+        RecordBuffer buffer = memory.newBuffer();
+        for ( int i = 0; i < 5; i++ )
+        {
+            buffer.add( record( i ) );
+        }
+        assertFalse( buffer.isEmpty() );
+
+        // When
+        buffer.clear();
+
+        // Then
+        assertTrue( buffer.isEmpty() );
+        assertThat( buffer.poll(), nullValue() );
+        assertThat( memory.used(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldOnlyKeepRecordsInMemoryWithoutLimit() throws Throwable
+    {
+        // Given
+        RecordBuffer buffer = RecordBuffers.UNLIMITED.newBuffer();
+
+        // When
+        buffer.add( record( 1 ) );
+
+        // Then
+        assertThat( RecordBuffers.UNLIMITED.used(), equalTo( 0L ) );
+        assertThat( buffer.poll().get( "n" ).asInt(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldReadBackSpilledRecordsSpanningManyWrites() throws Throwable
+    {
+        // Given no room for any records, and records that take several writes to the file, one of them larger than
+        // what is read back at once
+        RecordBuffer buffer = new RecordBuffers( 1 ).newBuffer();
+        char[] text = new char[100 * 1024];
+        Arrays.fill( text, 'x' );
+        char[] largeText = new char[2 * 1024 * 1024];
+        Arrays.fill( largeText, 'y' );
+
+        // When
+        for ( int i = 0; i < 20; i++ )
+        {
+            String written = i == 7 ? new String( largeText ) : new String( text );
+            buffer.add( new InternalRecord( KEYS, new Value[]{value( i ), value( written )} ) );
+            if ( i == 10 )
+            {
+                assertThat( buffer.poll().get( "n" ).asInt(), equalTo( 0 ) );
+            }
+        }
+
+        // Then
+        for ( int i = 1; i < 20; i++ )
+        {
+            Record record = buffer.poll();
+            assertThat( record.get( "n" ).asInt(), equalTo( i ) );
+            assertThat( record.get( "text" ).asString().length(), equalTo( i == 7 ? largeText.length : text.length ) );
+        }
+        assertTrue( buffer.isEmpty() );
+    }
+
+    private static Record record( int n )
+    {
+        return new InternalRecord( KEYS, new Value[]{value( n ), value( "record" )} );
+    }
+}
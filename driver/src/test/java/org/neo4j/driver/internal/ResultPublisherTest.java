@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.Subscriber;
+import org.neo4j.driver.v1.async.Subscription;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.neo4j.driver.v1.Values.value;
+
+public class ResultPublisherTest
+{
+    private final Connection connection = mock( Connection.class );
+
+    @Test
+    public void shouldOnlyReceiveRecordsAsTheyAreRequested() throws Throwable
+    {
+        // Given
+        InternalStatementResult result = scriptResult( new InternalStatementResult( connection, new Statement( "" ) ), 5 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        result.publisher().subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( 2 );
+
+        // Then the head and two records have been received, nothing more
+        assertThat( subscriber.records.size(), equalTo( 2 ) );
+        verify( connection, times( 3 ) ).receiveOne();
+        assertFalse( subscriber.completed );
+
+        // When
+        subscriber.subscription.request( Long.MAX_VALUE );
+
+        // Then
+        assertThat( subscriber.records.size(), equalTo( 5 ) );
+        assertTrue( subscriber.completed );
+    }
+
+    @Test
+    public void shouldServeRequestsFromOnNextWithoutRecursing() throws Throwable
+    {
+        // Given
+        InternalStatementResult result = scriptResult( new InternalStatementResult( connection, new Statement( "" ) ), 3 );
+        final int[] depth = {0, 0};
+        RecordingSubscriber subscriber = new RecordingSubscriber()
+        {
+            @Override
+            public void onNext( Record record )
+            {
+                super.onNext( record );
+                depth[0]++;
+                depth[1] = Math.max( depth[1], depth[0] );
+                subscription.request( 1 );
+                depth[0]--;
+            }
+        };
+        result.publisher().subscribe( subscriber );
+
+        // When
+        subscriber.subscription.request( 1 );
+
+        // Then
+        assertThat( subscriber.records.size(), equalTo( 3 ) );
+        assertTrue( subscriber.completed );
+        assertThat( depth[1], equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldResetWhenCancelledIfNothingFollowsTheResult() throws Throwable
+    {
+        // Given
+        InternalStatementResult result = scriptResult( new InternalStatementResult( connection, new Statement( "" ) )
+        {
+            @Override
+            boolean isLastOnConnection()
+            {
+                return true;
+            }
+        }, 1000 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        result.publisher().subscribe( subscriber );
+        subscriber.subscription.request( 1 );
+
+        // When
+        subscriber.subscription.cancel();
+
+        // Then
+        verify( connection, times( 2 ) ).receiveOne();
+        inOrder( connection ).verify( connection ).reset();
+        verify( connection ).sync();
+        assertFalse( result.hasNext() );
+        assertFalse( subscriber.completed );
+    }
+
+    @Test
+    public void shouldConsumeRestWhenCancelledIfOtherStatementsMayFollow() throws Throwable
+    {
+        // Given
+        InternalStatementResult result = scriptResult( new InternalStatementResult( connection, new Statement( "" ) ), 4 );
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        result.publisher().subscribe( subscriber );
+        subscriber.subscription.request( 1 );
+
+        // When
+        subscriber.subscription.cancel();
+
+        // Then
+        verify( connection, never() ).reset();
+        verify( connection, times( 6 ) ).receiveOne();
+        assertThat( subscriber.records.size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldRejectSecondSubscriber() throws Throwable
+    {
+        // Given
+        InternalStatementResult result = scriptResult( new InternalStatementResult( connection, new Statement( "" ) ), 1 );
+        result.publisher().subscribe( new RecordingSubscriber() );
+        RecordingSubscriber second = new RecordingSubscriber();
+
+        // When
+        result.publisher().subscribe( second );
+
+        // Then
+        assertThat( second.error, instanceOf( IllegalStateException.class ) );
+    }
+
+    /** Have every receiveOne on the connection hand the next message of a result with the given number of records */
+    private InternalStatementResult scriptResult( final InternalStatementResult result, int records )
+    {
+        final LinkedList<Runnable> inbound = new LinkedList<>();
+        inbound.add( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                result.runResponseCollector().keys( new String[]{"k"} );
+                result.runResponseCollector().done();
+            }
+        } );
+        for ( int i = 0; i < records; i++ )
+        {
+            final int record = i;
+            inbound.add( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    result.pullAllResponseCollector().record( new Value[]{value( record )} );
+                }
+            } );
+        }
+        inbound.add( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                result.pullAllResponseCollector().done();
+            }
+        } );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                inbound.poll().run();
+                return null;
+            }
+        } ).when( connection ).receiveOne();
+        return result;
+    }
+
+    private static class RecordingSubscriber implements Subscriber<Record>
+    {
+        Subscription subscription;
+        final List<Record> records = new ArrayList<>();
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onSubscribe( Subscription subscription )
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext( Record record )
+        {
+            records.add( record );
+        }
+
+        @Override
+        public void onError( Throwable error )
+        {
+            this.error = error;
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed = true;
+        }
+    }
+}
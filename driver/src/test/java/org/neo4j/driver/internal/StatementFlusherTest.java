@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.util.Clock;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+public class StatementFlusherTest
+{
+    private final Connection connection = mock( Connection.class );
+    private final FakeClock clock = new FakeClock();
+
+    @Test
+    public void shouldFlushEveryStatementByDefault() throws Throwable
+    {
+        // Given
+        StatementFlusher flusher = new StatementFlusher( 0, 0, clock );
+
+        // When
+        flusher.statementQueued( connection );
+        flusher.statementQueued( connection );
+
+        // Then
+        verify( connection, times( 2 ) ).flush();
+    }
+
+    @Test
+    public void shouldFlushOnceEnoughStatementsAreQueued() throws Throwable
+    {
+        // Given
+        StatementFlusher flusher = new StatementFlusher( 3, 0, clock );
+
+        // When
+        flusher.statementQueued( connection );
+        flusher.statementQueued( connection );
+
+        // Then
+        verifyZeroInteractions( connection );
+
+        // When
+        flusher.statementQueued( connection );
+        flusher.statementQueued( connection );
+
+        // Then
+        verify( connection, times( 1 ) ).flush();
+    }
+
+    @Test
+    public void shouldFlushOnceTheFirstQueuedStatementWaitedTooLong() throws Throwable
+    {
+        // Given
+        StatementFlusher flusher = new StatementFlusher( 100, 10, clock );
+
+        // When
+        flusher.statementQueued( connection );
+        clock.now = 9;
+        flusher.statementQueued( connection );
+
+        // Then
+        verifyZeroInteractions( connection );
+
+        // When
+        clock.now = 10;
+        flusher.statementQueued( connection );
+
+        // Then
+        verify( connection, times( 1 ) ).flush();
+    }
+
+    private static class FakeClock implements Clock
+    {
+        private long now;
+
+        @Override
+        public long millis()
+        {
+            return now;
+        }
+    }
+}
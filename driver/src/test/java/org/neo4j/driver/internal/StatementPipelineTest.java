@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal;
+
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.summary.ResultSummary;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class StatementPipelineTest
+{
+    private final Connection connection = mock( Connection.class );
+    private final Queue<StreamCollector> awaitingReplies = new LinkedList<>();
+    private int maxAwaitingReplies;
+
+    @Test
+    public void shouldKeepNoMoreThanTheWindowOfStatementsInFlight() throws Throwable
+    {
+        // Given
+        serverRepliesInOrder();
+        StatementPipeline pipeline = new StatementPipeline( connection, 4 );
+
+        // When
+        List<ResultSummary> summaries = pipeline.runAll( StatementPipeline.statements( "CREATE (n {x: {x}})",
+                Arrays.asList( params( 1 ), params( 2 ), params( 3 ), params( 4 ), params( 5 ), params( 6 ),
+                        params( 7 ), params( 8 ), params( 9 ), params( 10 ) ).iterator() ) );
+
+        // Then
+        assertThat( maxAwaitingReplies, equalTo( 4 ) );
+        assertThat( summaries.size(), equalTo( 10 ) );
+        assertThat( summaries.get( 0 ).statement().parameters().get( "x" ).asInt(), equalTo( 1 ) );
+        assertThat( summaries.get( 9 ).statement().parameters().get( "x" ).asInt(), equalTo( 10 ) );
+        // Each time the window fills, sending waits for half of it to drain
+        verify( connection, times( 4 ) ).flush();
+        verify( connection ).sync();
+    }
+
+    @Test
+    public void shouldSendEverythingBeforeSyncingWhenWithinTheWindow() throws Throwable
+    {
+        // Given
+        serverRepliesInOrder();
+        StatementPipeline pipeline = new StatementPipeline( connection, 100 );
+
+        // When
+        List<ResultSummary> summaries = pipeline.runAll( Arrays.asList(
+                new Statement( "CREATE ()" ), new Statement( "CREATE ()" ) ).iterator() );
+
+        // Then
+        assertThat( summaries.size(), equalTo( 2 ) );
+        verify( connection, times( 0 ) ).flush();
+        verify( connection, times( 2 ) ).run( eq( "CREATE ()" ), anyMapOf( String.class, Value.class ),
+                eq( StreamCollector.NO_OP ) );
+    }
+
+    private static Map<String,Object> params( int x )
+    {
+        return Collections.<String,Object>singletonMap( "x", x );
+    }
+
+    /** Every receive completes the oldest statement, syncing completes all of them */
+    private void serverRepliesInOrder()
+    {
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                awaitingReplies.add( (StreamCollector) invocation.getArguments()[0] );
+                maxAwaitingReplies = Math.max( maxAwaitingReplies, awaitingReplies.size() );
+                return null;
+            }
+        } ).when( connection ).pullAll( any( StreamCollector.class ) );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                awaitingReplies.remove().doneSuccess();
+                return null;
+            }
+        } ).when( connection ).receiveOne();
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                while ( !awaitingReplies.isEmpty() )
+                {
+                    awaitingReplies.remove().doneSuccess();
+                }
+                return null;
+            }
+        } ).when( connection ).sync();
+    }
+}
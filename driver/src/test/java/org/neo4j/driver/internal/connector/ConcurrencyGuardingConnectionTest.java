@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.v1.util.Function;
 import org.neo4j.driver.v1.exceptions.ClientException;
 
@@ -120,7 +121,7 @@ public class ConcurrencyGuardingConnectionTest
         @Override
         public Void apply( Connection connection )
         {
-            connection.discardAll();
+            connection.discardAll( StreamCollector.NO_OP );
             return null;
         }
     };
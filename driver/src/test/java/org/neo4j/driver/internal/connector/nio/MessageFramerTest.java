@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.neo4j.driver.internal.util.ByteBufferPool;
+import org.neo4j.driver.internal.util.BytePrinter;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class MessageFramerTest
+{
+    private final List<String> messages = new ArrayList<>();
+    private final ByteBufferPool buffers = new ByteBufferPool();
+    private final MessageFramer framer = new MessageFramer( new MessageFramer.MessageListener()
+    {
+        @Override
+        public void onMessage( ByteBuffer message )
+        {
+            byte[] bytes = new byte[message.remaining()];
+            message.get( bytes );
+            messages.add( BytePrinter.hex( bytes ).trim() );
+            buffers.release( message );
+        }
+    }, buffers );
+
+    @Test
+    public void shouldFrameMessagesSpanningSeveralChunks() throws Throwable
+    {
+        // When
+        framer.feed( bytes( 0x00, 0x02, 0x01, 0x02, 0x00, 0x01, 0x03, 0x00, 0x00, 0x00, 0x01, 0x04, 0x00, 0x00 ) );
+
+        // Then
+        assertThat( messages.size(), equalTo( 2 ) );
+        assertThat( messages.get( 0 ), equalTo( "01 02 03" ) );
+        assertThat( messages.get( 1 ), equalTo( "04" ) );
+    }
+
+    @Test
+    public void shouldFrameMessagesSplitAtAnyByte() throws Throwable
+    {
+        // Given
+        int[] stream = {0x00, 0x03, 0x01, 0x02, 0x03, 0x00, 0x00};
+
+        // When the bytes arrive one at a time
+        for ( int b : stream )
+        {
+            framer.feed( bytes( b ) );
+        }
+
+        // Then
+        assertThat( messages.size(), equalTo( 1 ) );
+        assertThat( messages.get( 0 ), equalTo( "01 02 03" ) );
+    }
+
+    @Test
+    public void shouldFrameMessagesLargerThanItsInitialBuffer() throws Throwable
+    {
+        // Given
+        ByteBuffer stream = ByteBuffer.allocate( 2 + 2000 + 2 );
+        stream.putShort( (short) 2000 );
+        for ( int i = 0; i < 2000; i++ )
+        {
+            stream.put( (byte) 7 );
+        }
+        stream.putShort( (short) 0 );
+        stream.flip();
+
+        // When
+        framer.feed( stream );
+
+        // Then
+        assertThat( messages.size(), equalTo( 1 ) );
+        assertThat( messages.get( 0 ).replaceAll( "\\s", "" ).length(), equalTo( 4000 ) );
+    }
+
+    @Test
+    public void shouldReuseBuffersOfDecodedMessages() throws Throwable
+    {
+        // Given
+        framer.feed( bytes( 0x00, 0x01, 0x01, 0x00, 0x00 ) );
+        int available = buffers.available( ByteBufferPool.MIN_CAPACITY );
+
+        // When
+        framer.feed( bytes( 0x00, 0x01, 0x02, 0x00, 0x00 ) );
+
+        // Then
+        assertThat( messages.size(), equalTo( 2 ) );
+        assertThat( buffers.available( ByteBufferPool.MIN_CAPACITY ), equalTo( available ) );
+        assertThat( available, equalTo( 1 ) );
+    }
+
+    private static ByteBuffer bytes( int... values )
+    {
+        ByteBuffer buffer = ByteBuffer.allocate( values.length );
+        for ( int value : values )
+        {
+            buffer.put( (byte) value );
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.messaging.MessageFormat;
+import org.neo4j.driver.internal.messaging.MessageHandler;
+import org.neo4j.driver.internal.messaging.PackStreamMessageFormatV1;
+import org.neo4j.driver.internal.messaging.RecordMessage;
+import org.neo4j.driver.internal.messaging.SuccessMessage;
+import org.neo4j.driver.internal.metrics.InternalMetrics;
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.ByteBufferPool;
+import org.neo4j.driver.v1.AuthTokens;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Logger;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.driver.v1.Values.value;
+
+public class NioConnectorTest
+{
+    private final NioConnector connector =
+            new NioConnector( new InternalMetrics(), new ByteBufferPool(), 1, mock( Logger.class ) );
+    private ServerSocketChannel server;
+
+    @After
+    public void tearDown() throws IOException
+    {
+        connector.close();
+        if ( server != null )
+        {
+            server.close();
+        }
+    }
+
+    @Test
+    public void shouldRunStatementsOverEventLoop() throws Throwable
+    {
+        // Given
+        final CountDownLatch done = new CountDownLatch( 1 );
+        URI uri = startServer( new Script()
+        {
+            @Override
+            public void play( MessageFormat.Reader reader, MessageFormat.Writer writer ) throws IOException
+            {
+                // RUN and PULL_ALL
+                reader.read( mock( MessageHandler.class ) );
+                reader.read( mock( MessageHandler.class ) );
+                HashMap<String,Value> fields = new HashMap<>();
+                fields.put( "fields", value( Collections.singletonList( "x" ) ) );
+                writer.write( new SuccessMessage( fields ) );
+                writer.write( new RecordMessage( new Value[]{value( 1 )} ) );
+                writer.write( new RecordMessage( new Value[]{value( 2 )} ) );
+                writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+                writer.flush();
+                done.countDown();
+            }
+        } );
+        Connection connection = connector.connect( uri, config().toConfig(), AuthTokens.none() );
+        RecordingCollector collector = new RecordingCollector();
+
+        // When
+        connection.run( "UNWIND [1, 2] AS x RETURN x", new HashMap<String,Value>(), collector );
+        connection.pullAll( collector );
+        connection.sync();
+
+        // Then
+        assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+        assertThat( collector.records.size(), equalTo( 2 ) );
+        assertThat( collector.records.get( 1 )[0].asInt(), equalTo( 2 ) );
+        assertTrue( connection.isOpen() );
+
+        // When
+        connection.close();
+
+        // Then
+        assertFalse( connection.isOpen() );
+    }
+
+    @Test
+    public void shouldDispatchResponsesOnEventLoopWhenSyncingAsynchronously() throws Throwable
+    {
+        // Given
+        URI uri = startServer( new Script()
+        {
+            @Override
+            public void play( MessageFormat.Reader reader, MessageFormat.Writer writer ) throws IOException
+            {
+                reader.read( mock( MessageHandler.class ) );
+                reader.read( mock( MessageHandler.class ) );
+                writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+                writer.write( new RecordMessage( new Value[]{value( 1 )} ) );
+                writer.write( new SuccessMessage( new HashMap<String,Value>() ) );
+                writer.flush();
+            }
+        } );
+        Connection connection = connector.connect( uri, config().toConfig(), AuthTokens.none() );
+        final List<Thread> recordThreads = new ArrayList<>();
+        RecordingCollector collector = new RecordingCollector()
+        {
+            @Override
+            public void record( Value[] fields )
+            {
+                recordThreads.add( Thread.currentThread() );
+                super.record( fields );
+            }
+        };
+        final CountDownLatch synced = new CountDownLatch( 1 );
+
+        // When
+        connection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        connection.pullAll( collector );
+        connection.syncAsync( new ResponseListener<Void>()
+        {
+            @Override
+            public void onSuccess( Void result )
+            {
+                synced.countDown();
+            }
+
+            @Override
+            public void onFailure( Neo4jException error )
+            {
+            }
+        } );
+
+        // Then
+        assertTrue( synced.await( 10, TimeUnit.SECONDS ) );
+        assertThat( collector.records.size(), equalTo( 1 ) );
+        assertThat( recordThreads.get( 0 ), not( equalTo( Thread.currentThread() ) ) );
+        connection.close();
+    }
+
+    @Test
+    public void shouldFailWhenServerDoesNotReplyWithinReadTimeout() throws Throwable
+    {
+        // Given
+        URI uri = startServer( new Script()
+        {
+            @Override
+            public void play( MessageFormat.Reader reader, MessageFormat.Writer writer ) throws IOException
+            {
+                reader.read( mock( MessageHandler.class ) );
+                // and never reply
+            }
+        } );
+        Connection connection =
+                connector.connect( uri, config().withSocketReadTimeout( 100 ).toConfig(), AuthTokens.none() );
+
+        // When
+        connection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        try
+        {
+            connection.sync();
+            fail( "Should have timed out" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            assertThat( e.getMessage(), containsString( "network timeout" ) );
+            assertFalse( connection.isOpen() );
+        }
+    }
+
+    @Test
+    public void shouldFailWhenServerDoesNotNegotiateVersionWithinConnectionTimeout() throws Throwable
+    {
+        // Given a server that lets connections in, but never accepts them to answer the handshake
+        server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( "localhost", 0 ) );
+        URI uri = URI.create( "bolt://localhost:" + server.socket().getLocalPort() );
+
+        // When
+        try
+        {
+            connector.connect( uri, config().withConnectionTimeout( 200 ).toConfig(), AuthTokens.none() );
+            fail( "Should have timed out" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            assertThat( e.getMessage(), containsString( "within the connection timeout (200ms)" ) );
+        }
+    }
+
+    private static Config.ConfigBuilder config()
+    {
+        return Config.build().withEncryptionLevel( Config.EncryptionLevel.NONE ).withEventLoopThreads( 1 );
+    }
+
+    private interface Script
+    {
+        void play( MessageFormat.Reader reader, MessageFormat.Writer writer ) throws IOException;
+    }
+
+    /**
+     * Accept a single connection, do the handshake and INIT, then play the script.
+     */
+    private URI startServer( final Script script ) throws IOException
+    {
+        server = ServerSocketChannel.open();
+        server.bind( new InetSocketAddress( "localhost", 0 ) );
+        Thread thread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try ( SocketChannel channel = server.accept() )
+                {
+                    ByteBuffer handshake = ByteBuffer.allocate( 20 );
+                    while ( handshake.hasRemaining() )
+                    {
+                        channel.read( handshake );
+                    }
+                    ByteBuffer version = ByteBuffer.allocate( 4 );
+                    version.putInt( 1 ).flip();
+                    channel.write( version );
+
+                    PackStreamMessageFormatV1 format = new PackStreamMessageFormatV1();
+                    MessageFormat.Reader reader = format.newReader( channel );
+                    MessageFormat.Writer writer = format.newWriter( channel );
+                    reader.read( mock( MessageHandler.class ) );
+                    writer.write( new SuccessMessage( new HashMap<String,Value>() ) ).flush();
+
+                    script.play( reader, writer );
+                    // Keep the connection open until the client is done with it
+                    channel.read( ByteBuffer.allocate( 1 ) );
+                }
+                catch ( IOException e )
+                {
+                    // the test is over
+                }
+            }
+        } );
+        thread.setDaemon( true );
+        thread.start();
+        return URI.create( "bolt://localhost:" + server.socket().getLocalPort() );
+    }
+
+    private static class RecordingCollector extends StreamCollector.NoOperationStreamCollector
+    {
+        private final List<Value[]> records = new ArrayList<>();
+
+        @Override
+        public void record( Value[] fields )
+        {
+            records.add( fields );
+        }
+    }
+}
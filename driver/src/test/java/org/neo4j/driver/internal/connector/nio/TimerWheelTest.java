@@ -0,0 +1,123 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.nio;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest
+{
+    private final List<String> fired = new ArrayList<>();
+    private final TimerWheel wheel = new TimerWheel( 10, 8, 0 );
+
+    @Test
+    public void shouldRunTimersOnceTheyExpire() throws Throwable
+    {
+        // Given
+        wheel.schedule( record( "a" ), 25, 0 );
+        wheel.schedule( record( "b" ), 10, 0 );
+
+        // When
+        wheel.advance( 19 );
+
+        // Then
+        assertThat( fired, contains( "b" ) );
+
+        // When
+        wheel.advance( 30 );
+
+        // Then
+        assertThat( fired, contains( "b", "a" ) );
+        assertTrue( wheel.isEmpty() );
+    }
+
+    @Test
+    public void shouldNotRunTimersScheduledMoreThanOneRoundAhead() throws Throwable
+    {
+        // Given a timer in the same slot as tick 1, but on the next round
+        wheel.schedule( record( "late" ), 90, 0 );
+
+        // When
+        wheel.advance( 10 );
+
+        // Then
+        assertThat( fired, empty() );
+
+        // When
+        wheel.advance( 90 );
+
+        // Then
+        assertThat( fired, contains( "late" ) );
+    }
+
+    @Test
+    public void shouldNotRunCancelledTimers() throws Throwable
+    {
+        // Given
+        TimerWheel.Timer timer = wheel.schedule( record( "a" ), 10, 0 );
+
+        // When
+        timer.cancel();
+        wheel.advance( 100 );
+
+        // Then
+        assertThat( fired, empty() );
+        assertTrue( wheel.isEmpty() );
+    }
+
+    @Test
+    public void shouldRunTimersScheduledByTimers() throws Throwable
+    {
+        // Given
+        wheel.schedule( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                fired.add( "first" );
+                wheel.schedule( record( "second" ), 10, 10 );
+            }
+        }, 10, 0 );
+
+        // When
+        wheel.advance( 20 );
+
+        // Then
+        assertThat( fired, contains( "first", "second" ) );
+    }
+
+    private Runnable record( final String name )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                fired.add( name );
+            }
+        };
+    }
+}
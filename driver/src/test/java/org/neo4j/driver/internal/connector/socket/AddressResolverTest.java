@@ -0,0 +1,116 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+import org.neo4j.driver.internal.util.Clock;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+
+public class AddressResolverTest
+{
+    @Test
+    public void shouldLookUpAgainOnlyOnceTheAnswerExpired() throws Throwable
+    {
+        // Given
+        FakeClock clock = new FakeClock();
+        CountingResolver resolver = new CountingResolver( clock, 1000 );
+
+        // When
+        resolver.resolve( "neo4j.example.com" );
+        clock.now = 999;
+        resolver.resolve( "neo4j.example.com" );
+
+        // Then
+        assertThat( resolver.lookups, equalTo( 1 ) );
+
+        // When
+        clock.now = 1000;
+        resolver.resolve( "neo4j.example.com" );
+
+        // Then
+        assertThat( resolver.lookups, equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldLookUpAgainAfterForgetting() throws Throwable
+    {
+        // Given
+        CountingResolver resolver = new CountingResolver( new FakeClock(), 1000 );
+        resolver.resolve( "neo4j.example.com" );
+
+        // When
+        resolver.forget( "neo4j.example.com" );
+        resolver.resolve( "neo4j.example.com" );
+
+        // Then
+        assertThat( resolver.lookups, equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldAlternateAddressFamilies() throws Throwable
+    {
+        // Given
+        InetAddress v6a = InetAddress.getByName( "::1" );
+        InetAddress v6b = InetAddress.getByName( "::2" );
+        InetAddress v4a = InetAddress.getByName( "127.0.0.1" );
+        InetAddress v4b = InetAddress.getByName( "127.0.0.2" );
+        InetAddress v4c = InetAddress.getByName( "127.0.0.3" );
+
+        // When
+        InetAddress[] ordered = AddressResolver.interleave( new InetAddress[]{v6a, v6b, v4a, v4b, v4c} );
+
+        // Then
+        assertArrayEquals( new InetAddress[]{v6a, v4a, v6b, v4b, v4c}, ordered );
+    }
+
+    private static class FakeClock implements Clock
+    {
+        private long now;
+
+        @Override
+        public long millis()
+        {
+            return now;
+        }
+    }
+
+    private static class CountingResolver extends AddressResolver
+    {
+        private int lookups;
+
+        CountingResolver( Clock clock, long ttlMillis )
+        {
+            super( clock, ttlMillis );
+        }
+
+        @Override
+        protected InetAddress[] lookup( String host ) throws UnknownHostException
+        {
+            lookups++;
+            return new InetAddress[]{InetAddress.getByName( "127.0.0.1" )};
+        }
+    }
+}
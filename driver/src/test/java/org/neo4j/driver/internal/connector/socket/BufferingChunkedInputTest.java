@@ -30,6 +30,8 @@ import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ReadableByteChannel;
 import java.util.Arrays;
 
+import org.neo4j.driver.internal.packstream.PackStream;
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.v1.exceptions.ClientException;
 import org.neo4j.driver.v1.util.RecordingByteChannel;
 
@@ -334,6 +336,24 @@ public class BufferingChunkedInputTest
         }
     }
 
+    @Test
+    public void shouldSkipRestOfMessageAcrossChunksAndPackets() throws IOException
+    {
+        // Given a message of three chunks, split over packets, followed by another message
+        ReadableByteChannel channel = Channels.newChannel( new ByteArrayInputStream(
+                new byte[]{0, 3, 1, 2, 3, 0, 2, 4, 5, 0, 1, 6, 0, 0, 0, 2, 7, 8, 0, 0} ) );
+        BufferingChunkedInput input = new BufferingChunkedInput( channel, 3 );
+        assertThat( input.readByte(), equalTo( (byte) 1 ) );
+
+        // When
+        input.messageSkipHook().run();
+
+        // Then the next message is read as usual
+        assertThat( input.readByte(), equalTo( (byte) 7 ) );
+        assertThat( input.readByte(), equalTo( (byte) 8 ) );
+        input.messageBoundaryHook().run();
+    }
+
     @Test
     public void shouldGiveHelpfulMessageOnInterrupt() throws IOException
     {
@@ -514,6 +534,84 @@ public class BufferingChunkedInputTest
         assertFalse( channel.isOpen() );
     }
 
+    @Test
+    public void shouldGrowAdaptiveBufferWhileLargeMessageStreamsIn() throws Throwable
+    {
+        // Given a message of a single large chunk
+        ByteBuffer message = ByteBuffer.allocate( 2 + 60000 + 2 );
+        message.putShort( (short) 60000 );
+        for ( int i = 0; i < 60000; i++ )
+        {
+            message.put( (byte) 7 );
+        }
+        message.putShort( (short) 0 );
+        ReadableByteChannel channel = Channels.newChannel( new ByteArrayInputStream( message.array() ) );
+        ByteBufferPool pool = new ByteBufferPool();
+        BufferingChunkedInput input = new BufferingChunkedInput( channel, ReadBufferSizer.adaptive(), pool );
+        assertThat( input.bufferCapacity(), equalTo( ReadBufferSizer.DEFAULT_INITIAL_SIZE ) );
+
+        // When
+        byte[] read = new byte[60000];
+        input.readBytes( read, 0, read.length );
+        input.messageBoundaryHook().run();
+
+        // Then
+        byte[] expected = new byte[60000];
+        Arrays.fill( expected, (byte) 7 );
+        assertThat( read, equalTo( expected ) );
+        // 2, 4, 8 and 16KB reads came back full, the rest of the message fits in 32KB
+        assertThat( input.bufferCapacity(), equalTo( 32 * 1024 ) );
+
+        // When
+        input.release();
+
+        // Then
+        assertThat( pool.available( 32 * 1024 ), equalTo( 1 ) );
+        assertThat( pool.available( ReadBufferSizer.DEFAULT_INITIAL_SIZE ), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldDecodeStringsWithinAndAcrossChunks() throws Throwable
+    {
+        // Given strings that are split over several chunks, and strings that are not
+        String[] strings = {"a", "Mjölnir", "a string that is longer than a chunk", "日本語", ""};
+        RecordingByteChannel ch = new RecordingByteChannel();
+        ChunkedOutput out = new ChunkedOutput( 16, ch );
+        PackStream.Packer packer = new PackStream.Packer( out );
+        for ( String string : strings )
+        {
+            packer.pack( string );
+        }
+        out.messageBoundaryHook().run();
+        out.flush();
+
+        // When
+        BufferingChunkedInput input =
+                new BufferingChunkedInput( ch, ReadBufferSizer.adaptive(), new ByteBufferPool() );
+        PackStream.Unpacker unpacker = new PackStream.Unpacker( input );
+
+        // Then
+        for ( String string : strings )
+        {
+            assertThat( unpacker.unpackString(), equalTo( string ) );
+        }
+        input.messageBoundaryHook().run();
+    }
+
+    @Test
+    public void shouldOnlyDecodeStringsStraightFromBufferWithinChunk() throws Throwable
+    {
+        // Given a chunk of three bytes, followed by a chunk of two
+        BufferingChunkedInput input = new BufferingChunkedInput(
+                packet( 0, 3, 'a', 'b', 'c', 0, 2, 'd', 'e', 0, 0 ) );
+
+        // Then
+        assertThat( input.readUtf8( 2 ), equalTo( "ab" ) );
+        assertThat( input.readUtf8( 2 ), equalTo( null ) );
+        assertThat( input.readByte(), equalTo( (byte) 'c' ) );
+        assertThat( input.readUtf8( 2 ), equalTo( "de" ) );
+    }
+
     private ReadableByteChannel fillPacket( int size, int value )
     {
         int[] ints = new int[size];
@@ -21,6 +21,7 @@ package org.neo4j.driver.internal.connector.socket;
 import org.hamcrest.MatcherAssert;
 import org.junit.Test;
 
+import org.neo4j.driver.internal.util.ByteBufferPool;
 import org.neo4j.driver.internal.util.BytePrinter;
 import org.neo4j.driver.v1.util.RecordingByteChannel;
 
@@ -95,4 +96,36 @@ public class ChunkedOutputTest
         assertThat( BytePrinter.hex( channel.getBytes() ),
                 equalTo( "00 0c 04 05 06 07 08 09    0a 0b 0c 0d 0e 0f 00 00    " ) );
     }
+
+    @Test
+    public void shouldGrowPooledBufferRatherThanWriteMessagesInPieces() throws Throwable
+    {
+        // Given
+        ByteBufferPool pool = new ByteBufferPool();
+        ChunkedOutput pooled = new ChunkedOutput( 16, channel, pool );
+
+        // When
+        for ( int i = 0; i < 3; i++ )
+        {
+            pooled.writeBytes( new byte[1000], 0, 1000 );
+        }
+        pooled.messageBoundaryHook().run();
+
+        // Then nothing was written before the flush
+        assertThat( channel.getBytes().length, equalTo( 0 ) );
+
+        // When
+        pooled.flush();
+
+        // Then the message went out as a single chunk
+        byte[] written = channel.getBytes();
+        assertThat( written.length, equalTo( 2 + 3000 + 2 ) );
+        assertThat( BytePrinter.hex( new byte[]{written[0], written[1]} ).trim(), equalTo( "0b b8" ) );
+
+        // When
+        pooled.release();
+
+        // Then
+        assertThat( pool.available( 4096 ), equalTo( 1 ) );
+    }
 }
@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.SocketChannel;
+
+import org.neo4j.driver.v1.Config;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HappyEyeballsTest
+{
+    private final Config config = Config.defaultConfig();
+
+    @Test
+    public void shouldConnectToLaterAddressWhenEarlierOnesDoNotAnswer() throws Throwable
+    {
+        // Given an address reserved for documentation, which nothing answers on, ahead of a listening one
+        try ( ServerSocket server = new ServerSocket( 0, 1, InetAddress.getByName( "127.0.0.1" ) ) )
+        {
+            InetAddress[] addresses = {InetAddress.getByName( "192.0.2.1" ), server.getInetAddress()};
+
+            // When
+            long start = System.currentTimeMillis();
+            try ( SocketChannel channel = HappyEyeballs.connect( addresses, server.getLocalPort(), config, 10_000,
+                    50 ) )
+            {
+                // Then
+                assertTrue( channel.isBlocking() );
+                assertThat( ((InetSocketAddress) channel.getRemoteAddress()).getAddress(),
+                        equalTo( server.getInetAddress() ) );
+                assertTrue( System.currentTimeMillis() - start < 5_000 );
+            }
+        }
+    }
+
+    @Test
+    public void shouldFailWhenNoAddressAccepts() throws Throwable
+    {
+        // Given two addresses with a port that was just freed, so connections are refused
+        int port;
+        try ( ServerSocket server = new ServerSocket( 0 ) )
+        {
+            port = server.getLocalPort();
+        }
+        InetAddress[] addresses = {InetAddress.getByName( "127.0.0.1" ), InetAddress.getByName( "127.0.0.1" )};
+
+        // When
+        try
+        {
+            HappyEyeballs.connect( addresses, port, config, 10_000, 50 );
+            fail( "Should not have connected" );
+        }
+        catch ( ConnectException e )
+        {
+            // Then the failure of the last attempt is reported
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class ReadBufferSizerTest
+{
+    @Test
+    public void shouldGrowOnFullReadsUpToMax() throws Throwable
+    {
+        // Given
+        ReadBufferSizer sizer = new ReadBufferSizer( 1024, 1024, 4096 );
+
+        // When
+        sizer.record( 1024 );
+
+        // Then
+        assertThat( sizer.size(), equalTo( 2048 ) );
+
+        // When
+        sizer.record( 2048 );
+        sizer.record( 4096 );
+
+        // Then
+        assertThat( sizer.size(), equalTo( 4096 ) );
+    }
+
+    @Test
+    public void shouldShrinkAfterManySmallReads() throws Throwable
+    {
+        // Given
+        ReadBufferSizer sizer = new ReadBufferSizer( 4096, 1024, 4096 );
+
+        // When
+        for ( int i = 0; i < ReadBufferSizer.SHRINK_AFTER_READS - 1; i++ )
+        {
+            sizer.record( 100 );
+        }
+
+        // Then
+        assertThat( sizer.size(), equalTo( 4096 ) );
+
+        // When
+        sizer.record( 100 );
+
+        // Then
+        assertThat( sizer.size(), equalTo( 2048 ) );
+    }
+
+    @Test
+    public void shouldNotShrinkWhenSmallReadsAreInterrupted() throws Throwable
+    {
+        // Given
+        ReadBufferSizer sizer = new ReadBufferSizer( 4096, 1024, 4096 );
+
+        // When
+        for ( int i = 0; i < ReadBufferSizer.SHRINK_AFTER_READS * 2; i++ )
+        {
+            sizer.record( i % 4 == 3 ? 3000 : 100 );
+        }
+
+        // Then
+        assertThat( sizer.size(), equalTo( 4096 ) );
+    }
+
+    @Test
+    public void shouldKeepFixedSize() throws Throwable
+    {
+        // Given
+        ReadBufferSizer sizer = ReadBufferSizer.fixed( 8192 );
+
+        // When
+        sizer.record( 8192 );
+        for ( int i = 0; i < ReadBufferSizer.SHRINK_AFTER_READS; i++ )
+        {
+            sizer.record( 1 );
+        }
+
+        // Then
+        assertThat( sizer.size(), equalTo( 8192 ) );
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import javax.net.ssl.SSLContext;
+
+import org.neo4j.driver.v1.Logger;
+
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.neo4j.driver.v1.Config.TrustStrategy.trustOnFirstUse;
+import static org.neo4j.driver.v1.Config.TrustStrategy.trustSystemCertificates;
+
+public class SSLContextCacheTest
+{
+    @Rule
+    public TemporaryFolder testDir = new TemporaryFolder();
+
+    private final Logger logger = mock( Logger.class );
+
+    @Test
+    public void shouldShareContextPerServerWhenTrustingOnFirstUse() throws Throwable
+    {
+        // Given
+        File knownHosts = testDir.newFile();
+        SSLContextCache cache = new SSLContextCache();
+
+        // When
+        SSLContext first = cache.get( "localhost", 7687, trustOnFirstUse( knownHosts ), logger );
+        SSLContext second = cache.get( "localhost", 7687, trustOnFirstUse( knownHosts ), logger );
+        SSLContext otherServer = cache.get( "localhost", 7688, trustOnFirstUse( knownHosts ), logger );
+
+        // Then
+        assertThat( second, sameInstance( first ) );
+        assertThat( otherServer, not( sameInstance( first ) ) );
+    }
+
+    @Test
+    public void shouldShareContextAcrossServersWhenTrustingSystemCertificates() throws Throwable
+    {
+        // Given
+        SSLContextCache cache = new SSLContextCache();
+
+        // When
+        SSLContext first = cache.get( "one.example.com", 7687, trustSystemCertificates(), logger );
+        SSLContext second = cache.get( "two.example.com", 7687, trustSystemCertificates(), logger );
+
+        // Then
+        assertThat( second, sameInstance( first ) );
+    }
+}
@@ -18,26 +18,38 @@
  */
 package org.neo4j.driver.internal.connector.socket;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.Queue;
 
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import org.neo4j.driver.internal.logging.DevNullLogger;
+import org.neo4j.driver.internal.messaging.InitMessage;
+import org.neo4j.driver.internal.messaging.Message;
+import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.exceptions.ClientException;
 
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
 public class SocketClientTest
 {
     @Rule
     public ExpectedException exception = ExpectedException.none();
 
-    // TODO: This is not possible with blocking NIO channels, unless we use inputStreams, but then we can't use
-    // off-heap buffers. We need to swap to use selectors, which would allow us to time out.
     @Test
-    @Ignore
     public void testNetworkTimeout() throws Throwable
     {
         // Given a server that will never reply
@@ -46,7 +58,7 @@ public class SocketClientTest
         // And given we've configured a client with network timeout
         int networkTimeout = 100;
         SocketClient client = new SocketClient( "localhost", server.getLocalPort(),
-                Config.defaultConfig(), new DevNullLogger() );
+                Config.build().withSocketReadTimeout( networkTimeout ).toConfig(), new DevNullLogger() );
 
         // Expect
         exception.expect( ClientException.class );
@@ -55,4 +67,92 @@ public class SocketClientTest
         // When
         client.start();
     }
+
+    @Test
+    public void shouldSendInitWithoutWaitingForTheServerToChooseVersion() throws Throwable
+    {
+        // Given a server that only replies once it has seen the first message
+        ServerSocket server = new ServerSocket( 0 );
+        replyAfterFirstMessage( server, new byte[]{0, 0, 0, 1, 0, 3, (byte) 0xB1, 0x70, (byte) 0xA0, 0, 0} );
+        SocketClient client = new SocketClient( "localhost", server.getLocalPort(),
+                Config.build().withEncryptionLevel( Config.EncryptionLevel.NONE )
+                        .withSocketReadTimeout( 10_000 ).toConfig(), new DevNullLogger() );
+        SocketResponseHandler handler = new SocketResponseHandler();
+
+        // When
+        client.startPipelined();
+        handler.appendResultCollector( StreamCollector.INIT );
+        client.send( initMessage() );
+        client.receiveAll( handler );
+
+        // Then
+        assertThat( handler.collectorsWaiting(), equalTo( 0 ) );
+        assertThat( client.isOpen(), equalTo( true ) );
+        client.stop();
+        server.close();
+    }
+
+    @Test
+    public void shouldCloseWhenServerChoosesUnexpectedVersion() throws Throwable
+    {
+        // Given
+        ServerSocket server = new ServerSocket( 0 );
+        replyAfterFirstMessage( server, new byte[]{0, 0, 0, 2} );
+        SocketClient client = new SocketClient( "localhost", server.getLocalPort(),
+                Config.build().withEncryptionLevel( Config.EncryptionLevel.NONE )
+                        .withSocketReadTimeout( 10_000 ).toConfig(), new DevNullLogger() );
+        SocketResponseHandler handler = new SocketResponseHandler();
+
+        // When
+        client.startPipelined();
+        handler.appendResultCollector( StreamCollector.INIT );
+        client.send( initMessage() );
+        try
+        {
+            client.receiveAll( handler );
+            fail( "Should have failed on the version" );
+        }
+        catch ( ClientException e )
+        {
+            // Then
+            assertThat( e.getMessage(), containsString( "unexpected protocol version: 2" ) );
+        }
+        assertThat( client.isOpen(), equalTo( false ) );
+        server.close();
+    }
+
+    private static Queue<Message> initMessage()
+    {
+        Queue<Message> messages = new LinkedList<>();
+        messages.add( new InitMessage( "test", Collections.<String,Value>emptyMap() ) );
+        return messages;
+    }
+
+    private static void replyAfterFirstMessage( final ServerSocket server, final byte[] reply )
+    {
+        Thread thread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try ( Socket client = server.accept() )
+                {
+                    DataInputStream in = new DataInputStream( client.getInputStream() );
+                    in.readFully( new byte[20] );
+                    // The header of the first chunk of the first message
+                    in.readFully( new byte[2] );
+                    OutputStream out = client.getOutputStream();
+                    out.write( reply );
+                    out.flush();
+                    in.read();
+                }
+                catch ( IOException e )
+                {
+                    // The test fails on the client side
+                }
+            }
+        } );
+        thread.setDaemon( true );
+        thread.start();
+    }
 }
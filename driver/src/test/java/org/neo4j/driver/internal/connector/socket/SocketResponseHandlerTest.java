@@ -33,8 +33,11 @@ import org.neo4j.driver.v1.summary.SummaryCounters;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.neo4j.driver.internal.summary.InternalPlan.plan;
 import static org.neo4j.driver.v1.Values.parameters;
 import static org.neo4j.driver.v1.Values.value;
@@ -144,4 +147,26 @@ public class SocketResponseHandlerTest
         verify( collector ).statementStatistics( stats );
         verify( collector ).plan( plan );
     }
+
+    @Test
+    public void shouldDropResponsesForSkippedCollectors() throws Throwable
+    {
+        // Given
+        StreamCollector next = mock( StreamCollector.class );
+        handler.skipWaitingCollectors();
+        handler.appendResultCollector( next );
+
+        // When
+        assertTrue( handler.skipsRecords() );
+        handler.handleRecordMessage( values( 1 ) );
+        handler.handleFailureMessage( "Neo.ClientError.Statement.SyntaxError", "Oops" );
+        handler.handleSuccessMessage( Collections.<String,Value>emptyMap() );
+
+        // Then the skipped collector is only told it is done
+        verify( collector ).done();
+        verifyNoMoreInteractions( collector );
+        assertFalse( handler.skipsRecords() );
+        verify( next ).doneSuccess();
+        assertFalse( handler.serverFailureOccurred() );
+    }
 }
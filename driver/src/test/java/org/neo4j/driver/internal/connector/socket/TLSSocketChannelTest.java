@@ -0,0 +1,219 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.security.KeyStore;
+import java.security.cert.X509Certificate;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import org.neo4j.driver.internal.logging.DevNullLogger;
+import org.neo4j.driver.internal.util.ByteBufferPool;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TLSSocketChannelTest
+{
+    private SSLContext sslContext;
+    private ServerSocket server;
+
+    @Before
+    public void setup() throws Throwable
+    {
+        KeyStore keyStore = KeyStore.getInstance( "JKS" );
+        char[] password = "password".toCharArray();
+        keyStore.load( getClass().getResourceAsStream( "/keystore.jks" ), password );
+        KeyManagerFactory keyManagers = KeyManagerFactory.getInstance( "SunX509" );
+        keyManagers.init( keyStore, password );
+
+        sslContext = SSLContext.getInstance( "TLS" );
+        sslContext.init( keyManagers.getKeyManagers(), new TrustManager[]{new TrustingTrustManager()}, null );
+
+        server = sslContext.getServerSocketFactory().createServerSocket( 0 );
+        startEchoServer();
+    }
+
+    @After
+    public void teardown() throws IOException
+    {
+        server.close();
+    }
+
+    @Test
+    public void shouldTransferMessagesLargerThanRecords() throws Throwable
+    {
+        // Given
+        byte[] message = bytes( 100_000 );
+
+        try ( TLSSocketChannel channel = connect( new ByteBufferPool() ) )
+        {
+            // When
+            channel.write( ByteBuffer.wrap( message ) );
+
+            // Then
+            assertThat( readFully( channel, message.length, 8192 ), equalTo( message ) );
+        }
+    }
+
+    @Test
+    public void shouldReadIntoBuffersSmallerThanRecords() throws Throwable
+    {
+        // Given
+        byte[] message = bytes( 40_000 );
+
+        try ( TLSSocketChannel channel = connect( new ByteBufferPool() ) )
+        {
+            // When
+            channel.write( ByteBuffer.wrap( message ) );
+
+            // Then
+            assertThat( readFully( channel, message.length, 7 ), equalTo( message ) );
+        }
+    }
+
+    @Test
+    public void shouldGiveBuffersBackToThePoolOnClose() throws Throwable
+    {
+        // Given
+        ByteBufferPool buffers = new ByteBufferPool();
+        TLSSocketChannel channel = connect( buffers );
+        channel.write( ByteBuffer.wrap( bytes( 10 ) ) );
+        readFully( channel, 10, 10 );
+
+        // When
+        channel.close();
+        channel.close();
+
+        // Then the network input, network output and application input buffers are back, each of them once
+        int available = 0;
+        for ( int capacity = ByteBufferPool.MIN_CAPACITY; capacity <= ByteBufferPool.MAX_CAPACITY; capacity *= 2 )
+        {
+            available += buffers.available( capacity );
+        }
+        assertThat( available, equalTo( 3 ) );
+    }
+
+    private TLSSocketChannel connect( ByteBufferPool buffers ) throws Throwable
+    {
+        SSLEngine engine = sslContext.createSSLEngine();
+        engine.setUseClientMode( true );
+        SocketChannel channel = SocketChannel.open(
+                new InetSocketAddress( server.getInetAddress(), server.getLocalPort() ) );
+        return new TLSSocketChannel( channel, new DevNullLogger(), engine, buffers );
+    }
+
+    private static byte[] readFully( TLSSocketChannel channel, int length, int chunkSize ) throws IOException
+    {
+        ByteBuffer received = ByteBuffer.allocate( length );
+        ByteBuffer chunk = ByteBuffer.allocate( chunkSize );
+        while ( received.hasRemaining() )
+        {
+            chunk.clear();
+            chunk.limit( Math.min( chunkSize, received.remaining() ) );
+            channel.read( chunk );
+            chunk.flip();
+            received.put( chunk );
+        }
+        return received.array();
+    }
+
+    private static byte[] bytes( int length )
+    {
+        byte[] bytes = new byte[length];
+        for ( int i = 0; i < length; i++ )
+        {
+            bytes[i] = (byte) (i % 127);
+        }
+        return bytes;
+    }
+
+    private void startEchoServer()
+    {
+        Thread thread = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    while ( true )
+                    {
+                        try ( Socket client = server.accept() )
+                        {
+                            InputStream in = client.getInputStream();
+                            OutputStream out = client.getOutputStream();
+                            byte[] buffer = new byte[4096];
+                            int read;
+                            while ( (read = in.read( buffer )) != -1 )
+                            {
+                                out.write( buffer, 0, read );
+                                out.flush();
+                            }
+                        }
+                        catch ( IOException e )
+                        {
+                            // The client went away, wait for the next one
+                        }
+                    }
+                }
+                catch ( Throwable e )
+                {
+                    // The server socket is closed
+                }
+            }
+        } );
+        thread.setDaemon( true );
+        thread.start();
+    }
+
+    private static class TrustingTrustManager implements X509TrustManager
+    {
+        @Override
+        public void checkClientTrusted( X509Certificate[] chain, String authType )
+        {
+        }
+
+        @Override
+        public void checkServerTrusted( X509Certificate[] chain, String authType )
+        {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers()
+        {
+            return new X509Certificate[0];
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.connector.socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TimeoutSocketChannelTest
+{
+    private ServerSocket server;
+    private SocketChannel client;
+    private Socket accepted;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new ServerSocket( 0 );
+        client = SocketChannel.open( new InetSocketAddress( "localhost", server.getLocalPort() ) );
+        accepted = server.accept();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        client.close();
+        accepted.close();
+        server.close();
+    }
+
+    @Test
+    public void shouldTimeOutReadWhenNothingArrives() throws Throwable
+    {
+        // Given
+        TimeoutSocketChannel channel = new TimeoutSocketChannel( client, 50 );
+
+        // When
+        try
+        {
+            channel.read( ByteBuffer.allocate( 8 ) );
+            fail( "Should have timed out" );
+        }
+        // Then
+        catch ( SocketTimeoutException e )
+        {
+            assertFalse( channel.deadlineExpired() );
+        }
+    }
+
+    @Test
+    public void shouldFailReadOnceDeadlinePassed() throws Throwable
+    {
+        // Given
+        TimeoutSocketChannel channel = new TimeoutSocketChannel( client, 0 );
+        channel.startDeadline( 50 );
+
+        // When
+        try
+        {
+            channel.read( ByteBuffer.allocate( 8 ) );
+            fail( "Should have timed out" );
+        }
+        // Then
+        catch ( SocketTimeoutException e )
+        {
+            assertTrue( channel.deadlineExpired() );
+        }
+    }
+
+    @Test
+    public void shouldReadIntoHeapAndDirectBuffersWithTimeout() throws Throwable
+    {
+        // Given
+        TimeoutSocketChannel channel = new TimeoutSocketChannel( client, 1000 );
+        accepted.getOutputStream().write( new byte[]{1, 2, 3, 4} );
+        ByteBuffer heap = ByteBuffer.allocate( 2 );
+        ByteBuffer direct = ByteBuffer.allocateDirect( 2 );
+
+        // When
+        SocketUtils.blockingRead( channel, heap );
+        SocketUtils.blockingRead( channel, direct );
+
+        // Then
+        heap.flip();
+        direct.flip();
+        assertThat( heap.get( 1 ), equalTo( (byte) 2 ) );
+        assertThat( direct.get( 0 ), equalTo( (byte) 3 ) );
+        assertThat( direct.get( 1 ), equalTo( (byte) 4 ) );
+    }
+
+    @Test
+    public void shouldKeepBlockingWritesAndUntimedReadsAfterTimedRead() throws Throwable
+    {
+        // Given
+        TimeoutSocketChannel channel = new TimeoutSocketChannel( client, 0 );
+        accepted.getOutputStream().write( new byte[]{1, 2} );
+        channel.startDeadline( 1000 );
+        SocketUtils.blockingRead( channel, ByteBuffer.allocate( 1 ) );
+        channel.clearDeadline();
+        final byte[] large = new byte[4 * 1024 * 1024];
+        final int[] received = {0};
+        Thread reader = new Thread( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    byte[] sink = new byte[8192];
+                    int read;
+                    while ( received[0] < large.length && (read = accepted.getInputStream().read( sink )) > 0 )
+                    {
+                        received[0] += read;
+                    }
+                }
+                catch ( IOException e )
+                {
+                    // fails the assertion below
+                }
+            }
+        } );
+        reader.start();
+
+        // When
+        SocketUtils.blockingWrite( channel, ByteBuffer.wrap( large ) );
+        reader.join( 10_000 );
+        ByteBuffer rest = ByteBuffer.allocateDirect( 1 );
+        SocketUtils.blockingRead( channel, rest );
+
+        // Then
+        assertThat( received[0], equalTo( large.length ) );
+        assertThat( rest.get( 0 ), equalTo( (byte) 2 ) );
+    }
+}
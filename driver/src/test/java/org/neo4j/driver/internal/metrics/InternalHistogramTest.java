@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class InternalHistogramTest
+{
+    @Test
+    public void shouldReportZeroWhenEmpty() throws Throwable
+    {
+        // Given
+        InternalHistogram histogram = new InternalHistogram();
+
+        // Then
+        assertThat( histogram.count(), equalTo( 0L ) );
+        assertThat( histogram.min(), equalTo( 0L ) );
+        assertThat( histogram.max(), equalTo( 0L ) );
+        assertThat( histogram.mean(), equalTo( 0.0 ) );
+        assertThat( histogram.valueAtPercentile( 99 ), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldTrackCountMinMaxAndMean() throws Throwable
+    {
+        // Given
+        InternalHistogram histogram = new InternalHistogram();
+
+        // When
+        histogram.record( 10 );
+        histogram.record( 30 );
+        histogram.record( 20 );
+
+        // Then
+        assertThat( histogram.count(), equalTo( 3L ) );
+        assertThat( histogram.min(), equalTo( 10L ) );
+        assertThat( histogram.max(), equalTo( 30L ) );
+        assertThat( histogram.mean(), equalTo( 20.0 ) );
+    }
+
+    @Test
+    public void shouldApproximatePercentilesWithinBucketPrecision() throws Throwable
+    {
+        // Given
+        InternalHistogram histogram = new InternalHistogram();
+
+        // When
+        for ( long value = 1; value <= 100_000; value++ )
+        {
+            histogram.record( value );
+        }
+
+        // Then
+        assertWithinPrecision( histogram.valueAtPercentile( 50 ), 50_000 );
+        assertWithinPrecision( histogram.valueAtPercentile( 99 ), 99_000 );
+        assertThat( histogram.valueAtPercentile( 100 ), equalTo( 100_000L ) );
+        assertThat( histogram.valueAtPercentile( 0 ), equalTo( 1L ) );
+    }
+
+    @Test
+    public void shouldMapEveryValueIntoItsBucket() throws Throwable
+    {
+        long[] values = {0, 1, 7, 8, 15, 16, 17, 1000, 123_456_789, Long.MAX_VALUE};
+        for ( long value : values )
+        {
+            int bucket = InternalHistogram.bucketOf( value );
+            assertTrue( InternalHistogram.lowestValueIn( bucket ) <= value );
+            assertTrue( InternalHistogram.highestValueIn( bucket ) >= value );
+        }
+    }
+
+    private static void assertWithinPrecision( long actual, long expected )
+    {
+        double error = Math.abs( actual - expected ) / (double) expected;
+        assertTrue( "Expected about " + expected + " but was " + actual,
+                error <= 1.0 / InternalHistogram.SUB_BUCKETS );
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.metrics;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Set;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.neo4j.driver.v1.Config;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class InternalMetricsTest
+{
+    @Test
+    public void shouldShareMetricsOfTheSameAddress() throws Throwable
+    {
+        // Given
+        InternalMetrics metrics = new InternalMetrics();
+        URI uri = URI.create( "bolt://localhost:7687" );
+
+        // When
+        InternalConnectionPoolMetrics first = metrics.connectionPool( uri );
+        InternalConnectionPoolMetrics second = metrics.connectionPool( uri );
+
+        // Then
+        assertThat( first, sameInstance( second ) );
+        assertThat( metrics.connectionPoolMetrics().keySet().size(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldCountConnectionsNotInUseAsIdle() throws Throwable
+    {
+        // Given
+        InternalConnectionPoolMetrics metrics = new InternalConnectionPoolMetrics( "localhost:7687" );
+
+        // When
+        metrics.connectionCreated();
+        metrics.connectionCreated();
+        metrics.connectionCreated();
+        metrics.connectionClosed();
+        metrics.connectionAcquired( 1000 );
+
+        // Then
+        assertThat( metrics.inUse(), equalTo( 1 ) );
+        assertThat( metrics.idle(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldRegisterAndUnregisterMBeans() throws Throwable
+    {
+        // Given
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName query = new ObjectName( "org.neo4j.driver:type=ConnectionPool,*" );
+        int before = server.queryNames( query, null ).size();
+        InternalMetrics metrics = new InternalMetrics( Config.build().withJmxMetrics( true ).toConfig() );
+        metrics.connectionPool( URI.create( "bolt://localhost:7687" ) ).connectionAcquired( 1000 );
+
+        // When
+        Set<ObjectName> registered = server.queryNames( query, null );
+
+        // Then
+        assertThat( registered.size(), equalTo( before + 1 ) );
+        for ( ObjectName name : registered )
+        {
+            if ( name.getKeyProperty( "address" ).equals( ObjectName.quote( "bolt://localhost:7687" ) ) )
+            {
+                assertThat( server.getAttribute( name, "InUse" ), equalTo( (Object) 1 ) );
+            }
+        }
+
+        // When
+        metrics.close();
+
+        // Then
+        assertThat( server.queryNames( query, null ).size(), equalTo( before ) );
+    }
+}
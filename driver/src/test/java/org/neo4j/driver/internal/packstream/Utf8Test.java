@@ -0,0 +1,63 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.packstream;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class Utf8Test
+{
+    private static final Charset UTF_8 = Charset.forName( "UTF-8" );
+
+    @Test
+    public void shouldDecodeAsciiAndMultiByteStringsFromArrays() throws Throwable
+    {
+        byte[] bytes = "xxHello, Mjölnir".getBytes( UTF_8 );
+
+        assertThat( Utf8.decode( bytes, 2, 5 ), equalTo( "Hello" ) );
+        assertThat( Utf8.decode( bytes, 9, bytes.length - 9 ), equalTo( "Mjölnir" ) );
+    }
+
+    @Test
+    public void shouldDecodeFromHeapAndDirectBuffers() throws Throwable
+    {
+        for ( ByteBuffer buffer : new ByteBuffer[]{ByteBuffer.allocate( 64 ), ByteBuffer.allocateDirect( 64 )} )
+        {
+            // Given
+            byte[] ascii = "Hello".getBytes( UTF_8 );
+            byte[] multiByte = "日本語".getBytes( UTF_8 );
+            buffer.put( (byte) 0 ).put( ascii ).put( multiByte ).flip();
+            buffer.get();
+
+            // When
+            String first = Utf8.decode( buffer, ascii.length );
+            String second = Utf8.decode( buffer, multiByte.length );
+
+            // Then
+            assertThat( first, equalTo( "Hello" ) );
+            assertThat( second, equalTo( "日本語" ) );
+            assertThat( buffer.remaining(), equalTo( 0 ) );
+        }
+    }
+}
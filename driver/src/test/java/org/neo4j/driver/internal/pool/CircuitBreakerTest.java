@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import org.junit.Test;
+
+import org.neo4j.driver.internal.util.Clock;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class CircuitBreakerTest
+{
+    private final FakeClock clock = new FakeClock();
+    private final CircuitBreaker breaker = new CircuitBreaker( 2, 100, 300, clock );
+
+    @Test
+    public void shouldOpenAfterFailureThreshold() throws Throwable
+    {
+        // When
+        breaker.onFailure( breaker.startAttempt() );
+
+        // Then
+        assertThat( breaker.startAttempt(), not( equalTo( CircuitBreaker.REJECTED ) ) );
+
+        // When
+        breaker.onFailure( breaker.startAttempt() );
+
+        // Then
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.OPEN ) );
+        assertThat( breaker.startAttempt(), equalTo( CircuitBreaker.REJECTED ) );
+        assertThat( breaker.retryIn(), equalTo( 100L ) );
+    }
+
+    @Test
+    public void shouldNotCountFailuresSeparatedBySuccess() throws Throwable
+    {
+        // When
+        breaker.onFailure( breaker.startAttempt() );
+        breaker.onSuccess( breaker.startAttempt() );
+        breaker.onFailure( breaker.startAttempt() );
+
+        // Then
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.CLOSED ) );
+    }
+
+    @Test
+    public void shouldLetSingleProbeThroughOnceBackoffExpires() throws Throwable
+    {
+        // Given
+        open();
+
+        // When
+        clock.now += 100;
+
+        // Then
+        assertThat( breaker.startAttempt(), not( equalTo( CircuitBreaker.REJECTED ) ) );
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.HALF_OPEN ) );
+        assertThat( breaker.startAttempt(), equalTo( CircuitBreaker.REJECTED ) );
+        assertThat( breaker.retryIn(), equalTo( CircuitBreaker.PROBING ) );
+    }
+
+    @Test
+    public void shouldCloseWhenProbeSucceeds() throws Throwable
+    {
+        // Given
+        open();
+        clock.now += 100;
+        long probe = breaker.startAttempt();
+
+        // When
+        breaker.onSuccess( probe );
+
+        // Then
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.CLOSED ) );
+        assertThat( breaker.startAttempt(), not( equalTo( CircuitBreaker.REJECTED ) ) );
+    }
+
+    @Test
+    public void shouldDoubleBackoffUpToMaxWhenProbeFails() throws Throwable
+    {
+        // Given
+        open();
+
+        // When
+        clock.now += 100;
+        breaker.onFailure( breaker.startAttempt() );
+
+        // Then
+        assertThat( breaker.retryIn(), equalTo( 200L ) );
+
+        // When
+        clock.now += 200;
+        breaker.onFailure( breaker.startAttempt() );
+
+        // Then
+        assertThat( breaker.retryIn(), equalTo( 300L ) );
+    }
+
+    @Test
+    public void shouldIgnoreFailuresOfAttemptsStartedBeforeTheCircuitOpened() throws Throwable
+    {
+        // Given
+        long inFlight = breaker.startAttempt();
+        open();
+        clock.now += 100;
+        long probe = breaker.startAttempt();
+
+        // When
+        breaker.onFailure( inFlight );
+
+        // Then
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.HALF_OPEN ) );
+
+        // When
+        breaker.onFailure( probe );
+
+        // Then
+        assertThat( breaker.retryIn(), equalTo( 200L ) );
+    }
+
+    @Test
+    public void shouldIgnoreSuccessOfAttemptsStartedBeforeTheCircuitOpened() throws Throwable
+    {
+        // Given
+        long inFlight = breaker.startAttempt();
+        open();
+
+        // When
+        breaker.onSuccess( inFlight );
+
+        // Then
+        assertThat( breaker.state(), equalTo( CircuitBreaker.State.OPEN ) );
+    }
+
+    @Test
+    public void shouldRejectConnectionsOnlyUntilBackoffExpires() throws Throwable
+    {
+        // Given
+        open();
+
+        // Then
+        assertTrue( breaker.rejectsConnections() );
+
+        // When
+        clock.now += 100;
+
+        // Then
+        assertFalse( breaker.rejectsConnections() );
+        assertThat( breaker.startAttempt(), not( equalTo( CircuitBreaker.REJECTED ) ) );
+        assertTrue( breaker.rejectsConnections() );
+    }
+
+    @Test
+    public void shouldNeverOpenWithoutThreshold() throws Throwable
+    {
+        // Given
+        CircuitBreaker disabled = new CircuitBreaker( 0, 100, 300, clock );
+
+        // When
+        for ( int i = 0; i < 10; i++ )
+        {
+            disabled.onFailure( disabled.startAttempt() );
+        }
+
+        // Then
+        assertThat( disabled.startAttempt(), not( equalTo( CircuitBreaker.REJECTED ) ) );
+    }
+
+    private void open()
+    {
+        breaker.onFailure( breaker.startAttempt() );
+        breaker.onFailure( breaker.startAttempt() );
+    }
+
+    private static class FakeClock implements Clock
+    {
+        long now = 0;
+
+        @Override
+        public long millis()
+        {
+            return now;
+        }
+    }
+}
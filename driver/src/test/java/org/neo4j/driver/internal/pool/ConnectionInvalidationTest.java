@@ -62,7 +62,7 @@ public class ConnectionInvalidationTest
 
     @SuppressWarnings( "unchecked" )
     @Test
-    public void shouldInvalidateConnectionThatIsOld() throws Throwable
+    public void shouldNotTestConnectionThatIsOldOnRelease() throws Throwable
     {
         // Given a connection that's broken
         Mockito.doThrow( new ClientException( "That didn't work" ) )
@@ -71,13 +71,15 @@ public class ConnectionInvalidationTest
         when( clock.millis() ).thenReturn( 0L, config.idleTimeBeforeConnectionTest() + 1L );
         PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
 
-        // When/Then
+        // When
         BlockingQueue<PooledConnection> queue = mock( BlockingQueue.class );
         PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ), config );
+                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ) );
         consumer.accept( conn );
 
-        verify( queue, never() ).add( conn );
+        // Then testing it is left to the background maintenance
+        verify( delegate, never() ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+        verify( queue ).offer( conn );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -94,7 +96,7 @@ public class ConnectionInvalidationTest
         // When/Then
         BlockingQueue<PooledConnection> queue = mock( BlockingQueue.class );
         PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ), config );
+                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ) );
         consumer.accept( conn );
 
         verify( queue ).offer( conn );
@@ -105,16 +107,16 @@ public class ConnectionInvalidationTest
     {
         // Given a connection that's broken
         Mockito.doThrow( new ClientException( "That didn't work" ) ).when( delegate ).reset();
-        Config config = Config.defaultConfig();
         PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        conn.run( "BEGIN", new HashMap<String,Value>(), StreamCollector.NO_OP );
 
         // When/Then
         BlockingQueue<PooledConnection> queue = mock( BlockingQueue.class );
         PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ), config );
+                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ) );
         consumer.accept( conn );
 
-        verify( queue, never() ).add( conn );
+        verify( queue, never() ).offer( conn );
     }
 
     @Test
@@ -189,7 +191,7 @@ public class ConnectionInvalidationTest
         assertTrue( conn.hasUnrecoverableErrors() );
         BlockingQueue<PooledConnection> queue = mock( BlockingQueue.class );
         PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ), Config.defaultConfig() );
+                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ) );
         consumer.accept( conn );
 
         verify( queue, never() ).offer( conn );
@@ -215,7 +217,7 @@ public class ConnectionInvalidationTest
         assertFalse( conn.hasUnrecoverableErrors() );
         BlockingQueue<PooledConnection> queue = mock( BlockingQueue.class );
         PooledConnectionReleaseConsumer consumer =
-                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ), Config.defaultConfig() );
+                new PooledConnectionReleaseConsumer( queue, new AtomicBoolean( false ) );
         consumer.accept( conn );
 
         verify( queue ).offer( conn );
@@ -0,0 +1,237 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumers;
+import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.exceptions.ClientException;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IdleConnectionMaintenanceTest
+{
+    private final BlockingPooledConnectionQueue connections = new BlockingPooledConnectionQueue( 10, 10 );
+
+    @Test
+    public void shouldCloseConnectionsIdleLongerThanTimeout() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withIdleConnectionTimeout( 1000 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        idleConnection( delegate, 1001 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate ).close();
+        assertThat( connections.idle().size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldKeepMinimumNumberOfIdleConnections() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withIdleConnectionTimeout( 1000 ).withMinIdleSessions( 1 ).toConfig();
+        Connection closed = mock( Connection.class );
+        Connection kept = mock( Connection.class );
+        idleConnection( closed, 1001 );
+        PooledConnection keptConnection = idleConnection( kept, 1001 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( closed ).close();
+        verify( kept, never() ).close();
+        assertThat( connections.idle(), hasItem( keptConnection ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldCloseConnectionsFailingPing() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withSessionLivenessCheckTimeout( 100 ).toConfig();
+        Connection broken = mock( Connection.class );
+        doThrow( new ClientException( "That didn't work" ) )
+                .when( broken ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+        PooledConnection brokenConnection = idleConnection( broken, 101 );
+        Connection live = mock( Connection.class );
+        PooledConnection liveConnection = idleConnection( live, 101 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( broken ).close();
+        verify( live ).sync();
+        verify( live, never() ).close();
+        assertThat( connections.idle(), hasItem( liveConnection ) );
+        assertThat( connections.idle(), not( hasItem( brokenConnection ) ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void shouldNotTestRecentlyUsedConnections() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withSessionLivenessCheckTimeout( 100 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        PooledConnection conn = idleConnection( delegate, 99 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate, never() ).run( anyString(), anyMap(), any( StreamCollector.class ) );
+        assertThat( connections.idle(), hasItem( conn ) );
+    }
+
+    @Test
+    public void shouldReceiveRepliesStillDueOnIdleConnections() throws Throwable
+    {
+        // Given a connection released with a RESET sent but not replied to yet
+        Config config = Config.build().withSessionLivenessCheckTimeout( 100 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        when( delegate.collectorsWaiting() ).thenReturn( 1 );
+        PooledConnection conn = idleConnection( delegate, 99 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate ).sync();
+        verify( delegate, never() ).close();
+        assertThat( connections.idle(), hasItem( conn ) );
+    }
+
+    @Test
+    public void shouldCloseIdleConnectionsFailingToReceiveRepliesStillDue() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withSessionLivenessCheckTimeout( 100 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        when( delegate.collectorsWaiting() ).thenReturn( 1 );
+        doThrow( new ClientException( "That didn't work" ) ).when( delegate ).sync();
+        PooledConnection conn = idleConnection( delegate, 99 );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate ).close();
+        assertThat( connections.idle(), not( hasItem( conn ) ) );
+    }
+
+    @Test
+    public void shouldSkipMaintenanceWhenPoolIsExhausted() throws Throwable
+    {
+        // Given
+        BlockingPooledConnectionQueue full = new BlockingPooledConnectionQueue( 1, 1 );
+        Connection delegate = mock( Connection.class );
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 0L, 1001L );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        full.idle().offer( conn );
+        full.reserve( 0 );
+        Config config = Config.build().withIdleConnectionTimeout( 1000 ).toConfig();
+
+        // When
+        new IdleConnectionMaintenance( Collections.singletonList( full ), new AtomicBoolean( false ), config ).run();
+
+        // Then
+        verify( delegate, never() ).close();
+        assertThat( full.idle(), hasItem( conn ) );
+    }
+
+    @Test
+    public void shouldNotCloseConnectionHeldLongerThanTimeoutWhenItIsReleased() throws Throwable
+    {
+        // Given a connection acquired at 0 and released at 2000
+        Config config = Config.build().withIdleConnectionTimeout( 1000 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 0L, 0L, 2000L, 2500L );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        conn.updateUsageTimestamp();
+        new PooledConnectionReleaseConsumer( connections.idle(), new AtomicBoolean( false ) ).accept( conn );
+
+        // When
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate, never() ).close();
+        assertThat( connections.idle(), hasItem( conn ) );
+    }
+
+    @Test
+    public void shouldNotTestConnectionAgainRightAfterSuccessfulPing() throws Throwable
+    {
+        // Given
+        Config config = Config.build().withSessionLivenessCheckTimeout( 100 ).toConfig();
+        Connection delegate = mock( Connection.class );
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 0L, 101L, 101L, 150L );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        connections.idle().offer( conn );
+
+        // When
+        maintenance( config ).run();
+        maintenance( config ).run();
+
+        // Then
+        verify( delegate ).sync();
+        assertThat( connections.idle(), hasItem( conn ) );
+    }
+
+    private PooledConnection idleConnection( Connection delegate, long idleTime )
+    {
+        Clock clock = mock( Clock.class );
+        when( clock.millis() ).thenReturn( 0L, idleTime );
+        PooledConnection conn = new PooledConnection( delegate, Consumers.<PooledConnection>noOp(), clock );
+        connections.idle().offer( conn );
+        return conn;
+    }
+
+    private IdleConnectionMaintenance maintenance( Config config )
+    {
+        return new IdleConnectionMaintenance(
+                Collections.singletonList( connections ), new AtomicBoolean( false ), config );
+    }
+}
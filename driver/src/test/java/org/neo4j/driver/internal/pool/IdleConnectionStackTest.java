@@ -0,0 +1,235 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.pool;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.util.Clock;
+import org.neo4j.driver.internal.util.Consumers;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class IdleConnectionStackTest
+{
+    private final IdleConnectionStack stack = new IdleConnectionStack( 2 );
+
+    @Test
+    public void shouldHandOutMostRecentlyReleasedConnectionFirst() throws Throwable
+    {
+        // Given
+        PooledConnection first = connection();
+        PooledConnection second = connection();
+        stack.offer( first );
+        stack.offer( second );
+
+        // When/Then
+        assertThat( stack.poll(), equalTo( second ) );
+        assertThat( stack.poll(), equalTo( first ) );
+        assertThat( stack.poll(), nullValue() );
+        assertThat( stack.size(), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldRejectConnectionsBeyondCapacity() throws Throwable
+    {
+        // Given
+        stack.offer( connection() );
+        stack.offer( connection() );
+
+        // When
+        boolean offered = stack.offer( connection() );
+
+        // Then
+        assertThat( offered, equalTo( false ) );
+        assertThat( stack.size(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void shouldReuseConnectionReleasedBySameThreadWithoutStackingItAgain() throws Throwable
+    {
+        // Given
+        PooledConnection conn = connection();
+
+        // When
+        for ( int i = 0; i < 10; i++ )
+        {
+            stack.offer( conn );
+            assertThat( stack.poll(), equalTo( conn ) );
+        }
+
+        // Then the connection is on the stack once, and dropped when popped while in use
+        assertThat( stack.size(), equalTo( 0 ) );
+        assertThat( stack.poll(), nullValue() );
+    }
+
+    @Test
+    public void shouldDropConnectionsInUseFromStackToMakeRoomForReleasedConnection() throws Throwable
+    {
+        // Given a connection taken back by the thread that released it, which stays on the stack
+        PooledConnection inUse = connection();
+        stack.offer( inUse );
+        stack.poll();
+        PooledConnection idle = connection();
+        stack.offer( idle );
+
+        // When
+        PooledConnection released = connection();
+        boolean offered = stack.offer( released );
+
+        // Then
+        assertThat( offered, equalTo( true ) );
+        assertThat( stack.size(), equalTo( 2 ) );
+        assertThat( stack.poll(), equalTo( released ) );
+        assertThat( stack.poll(), equalTo( idle ) );
+        assertThat( stack.poll(), nullValue() );
+    }
+
+    @Test
+    public void shouldForgetConnectionReleasedByThreadOnceAnotherThreadClaimsItFromStack() throws Throwable
+    {
+        // Given
+        final PooledConnection conn = connection();
+        ExecutorService releasingThread = Executors.newSingleThreadExecutor();
+        try
+        {
+            releasingThread.submit( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    stack.offer( conn );
+                }
+            } ).get( 30, TimeUnit.SECONDS );
+
+            // When
+            assertThat( stack.poll(), equalTo( conn ) );
+            stack.offer( conn );
+
+            // Then
+            assertThat( releasingThread.submit( holdsConnectionReleasedByCurrentThread() ).get( 30, TimeUnit.SECONDS ),
+                    equalTo( false ) );
+            assertThat( stack.holdsConnectionReleasedByCurrentThread(), equalTo( true ) );
+        }
+        finally
+        {
+            releasingThread.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldForgetConnectionReleasedByThreadOnceItIsDisposed() throws Throwable
+    {
+        // Given
+        PooledConnection conn = connection();
+        stack.offer( conn );
+
+        // When
+        conn.dispose();
+
+        // Then
+        assertThat( stack.holdsConnectionReleasedByCurrentThread(), equalTo( false ) );
+    }
+
+    @Test
+    public void shouldHandEachIdleConnectionToOneThreadOnly() throws Throwable
+    {
+        // Given
+        final IdleConnectionStack stack = new IdleConnectionStack( 8 );
+        for ( int i = 0; i < 8; i++ )
+        {
+            stack.offer( connection() );
+        }
+        final Set<PooledConnection> inUse =
+                Collections.newSetFromMap( new ConcurrentHashMap<PooledConnection,Boolean>() );
+        ExecutorService executor = Executors.newFixedThreadPool( 16 );
+        Callable<Void> borrower = new Callable<Void>()
+        {
+            @Override
+            public Void call() throws Exception
+            {
+                for ( int i = 0; i < 10000; i++ )
+                {
+                    PooledConnection conn = stack.poll();
+                    if ( conn != null )
+                    {
+                        if ( !inUse.add( conn ) )
+                        {
+                            fail( "Connection handed out twice" );
+                        }
+                        inUse.remove( conn );
+                        stack.offer( conn );
+                    }
+                }
+                return null;
+            }
+        };
+
+        // When
+        try
+        {
+            Future<?>[] borrowers = new Future<?>[16];
+            for ( int i = 0; i < borrowers.length; i++ )
+            {
+                borrowers[i] = executor.submit( borrower );
+            }
+            for ( Future<?> future : borrowers )
+            {
+                future.get( 30, TimeUnit.SECONDS );
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        // Then
+        assertThat( stack.size(), equalTo( 8 ) );
+    }
+
+    private Callable<Boolean> holdsConnectionReleasedByCurrentThread()
+    {
+        return new Callable<Boolean>()
+        {
+            @Override
+            public Boolean call() throws Exception
+            {
+                return stack.holdsConnectionReleasedByCurrentThread();
+            }
+        };
+    }
+
+    private PooledConnection connection()
+    {
+        return new PooledConnection( mock( Connection.class ), Consumers.<PooledConnection>noOp(), Clock.SYSTEM );
+    }
+}
@@ -19,9 +19,17 @@
 package org.neo4j.driver.internal.pool;
 
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 import java.net.URI;
 import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.neo4j.driver.internal.spi.Connection;
 import org.neo4j.driver.internal.spi.Connector;
@@ -29,11 +37,17 @@ import org.neo4j.driver.internal.util.Clock;
 import org.neo4j.driver.v1.AuthToken;
 import org.neo4j.driver.v1.AuthTokens;
 import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.ConnectionAcquisitionTimeoutException;
+import org.neo4j.driver.v1.exceptions.ServiceUnavailableException;
+import org.neo4j.driver.v1.metrics.ConnectionPoolMetrics;
 
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -64,6 +78,370 @@ public class InternalConnectionPoolTest
         assertThat( acquired, equalTo(conn) );
     }
 
+    @Test
+    public void shouldFailToAcquireWhenAllConnectionsAreInUse() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Config config = Config.build().withMaxConnectionPoolSize( 1 ).withConnectionAcquisitionTimeout( 0 ).toConfig();
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector( "bolt" ) ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        pool.acquire( uri );
+
+        // When
+        try
+        {
+            pool.acquire( uri );
+            fail( "Should have failed to acquire a connection from an exhausted pool" );
+        }
+        // Then
+        catch ( ConnectionAcquisitionTimeoutException e )
+        {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldRecordAcquiredAndReleasedConnectionsInMetrics() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector( "bolt" ) ),
+                Clock.SYSTEM, Config.defaultConfig(), AuthTokens.none() );
+
+        // When
+        Connection first = pool.acquire( uri );
+        pool.acquire( uri );
+        first.close();
+
+        // Then
+        ConnectionPoolMetrics metrics = pool.metrics().connectionPoolMetrics().get( uri.toString() );
+        assertThat( metrics.inUse(), equalTo( 1 ) );
+        assertThat( metrics.acquisitionTime().count(), equalTo( 2L ) );
+        assertThat( metrics.acquisitionTimeouts(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void shouldCountAcquisitionTimeoutsInMetrics() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Config config = Config.build().withMaxConnectionPoolSize( 1 ).withConnectionAcquisitionTimeout( 0 ).toConfig();
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector( "bolt" ) ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        pool.acquire( uri );
+
+        // When
+        try
+        {
+            pool.acquire( uri );
+            fail( "Should have failed to acquire a connection from an exhausted pool" );
+        }
+        catch ( ConnectionAcquisitionTimeoutException e )
+        {
+            // expected
+        }
+
+        // Then
+        ConnectionPoolMetrics metrics = pool.metrics().connectionPoolMetrics().get( uri.toString() );
+        assertThat( metrics.acquisitionTimeouts(), equalTo( 1L ) );
+        assertThat( metrics.inUse(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void shouldHandReleasedConnectionToWaitingThread() throws Throwable
+    {
+        // Given
+        final URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withMaxConnectionPoolSize( 1 ).toConfig();
+        final InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        Connection conn = pool.acquire( uri );
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<Connection> waiting = executor.submit( new Callable<Connection>()
+            {
+                @Override
+                public Connection call() throws Exception
+                {
+                    return pool.acquire( uri );
+                }
+            } );
+
+            // When
+            conn.close();
+
+            // Then
+            assertThat( waiting.get( 10, TimeUnit.SECONDS ), equalTo( conn ) );
+            verify( connector, times( 1 ) ).connect( uri, config, AuthTokens.none() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldGiveBackRoomInPoolWhenConnectingFails() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withMaxConnectionPoolSize( 1 ).withConnectionAcquisitionTimeout( 0 ).toConfig();
+        doThrow( new ClientException( "Unable to connect" ) ).doReturn( mock( Connection.class ) )
+                .when( connector ).connect( uri, config, AuthTokens.none() );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        try
+        {
+            pool.acquire( uri );
+            fail( "Should have failed to connect" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+
+        // When
+        pool.acquire( uri );
+
+        // Then
+        verify( connector, times( 2 ) ).connect( uri, config, AuthTokens.none() );
+    }
+
+    @Test
+    public void shouldFailFastOnceConnectingFailedRepeatedly() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withCircuitBreakerFailureThreshold( 2 ).toConfig();
+        doThrow( new ClientException( "Unable to connect" ) )
+                .when( connector ).connect( uri, config, AuthTokens.none() );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                pool.acquire( uri );
+                fail( "Should have failed to connect" );
+            }
+            catch ( ClientException e )
+            {
+                // expected
+            }
+        }
+
+        // When
+        try
+        {
+            pool.acquire( uri );
+            fail( "Should have failed fast" );
+        }
+        // Then
+        catch ( ServiceUnavailableException e )
+        {
+            verify( connector, times( 2 ) ).connect( uri, config, AuthTokens.none() );
+        }
+    }
+
+    @Test
+    public void shouldTellTrialConnectionIsInProgressWhenFailingFast() throws Throwable
+    {
+        // Given a circuit opened by a failure, and a probe that does not complete until told to
+        final URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withCircuitBreakerFailureThreshold( 1 )
+                .withCircuitBreakerBackoff( 0, 0 ).toConfig();
+        final CountDownLatch probing = new CountDownLatch( 1 );
+        final CountDownLatch reachable = new CountDownLatch( 1 );
+        doThrow( new ClientException( "Unable to connect" ) ).doAnswer( new Answer<Connection>()
+        {
+            @Override
+            public Connection answer( InvocationOnMock invocation ) throws Throwable
+            {
+                probing.countDown();
+                reachable.await( 30, TimeUnit.SECONDS );
+                return mock( Connection.class );
+            }
+        } ).when( connector ).connect( uri, config, AuthTokens.none() );
+        final InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+        try
+        {
+            pool.acquire( uri );
+            fail( "Should have failed to connect" );
+        }
+        catch ( ClientException e )
+        {
+            // expected
+        }
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<Connection> probe = executor.submit( new Callable<Connection>()
+            {
+                @Override
+                public Connection call() throws Exception
+                {
+                    return pool.acquire( uri );
+                }
+            } );
+            assertThat( probing.await( 30, TimeUnit.SECONDS ), equalTo( true ) );
+
+            // When
+            try
+            {
+                pool.acquire( uri );
+                fail( "Should have failed fast" );
+            }
+            // Then
+            catch ( ServiceUnavailableException e )
+            {
+                assertThat( e.getMessage(), equalTo( "Unable to connect to 'bolt://asd', as recent attempts to " +
+                                                     "connect to it have failed. A trial connection to it is in " +
+                                                     "progress." ) );
+            }
+            reachable.countDown();
+            probe.get( 30, TimeUnit.SECONDS );
+        }
+        finally
+        {
+            reachable.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldNotFailFastWhenDatabaseRefusesConnection() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withCircuitBreakerFailureThreshold( 1 ).toConfig();
+        doThrow( new ClientException( "Neo.ClientError.Security.Unauthorized", "Bad credentials" ) )
+                .when( connector ).connect( uri, config, AuthTokens.none() );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+
+        // When
+        for ( int i = 0; i < 3; i++ )
+        {
+            try
+            {
+                pool.acquire( uri );
+                fail( "Should have failed to connect" );
+            }
+            catch ( ServiceUnavailableException e )
+            {
+                throw e;
+            }
+            catch ( ClientException e )
+            {
+                // expected
+            }
+        }
+
+        // Then
+        verify( connector, times( 3 ) ).connect( uri, config, AuthTokens.none() );
+    }
+
+    @Test
+    public void shouldNotLeaveCircuitHalfOpenWhenProbeThrowsError() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withCircuitBreakerFailureThreshold( 1 )
+                .withCircuitBreakerBackoff( 0, 0 ).toConfig();
+        doThrow( new StackOverflowError() ).when( connector ).connect( uri, config, AuthTokens.none() );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+
+        // When
+        for ( int i = 0; i < 3; i++ )
+        {
+            try
+            {
+                pool.acquire( uri );
+                fail( "Should have failed to connect" );
+            }
+            catch ( StackOverflowError e )
+            {
+                // expected, every attempt after the first is a probe
+            }
+        }
+
+        // Then
+        verify( connector, times( 3 ) ).connect( uri, config, AuthTokens.none() );
+    }
+
+    @Test
+    public void shouldWarmUpPoolWithIdleConnections() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.defaultConfig();
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+
+        // When
+        pool.warmUp( uri, 3 );
+        pool.acquire( uri );
+        pool.acquire( uri );
+        pool.acquire( uri );
+
+        // Then
+        verify( connector, times( 3 ) ).connect( uri, config, AuthTokens.none() );
+    }
+
+    @Test
+    public void shouldNotWarmUpMoreConnectionsThanThePoolKeepsIdle() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.build().withMaxIdleSessions( 2 ).toConfig();
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+
+        // When
+        pool.warmUp( uri, 5 );
+
+        // Then
+        verify( connector, times( 2 ) ).connect( uri, config, AuthTokens.none() );
+    }
+
+    @Test
+    public void shouldFailWarmUpWhenConnectionCannotBeEstablished() throws Throwable
+    {
+        // Given
+        URI uri = URI.create( "bolt://asd" );
+        Connector connector = connector( "bolt" );
+        Config config = Config.defaultConfig();
+        ClientException error = new ClientException( "Unable to connect" );
+        doThrow( error ).when( connector ).connect( uri, config, AuthTokens.none() );
+        InternalConnectionPool pool = new InternalConnectionPool( singletonList( connector ),
+                Clock.SYSTEM, config, AuthTokens.none() );
+
+        // When
+        try
+        {
+            pool.warmUp( uri, 2 );
+            fail( "Should have failed to warm up" );
+        }
+        // Then
+        catch ( ClientException e )
+        {
+            assertThat( e, equalTo( error ) );
+        }
+    }
+
     private Connector connector( String scheme )
     {
         Connector mock = mock( Connector.class );
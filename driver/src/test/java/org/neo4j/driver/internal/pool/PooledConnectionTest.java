@@ -19,24 +19,36 @@
 package org.neo4j.driver.internal.pool;
 
 import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.util.HashMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.neo4j.driver.internal.spi.Connection;
+import org.neo4j.driver.internal.spi.StreamCollector;
 import org.neo4j.driver.internal.util.Clock;
-import org.neo4j.driver.v1.Config;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.async.ResponseListener;
 import org.neo4j.driver.v1.exceptions.ClientException;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class PooledConnectionTest
 {
@@ -50,7 +62,7 @@ public class PooledConnectionTest
 
         Connection conn = mock( Connection.class );
         PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
-                new AtomicBoolean( false ), Config.defaultConfig() /*Does not matter what config for this test*/ )
+                new AtomicBoolean( false ) )
         {
             @Override
             boolean validConnection( PooledConnection conn )
@@ -86,7 +98,7 @@ public class PooledConnectionTest
 
         Connection conn = mock( Connection.class );
         PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
-                new AtomicBoolean( false ), Config.defaultConfig() /*Does not matter what config for this test*/ )
+                new AtomicBoolean( false ) )
         {
             @Override
             boolean validConnection( PooledConnection conn )
@@ -123,7 +135,7 @@ public class PooledConnectionTest
 
         Connection conn = mock( Connection.class );
         PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
-                new AtomicBoolean( false ), Config.defaultConfig() /*Does not matter what config for this test*/ )
+                new AtomicBoolean( false ) )
         {
             @Override
             boolean validConnection( PooledConnection conn )
@@ -167,7 +179,7 @@ public class PooledConnectionTest
 
         Connection conn = mock( Connection.class );
         PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
-                new AtomicBoolean( true ), Config.defaultConfig() /*Does not matter what config for this test*/ );
+                new AtomicBoolean( true ) );
 
         PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM )
         {
@@ -207,7 +219,7 @@ public class PooledConnectionTest
         Connection conn = mock( Connection.class );
 
         PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
-                stopped , Config.defaultConfig() /*Does not matter what config for this test*/ );
+                stopped );
 
         PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM )
         {
@@ -226,6 +238,96 @@ public class PooledConnectionTest
         assertThat( flags[0], equalTo( true ) ); // make sure that the dispose is called
     }
 
+    @Test
+    public void shouldReturnCleanConnectionToPoolWithoutReset() throws Throwable
+    {
+        // Given
+        final BlockingQueue<PooledConnection> pool = new LinkedBlockingQueue<>( 1 );
+        Connection conn = mock( Connection.class );
+        PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
+                new AtomicBoolean( false ) );
+        PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM );
+        pooledConnection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        pooledConnection.pullAll( StreamCollector.NO_OP );
+        pooledConnection.sync();
+
+        // When
+        pooledConnection.close();
+
+        // Then
+        verify( conn, never() ).reset();
+        assertThat( pool, hasItem( pooledConnection ) );
+    }
+
+    @Test
+    public void shouldReturnFullyReadConnectionToPoolWithoutReset() throws Throwable
+    {
+        // Given
+        final BlockingQueue<PooledConnection> pool = new LinkedBlockingQueue<>( 1 );
+        Connection conn = mock( Connection.class );
+        when( conn.collectorsWaiting() ).thenReturn( 0 );
+        PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
+                new AtomicBoolean( false ) );
+        PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM );
+        pooledConnection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        pooledConnection.pullAll( StreamCollector.NO_OP );
+        pooledConnection.flush();
+        pooledConnection.receiveOne();
+        pooledConnection.receiveOne();
+
+        // When
+        pooledConnection.close();
+
+        // Then
+        verify( conn, never() ).reset();
+        assertThat( pool, hasItem( pooledConnection ) );
+    }
+
+    @Test
+    public void shouldResetWhenResponsesAreOutstanding() throws Throwable
+    {
+        // Given
+        final BlockingQueue<PooledConnection> pool = new LinkedBlockingQueue<>( 1 );
+        Connection conn = mock( Connection.class );
+        when( conn.collectorsWaiting() ).thenReturn( 1 );
+        PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
+                new AtomicBoolean( false ) );
+        PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM );
+        pooledConnection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        pooledConnection.pullAll( StreamCollector.NO_OP );
+
+        // When
+        pooledConnection.close();
+
+        // Then
+        verify( conn ).reset();
+        assertThat( pool, hasItem( pooledConnection ) );
+    }
+
+    @Test
+    public void shouldSendResetWithoutWaitingForItWhenReturningDirtyConnection() throws Throwable
+    {
+        // Given
+        final BlockingQueue<PooledConnection> pool = new LinkedBlockingQueue<>( 1 );
+        Connection conn = mock( Connection.class );
+        PooledConnectionReleaseConsumer releaseConsumer = new PooledConnectionReleaseConsumer( pool,
+                new AtomicBoolean( false ) );
+        PooledConnection pooledConnection = new PooledConnection( conn, releaseConsumer, Clock.SYSTEM );
+        pooledConnection.run( "BEGIN", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        pooledConnection.discardAll( StreamCollector.NO_OP );
+        pooledConnection.sync();
+
+        // When
+        pooledConnection.close();
+
+        // Then
+        InOrder inOrder = inOrder( conn );
+        inOrder.verify( conn ).reset();
+        inOrder.verify( conn ).flush();
+        verify( conn, times( 1 ) ).sync();
+        assertThat( pool, hasItem( pooledConnection ) );
+    }
+
     @Test
     public void shouldAckFailureOnRecoverableFailure() throws Throwable
     {
@@ -253,6 +355,59 @@ public class PooledConnectionTest
         assertThat( pooledConnection.hasUnrecoverableErrors(), equalTo( false ) );
     }
 
+    @Test
+    public void shouldLeaveAcknowledgingAsyncFailureToThreadUsingConnection() throws Throwable
+    {
+        // Given
+        Connection conn = mock( Connection.class );
+        final ClientException error = new ClientException( "Neo.ClientError", "a recoverable error" );
+        doAnswer( new Answer<Void>()
+        {
+            @Override
+            @SuppressWarnings( "unchecked" )
+            public Void answer( InvocationOnMock invocation ) throws Throwable
+            {
+                // as the I/O thread would
+                ((ResponseListener<Void>) invocation.getArguments()[0]).onFailure( error );
+                return null;
+            }
+        } ).when( conn ).syncAsync( any( ResponseListener.class ) );
+        PooledConnection pooledConnection = new PooledConnection(
+                conn,
+                mock( PooledConnectionReleaseConsumer.class ),
+                mock( Clock.class ) );
+        final Neo4jException[] reported = new Neo4jException[1];
+
+        // When
+        pooledConnection.syncAsync( new ResponseListener<Void>()
+        {
+            @Override
+            public void onSuccess( Void result )
+            {
+            }
+
+            @Override
+            public void onFailure( Neo4jException error )
+            {
+                reported[0] = error;
+            }
+        } );
+
+        // Then
+        assertThat( reported[0], equalTo( (Neo4jException) error ) );
+        verify( conn, never() ).ackFailure();
+        assertThat( pooledConnection.isClean(), equalTo( false ) );
+
+        // When
+        pooledConnection.run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+
+        // Then
+        InOrder inOrder = inOrder( conn );
+        inOrder.verify( conn ).ackFailure();
+        inOrder.verify( conn ).run( "RETURN 1", new HashMap<String,Value>(), StreamCollector.NO_OP );
+        assertThat( pooledConnection.isClean(), equalTo( true ) );
+    }
+
     @Test
     public void shouldNotAckFailureOnUnRecoverableFailure()
     {
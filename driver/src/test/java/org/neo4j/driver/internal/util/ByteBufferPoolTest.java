@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2002-2017 "Neo Technology,"
+ * Network Engine for Objects in Lund AB [http://neotechnology.com]
+ *
+ * This file is part of Neo4j.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.neo4j.driver.internal.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ByteBufferPoolTest
+{
+    private final ByteBufferPool pool = new ByteBufferPool();
+
+    @Test
+    public void shouldRoundCapacityUpToSizeClass() throws Throwable
+    {
+        assertThat( pool.acquire( 1 ).capacity(), equalTo( 1024 ) );
+        assertThat( pool.acquire( 1400 ).capacity(), equalTo( 2048 ) );
+        assertThat( pool.acquire( 8192 ).capacity(), equalTo( 8192 ) );
+        assertThat( pool.acquire( 65536 ).capacity(), equalTo( 65536 ) );
+    }
+
+    @Test
+    public void shouldReuseReleasedBuffers() throws Throwable
+    {
+        // Given
+        ByteBuffer buffer = pool.acquire( 4000 );
+        buffer.putInt( 42 );
+
+        // When
+        pool.release( buffer );
+        ByteBuffer reused = pool.acquire( 3000 );
+
+        // Then
+        assertThat( reused, sameInstance( buffer ) );
+        assertThat( reused.position(), equalTo( 0 ) );
+        assertThat( reused.remaining(), equalTo( 4096 ) );
+        assertThat( pool.available( 4096 ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldHandOutDirectBuffersUpToLargestClassOnly() throws Throwable
+    {
+        // When
+        ByteBuffer large = pool.acquire( 100 * 1024 );
+        pool.release( large );
+
+        // Then
+        assertTrue( pool.acquire( 64 * 1024 ).isDirect() );
+        assertFalse( large.isDirect() );
+        assertThat( pool.available( 100 * 1024 ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldIgnoreBuffersNotFromThePool() throws Throwable
+    {
+        // When
+        pool.release( ByteBuffer.allocate( 1024 ) );
+        pool.release( ByteBuffer.allocateDirect( 1000 ) );
+
+        // Then
+        assertThat( pool.available( 1024 ), equalTo( 0 ) );
+    }
+
+    @Test
+    public void shouldRetainBoundedNumberOfBuffers() throws Throwable
+    {
+        // When more 64 KB buffers are released than the pool keeps
+        for ( int i = 0; i < 100; i++ )
+        {
+            pool.release( ByteBuffer.allocateDirect( 64 * 1024 ) );
+        }
+
+        // Then
+        assertThat( pool.available( 64 * 1024 ), equalTo( 16 ) );
+    }
+}
@@ -21,12 +21,17 @@ package org.neo4j.driver.v1.util;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Session;
 import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.async.RecordListener;
+import org.neo4j.driver.v1.async.ResponseFuture;
+import org.neo4j.driver.v1.summary.ResultSummary;
 import org.neo4j.driver.v1.types.TypeSystem;
 import org.neo4j.driver.v1.Value;
 
@@ -94,6 +99,12 @@ public class TestNeo4jSession extends TestNeo4j implements Session
         throw new UnsupportedOperationException( "Disallowed on this test session" );
     }
 
+    @Override
+    public ResponseFuture<Void> closeAsync()
+    {
+        throw new UnsupportedOperationException( "Disallowed on this test session" );
+    }
+
     @Override
     public Transaction beginTransaction()
     {
@@ -130,6 +141,24 @@ public class TestNeo4jSession extends TestNeo4j implements Session
         return realSession.run( statement.text(), statement.parameters() );
     }
 
+    @Override
+    public List<ResultSummary> runAll( Iterable<org.neo4j.driver.v1.Statement> statements )
+    {
+        return realSession.runAll( statements );
+    }
+
+    @Override
+    public List<ResultSummary> runAll( String statementTemplate, Iterator<? extends Map<String,Object>> parameters )
+    {
+        return realSession.runAll( statementTemplate, parameters );
+    }
+
+    @Override
+    public ResponseFuture<ResultSummary> runAsync( org.neo4j.driver.v1.Statement statement, RecordListener records )
+    {
+        return realSession.runAsync( statement, records );
+    }
+
     @Override
     public TypeSystem typeSystem()
     {